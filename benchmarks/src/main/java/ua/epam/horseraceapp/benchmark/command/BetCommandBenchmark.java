@@ -0,0 +1,339 @@
+package ua.epam.horseraceapp.benchmark.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.epam.horseraceapp.benchmark.servlet.MockHttpServletRequest;
+import ua.epam.horseraceapp.benchmark.servlet.MockHttpServletResponse;
+import ua.epam.horseraceapp.controller.command.AbstractCommand;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.entity.Bet;
+import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
+
+/**
+ * Latency of commands that change state of bets and races, executed in
+ * {@link CommandApplication} with mock request, response and session.
+ * <p>
+ * Every bet can change its state only once, so before each iteration
+ * {@value #BETS_PER_ITERATION} bets in required state are placed on new race
+ * and iteration is one invocation that uses them all up. Commands of one bet
+ * are executed for every bet, commands of group of {@value #GROUP_SIZE} bets
+ * are executed {@value #GROUPS_PER_ITERATION} times. Results are created for
+ * {@value #RACES_PER_ITERATION} new races. Time is reported per command.
+ * </p>
+ * <p>
+ * Every command chains to page that bookmaker or administrator sees next,
+ * so time of bet commands includes list of bets to view and time of result
+ * creation includes race information.
+ * </p>
+ * <p>
+ * Allocation per command is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Thread)
+public class BetCommandBenchmark {
+
+    /**
+     * Number of bets changed in one iteration.
+     */
+    static final int BETS_PER_ITERATION = 1000;
+    /**
+     * Number of bets changed by one command of group.
+     */
+    static final int GROUP_SIZE = 20;
+    /**
+     * Number of commands of group in one iteration.
+     */
+    static final int GROUPS_PER_ITERATION = BETS_PER_ITERATION / GROUP_SIZE;
+    /**
+     * Number of races that get result in one iteration.
+     */
+    static final int RACES_PER_ITERATION = 100;
+
+    /**
+     * Bets on new race that are used up by one iteration.
+     */
+    public abstract static class BetPool {
+
+        /**
+         * Identificators of bets as request parameters.
+         */
+        private final String[] betIds = new String[BETS_PER_ITERATION];
+
+        /**
+         * Places bets of random bettor on winner of new race.
+         *
+         * @param application application of commands
+         * @param resulted whether race gets result and bets are accepted
+         * after bets are placed
+         * @return identificators of placed bets
+         * @throws IllegalStateException if bets can't be placed
+         */
+        List<Integer> place(CommandApplication application, boolean resulted) {
+            BetDao betDao = application.getDaoFactory().createBetDao();
+            int[] contestantHorseIds = application.addRace();
+            int userId = application.randomBettorId();
+            for (int i = 0; i < BETS_PER_ITERATION; i++) {
+                if (betDao.placeBet(userId, 1, contestantHorseIds[0]) != BetPlacementResult.SUCCESS) {
+                    throw new IllegalStateException("Can't place bet of user " + userId);
+                }
+            }
+            List<Bet> waitingBets = betDao.findUnviewedBets();
+            List<Integer> ids = new ArrayList<>(BETS_PER_ITERATION);
+            for (Bet bet : waitingBets.subList(waitingBets.size() - BETS_PER_ITERATION, waitingBets.size())) {
+                ids.add(bet.getId());
+            }
+            if (resulted) {
+                List<ContestantHorse> horsesInPositionOrder = new ArrayList<>();
+                for (int contestantHorseId : contestantHorseIds) {
+                    ContestantHorse horse = new ContestantHorse();
+                    horse.setId(contestantHorseId);
+                    horsesInPositionOrder.add(horse);
+                }
+                application.getDaoFactory().createContestantHorseDao().setResults(horsesInPositionOrder);
+                betDao.acceptBets(ids);
+            }
+            for (int i = 0; i < BETS_PER_ITERATION; i++) {
+                betIds[i] = String.valueOf(ids.get(i));
+            }
+            return ids;
+        }
+
+        /**
+         * Get bet by its number in pool.
+         *
+         * @param index number of bet
+         * @return bet identificator as request parameter
+         */
+        String betId(int index) {
+            return betIds[index];
+        }
+
+        /**
+         * Get group of bets by its number in pool.
+         *
+         * @param index number of group
+         * @return bet identificators as request parameter values
+         */
+        String[] group(int index) {
+            String[] group = new String[GROUP_SIZE];
+            System.arraycopy(betIds, index * GROUP_SIZE, group, 0, GROUP_SIZE);
+            return group;
+        }
+    }
+
+    /**
+     * Bets that wait for accept.
+     */
+    @State(Scope.Thread)
+    public static class WaitingBets extends BetPool {
+
+        @Setup(Level.Iteration)
+        public void fill(CommandApplication application) {
+            place(application, false);
+        }
+    }
+
+    /**
+     * Accepted bets on race with result.
+     */
+    @State(Scope.Thread)
+    public static class ResultedBets extends BetPool {
+
+        @Setup(Level.Iteration)
+        public void fill(CommandApplication application) {
+            place(application, true);
+        }
+    }
+
+    /**
+     * Won bets that wait for pay.
+     */
+    @State(Scope.Thread)
+    public static class WonBets extends BetPool {
+
+        @Setup(Level.Iteration)
+        public void fill(CommandApplication application) {
+            List<Integer> ids = place(application, true);
+            application.getDaoFactory().createBetDao().settleBets(ids);
+        }
+    }
+
+    /**
+     * Races without result that are used up by one iteration.
+     */
+    @State(Scope.Thread)
+    public static class OpenRaces {
+
+        /**
+         * Identificators of races as request parameters.
+         */
+        private final String[] raceIds = new String[RACES_PER_ITERATION];
+
+        @Setup(Level.Iteration)
+        public void fill(CommandApplication application) {
+            for (int i = 0; i < RACES_PER_ITERATION; i++) {
+                int[] contestantHorseIds = application.addRace();
+                raceIds[i] = String.valueOf(application.getDaoFactory().createRaceDao()
+                        .getRaceIdByContestantHorseId(contestantHorseIds[0]));
+            }
+        }
+
+        /**
+         * Get race by its number.
+         *
+         * @param index number of race
+         * @return race identificator as request parameter
+         */
+        String raceId(int index) {
+            return raceIds[index];
+        }
+    }
+
+    /**
+     * Response of all commands.
+     */
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    /**
+     * Request of logged in bookmaker.
+     */
+    private MockHttpServletRequest bookmakerRequest;
+    /**
+     * Request of logged in administrator.
+     */
+    private MockHttpServletRequest adminRequest;
+
+    /**
+     * Creates requests of logged in users.
+     *
+     * @param application application of commands
+     */
+    @Setup(Level.Trial)
+    public void setUp(CommandApplication application) {
+        bookmakerRequest = new MockHttpServletRequest(application.logIn(application.getBookmaker()));
+        adminRequest = new MockHttpServletRequest(application.logIn(application.getAdmin()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void acceptBet(CommandApplication application, WaitingBets bets, Blackhole blackhole) {
+        executeForBets(application.getCommand("accept_bet"), bets, null, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void declineBet(CommandApplication application, WaitingBets bets, Blackhole blackhole) {
+        executeForBets(application.getCommand("decline_bet"), bets, null, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void determineBetLose(CommandApplication application, ResultedBets bets, Blackhole blackhole) {
+        executeForBets(application.getCommand("determine_bet_result"), bets, "2", blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void determineBetWin(CommandApplication application, ResultedBets bets, Blackhole blackhole) {
+        executeForBets(application.getCommand("determine_bet_result"), bets, "1", blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void payBet(CommandApplication application, WonBets bets, Blackhole blackhole) {
+        executeForBets(application.getCommand("pay_bet"), bets, null, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GROUPS_PER_ITERATION)
+    public void acceptBets(CommandApplication application, WaitingBets bets, Blackhole blackhole) {
+        executeForGroups(application.getCommand("accept_bets"), bets, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GROUPS_PER_ITERATION)
+    public void declineBets(CommandApplication application, WaitingBets bets, Blackhole blackhole) {
+        executeForGroups(application.getCommand("decline_bets"), bets, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GROUPS_PER_ITERATION)
+    public void settleBets(CommandApplication application, ResultedBets bets, Blackhole blackhole) {
+        executeForGroups(application.getCommand("settle_bets"), bets, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GROUPS_PER_ITERATION)
+    public void payBets(CommandApplication application, WonBets bets, Blackhole blackhole) {
+        executeForGroups(application.getCommand("pay_bets"), bets, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RACES_PER_ITERATION)
+    public void createResult(CommandApplication application, OpenRaces races, Blackhole blackhole) {
+        AbstractCommand command = application.getCommand("create_result");
+        for (int i = 0; i < RACES_PER_ITERATION; i++) {
+            adminRequest.clearAttributes();
+            response.reset();
+            blackhole.consume(command.execute(adminRequest.setParameter("race_id", races.raceId(i)), response));
+        }
+    }
+
+    /**
+     * Executes command of one bet for every bet of pool as bookmaker.
+     *
+     * @param command command to execute
+     * @param bets pool of bets
+     * @param position position of horse of bet to give to command, or
+     * <code>null</code> if command needs no position
+     * @param blackhole consumer of command results
+     */
+    private void executeForBets(AbstractCommand command, BetPool bets, String position, Blackhole blackhole) {
+        if (position != null) {
+            bookmakerRequest.setParameter("position", position);
+        }
+        for (int i = 0; i < BETS_PER_ITERATION; i++) {
+            bookmakerRequest.clearAttributes();
+            response.reset();
+            blackhole.consume(command.execute(bookmakerRequest.setParameter("bet_id", bets.betId(i)), response));
+        }
+    }
+
+    /**
+     * Executes command of group of bets for every group of pool as
+     * bookmaker.
+     *
+     * @param command command to execute
+     * @param bets pool of bets
+     * @param blackhole consumer of command results
+     */
+    private void executeForGroups(AbstractCommand command, BetPool bets, Blackhole blackhole) {
+        for (int i = 0; i < GROUPS_PER_ITERATION; i++) {
+            bookmakerRequest.clearAttributes();
+            response.reset();
+            blackhole.consume(command.execute(bookmakerRequest.setParameter("bet_id", bets.group(i)), response));
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package ua.epam.horseraceapp.benchmark.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ua.epam.horseraceapp.benchmark.servlet.MockHttpSession;
+import ua.epam.horseraceapp.controller.command.AbstractCommand;
+import ua.epam.horseraceapp.controller.command.CommandFactory;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.DaoFactory;
+import ua.epam.horseraceapp.util.dao.DaoFactory.DaoType;
+import ua.epam.horseraceapp.util.dao.UserDao;
+import ua.epam.horseraceapp.util.dao.entity.Bet;
+import ua.epam.horseraceapp.util.dao.entity.User;
+import ua.epam.horseraceapp.util.dao.entity.UserType;
+import ua.epam.horseraceapp.util.dao.memory.InMemoryDaoFactory;
+import ua.epam.horseraceapp.util.dao.memory.InMemoryStore;
+
+/**
+ * Horserace application that benchmarked commands run in.
+ * <p>
+ * Before first command is created, DAO type is set to
+ * {@link DaoType#InMemory} with store in temporary directory, so commands
+ * run without servlet container and database server and benchmarks measure
+ * commands themselves. Store is filled with {@value #RACES} races of
+ * {@value #HORSES_IN_RACE} horses, half of them with results, and
+ * {@value #USERS} bettors with {@value #BETS_PER_USER} bets each, every
+ * second of them accepted. There are also one bookmaker and one
+ * administrator.
+ * </p>
+ * <p>
+ * Sessions of logged in users are created by {@link #logIn(User)}.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@State(Scope.Benchmark)
+public class CommandApplication {
+
+    /**
+     * Number of races.
+     */
+    static final int RACES = 1000;
+    /**
+     * Number of horses in each race.
+     */
+    static final int HORSES_IN_RACE = 8;
+    /**
+     * Number of horses that races are made of.
+     */
+    static final int HORSES = 200;
+    /**
+     * Number of bettors.
+     */
+    static final int USERS = 10000;
+    /**
+     * Number of bets of each bettor.
+     */
+    static final int BETS_PER_USER = 10;
+    /**
+     * Initial balance of every user, large enough to never run out during
+     * benchmark.
+     */
+    static final int BALANCE = 1000000000;
+    /**
+     * Password of every user.
+     */
+    static final String PASSWORD = "password";
+    /**
+     * Session attribute with logged in user.
+     */
+    private static final String USER_ATTRIBUTE = "user";
+
+    /**
+     * Directory of in-memory store.
+     */
+    private File directory;
+    /**
+     * Factory of commands.
+     */
+    private CommandFactory commands;
+    /**
+     * Factory of DAO that work with store directly.
+     */
+    private DaoFactory daoFactory;
+    /**
+     * Store with application data.
+     */
+    private InMemoryStore store;
+    /**
+     * Identificators of horses that races are made of.
+     */
+    private int[] horseIds;
+    /**
+     * Identificators of races as request parameters.
+     */
+    private final List<String> raceIds = new ArrayList<>();
+    /**
+     * Identificators of contestant horses of races without result as
+     * request parameters.
+     */
+    private final List<String> openHorseIds = new ArrayList<>();
+    /**
+     * Identificators of bettors.
+     */
+    private int[] userIds;
+    /**
+     * Emails of bettors.
+     */
+    private String[] emails;
+    /**
+     * Bookmaker.
+     */
+    private User bookmaker;
+    /**
+     * Administrator.
+     */
+    private User admin;
+
+    /**
+     * Starts application and fills its store.
+     *
+     * @throws IOException if store directory can't be created
+     */
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        directory = Files.createTempDirectory("horserace-commands").toFile();
+        System.setProperty(DaoFactory.DAO_TYPE_PROPERTY, DaoType.InMemory.name());
+        System.setProperty(InMemoryDaoFactory.DIRECTORY_PROPERTY, directory.getPath());
+        daoFactory = DaoFactory.getInstance(DaoType.InMemory);
+        store = ((InMemoryDaoFactory) daoFactory).getStore();
+        AbstractCommand.initializeFactory();
+        commands = CommandFactory.getInstance();
+        seed();
+    }
+
+    /**
+     * Stops application and deletes its store.
+     *
+     * @throws IOException if store directory can't be deleted
+     */
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        commands.destroy();
+        AbstractCommand.closeFactory();
+        store.close();
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Get command the way controller gets it.
+     *
+     * @param name command name
+     * @return command
+     */
+    public AbstractCommand getCommand(String name) {
+        return commands.getCommand(name);
+    }
+
+    /**
+     * Get factory of DAO that work with application store directly, to
+     * prepare data for commands.
+     *
+     * @return DAO factory
+     */
+    public DaoFactory getDaoFactory() {
+        return daoFactory;
+    }
+
+    /**
+     * Creates session of logged in user.
+     *
+     * @param user user to log in
+     * @return session with user
+     */
+    public MockHttpSession logIn(User user) {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(USER_ATTRIBUTE, user);
+        return session;
+    }
+
+    /**
+     * Get random bettor.
+     *
+     * @return bettor as stored now
+     */
+    public User randomBettor() {
+        return daoFactory.createUserDao().getUserById(randomBettorId());
+    }
+
+    /**
+     * Get identificator of random bettor.
+     *
+     * @return user identificator
+     */
+    public int randomBettorId() {
+        return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+    }
+
+    /**
+     * Get email of random bettor.
+     *
+     * @return user email
+     */
+    public String randomEmail() {
+        return emails[ThreadLocalRandom.current().nextInt(emails.length)];
+    }
+
+    /**
+     * Get bookmaker.
+     *
+     * @return bookmaker
+     */
+    public User getBookmaker() {
+        return bookmaker;
+    }
+
+    /**
+     * Get administrator.
+     *
+     * @return administrator
+     */
+    public User getAdmin() {
+        return admin;
+    }
+
+    /**
+     * Get identificator of random race.
+     *
+     * @return race identificator as request parameter
+     */
+    public String randomRaceId() {
+        return raceIds.get(ThreadLocalRandom.current().nextInt(raceIds.size()));
+    }
+
+    /**
+     * Get identificator of random contestant horse of race without result.
+     *
+     * @return contestant horse identificator as request parameter
+     */
+    public String randomOpenHorseId() {
+        return openHorseIds.get(ThreadLocalRandom.current().nextInt(openHorseIds.size()));
+    }
+
+    /**
+     * Adds race that starts in future.
+     * <p>
+     * Race is not among races of {@link #randomRaceId()}.
+     * </p>
+     *
+     * @return identificators of contestant horses of race
+     */
+    public int[] addRace() {
+        return addRace(new Timestamp(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+    }
+
+    /**
+     * Adds race with given start time.
+     *
+     * @param startTime start time of race
+     * @return identificators of contestant horses of race
+     */
+    private int[] addRace(Timestamp startTime) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer raceId = store.addRace(startTime, "Hippodrome", 1000 + 200 * random.nextInt(10));
+        int[] contestantHorseIds = new int[HORSES_IN_RACE];
+        int firstHorse = random.nextInt(horseIds.length);
+        for (int i = 0; i < HORSES_IN_RACE; i++) {
+            contestantHorseIds[i] = store.addContestantHorse(raceId,
+                    horseIds[(firstHorse + i) % horseIds.length], 1.5 + random.nextInt(40) / 4.0);
+        }
+        return contestantHorseIds;
+    }
+
+    /**
+     * Fills store with horses, races, users and bets.
+     *
+     * @throws IllegalStateException if data can't be added
+     */
+    private void seed() {
+        horseIds = new int[HORSES];
+        for (int i = 0; i < HORSES; i++) {
+            horseIds[i] = store.addHorse("Horse " + i);
+        }
+        ContestantHorseDao contestantHorseDao = daoFactory.createContestantHorseDao();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < RACES; i++) {
+            boolean resulted = i < RACES / 2;
+            Timestamp startTime = new Timestamp(now + (resulted ? -1 : 1) * TimeUnit.HOURS.toMillis(i + 1));
+            int[] contestantHorseIds = addRace(startTime);
+            Integer raceId = daoFactory.createRaceDao().getRaceIdByContestantHorseId(contestantHorseIds[0]);
+            raceIds.add(String.valueOf(raceId));
+            if (resulted) {
+                contestantHorseDao.setResults(contestantHorseDao.findAllHorsesByRaceId(raceId));
+            } else {
+                for (int contestantHorseId : contestantHorseIds) {
+                    openHorseIds.add(String.valueOf(contestantHorseId));
+                }
+            }
+        }
+
+        UserDao userDao = daoFactory.createUserDao();
+        userIds = new int[USERS];
+        emails = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            emails[i] = "bettor" + i + "@horserace.test";
+            userIds[i] = registerUser(userDao, emails[i], UserType.USER).getId();
+        }
+        bookmaker = registerUser(userDao, "bookmaker@horserace.test", UserType.BOOKMAKER);
+        admin = registerUser(userDao, "admin@horserace.test", UserType.ADMIN);
+
+        BetDao betDao = daoFactory.createBetDao();
+        for (int userId : userIds) {
+            for (int i = 0; i < BETS_PER_USER; i++) {
+                if (betDao.placeBet(userId, 10, Integer.valueOf(randomOpenHorseId())) != BetPlacementResult.SUCCESS) {
+                    throw new IllegalStateException("Can't place bet of user " + userId);
+                }
+            }
+        }
+        List<Integer> acceptedBetIds = new ArrayList<>();
+        List<Bet> waitingBets = betDao.findUnviewedBets();
+        for (int i = 0; i < waitingBets.size(); i += 2) {
+            acceptedBetIds.add(waitingBets.get(i).getId());
+        }
+        betDao.acceptBets(acceptedBetIds);
+    }
+
+    /**
+     * Registers user with {@value #PASSWORD} password and {@value #BALANCE}
+     * balance.
+     *
+     * @param userDao user DAO
+     * @param email user email
+     * @param type user type
+     * @return registered user
+     * @throws IllegalStateException if user can't be registered
+     */
+    private static User registerUser(UserDao userDao, String email, UserType type) {
+        User user = new User(null, "First", "Last", email, PASSWORD, BALANCE, type);
+        if (!userDao.registerUser(user)) {
+            throw new IllegalStateException("Can't register user " + email);
+        }
+        return userDao.getUserByEmail(email);
+    }
+}
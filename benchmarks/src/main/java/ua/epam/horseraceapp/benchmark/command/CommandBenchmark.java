@@ -0,0 +1,254 @@
+package ua.epam.horseraceapp.benchmark.command;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.epam.horseraceapp.benchmark.servlet.MockHttpServletRequest;
+import ua.epam.horseraceapp.benchmark.servlet.MockHttpServletResponse;
+import ua.epam.horseraceapp.controller.HorseraceAppController;
+import ua.epam.horseraceapp.controller.command.AbstractCommand;
+
+/**
+ * Latency of commands that can be repeated on the same data, executed in
+ * {@link CommandApplication} with mock request, response and session.
+ * <p>
+ * Commands are executed the way controller executes them, so time of
+ * command includes commands it chains to: registration logs user in, bet
+ * making shows user bets. Command lookup and whole controller request
+ * processing without JSP rendering are measured separately.
+ * </p>
+ * <p>
+ * Allocation per command is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Thread)
+public class CommandBenchmark {
+
+    /**
+     * Controller that lets request be processed without servlet container.
+     */
+    static class Controller extends HorseraceAppController {
+
+        /**
+         * Processes request as controller does for both <code>GET</code> and
+         * <code>POST</code> methods.
+         *
+         * @param request servlet request
+         * @param response servlet response
+         * @throws ServletException if a servlet-specific error occurs
+         * @throws IOException if an I/O error occurs
+         */
+        void process(HttpServletRequest request, HttpServletResponse response)
+                throws ServletException, IOException {
+            processRequest(request, response);
+        }
+    }
+
+    /**
+     * Response of all commands.
+     */
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    /**
+     * Request of user that is not logged in.
+     */
+    private final MockHttpServletRequest guestRequest = new MockHttpServletRequest();
+    /**
+     * Request of logged in bettor.
+     */
+    private MockHttpServletRequest bettorRequest;
+    /**
+     * Request of logged in bookmaker.
+     */
+    private MockHttpServletRequest bookmakerRequest;
+    /**
+     * Request of logged in administrator.
+     */
+    private MockHttpServletRequest adminRequest;
+    /**
+     * Controller.
+     */
+    private Controller controller;
+    /**
+     * Prefix of emails of registered users, unique for trial.
+     */
+    private String emailPrefix;
+    /**
+     * Number of last registered user.
+     */
+    private long registered;
+
+    /**
+     * Command of list of races.
+     */
+    private AbstractCommand getAllRaces;
+    /**
+     * Command of race information.
+     */
+    private AbstractCommand raceInfo;
+    /**
+     * Command of list of races without result.
+     */
+    private AbstractCommand unresultedRaces;
+    /**
+     * Command of user bets.
+     */
+    private AbstractCommand userBets;
+    /**
+     * Command of list of bets to view by bookmaker.
+     */
+    private AbstractCommand unviewedBets;
+    /**
+     * Command of logging in.
+     */
+    private AbstractCommand logIn;
+    /**
+     * Command of logging out.
+     */
+    private AbstractCommand logOut;
+    /**
+     * Command of registration.
+     */
+    private AbstractCommand register;
+    /**
+     * Command of balance recharge.
+     */
+    private AbstractCommand recharge;
+    /**
+     * Command of bet making.
+     */
+    private AbstractCommand makeBet;
+
+    /**
+     * Creates requests of logged in users and gets commands.
+     *
+     * @param application application of commands
+     */
+    @Setup(Level.Trial)
+    public void setUp(CommandApplication application) {
+        bettorRequest = new MockHttpServletRequest(application.logIn(application.randomBettor()));
+        bookmakerRequest = new MockHttpServletRequest(application.logIn(application.getBookmaker()));
+        adminRequest = new MockHttpServletRequest(application.logIn(application.getAdmin()));
+        controller = new Controller();
+        emailPrefix = "registered" + System.currentTimeMillis() + "n";
+
+        getAllRaces = application.getCommand("get_races");
+        raceInfo = application.getCommand("race_info");
+        unresultedRaces = application.getCommand("unresulted_races");
+        userBets = application.getCommand("get_user_bets");
+        unviewedBets = application.getCommand("unviewed_bets");
+        logIn = application.getCommand("login");
+        logOut = application.getCommand("logout");
+        register = application.getCommand("register");
+        recharge = application.getCommand("recharge");
+        makeBet = application.getCommand("make_bet");
+    }
+
+    @Benchmark
+    public AbstractCommand getCommand(CommandApplication application) {
+        return application.getCommand("race_info");
+    }
+
+    @Benchmark
+    public String processRequest(CommandApplication application) throws ServletException, IOException {
+        MockHttpServletRequest request = prepare(guestRequest)
+                .setParameter("command", "race_info")
+                .setParameter("race_id", application.randomRaceId());
+        controller.process(request, response);
+        return request.getForwardPath();
+    }
+
+    @Benchmark
+    public String getAllRaces() {
+        return getAllRaces.execute(prepare(guestRequest), response);
+    }
+
+    @Benchmark
+    public String raceInfo(CommandApplication application) {
+        return raceInfo.execute(prepare(guestRequest).setParameter("race_id", application.randomRaceId()), response);
+    }
+
+    @Benchmark
+    public String unresultedRaces() {
+        return unresultedRaces.execute(prepare(adminRequest), response);
+    }
+
+    @Benchmark
+    public String userBets() {
+        return userBets.execute(prepare(bettorRequest), response);
+    }
+
+    @Benchmark
+    public String unviewedBets() {
+        return unviewedBets.execute(prepare(bookmakerRequest), response);
+    }
+
+    @Benchmark
+    public String logIn(CommandApplication application) {
+        MockHttpServletRequest request = prepare(guestRequest)
+                .setParameter("email", application.randomEmail())
+                .setParameter("password", CommandApplication.PASSWORD);
+        return logIn.execute(request, response);
+    }
+
+    @Benchmark
+    public String logOut() {
+        return logOut.execute(prepare(guestRequest), response);
+    }
+
+    @Benchmark
+    public String register() {
+        MockHttpServletRequest request = prepare(guestRequest)
+                .setParameter("email", emailPrefix + (++registered) + "@horserace.test")
+                .setParameter("first_name", "First")
+                .setParameter("last_name", "Last")
+                .setParameter("password", CommandApplication.PASSWORD)
+                .setParameter("password_repeat", CommandApplication.PASSWORD);
+        return register.execute(request, response);
+    }
+
+    @Benchmark
+    public String recharge() {
+        return recharge.execute(prepare(bettorRequest), response);
+    }
+
+    @Benchmark
+    public String makeBet(CommandApplication application) {
+        MockHttpServletRequest request = prepare(bettorRequest)
+                .setParameter("contestant_horse_id", application.randomOpenHorseId())
+                .setParameter("amount", "1");
+        return makeBet.execute(request, response);
+    }
+
+    /**
+     * Prepares request and response for next command.
+     *
+     * @param request request to prepare
+     * @return given request
+     */
+    private MockHttpServletRequest prepare(MockHttpServletRequest request) {
+        request.clearAttributes();
+        response.reset();
+        return request;
+    }
+}
@@ -0,0 +1,215 @@
+package ua.epam.horseraceapp.benchmark.concurrent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.epam.horseraceapp.util.concurrent.VirtualThreads;
+import ua.epam.horseraceapp.util.connection.ConnectionManager;
+import ua.epam.horseraceapp.util.connection.PooledConnectionManager;
+import ua.epam.horseraceapp.util.connection.SemaphoreConnectionManager;
+
+/**
+ * Time of serving {@value #SESSIONS} sessions that send request at once, on
+ * platform threads and on virtual threads.
+ * <p>
+ * Executors are set up the way asynchronous controller sets them up by
+ * default: {@value #PLATFORM_THREADS} platform threads, or virtual thread per
+ * request. Platform executor queues all requests instead of rejecting them,
+ * so both executors serve every session. Connections are limited to
+ * {@value #CONNECTIONS} by {@link SemaphoreConnectionManager} over built-in
+ * pool.
+ * </p>
+ * <p>
+ * Request of every session makes one database call that takes
+ * <code>latencyMillis</code> in database, as call to remote database does;
+ * database is in-memory H2 that sleeps in stored function. Time is reported
+ * per request, so time to serve all sessions is {@value #SESSIONS} times
+ * greater. Allocation per request is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ * <p>
+ * Virtual threads need Java 21 or later. On older runtime
+ * <code>virtual</code> executor falls back to platform threads, as
+ * controller does, and warning is logged.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ConcurrentSessionsBenchmark {
+
+    /**
+     * Number of sessions that send request at once.
+     */
+    static final int SESSIONS = 10000;
+    /**
+     * Number of platform threads, default of asynchronous controller.
+     */
+    static final int PLATFORM_THREADS = 50;
+    /**
+     * Largest number of connections held at once.
+     */
+    static final int CONNECTIONS = 100;
+    /**
+     * Database call of request.
+     */
+    private static final String REQUEST_QUERY = "CALL SLEEP(?)";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Logger.getLogger(ConcurrentSessionsBenchmark.class);
+
+    /**
+     * Threads that serve requests: <code>platform</code> or
+     * <code>virtual</code>.
+     */
+    @Param({"platform", "virtual"})
+    public String threads;
+    /**
+     * Time of database call of request in milliseconds.
+     */
+    @Param({"5"})
+    public long latencyMillis;
+
+    /**
+     * Executor of requests.
+     */
+    private ExecutorService executor;
+    /**
+     * Connection manager of requests.
+     */
+    private ConnectionManager connectionManager;
+
+    /**
+     * Creates executor and connection pool and opens all connections.
+     *
+     * @throws SQLException if database can't be prepared
+     * @throws InterruptedException if interrupted while connections are
+     * opened
+     * @throws IllegalArgumentException if threads are unknown
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, InterruptedException {
+        switch (threads) {
+            case "platform":
+                executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+                break;
+            case "virtual":
+                if (VirtualThreads.isSupported()) {
+                    executor = VirtualThreads.newThreadPerTaskExecutor("session-");
+                } else {
+                    LOG.warn("Runtime has no virtual threads, requests run on platform threads");
+                    executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown threads " + threads);
+        }
+
+        connectionManager = new SemaphoreConnectionManager("sessions",
+                new PooledConnectionManager("jdbc:h2:mem:sessions;DB_CLOSE_DELAY=-1", "sa", "",
+                        CONNECTIONS, 10000, TimeUnit.MINUTES.toMillis(10), 2),
+                CONNECTIONS, TimeUnit.MINUTES.toMillis(1));
+        try (Connection connection = connectionManager.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE ALIAS IF NOT EXISTS SLEEP FOR 'java.lang.Thread.sleep(long)'");
+        }
+        serveSessions(CONNECTIONS, 0);
+    }
+
+    /**
+     * Stops executor and closes connection pool.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        connectionManager.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SESSIONS)
+    public int serveSessions() throws InterruptedException {
+        return serveSessions(SESSIONS, latencyMillis);
+    }
+
+    /**
+     * Sends requests of given number of sessions at once and waits until
+     * all of them are served.
+     *
+     * @param sessions number of sessions
+     * @param latency time of database call of request in milliseconds
+     * @return number of served requests
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if some request failed
+     */
+    private int serveSessions(int sessions, long latency) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(sessions);
+        AtomicInteger served = new AtomicInteger();
+        for (int i = 0; i < sessions; i++) {
+            executor.execute(() -> {
+                try {
+                    if (serveRequest(latency)) {
+                        served.incrementAndGet();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        if (served.get() != sessions) {
+            throw new IllegalStateException((sessions - served.get()) + " of " + sessions + " requests failed");
+        }
+        return served.get();
+    }
+
+    /**
+     * Serves request of one session.
+     *
+     * @param latency time of database call in milliseconds
+     * @return <code>true</code> if request was served. Otherwise
+     * <code>false</code>
+     */
+    private boolean serveRequest(long latency) {
+        try (Connection connection = connectionManager.getConnection()) {
+            if (connection == null) {
+                return false;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(REQUEST_QUERY)) {
+                statement.setLong(1, latency);
+                statement.execute();
+                return true;
+            }
+        } catch (SQLException ex) {
+            LOG.error("Request failed", ex);
+            return false;
+        }
+    }
+}
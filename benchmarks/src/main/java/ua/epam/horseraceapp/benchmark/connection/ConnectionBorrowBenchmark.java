@@ -0,0 +1,132 @@
+package ua.epam.horseraceapp.benchmark.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.epam.horseraceapp.util.connection.ConnectionManager;
+import ua.epam.horseraceapp.util.connection.PooledConnectionManager;
+
+/**
+ * Latency of borrowing connection from pool and returning it, for built-in
+ * pool of application and for container-like DBCP pool.
+ * <p>
+ * Both pools have the same size and wait time as container pool in
+ * <code>META-INF/context.xml</code>. Connections are borrowed by one thread
+ * and by as many threads as there are processors. Latency distribution is
+ * reported, so waits of contended borrowing show up in high percentiles.
+ * </p>
+ * <p>
+ * Database is in-memory H2 by default, so time of pool itself is measured.
+ * Other database is set by system properties
+ * <code>horserace.bench.pool.url</code>, <code>horserace.bench.pool.user</code>
+ * and <code>horserace.bench.pool.password</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ConnectionBorrowBenchmark {
+
+    /**
+     * Prefix of system properties that set database of pools.
+     */
+    static final String PROPERTY_PREFIX = "horserace.bench.pool.";
+
+    /**
+     * Benchmarked pool: <code>builtin</code> for
+     * {@link PooledConnectionManager}, <code>container</code> for
+     * {@link DataSourceConnectionManager}.
+     */
+    @Param({"builtin", "container"})
+    public String pool;
+    /**
+     * Largest number of opened connections.
+     */
+    @Param({"100"})
+    public int maxSize;
+
+    /**
+     * Connection manager of benchmarked pool.
+     */
+    private ConnectionManager connectionManager;
+
+    /**
+     * Creates pool.
+     *
+     * @throws IllegalArgumentException if pool name is unknown
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty(PROPERTY_PREFIX + "url", "jdbc:h2:mem:borrow;DB_CLOSE_DELAY=-1");
+        String user = System.getProperty(PROPERTY_PREFIX + "user", "sa");
+        String password = System.getProperty(PROPERTY_PREFIX + "password", "");
+        long maxWaitMillis = 10000;
+        switch (pool) {
+            case "builtin":
+                connectionManager = new PooledConnectionManager(url, user, password, maxSize,
+                        maxWaitMillis, TimeUnit.MINUTES.toMillis(10), 2);
+                break;
+            case "container":
+                connectionManager = new DataSourceConnectionManager(url, user, password,
+                        maxSize, maxWaitMillis);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown pool " + pool);
+        }
+    }
+
+    /**
+     * Closes pool.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionManager.close();
+    }
+
+    @Benchmark
+    public boolean borrow() throws SQLException {
+        return borrowAndReturn();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean borrowContended() throws SQLException {
+        return borrowAndReturn();
+    }
+
+    /**
+     * Borrows connection and returns it to pool.
+     *
+     * @return whether connection is in auto-commit mode, which drivers know
+     * without query
+     * @throws SQLException if connection can't be used
+     * @throws IllegalStateException if pool gave no connection
+     */
+    private boolean borrowAndReturn() throws SQLException {
+        try (Connection connection = connectionManager.getConnection()) {
+            if (connection == null) {
+                throw new IllegalStateException("Pool gave no connection");
+            }
+            return connection.getAutoCommit();
+        }
+    }
+}
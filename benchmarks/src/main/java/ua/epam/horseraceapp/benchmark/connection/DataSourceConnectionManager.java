@@ -0,0 +1,77 @@
+package ua.epam.horseraceapp.benchmark.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.connection.ConnectionManager;
+
+/**
+ * Connection manager that takes connections from DBCP pool configured the
+ * way servlet container configures pool of <code>META-INF/context.xml</code>.
+ * <p>
+ * Stands for container pool that {@link
+ * ua.epam.horseraceapp.util.connection.MySqlConnectionManager} looks up by
+ * JNDI, which is not available without servlet container.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class DataSourceConnectionManager extends ConnectionManager {
+
+    /**
+     * Largest number of idle connections of container pool.
+     */
+    private static final int MAX_IDLE = 30;
+
+    /**
+     * Connection pool.
+     */
+    private final BasicDataSource dataSource = new BasicDataSource();
+
+    /**
+     * Creates connection manager with DBCP pool.
+     *
+     * @param url URL of database
+     * @param user database user
+     * @param password database user password
+     * @param maxSize largest number of opened connections
+     * @param maxWaitMillis longest time to wait for connection when all
+     * connections are used
+     */
+    public DataSourceConnectionManager(String url, String user, String password,
+            int maxSize, long maxWaitMillis) {
+        dataSource.setUrl(url);
+        dataSource.setUsername(user);
+        dataSource.setPassword(password);
+        dataSource.setMaxTotal(maxSize);
+        dataSource.setMaxIdle(Math.min(MAX_IDLE, maxSize));
+        dataSource.setMaxWaitMillis(maxWaitMillis);
+    }
+
+    @Override
+    protected Connection openConnection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException ex) {
+            Logger log = Logger.getLogger(DataSourceConnectionManager.class);
+            log.error("Can't get connection from pool", ex);
+            return null;
+        }
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return dataSource.getNumIdle();
+    }
+
+    @Override
+    public void close() {
+        try {
+            dataSource.close();
+        } catch (SQLException ex) {
+            Logger log = Logger.getLogger(DataSourceConnectionManager.class);
+            log.error("Can't close connection pool", ex);
+        }
+    }
+}
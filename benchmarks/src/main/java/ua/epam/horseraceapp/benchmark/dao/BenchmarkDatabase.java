@@ -0,0 +1,560 @@
+package ua.epam.horseraceapp.benchmark.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ua.epam.horseraceapp.util.connection.ConnectionManager;
+import ua.epam.horseraceapp.util.connection.H2ConnectionManager;
+import ua.epam.horseraceapp.util.connection.PooledConnectionManager;
+import ua.epam.horseraceapp.util.dao.DaoFactory;
+import ua.epam.horseraceapp.util.dao.DaoFactory.DaoType;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
+import ua.epam.horseraceapp.util.dao.entity.UserType;
+import ua.epam.horseraceapp.util.dao.h2.DataSeeder;
+import ua.epam.horseraceapp.util.dao.h2.H2DaoFactory;
+import ua.epam.horseraceapp.util.dao.mysql.MySqlDaoFactory;
+
+/**
+ * Database that DAO benchmarks run against, seeded with data of production
+ * volumes.
+ * <p>
+ * Database is selected by system properties with prefix
+ * {@value #PROPERTY_PREFIX}:
+ * <ul>
+ * <li><code>dao</code> <code>H2</code> (default) or <code>MySQL</code></li>
+ * <li><code>h2.url</code> URL of H2 database, file database in working
+ * directory by default, so it is seeded only once</li>
+ * <li><code>races</code>, <code>users</code> and <code>bets</code> volumes
+ * of seeded data, {@value DataSeeder#DEFAULT_RACES} races,
+ * {@value DataSeeder#DEFAULT_USERS} users and
+ * {@value DataSeeder#DEFAULT_BETS} bets by default</li>
+ * </ul>
+ * MySQL database is reached through builtin connection pool, which is
+ * configured by system properties with prefix
+ * {@value PooledConnectionManager#PROPERTY_PREFIX}. Database that has no
+ * races is seeded by {@link DataSeeder} before first trial.
+ * </p>
+ * <p>
+ * Identificators of seeded rows are loaded once, so benchmarks pick
+ * arguments without touching database.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    /**
+     * Prefix of system properties that configure benchmark database.
+     */
+    public static final String PROPERTY_PREFIX = "horserace.bench.";
+
+    /**
+     * URL of default H2 database.
+     */
+    private static final String DEFAULT_H2_URL = "jdbc:h2:./horserace-bench;MODE=MySQL;"
+            + "DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER";
+    /**
+     * Number of races whose horses are loaded.
+     */
+    private static final int SAMPLED_RACES = 100;
+    /**
+     * Number of bets inserted by one batch.
+     */
+    private static final int BATCH_SIZE = 10000;
+
+    /**
+     * Query that is used to count races.
+     */
+    private final String COUNT_RACES_QUERY = "SELECT COUNT(*) FROM race";
+
+    /**
+     * Query that is used to select identificators and emails of users of
+     * given type.
+     */
+    private final String SELECT_USERS_QUERY = "SELECT u.id, u.email FROM user AS u "
+            + "JOIN user_type ON u.type_id = user_type.id WHERE user_type.user_type = ?";
+
+    /**
+     * Query that is used to select identificators of races without results.
+     */
+    private final String SELECT_OPEN_RACES_QUERY = "SELECT race.id FROM race WHERE "
+            + "EXISTS (SELECT 1 FROM contestant_horse AS ch WHERE ch.race_id = race.id "
+            + "AND ch.position IS NULL) ORDER BY race.id";
+
+    /**
+     * Query that is used to select identificators of races with results.
+     */
+    private final String SELECT_RESULTED_RACES_QUERY = "SELECT race.id FROM race WHERE "
+            + "NOT EXISTS (SELECT 1 FROM contestant_horse AS ch WHERE ch.race_id = race.id "
+            + "AND ch.position IS NULL) ORDER BY race.id";
+
+    /**
+     * Query that is used to select horses of race in position order.
+     */
+    private final String SELECT_RACE_HORSES_QUERY = "SELECT id FROM contestant_horse "
+            + "WHERE race_id = ? ORDER BY position, id";
+
+    /**
+     * Query that is used to select range of bet identificators.
+     */
+    private final String SELECT_BET_ID_RANGE_QUERY = "SELECT MIN(id), MAX(id) FROM bet";
+
+    /**
+     * Query that is used to insert bet in given state.
+     */
+    private final String INSERT_BET_QUERY = "INSERT INTO bet (state_id, owner_id, "
+            + "amount, contestant_horse_id) SELECT bet_state.id, ?, ?, ? FROM bet_state "
+            + "WHERE bet_state.state = ?";
+
+    /**
+     * Query that is used to select identificators of first horses.
+     */
+    private final String SELECT_HORSES_QUERY = "SELECT id FROM horse ORDER BY id LIMIT ?";
+
+    /**
+     * Query that is used to insert race.
+     */
+    private final String INSERT_RACE_QUERY = "INSERT INTO race (start_time, place, distance) VALUES (?, ?, ?)";
+
+    /**
+     * Query that is used to insert contestant horse without position.
+     */
+    private final String INSERT_CONTESTANT_HORSE_QUERY = "INSERT INTO contestant_horse "
+            + "(race_id, horse_id, coefficient) VALUES (?, ?, ?)";
+
+    /**
+     * Connection manager of benchmark database.
+     */
+    private ConnectionManager connectionManager;
+    /**
+     * Factory of DAO of benchmark database.
+     */
+    private DaoFactory factory;
+
+    /**
+     * Identificators of bettors.
+     */
+    private int[] userIds;
+    /**
+     * Emails of bettors.
+     */
+    private String[] emails;
+    /**
+     * Identificators of races with results.
+     */
+    private int[] resultedRaceIds;
+    /**
+     * Identificators of races without results.
+     */
+    private int[] openRaceIds;
+    /**
+     * Identificators of horses of sampled races with results.
+     */
+    private int[] resultedHorseIds;
+    /**
+     * Identificators of horses of sampled races without results.
+     */
+    private int[] openHorseIds;
+    /**
+     * Horses of sampled races with results in position order.
+     */
+    private List<List<ContestantHorse>> resultedRaceHorses;
+    /**
+     * Smallest identificator of bet.
+     */
+    private int firstBetId;
+    /**
+     * Largest identificator of bet.
+     */
+    private int lastBetId;
+
+    /**
+     * Opens database, seeds it if it is empty and loads identificators of
+     * seeded rows.
+     *
+     * @throws SQLException if database can't be read
+     */
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        DaoType type = DaoType.valueOf(System.getProperty(PROPERTY_PREFIX + "dao", DaoType.H2.name()));
+        switch (type) {
+            case H2:
+                H2ConnectionManager h2 = new H2ConnectionManager(
+                        System.getProperty(PROPERTY_PREFIX + "h2.url", DEFAULT_H2_URL));
+                connectionManager = h2;
+                factory = new H2DaoFactory(h2);
+                break;
+            case MySQL:
+                if (System.getProperty(MySqlDaoFactory.POOL_PROPERTY) == null) {
+                    System.setProperty(MySqlDaoFactory.POOL_PROPERTY, MySqlDaoFactory.BUILTIN_POOL);
+                }
+                connectionManager = PooledConnectionManager.fromSystemProperties();
+                factory = new MySqlDaoFactory();
+                break;
+            default:
+                throw new IllegalArgumentException("Database " + type + " can't be benchmarked");
+        }
+
+        seedIfEmpty();
+        factory.initialize();
+        loadIds();
+    }
+
+    /**
+     * Closes DAO factory and connection manager.
+     */
+    @TearDown(Level.Trial)
+    public void close() {
+        factory.close();
+        connectionManager.close();
+    }
+
+    /**
+     * Get factory of DAO of benchmark database.
+     *
+     * @return DAO factory
+     */
+    public DaoFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Get identificator of random bettor.
+     *
+     * @return user identificator
+     */
+    public Integer randomUserId() {
+        return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+    }
+
+    /**
+     * Get email of random bettor.
+     *
+     * @return user email
+     */
+    public String randomEmail() {
+        return emails[ThreadLocalRandom.current().nextInt(emails.length)];
+    }
+
+    /**
+     * Get identificator of random race.
+     *
+     * @return race identificator
+     */
+    public Integer randomRaceId() {
+        return ThreadLocalRandom.current().nextBoolean() ? randomResultedRaceId() : randomOpenRaceId();
+    }
+
+    /**
+     * Get identificator of random race with results.
+     *
+     * @return race identificator
+     */
+    public Integer randomResultedRaceId() {
+        return resultedRaceIds[ThreadLocalRandom.current().nextInt(resultedRaceIds.length)];
+    }
+
+    /**
+     * Get identificator of random race without results.
+     *
+     * @return race identificator
+     */
+    public Integer randomOpenRaceId() {
+        return openRaceIds[ThreadLocalRandom.current().nextInt(openRaceIds.length)];
+    }
+
+    /**
+     * Get identificator of random horse of race without results, on which
+     * bets can be made.
+     *
+     * @return contestant horse identificator
+     */
+    public Integer randomOpenHorseId() {
+        return openHorseIds[ThreadLocalRandom.current().nextInt(openHorseIds.length)];
+    }
+
+    /**
+     * Get identificator of random horse of race with or without results.
+     *
+     * @return contestant horse identificator
+     */
+    public Integer randomHorseId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return random.nextBoolean()
+                ? resultedHorseIds[random.nextInt(resultedHorseIds.length)]
+                : openHorseIds[random.nextInt(openHorseIds.length)];
+    }
+
+    /**
+     * Get horses of random race with results in position order.
+     *
+     * @return contestant horses
+     */
+    public List<ContestantHorse> randomResultedRaceHorses() {
+        return resultedRaceHorses.get(ThreadLocalRandom.current().nextInt(resultedRaceHorses.size()));
+    }
+
+    /**
+     * Get identificator of random seeded bet.
+     *
+     * @return bet identificator
+     */
+    public Integer randomBetId() {
+        return firstBetId + ThreadLocalRandom.current().nextInt(lastBetId - firstBetId + 1);
+    }
+
+    /**
+     * Inserts bets of random bettors in given state.
+     * <p>
+     * Used to prepare bets for benchmarks of state changes, as every bet can
+     * change its state only once.
+     * </p>
+     *
+     * @param state state of inserted bets
+     * @param resulted whether bets are made on horses of races with results
+     * @param count number of bets to insert
+     * @return identificators of inserted bets
+     * @throws SQLException if bets can't be inserted
+     */
+    public int[] insertBets(BetState state, boolean resulted, int count) throws SQLException {
+        int[] horseIds = resulted ? resultedHorseIds : openHorseIds;
+        int[] betIds = new int[count];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (Connection connection = connectionManager.getConnection();
+                PreparedStatement statement = connection.prepareStatement(INSERT_BET_QUERY,
+                        Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < count; i++) {
+                statement.setInt(1, randomUserId());
+                statement.setInt(2, 10);
+                statement.setInt(3, horseIds[random.nextInt(horseIds.length)]);
+                statement.setString(4, state.name());
+                statement.executeUpdate();
+                try (ResultSet rs = statement.getGeneratedKeys()) {
+                    rs.next();
+                    betIds[i] = rs.getInt(1);
+                }
+            }
+        }
+        return betIds;
+    }
+
+    /**
+     * Inserts race without result and bets of random bettors in given state
+     * on its horses.
+     * <p>
+     * Used to prepare race for benchmarks of setting results, as every race
+     * gets its result only once. Bets are spread evenly over horses and
+     * inserted in batches of {@value #BATCH_SIZE}.
+     * </p>
+     *
+     * @param horseCount number of horses of race
+     * @param state state of inserted bets
+     * @param betCount number of bets to insert
+     * @return horses of race, in order of their identificators
+     * @throws SQLException if race or bets can't be inserted
+     */
+    public List<ContestantHorse> insertRace(int horseCount, BetState state, int betCount) throws SQLException {
+        List<ContestantHorse> horses = new ArrayList<>(horseCount);
+        try (Connection connection = connectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int raceId;
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_RACE_QUERY,
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    statement.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                    statement.setString(2, "Benchmark");
+                    statement.setInt(3, 2000);
+                    statement.executeUpdate();
+                    try (ResultSet rs = statement.getGeneratedKeys()) {
+                        rs.next();
+                        raceId = rs.getInt(1);
+                    }
+                }
+                try (PreparedStatement horseStatement = connection.prepareStatement(SELECT_HORSES_QUERY);
+                        PreparedStatement statement = connection.prepareStatement(INSERT_CONTESTANT_HORSE_QUERY,
+                                Statement.RETURN_GENERATED_KEYS)) {
+                    horseStatement.setInt(1, horseCount);
+                    try (ResultSet horseIds = horseStatement.executeQuery()) {
+                        while (horseIds.next()) {
+                            statement.setInt(1, raceId);
+                            statement.setInt(2, horseIds.getInt(1));
+                            statement.setDouble(3, 2.5);
+                            statement.executeUpdate();
+                            try (ResultSet rs = statement.getGeneratedKeys()) {
+                                rs.next();
+                                ContestantHorse horse = new ContestantHorse();
+                                horse.setId(rs.getInt(1));
+                                horses.add(horse);
+                            }
+                        }
+                    }
+                }
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_BET_QUERY)) {
+                    for (int i = 1; i <= betCount; i++) {
+                        statement.setInt(1, randomUserId());
+                        statement.setInt(2, 10);
+                        statement.setInt(3, horses.get(i % horses.size()).getId());
+                        statement.setString(4, state.name());
+                        statement.addBatch();
+                        if ((i % BATCH_SIZE == 0) || (i == betCount)) {
+                            statement.executeBatch();
+                            connection.commit();
+                        }
+                    }
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        return horses;
+    }
+
+    /**
+     * Seeds database by {@link DataSeeder} if it has no races.
+     *
+     * @throws SQLException if database can't be read or seeded
+     */
+    private void seedIfEmpty() throws SQLException {
+        try (Connection connection = connectionManager.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(COUNT_RACES_QUERY)) {
+            rs.next();
+            if (rs.getInt(1) > 0) {
+                return;
+            }
+        }
+
+        Logger.getLogger(BenchmarkDatabase.class).info("Seeding benchmark database");
+        DataSeeder seeder = new DataSeeder(connectionManager,
+                Integer.getInteger(PROPERTY_PREFIX + "races", DataSeeder.DEFAULT_RACES),
+                Integer.getInteger(PROPERTY_PREFIX + "users", DataSeeder.DEFAULT_USERS),
+                Integer.getInteger(PROPERTY_PREFIX + "bets", DataSeeder.DEFAULT_BETS));
+        if (!seeder.seed()) {
+            throw new SQLException("Can't seed benchmark database");
+        }
+    }
+
+    /**
+     * Loads identificators of seeded rows.
+     *
+     * @throws SQLException if identificators can't be loaded
+     */
+    private void loadIds() throws SQLException {
+        try (Connection connection = connectionManager.getConnection()) {
+            List<Integer> ids = new ArrayList<>();
+            List<String> userEmails = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_USERS_QUERY)) {
+                statement.setString(1, UserType.USER.name());
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                        userEmails.add(rs.getString(2));
+                    }
+                }
+            }
+            userIds = toArray(ids);
+            emails = userEmails.toArray(new String[0]);
+
+            resultedRaceIds = selectRaceIds(connection, false);
+            openRaceIds = selectRaceIds(connection, true);
+
+            resultedRaceHorses = new ArrayList<>();
+            List<Integer> resultedHorses = new ArrayList<>();
+            for (int i = 0; (i < SAMPLED_RACES) && (i < resultedRaceIds.length); i++) {
+                List<ContestantHorse> horses = new ArrayList<>();
+                for (int horseId : selectRaceHorseIds(connection, resultedRaceIds[i])) {
+                    ContestantHorse horse = new ContestantHorse();
+                    horse.setId(horseId);
+                    horses.add(horse);
+                    resultedHorses.add(horseId);
+                }
+                resultedRaceHorses.add(horses);
+            }
+            resultedHorseIds = toArray(resultedHorses);
+
+            List<Integer> openHorses = new ArrayList<>();
+            for (int i = 0; (i < SAMPLED_RACES) && (i < openRaceIds.length); i++) {
+                for (int horseId : selectRaceHorseIds(connection, openRaceIds[openRaceIds.length - 1 - i])) {
+                    openHorses.add(horseId);
+                }
+            }
+            openHorseIds = toArray(openHorses);
+
+            try (Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(SELECT_BET_ID_RANGE_QUERY)) {
+                rs.next();
+                firstBetId = rs.getInt(1);
+                lastBetId = rs.getInt(2);
+            }
+        }
+    }
+
+    /**
+     * Selects identificators of races with or without results.
+     *
+     * @param connection connection to select with
+     * @param open <code>true</code> to select races without results
+     * @return race identificators
+     * @throws SQLException if races can't be selected
+     */
+    private int[] selectRaceIds(Connection connection, boolean open) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(open ? SELECT_OPEN_RACES_QUERY : SELECT_RESULTED_RACES_QUERY)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return toArray(ids);
+    }
+
+    /**
+     * Selects identificators of horses of race in position order.
+     *
+     * @param connection connection to select with
+     * @param raceId race identificator
+     * @return contestant horse identificators
+     * @throws SQLException if horses can't be selected
+     */
+    private int[] selectRaceHorseIds(Connection connection, int raceId) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_RACE_HORSES_QUERY)) {
+            statement.setInt(1, raceId);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return toArray(ids);
+    }
+
+    /**
+     * Converts list of identificators to array.
+     *
+     * @param ids identificators
+     * @return array of identificators
+     */
+    private static int[] toArray(List<Integer> ids) {
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,151 @@
+package ua.epam.horseraceapp.benchmark.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.BetRequest;
+import ua.epam.horseraceapp.util.dao.entity.Bet;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+
+/**
+ * Throughput of {@link BetDao} methods that read bets or make new ones on
+ * {@link BenchmarkDatabase}.
+ * <p>
+ * Methods that change state of existing bet are measured by
+ * {@link BetStateBenchmark}, as every bet can change its state only once.
+ * New bets are made on races without results by random bettors, one unit
+ * each, so balances of seeded bettors last for many runs.
+ * </p>
+ * <p>
+ * Allocation per operation is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class BetDaoBenchmark {
+
+    /**
+     * Number of bets in one page or one group.
+     */
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * State of streamed bets.
+     */
+    @Param({"ACCEPTED"})
+    private BetState streamedState;
+
+    /**
+     * Benchmarked DAO.
+     */
+    private BetDao dao;
+
+    /**
+     * Creates benchmarked DAO.
+     *
+     * @param database benchmark database
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        dao = database.getFactory().createBetDao();
+    }
+
+    @Benchmark
+    public List<Bet> findUserBets(BenchmarkDatabase database) {
+        return dao.findUserBets(database.randomUserId());
+    }
+
+    @Benchmark
+    public List<Bet> findUserBetsPage(BenchmarkDatabase database) {
+        return dao.findUserBets(database.randomUserId(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Bet> findUnviewedBets() {
+        return dao.findUnviewedBets();
+    }
+
+    @Benchmark
+    public List<Bet> findUnviewedBetsPage() {
+        return dao.findUnviewedBets(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public boolean streamBets(Blackhole blackhole) {
+        return dao.streamBets(streamedState, row -> {
+            blackhole.consume(row.getBetId());
+            return true;
+        });
+    }
+
+    @Benchmark
+    public boolean makeBet(BenchmarkDatabase database) {
+        return dao.makeBet(database.randomUserId(), 1, database.randomOpenHorseId());
+    }
+
+    @Benchmark
+    public BetPlacementResult placeBet(BenchmarkDatabase database) {
+        return dao.placeBet(database.randomUserId(), 1, database.randomOpenHorseId());
+    }
+
+    @Benchmark
+    public List<BetPlacementResult> placeBets(BenchmarkDatabase database) {
+        return dao.placeBets(randomRequests(database));
+    }
+
+    @Benchmark
+    public List<BetPlacementResult> placePrepaidBets(BenchmarkDatabase database) {
+        return dao.placePrepaidBets(randomRequests(database));
+    }
+
+    @Benchmark
+    public Integer getBetOnWinAmount(BenchmarkDatabase database) {
+        return dao.getBetOnWinAmount(database.randomBetId());
+    }
+
+    @Benchmark
+    public Integer getBetAmount(BenchmarkDatabase database) {
+        return dao.getBetAmount(database.randomBetId());
+    }
+
+    @Benchmark
+    public Integer getBetOwnerId(BenchmarkDatabase database) {
+        return dao.getBetOwnerId(database.randomBetId());
+    }
+
+    /**
+     * Creates group of requests of random bettors.
+     *
+     * @param database benchmark database
+     * @return requests of one unit on horses of races without results
+     */
+    private List<BetRequest> randomRequests(BenchmarkDatabase database) {
+        List<BetRequest> requests = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            requests.add(new BetRequest(database.randomUserId(), 1, database.randomOpenHorseId()));
+        }
+        return requests;
+    }
+}
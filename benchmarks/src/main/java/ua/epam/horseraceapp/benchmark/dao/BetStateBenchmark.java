@@ -0,0 +1,232 @@
+package ua.epam.horseraceapp.benchmark.dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+
+/**
+ * Time of {@link BetDao} methods that change state of existing bets on
+ * {@link BenchmarkDatabase}.
+ * <p>
+ * Every bet can change its state only once, so before each iteration
+ * {@value #BETS_PER_ITERATION} bets in required state are inserted and
+ * iteration is one invocation that uses them all up. Methods that change one
+ * bet are called for every bet, methods that change group of
+ * {@value #GROUP_SIZE} bets are called {@value #GROUPS_PER_ITERATION} times.
+ * Time is reported per call; throughput is its inverse.
+ * </p>
+ * <p>
+ * Allocation per call is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class BetStateBenchmark {
+
+    /**
+     * Number of bets changed in one iteration.
+     */
+    static final int BETS_PER_ITERATION = 1000;
+    /**
+     * Number of bets changed by one call of group method.
+     */
+    static final int GROUP_SIZE = 20;
+    /**
+     * Number of calls of group method in one iteration.
+     */
+    static final int GROUPS_PER_ITERATION = BETS_PER_ITERATION / GROUP_SIZE;
+
+    /**
+     * Bets in one state that are used up by one iteration.
+     */
+    public abstract static class BetPool {
+
+        /**
+         * Identificators of bets.
+         */
+        private int[] betIds;
+
+        /**
+         * Inserts bets for next iteration.
+         *
+         * @param database benchmark database
+         * @param state state of bets
+         * @param resulted whether bets are made on horses of races with
+         * results
+         * @throws SQLException if bets can't be inserted
+         */
+        void fill(BenchmarkDatabase database, BetState state, boolean resulted) throws SQLException {
+            betIds = database.insertBets(state, resulted, BETS_PER_ITERATION);
+        }
+
+        /**
+         * Get bet by its number in pool.
+         *
+         * @param index number of bet
+         * @return bet identificator
+         */
+        Integer betId(int index) {
+            return betIds[index];
+        }
+
+        /**
+         * Get group of bets by its number in pool.
+         *
+         * @param index number of group
+         * @return bet identificators
+         */
+        List<Integer> group(int index) {
+            List<Integer> group = new ArrayList<>(GROUP_SIZE);
+            for (int i = index * GROUP_SIZE; i < (index + 1) * GROUP_SIZE; i++) {
+                group.add(betIds[i]);
+            }
+            return group;
+        }
+    }
+
+    /**
+     * Bets that wait for accept.
+     */
+    @State(Scope.Thread)
+    public static class WaitingBets extends BetPool {
+
+        @Setup(Level.Iteration)
+        public void fill(BenchmarkDatabase database) throws SQLException {
+            fill(database, BetState.WAITING_FOR_ACCEPT, false);
+        }
+    }
+
+    /**
+     * Accepted bets on races with results.
+     */
+    @State(Scope.Thread)
+    public static class ResultedBets extends BetPool {
+
+        @Setup(Level.Iteration)
+        public void fill(BenchmarkDatabase database) throws SQLException {
+            fill(database, BetState.ACCEPTED, true);
+        }
+    }
+
+    /**
+     * Won bets that wait for pay.
+     */
+    @State(Scope.Thread)
+    public static class WonBets extends BetPool {
+
+        @Setup(Level.Iteration)
+        public void fill(BenchmarkDatabase database) throws SQLException {
+            fill(database, BetState.WON_WAITING_FOR_PAY, true);
+        }
+    }
+
+    /**
+     * Benchmarked DAO.
+     */
+    private BetDao dao;
+
+    /**
+     * Creates benchmarked DAO.
+     *
+     * @param database benchmark database
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        dao = database.getFactory().createBetDao();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void acceptBet(WaitingBets bets, Blackhole blackhole) {
+        for (int i = 0; i < BETS_PER_ITERATION; i++) {
+            blackhole.consume(dao.acceptBet(bets.betId(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void declineBet(WaitingBets bets, Blackhole blackhole) {
+        for (int i = 0; i < BETS_PER_ITERATION; i++) {
+            blackhole.consume(dao.declineBet(bets.betId(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void loseBet(ResultedBets bets, Blackhole blackhole) {
+        for (int i = 0; i < BETS_PER_ITERATION; i++) {
+            blackhole.consume(dao.loseBet(bets.betId(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void waitForPayBet(ResultedBets bets, Blackhole blackhole) {
+        for (int i = 0; i < BETS_PER_ITERATION; i++) {
+            blackhole.consume(dao.waitForPayBet(bets.betId(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BETS_PER_ITERATION)
+    public void payBet(WonBets bets, Blackhole blackhole) {
+        for (int i = 0; i < BETS_PER_ITERATION; i++) {
+            blackhole.consume(dao.payBet(bets.betId(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GROUPS_PER_ITERATION)
+    public void acceptBets(WaitingBets bets, Blackhole blackhole) {
+        for (int i = 0; i < GROUPS_PER_ITERATION; i++) {
+            blackhole.consume(dao.acceptBets(bets.group(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GROUPS_PER_ITERATION)
+    public void declineBets(WaitingBets bets, Blackhole blackhole) {
+        for (int i = 0; i < GROUPS_PER_ITERATION; i++) {
+            blackhole.consume(dao.declineBets(bets.group(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GROUPS_PER_ITERATION)
+    public void settleBets(ResultedBets bets, Blackhole blackhole) {
+        for (int i = 0; i < GROUPS_PER_ITERATION; i++) {
+            blackhole.consume(dao.settleBets(bets.group(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GROUPS_PER_ITERATION)
+    public void payBets(WonBets bets, Blackhole blackhole) {
+        for (int i = 0; i < GROUPS_PER_ITERATION; i++) {
+            blackhole.consume(dao.payBets(bets.group(i)));
+        }
+    }
+}
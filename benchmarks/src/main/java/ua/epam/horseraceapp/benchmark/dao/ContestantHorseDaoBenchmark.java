@@ -0,0 +1,71 @@
+package ua.epam.horseraceapp.benchmark.dao;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
+
+/**
+ * Throughput of {@link ContestantHorseDao} methods on
+ * {@link BenchmarkDatabase}.
+ * <p>
+ * Results are set again on races that already have them, in the same order,
+ * so database doesn't change and there are no accepted bets left to settle.
+ * Cost of settling bets is measured by separate benchmark.
+ * </p>
+ * <p>
+ * Allocation per operation is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ContestantHorseDaoBenchmark {
+
+    /**
+     * Benchmarked DAO.
+     */
+    private ContestantHorseDao dao;
+
+    /**
+     * Creates benchmarked DAO.
+     *
+     * @param database benchmark database
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        dao = database.getFactory().createContestantHorseDao();
+    }
+
+    @Benchmark
+    public List<ContestantHorse> findAllHorsesByRaceId(BenchmarkDatabase database) {
+        return dao.findAllHorsesByRaceId(database.randomRaceId());
+    }
+
+    @Benchmark
+    public List<ContestantHorse> findAllHorsesWithoutResultByRaceId(BenchmarkDatabase database) {
+        return dao.findAllHorsesWithoutResultByRaceId(database.randomOpenRaceId());
+    }
+
+    @Benchmark
+    public boolean setResults(BenchmarkDatabase database) {
+        return dao.setResults(database.randomResultedRaceHorses());
+    }
+}
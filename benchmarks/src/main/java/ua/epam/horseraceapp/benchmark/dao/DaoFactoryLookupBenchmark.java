@@ -0,0 +1,84 @@
+package ua.epam.horseraceapp.benchmark.dao;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.epam.horseraceapp.util.dao.DaoFactory;
+import ua.epam.horseraceapp.util.dao.DaoFactory.DaoType;
+
+/**
+ * Throughput of {@link DaoFactory} lookup and DAO creation, the work that is
+ * done for every request that gets its DAO.
+ * <p>
+ * Lookup is measured by one thread and by as many threads as there are
+ * processors, so lock taken by lookup would show up as drop of throughput
+ * per thread. Factory of embedded H2 database is looked up, as neither
+ * lookup nor DAO creation opens connection.
+ * </p>
+ * <p>
+ * Allocation per lookup is reported when benchmarks run with
+ * <code>-prof gc</code>; resolved factory with shared DAO must allocate
+ * nothing.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class DaoFactoryLookupBenchmark {
+
+    /**
+     * Sets looked up database type and resolves its factory.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(DaoFactory.DAO_TYPE_PROPERTY, DaoType.H2.name());
+        DaoFactory.getConfiguredInstance();
+    }
+
+    @Benchmark
+    public DaoFactory getInstance() {
+        return DaoFactory.getInstance(DaoType.H2);
+    }
+
+    @Benchmark
+    public DaoFactory getConfiguredInstance() {
+        return DaoFactory.getConfiguredInstance();
+    }
+
+    @Benchmark
+    public void createDao(Blackhole blackhole) {
+        DaoFactory factory = DaoFactory.getConfiguredInstance();
+        blackhole.consume(factory.createBetDao());
+        blackhole.consume(factory.createContestantHorseDao());
+        blackhole.consume(factory.createRaceDao());
+        blackhole.consume(factory.createUserDao());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public DaoFactory getInstanceContended() {
+        return DaoFactory.getInstance(DaoType.H2);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void createDaoContended(Blackhole blackhole) {
+        createDao(blackhole);
+    }
+}
@@ -0,0 +1,70 @@
+package ua.epam.horseraceapp.benchmark.dao;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.epam.horseraceapp.util.dao.RaceDao;
+import ua.epam.horseraceapp.util.dao.entity.Race;
+
+/**
+ * Throughput of {@link RaceDao} methods on {@link BenchmarkDatabase}.
+ * <p>
+ * Allocation per operation is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class RaceDaoBenchmark {
+
+    /**
+     * Benchmarked DAO.
+     */
+    private RaceDao dao;
+
+    /**
+     * Creates benchmarked DAO.
+     *
+     * @param database benchmark database
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        dao = database.getFactory().createRaceDao();
+    }
+
+    @Benchmark
+    public List<Race> findAll() {
+        return dao.findAll();
+    }
+
+    @Benchmark
+    public List<Race> findUnresultedRaces() {
+        return dao.findUnresultedRaces();
+    }
+
+    @Benchmark
+    public Race findRaceById(BenchmarkDatabase database) {
+        return dao.findRaceById(database.randomRaceId());
+    }
+
+    @Benchmark
+    public Integer getRaceIdByContestantHorseId(BenchmarkDatabase database) {
+        return dao.getRaceIdByContestantHorseId(database.randomHorseId());
+    }
+}
@@ -0,0 +1,97 @@
+package ua.epam.horseraceapp.benchmark.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
+
+/**
+ * Time of {@link ContestantHorseDao#setResults(java.util.List)} on race with
+ * many accepted bets on {@link BenchmarkDatabase}, that is time of setting
+ * positions and settling all bets of race.
+ * <p>
+ * Every race gets its result only once, so before each iteration new race
+ * with {@value #HORSES} horses and <code>bets</code> accepted bets spread
+ * evenly over them is inserted, and iteration is one invocation that sets its
+ * result. Time is reported per race.
+ * </p>
+ * <p>
+ * Allocation per race is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class RaceSettlementBenchmark {
+
+    /**
+     * Number of horses of race.
+     */
+    static final int HORSES = 8;
+
+    /**
+     * Number of accepted bets on race.
+     */
+    @Param({"100000"})
+    public int bets;
+
+    /**
+     * Race without result that is used up by one iteration.
+     */
+    @State(Scope.Thread)
+    public static class OpenRace {
+
+        /**
+         * Horses of race in position order.
+         */
+        private List<ContestantHorse> horsesInPositionOrder;
+
+        @Setup(Level.Iteration)
+        public void fill(BenchmarkDatabase database, RaceSettlementBenchmark benchmark) throws SQLException {
+            horsesInPositionOrder = database.insertRace(HORSES, BetState.ACCEPTED, benchmark.bets);
+        }
+    }
+
+    /**
+     * Benchmarked DAO.
+     */
+    private ContestantHorseDao dao;
+
+    /**
+     * Creates benchmarked DAO.
+     *
+     * @param database benchmark database
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        dao = database.getFactory().createContestantHorseDao();
+    }
+
+    @Benchmark
+    public boolean setResults(OpenRace race) {
+        if (!dao.setResults(race.horsesInPositionOrder)) {
+            throw new IllegalStateException("Can't set results of race");
+        }
+        return true;
+    }
+}
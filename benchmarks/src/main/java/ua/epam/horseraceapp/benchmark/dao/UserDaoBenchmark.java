@@ -0,0 +1,91 @@
+package ua.epam.horseraceapp.benchmark.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.epam.horseraceapp.util.dao.UserDao;
+import ua.epam.horseraceapp.util.dao.entity.User;
+import ua.epam.horseraceapp.util.dao.entity.UserType;
+
+/**
+ * Throughput of {@link UserDao} methods on {@link BenchmarkDatabase}.
+ * <p>
+ * Every registration inserts new user with unique email. Recharges add one
+ * unit to balance of random bettor.
+ * </p>
+ * <p>
+ * Allocation per operation is reported when benchmarks run with
+ * <code>-prof gc</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class UserDaoBenchmark {
+
+    /**
+     * Benchmarked DAO.
+     */
+    private UserDao dao;
+    /**
+     * Prefix of emails of registered users, unique for trial.
+     */
+    private String emailPrefix;
+    /**
+     * Number of last registered user.
+     */
+    private final AtomicLong registered = new AtomicLong();
+
+    /**
+     * Creates benchmarked DAO.
+     *
+     * @param database benchmark database
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        dao = database.getFactory().createUserDao();
+        emailPrefix = "registered" + System.currentTimeMillis() + "-";
+    }
+
+    @Benchmark
+    public boolean registerUser() {
+        User user = new User("First", "Last", emailPrefix + registered.incrementAndGet() + "@horserace.test",
+                "password", UserType.USER);
+        return dao.registerUser(user);
+    }
+
+    @Benchmark
+    public User getUserByEmail(BenchmarkDatabase database) {
+        return dao.getUserByEmail(database.randomEmail());
+    }
+
+    @Benchmark
+    public User getUserById(BenchmarkDatabase database) {
+        return dao.getUserById(database.randomUserId());
+    }
+
+    @Benchmark
+    public Integer getUserBalance(BenchmarkDatabase database) {
+        return dao.getUserBalance(database.randomUserId());
+    }
+
+    @Benchmark
+    public boolean rechargeBalance(BenchmarkDatabase database) {
+        return dao.rechargeBalance(database.randomUserId(), 1);
+    }
+}
@@ -0,0 +1,499 @@
+package ua.epam.horseraceapp.benchmark.servlet;
+
+import java.io.BufferedReader;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpUpgradeHandler;
+import javax.servlet.http.Part;
+
+/**
+ * Lightweight request that keeps parameters and attributes in maps, for
+ * running commands without servlet container.
+ * <p>
+ * Request dispatcher only remembers path that request was forwarded to, so
+ * no JSP is rendered. Asynchronous processing is not supported. Request can
+ * be reused: {@link #clearAttributes()} prepares it for next execution with
+ * the same parameters and session.
+ * </p>
+ * <p>
+ * Is not thread-safe, as each benchmark thread has its own request.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class MockHttpServletRequest implements HttpServletRequest {
+
+    /**
+     * Request parameters.
+     */
+    private final Map<String, String[]> parameters = new HashMap<>();
+    /**
+     * Request attributes.
+     */
+    private final Map<String, Object> attributes = new HashMap<>();
+    /**
+     * Dispatcher that remembers forward path.
+     */
+    private final RequestDispatcher dispatcher = new RequestDispatcher() {
+
+        @Override
+        public void forward(ServletRequest request, ServletResponse response) {
+            forwarded = true;
+        }
+
+        @Override
+        public void include(ServletRequest request, ServletResponse response) {
+        }
+    };
+
+    /**
+     * Session of request, <code>null</code> if there is no session yet.
+     */
+    private HttpSession session;
+    /**
+     * Character encoding of request.
+     */
+    private String characterEncoding;
+    /**
+     * Path that dispatcher was last asked for.
+     */
+    private String dispatchPath;
+    /**
+     * Whether request was forwarded to {@link #dispatchPath}.
+     */
+    private boolean forwarded;
+    /**
+     * Address of client.
+     */
+    private String remoteAddr = "127.0.0.1";
+
+    /**
+     * Creates request without session.
+     */
+    public MockHttpServletRequest() {
+    }
+
+    /**
+     * Creates request of given session.
+     *
+     * @param session session of request
+     */
+    public MockHttpServletRequest(HttpSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Sets request parameter.
+     *
+     * @param name parameter name
+     * @param values parameter values, no values removes parameter
+     * @return this request
+     */
+    public MockHttpServletRequest setParameter(String name, String... values) {
+        if (values.length == 0) {
+            parameters.remove(name);
+        } else {
+            parameters.put(name, values);
+        }
+        return this;
+    }
+
+    /**
+     * Removes all attributes and forget forward, so request can be executed
+     * again.
+     */
+    public void clearAttributes() {
+        attributes.clear();
+        dispatchPath = null;
+        forwarded = false;
+    }
+
+    /**
+     * Get path that request was forwarded to.
+     *
+     * @return forward path, <code>null</code> if request was not forwarded
+     */
+    public String getForwardPath() {
+        return forwarded ? dispatchPath : null;
+    }
+
+    /**
+     * Sets address of client.
+     *
+     * @param remoteAddr client address
+     */
+    public void setRemoteAddr(String remoteAddr) {
+        this.remoteAddr = remoteAddr;
+    }
+
+    @Override
+    public String getAuthType() {
+        return null;
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        return new Cookie[0];
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        return -1;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return null;
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return Collections.emptyEnumeration();
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.emptyEnumeration();
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        return -1;
+    }
+
+    @Override
+    public String getMethod() {
+        return "POST";
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public String getContextPath() {
+        return "";
+    }
+
+    @Override
+    public String getQueryString() {
+        return null;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return null;
+    }
+
+    @Override
+    public String getRequestedSessionId() {
+        return (session == null) ? null : session.getId();
+    }
+
+    @Override
+    public String getRequestURI() {
+        return "/controller";
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        return new StringBuffer("http://localhost").append(getRequestURI());
+    }
+
+    @Override
+    public String getServletPath() {
+        return getRequestURI();
+    }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        if ((session == null) && create) {
+            session = new MockHttpSession();
+        }
+        return session;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public String changeSessionId() {
+        return getSession().getId();
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        return session != null;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromCookie() {
+        return session != null;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromURL() {
+        return false;
+    }
+
+    @Override
+    @Deprecated
+    public boolean isRequestedSessionIdFromUrl() {
+        return false;
+    }
+
+    @Override
+    public boolean authenticate(HttpServletResponse response) {
+        return false;
+    }
+
+    @Override
+    public void login(String username, String password) {
+        throw new UnsupportedOperationException("Container authentication is not used");
+    }
+
+    @Override
+    public void logout() {
+    }
+
+    @Override
+    public Collection<Part> getParts() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Part getPart(String name) {
+        return null;
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) {
+        throw new UnsupportedOperationException("Protocol upgrade is not supported");
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public void setCharacterEncoding(String characterEncoding) {
+        this.characterEncoding = characterEncoding;
+    }
+
+    @Override
+    public int getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return -1;
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/x-www-form-urlencoded";
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        throw new UnsupportedOperationException("Request body is given by parameters");
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return (values == null) ? null : values[0];
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    @Override
+    public String getProtocol() {
+        return "HTTP/1.1";
+    }
+
+    @Override
+    public String getScheme() {
+        return "http";
+    }
+
+    @Override
+    public String getServerName() {
+        return "localhost";
+    }
+
+    @Override
+    public int getServerPort() {
+        return 80;
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        throw new UnsupportedOperationException("Request body is given by parameters");
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return remoteAddr;
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    @Override
+    public Locale getLocale() {
+        return Locale.getDefault();
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(Collections.singletonList(getLocale()));
+    }
+
+    @Override
+    public boolean isSecure() {
+        return false;
+    }
+
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+        dispatchPath = path;
+        return dispatcher;
+    }
+
+    @Override
+    @Deprecated
+    public String getRealPath(String path) {
+        return null;
+    }
+
+    @Override
+    public int getRemotePort() {
+        return 0;
+    }
+
+    @Override
+    public String getLocalName() {
+        return "localhost";
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public int getLocalPort() {
+        return 80;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Asynchronous processing is not supported");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+        throw new IllegalStateException("Asynchronous processing is not supported");
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+        throw new IllegalStateException("Asynchronous processing is not started");
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+}
@@ -0,0 +1,143 @@
+package ua.epam.horseraceapp.benchmark.servlet;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionContext;
+
+/**
+ * Lightweight session that keeps attributes in map, for running commands
+ * without servlet container.
+ * <p>
+ * Is not thread-safe, as each benchmark thread has its own session.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class MockHttpSession implements HttpSession {
+
+    /**
+     * Session attributes.
+     */
+    private final Map<String, Object> attributes = new HashMap<>();
+    /**
+     * Creation time of session.
+     */
+    private final long creationTime = System.currentTimeMillis();
+    /**
+     * Time after which inactive session expires in seconds.
+     */
+    private int maxInactiveInterval;
+    /**
+     * Whether session was invalidated.
+     */
+    private boolean invalidated;
+
+    /**
+     * Checks whether session was invalidated.
+     *
+     * @return <code>true</code> if session was invalidated. Otherwise
+     * <code>false</code>
+     */
+    public boolean isInvalidated() {
+        return invalidated;
+    }
+
+    @Override
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public String getId() {
+        return Integer.toHexString(System.identityHashCode(this));
+    }
+
+    @Override
+    public long getLastAccessedTime() {
+        return creationTime;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public void setMaxInactiveInterval(int interval) {
+        maxInactiveInterval = interval;
+    }
+
+    @Override
+    public int getMaxInactiveInterval() {
+        return maxInactiveInterval;
+    }
+
+    @Override
+    @Deprecated
+    public HttpSessionContext getSessionContext() {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    @Deprecated
+    public Object getValue(String name) {
+        return getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    @Deprecated
+    public String[] getValueNames() {
+        return attributes.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void putValue(String name, Object value) {
+        setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    @Override
+    @Deprecated
+    public void removeValue(String name) {
+        removeAttribute(name);
+    }
+
+    @Override
+    public void invalidate() {
+        attributes.clear();
+        invalidated = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return false;
+    }
+}
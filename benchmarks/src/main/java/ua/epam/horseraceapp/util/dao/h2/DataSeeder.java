@@ -0,0 +1,478 @@
+package ua.epam.horseraceapp.util.dao.h2;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.connection.ConnectionManager;
+import ua.epam.horseraceapp.util.connection.H2ConnectionManager;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+import ua.epam.horseraceapp.util.dao.entity.User;
+import ua.epam.horseraceapp.util.dao.entity.UserType;
+
+/**
+ * Fills empty database with generated races, users and bets of realistic
+ * volumes, together with {@value #STAFF_ACCOUNTS} bookmakers and
+ * {@value #STAFF_ACCOUNTS} admins.
+ * <p>
+ * Used to measure DAO on database of production size. Data is generated from
+ * fixed random seed, so two databases seeded with the same volumes are equal.
+ * Half of races are in the past and have results; bets on them are won or
+ * lost. Bets on other races wait for accept, are accepted or declined.
+ * </p>
+ * <p>
+ * Rows are inserted by batches and committed every {@value #COMMIT_SIZE}
+ * rows. Seeder works with any database that has horserace schema, but it is
+ * meant for embedded H2 database, which can be seeded from command line:
+ * <pre>
+ * java -cp benchmarks.jar ua.epam.horseraceapp.util.dao.h2.DataSeeder url [races] [users] [bets]
+ * </pre>
+ * where url is H2 database URL in MySQL mode, for example
+ * <code>jdbc:h2:./horserace;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER</code>. Application
+ * uses seeded database if this URL is set by system property
+ * <code>horserace.h2.url</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class DataSeeder {
+
+    /**
+     * Default number of races.
+     */
+    public static final int DEFAULT_RACES = 1000;
+    /**
+     * Default number of users.
+     */
+    public static final int DEFAULT_USERS = 100000;
+    /**
+     * Default number of bets.
+     */
+    public static final int DEFAULT_BETS = 10000000;
+    /**
+     * Number of horses in each race.
+     */
+    public static final int HORSES_PER_RACE = 8;
+    /**
+     * Balance of every generated user.
+     */
+    public static final int USER_BALANCE = 1000;
+    /**
+     * Number of generated bookmakers and of generated admins.
+     */
+    public static final int STAFF_ACCOUNTS = 10;
+    /**
+     * Email of generated user is this prefix followed by user number and
+     * {@value #EMAIL_DOMAIN}.
+     */
+    public static final String EMAIL_PREFIX = "user";
+    /**
+     * Email of generated bookmaker is this prefix followed by bookmaker
+     * number and {@value #EMAIL_DOMAIN}.
+     */
+    public static final String BOOKMAKER_EMAIL_PREFIX = "bookmaker";
+    /**
+     * Email of generated admin is this prefix followed by admin number and
+     * {@value #EMAIL_DOMAIN}.
+     */
+    public static final String ADMIN_EMAIL_PREFIX = "admin";
+    /**
+     * Password of generated account is this prefix followed by account
+     * number.
+     */
+    public static final String PASSWORD_PREFIX = "password";
+    /**
+     * Domain of emails of generated users.
+     */
+    public static final String EMAIL_DOMAIN = "@horserace.test";
+
+    /**
+     * Number of rows inserted in one transaction.
+     */
+    private static final int COMMIT_SIZE = 10000;
+    /**
+     * Number of distinct horses.
+     */
+    private static final int HORSES = 2000;
+    /**
+     * Seed of random generator.
+     */
+    private static final long SEED = 42;
+    /**
+     * Places of races.
+     */
+    private static final String[] PLACES = {"Kyiv", "Lviv", "Odesa", "Kharkiv", "Dnipro"};
+
+    /**
+     * Query that is used to insert horse.
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Horse name {@link String}</li>
+     * </ul>
+     * </p>
+     */
+    private final String INSERT_HORSE_QUERY = "INSERT INTO horse (name) VALUES (?)";
+
+    /**
+     * Query that is used to insert race.
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Race start time {@link Timestamp}</li>
+     * <li>2. Race place {@link String}</li>
+     * <li>3. Race distance {@link Integer}</li>
+     * </ul>
+     * </p>
+     */
+    private final String INSERT_RACE_QUERY = "INSERT INTO race (start_time, place, distance) VALUES (?, ?, ?)";
+
+    /**
+     * Query that is used to insert contestant horse.
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Race identificator {@link Integer}</li>
+     * <li>2. Horse identificator {@link Integer}</li>
+     * <li>3. Position of horse in race, may be <code>NULL</code>
+     * {@link Integer}</li>
+     * <li>4. Coefficient {@link Double}</li>
+     * </ul>
+     * </p>
+     */
+    private final String INSERT_CONTESTANT_HORSE_QUERY = "INSERT INTO contestant_horse "
+            + "(race_id, horse_id, position, coefficient) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Query that is used to insert user.
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. User first name {@link User#firstName}</li>
+     * <li>2. User last name {@link User#lastName}</li>
+     * <li>3. User email {@link User#email}</li>
+     * <li>4. User password {@link User#password}</li>
+     * <li>5. User balance {@link User#balance}</li>
+     * <li>6. User type identificator {@link Integer}</li>
+     * </ul>
+     * </p>
+     */
+    private final String INSERT_USER_QUERY = "INSERT INTO user (first_name, "
+            + "last_name, email, password, balance, type_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Query that is used to insert bet.
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Bet state identificator {@link Integer}</li>
+     * <li>2. Bet owner identificator {@link Integer}</li>
+     * <li>3. Bet amount {@link Integer}</li>
+     * <li>4. Contestant horse identificator {@link Integer}</li>
+     * <li>5. Bet place time {@link Timestamp}</li>
+     * </ul>
+     * </p>
+     */
+    private final String INSERT_BET_QUERY = "INSERT INTO bet (state_id, owner_id, "
+            + "amount, contestant_horse_id, place_time) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Query that is used to select last identificators of seeded tables.
+     */
+    private final String SELECT_MAX_IDS_QUERY = "SELECT (SELECT COALESCE(MAX(id), 0) FROM horse), "
+            + "(SELECT COALESCE(MAX(id), 0) FROM race), (SELECT COALESCE(MAX(id), 0) FROM contestant_horse), "
+            + "(SELECT COALESCE(MAX(id), 0) FROM user)";
+
+    /**
+     * Connection manager to get connection from.
+     */
+    private final ConnectionManager connectionManager;
+    /**
+     * Number of races to generate.
+     */
+    private final int races;
+    /**
+     * Number of users to generate.
+     */
+    private final int users;
+    /**
+     * Number of bets to generate.
+     */
+    private final int bets;
+    /**
+     * Random generator.
+     */
+    private final Random random = new Random(SEED);
+
+    /**
+     * Creates seeder.
+     *
+     * @param connectionManager connection manager to get connection from
+     * @param races number of races to generate
+     * @param users number of users to generate
+     * @param bets number of bets to generate
+     */
+    public DataSeeder(ConnectionManager connectionManager, int races, int users, int bets) {
+        this.connectionManager = connectionManager;
+        this.races = races;
+        this.users = users;
+        this.bets = bets;
+    }
+
+    /**
+     * Seeds H2 database with given URL.
+     *
+     * @param args database URL and optional numbers of races, users and bets
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: DataSeeder url [races] [users] [bets]");
+            System.exit(2);
+        }
+        int races = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_RACES;
+        int users = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_USERS;
+        int bets = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_BETS;
+        DataSeeder seeder = new DataSeeder(new H2ConnectionManager(args[0]), races, users, bets);
+        if (!seeder.seed()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Inserts generated data.
+     * <p>
+     * If something went wrong - data that was already committed stays in
+     * database and <code>false</code> is returned.
+     * </p>
+     *
+     * @return <code>true</code> if all data was inserted. Otherwise
+     * <code>false</code>
+     */
+    public boolean seed() {
+        Logger log = Logger.getLogger(DataSeeder.class);
+        long start = System.nanoTime();
+
+        try (Connection connection = connectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                Map<String, Integer> stateIds = selectIds(connection, "SELECT id, state FROM bet_state");
+                Map<String, Integer> typeIds = selectIds(connection, "SELECT id, user_type FROM user_type");
+                int[] maxIds = selectMaxIds(connection);
+
+                insertHorses(connection);
+                boolean[] resulted = insertRaces(connection, maxIds);
+                log.info("Seeded " + races + " races");
+                insertUsers(connection, EMAIL_PREFIX, users, typeIds.get(UserType.USER.name()));
+                insertUsers(connection, BOOKMAKER_EMAIL_PREFIX, STAFF_ACCOUNTS, typeIds.get(UserType.BOOKMAKER.name()));
+                insertUsers(connection, ADMIN_EMAIL_PREFIX, STAFF_ACCOUNTS, typeIds.get(UserType.ADMIN.name()));
+                log.info("Seeded " + users + " users");
+                insertBets(connection, stateIds, maxIds, resulted);
+                log.info("Seeded " + bets + " bets in "
+                        + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + " s");
+                return true;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            log.error("Can't seed database", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Inserts horses.
+     *
+     * @param connection connection to insert with
+     * @throws SQLException if horses can't be inserted
+     */
+    private void insertHorses(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_HORSE_QUERY)) {
+            for (int i = 1; i <= HORSES; i++) {
+                statement.setString(1, "Horse " + i);
+                addBatch(connection, statement, i);
+            }
+            flush(connection, statement);
+        }
+    }
+
+    /**
+     * Inserts races and their contestant horses.
+     * <p>
+     * Races start one hour apart, first half of them before now.
+     * </p>
+     *
+     * @param connection connection to insert with
+     * @param maxIds last identificators of horses, races, contestant horses
+     * and users before seeding
+     * @return whether race has result, by race number
+     * @throws SQLException if races can't be inserted
+     */
+    private boolean[] insertRaces(Connection connection, int[] maxIds) throws SQLException {
+        boolean[] resulted = new boolean[races];
+        long firstStart = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(races / 2);
+
+        try (PreparedStatement raceStatement = connection.prepareStatement(INSERT_RACE_QUERY);
+                PreparedStatement horseStatement = connection.prepareStatement(INSERT_CONTESTANT_HORSE_QUERY)) {
+            int rows = 0;
+            for (int race = 0; race < races; race++) {
+                resulted[race] = race < races / 2;
+                raceStatement.setTimestamp(1, new Timestamp(firstStart + TimeUnit.HOURS.toMillis(race)));
+                raceStatement.setString(2, PLACES[race % PLACES.length]);
+                raceStatement.setInt(3, 1000 + 200 * random.nextInt(10));
+                raceStatement.addBatch();
+
+                for (int horse = 0; horse < HORSES_PER_RACE; horse++) {
+                    horseStatement.setInt(1, maxIds[1] + race + 1);
+                    horseStatement.setInt(2, maxIds[0] + 1 + random.nextInt(HORSES));
+                    if (resulted[race]) {
+                        horseStatement.setInt(3, horse + 1);
+                    } else {
+                        horseStatement.setNull(3, Types.INTEGER);
+                    }
+                    horseStatement.setDouble(4, 1.1 + random.nextInt(150) / 10.0);
+                    horseStatement.addBatch();
+                }
+                rows += HORSES_PER_RACE + 1;
+                if (rows >= COMMIT_SIZE) {
+                    raceStatement.executeBatch();
+                    flush(connection, horseStatement);
+                    rows = 0;
+                }
+            }
+            raceStatement.executeBatch();
+            flush(connection, horseStatement);
+        }
+        return resulted;
+    }
+
+    /**
+     * Inserts users of one type.
+     *
+     * @param connection connection to insert with
+     * @param emailPrefix prefix of emails of generated users
+     * @param count number of users to generate
+     * @param userTypeId identificator of user type of generated users
+     * @throws SQLException if users can't be inserted
+     */
+    private void insertUsers(Connection connection, String emailPrefix, int count, int userTypeId)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_USER_QUERY)) {
+            for (int i = 1; i <= count; i++) {
+                statement.setString(1, "First" + i);
+                statement.setString(2, "Last" + i);
+                statement.setString(3, emailPrefix + i + EMAIL_DOMAIN);
+                statement.setString(4, PASSWORD_PREFIX + i);
+                statement.setInt(5, USER_BALANCE);
+                statement.setInt(6, userTypeId);
+                addBatch(connection, statement, i);
+            }
+            flush(connection, statement);
+        }
+    }
+
+    /**
+     * Inserts bets of random users on random contestant horses.
+     *
+     * @param connection connection to insert with
+     * @param stateIds identificators of bet states by state name
+     * @param maxIds last identificators of horses, races, contestant horses
+     * and users before seeding
+     * @param resulted whether race has result, by race number
+     * @throws SQLException if bets can't be inserted
+     */
+    private void insertBets(Connection connection, Map<String, Integer> stateIds, int[] maxIds,
+            boolean[] resulted) throws SQLException {
+        BetState[] openStates = {BetState.WAITING_FOR_ACCEPT, BetState.ACCEPTED, BetState.DECLINED};
+        long now = System.currentTimeMillis();
+
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_BET_QUERY)) {
+            for (int i = 1; i <= bets; i++) {
+                int race = random.nextInt(races);
+                int horse = random.nextInt(HORSES_PER_RACE);
+                BetState state;
+                if (resulted[race]) {
+                    state = (horse == 0) ? BetState.WON_PAYED : BetState.LOSE;
+                } else {
+                    state = openStates[random.nextInt(openStates.length)];
+                }
+                statement.setInt(1, stateIds.get(state.name()));
+                statement.setInt(2, maxIds[3] + 1 + random.nextInt(users));
+                statement.setInt(3, 10 * (1 + random.nextInt(50)));
+                statement.setInt(4, maxIds[2] + race * HORSES_PER_RACE + horse + 1);
+                statement.setTimestamp(5, new Timestamp(now - random.nextInt((int) TimeUnit.DAYS.toMillis(7))));
+                addBatch(connection, statement, i);
+            }
+            flush(connection, statement);
+        }
+    }
+
+    /**
+     * Adds row to batch and commits batch every {@value #COMMIT_SIZE} rows.
+     *
+     * @param connection connection to commit
+     * @param statement statement with row parameters set
+     * @param row number of row, starting from 1
+     * @throws SQLException if batch can't be executed
+     */
+    private void addBatch(Connection connection, PreparedStatement statement, int row) throws SQLException {
+        statement.addBatch();
+        if (row % COMMIT_SIZE == 0) {
+            flush(connection, statement);
+        }
+    }
+
+    /**
+     * Executes batch and commits it.
+     *
+     * @param connection connection to commit
+     * @param statement statement with batch
+     * @throws SQLException if batch can't be executed
+     */
+    private void flush(Connection connection, PreparedStatement statement) throws SQLException {
+        statement.executeBatch();
+        connection.commit();
+    }
+
+    /**
+     * Selects identificators of dictionary values.
+     *
+     * @param connection connection to select with
+     * @param query query that selects identificator and value
+     * @return identificators by value
+     * @throws SQLException if identificators can't be selected
+     */
+    private Map<String, Integer> selectIds(Connection connection, String query) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(query)) {
+            while (rs.next()) {
+                ids.put(rs.getString(2), rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Selects last identificators of horses, races, contestant horses and
+     * users.
+     *
+     * @param connection connection to select with
+     * @return last identificators in this order
+     * @throws SQLException if identificators can't be selected
+     */
+    private int[] selectMaxIds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(SELECT_MAX_IDS_QUERY)) {
+            rs.next();
+            return new int[]{rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)};
+        }
+    }
+}
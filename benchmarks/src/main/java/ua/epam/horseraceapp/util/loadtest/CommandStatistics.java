@@ -0,0 +1,87 @@
+package ua.epam.horseraceapp.util.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and errors of one command recorded during load test.
+ * <p>
+ * Every latency is kept, so percentiles are exact.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+class CommandStatistics {
+
+    /**
+     * Recorded latencies in nanoseconds; first {@link #count} are used.
+     */
+    private long[] latencies = new long[1024];
+    /**
+     * Number of recorded executions.
+     */
+    private int count;
+    /**
+     * Number of failed executions.
+     */
+    private long errors;
+
+    /**
+     * Records execution of command.
+     *
+     * @param nanos latency in nanoseconds
+     * @param error whether execution failed
+     */
+    synchronized void record(long nanos, boolean error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    /**
+     * Get number of recorded executions.
+     *
+     * @return number of executions
+     */
+    synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Get number of failed executions.
+     *
+     * @return number of errors
+     */
+    synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Get recorded latencies in ascending order.
+     *
+     * @return sorted copy of latencies in nanoseconds
+     */
+    synchronized long[] getSortedLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Get percentile of sorted latencies.
+     *
+     * @param sorted latencies in ascending order
+     * @param quantile quantile from 0 to 1
+     * @return latency in nanoseconds, 0 if there are no latencies
+     */
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,317 @@
+package ua.epam.horseraceapp.util.loadtest;
+
+import java.io.PrintStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import ua.epam.horseraceapp.util.dao.h2.DataSeeder;
+
+/**
+ * Load generator that replays traffic of bettors, bookmakers and admins
+ * against running application.
+ * <p>
+ * Sessions of each role arrive at random with configured average rate, log
+ * in with accounts created by {@link DataSeeder}, perform configured number
+ * of actions with random think time between them, and log out. Number of
+ * concurrent sessions of each role is limited; session that arrives when
+ * limit is reached is dropped and counted, which means that generator is not
+ * able to produce configured rate.
+ * </p>
+ * <p>
+ * Application is expected to run with embedded database seeded by
+ * {@link DataSeeder}, for example with system properties
+ * <code>horserace.dao=H2</code> and <code>horserace.h2.url</code> set to URL
+ * of seeded file database. Generator is configured by system
+ * properties with prefix {@value #PROPERTY_PREFIX}:
+ * <ul>
+ * <li><code>url</code> URL of application controller</li>
+ * <li><code>durationSeconds</code> duration of test</li>
+ * <li><code>sessionActions</code> number of actions in one session</li>
+ * <li><code>thinkTimeMillis</code> average pause between actions</li>
+ * <li><code>users</code> number of seeded user accounts</li>
+ * <li><code>&lt;role&gt;.arrivalRate</code> average number of sessions of
+ * role (bettor, bookmaker or admin) that start each second</li>
+ * <li><code>&lt;role&gt;.maxSessions</code> largest number of concurrent
+ * sessions of role</li>
+ * </ul>
+ * When test ends, throughput, latency percentiles and error rate of each
+ * command are printed.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class LoadGenerator {
+
+    /**
+     * Prefix of system properties that configure generator.
+     */
+    public static final String PROPERTY_PREFIX = "horserace.load.";
+
+    /**
+     * URL of application controller.
+     */
+    private final URL url;
+    /**
+     * Duration of test in milliseconds.
+     */
+    private final long durationMillis;
+    /**
+     * Number of actions in one session.
+     */
+    private final int sessionActions;
+    /**
+     * Average pause between actions in milliseconds.
+     */
+    private final long thinkTimeMillis;
+    /**
+     * Number of seeded user accounts.
+     */
+    private final int users;
+    /**
+     * Average number of sessions that start each second, by role.
+     */
+    private final Map<LoadRole, Double> arrivalRates = new EnumMap<>(LoadRole.class);
+    /**
+     * Largest number of concurrent sessions, by role.
+     */
+    private final Map<LoadRole, Integer> maxSessions = new EnumMap<>(LoadRole.class);
+
+    /**
+     * Statistics by command name.
+     */
+    private final Map<String, CommandStatistics> statistics = new ConcurrentHashMap<>();
+    /**
+     * Number of sessions that were dropped because limit was reached, by
+     * role.
+     */
+    private final Map<LoadRole, AtomicLong> droppedSessions = new EnumMap<>(LoadRole.class);
+    /**
+     * Number of sessions that failed to log in, by role.
+     */
+    private final Map<LoadRole, AtomicLong> failedLogIns = new EnumMap<>(LoadRole.class);
+
+    /**
+     * Creates load generator without sessions; sessions of roles are added by
+     * {@link #setRoleLoad(LoadRole, double, int)}.
+     *
+     * @param url URL of application controller
+     * @param durationMillis duration of test in milliseconds
+     * @param sessionActions number of actions in one session
+     * @param thinkTimeMillis average pause between actions in milliseconds
+     * @param users number of seeded user accounts
+     */
+    LoadGenerator(URL url, long durationMillis, int sessionActions, long thinkTimeMillis, int users) {
+        this.url = url;
+        this.durationMillis = durationMillis;
+        this.sessionActions = sessionActions;
+        this.thinkTimeMillis = thinkTimeMillis;
+        this.users = users;
+        for (LoadRole role : LoadRole.values()) {
+            droppedSessions.put(role, new AtomicLong());
+            failedLogIns.put(role, new AtomicLong());
+        }
+    }
+
+    /**
+     * Runs load test configured by system properties and prints report.
+     *
+     * @param args not used
+     * @throws MalformedURLException if URL property is not valid URL
+     * @throws InterruptedException if interrupted while waiting for test end
+     */
+    public static void main(String[] args) throws MalformedURLException, InterruptedException {
+        LoadGenerator generator = new LoadGenerator(
+                new URL(System.getProperty(PROPERTY_PREFIX + "url",
+                        "http://localhost:8080/HorseraceApplication/HorseraceAppController")),
+                TimeUnit.SECONDS.toMillis(Long.getLong(PROPERTY_PREFIX + "durationSeconds", 60)),
+                Integer.getInteger(PROPERTY_PREFIX + "sessionActions", 10),
+                Long.getLong(PROPERTY_PREFIX + "thinkTimeMillis", 1000),
+                Integer.getInteger(PROPERTY_PREFIX + "users", DataSeeder.DEFAULT_USERS));
+        generator.setRoleLoad(LoadRole.BETTOR, getRate(LoadRole.BETTOR, 10), getMaxSessions(LoadRole.BETTOR, 200));
+        generator.setRoleLoad(LoadRole.BOOKMAKER, getRate(LoadRole.BOOKMAKER, 1),
+                getMaxSessions(LoadRole.BOOKMAKER, DataSeeder.STAFF_ACCOUNTS));
+        generator.setRoleLoad(LoadRole.ADMIN, getRate(LoadRole.ADMIN, 0.1), getMaxSessions(LoadRole.ADMIN, 2));
+        generator.run();
+        generator.printReport(System.out);
+    }
+
+    /**
+     * Sets load of role.
+     *
+     * @param role role of virtual users
+     * @param arrivalRate average number of sessions that start each second
+     * @param maxSessions largest number of concurrent sessions
+     */
+    void setRoleLoad(LoadRole role, double arrivalRate, int maxSessions) {
+        arrivalRates.put(role, arrivalRate);
+        this.maxSessions.put(role, maxSessions);
+    }
+
+    /**
+     * Runs load test and waits until all sessions end.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void run() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        Map<LoadRole, ThreadPoolExecutor> executors = new EnumMap<>(LoadRole.class);
+        Thread[] arrivals = new Thread[arrivalRates.size()];
+        int arrival = 0;
+
+        for (Map.Entry<LoadRole, Double> rate : arrivalRates.entrySet()) {
+            LoadRole role = rate.getKey();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(0, maxSessions.get(role),
+                    1, TimeUnit.SECONDS, new SynchronousQueue<>());
+            executors.put(role, executor);
+            arrivals[arrival] = new Thread(() -> arrive(role, rate.getValue(), executor, deadline),
+                    "horserace-load-" + role.name().toLowerCase());
+            arrivals[arrival++].start();
+        }
+        for (Thread thread : arrivals) {
+            thread.join();
+        }
+        for (ThreadPoolExecutor executor : executors.values()) {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Prints throughput, latency percentiles and error rate of each command.
+     *
+     * @param out stream to print to
+     */
+    void printReport(PrintStream out) {
+        double seconds = durationMillis / 1000.0;
+        out.printf("%-22s %8s %10s %9s %9s %9s %8s %7s%n",
+                "command", "count", "per sec", "p50 ms", "p99 ms", "p999 ms", "errors", "error%");
+        for (Map.Entry<String, CommandStatistics> command : new TreeMap<>(statistics).entrySet()) {
+            CommandStatistics commandStatistics = command.getValue();
+            long[] latencies = commandStatistics.getSortedLatencies();
+            int count = latencies.length;
+            out.printf("%-22s %8d %10.1f %9.1f %9.1f %9.1f %8d %6.2f%%%n", command.getKey(), count, count / seconds,
+                    toMillis(CommandStatistics.percentile(latencies, 0.5)),
+                    toMillis(CommandStatistics.percentile(latencies, 0.99)),
+                    toMillis(CommandStatistics.percentile(latencies, 0.999)),
+                    commandStatistics.getErrors(),
+                    (count == 0) ? 0.0 : 100.0 * commandStatistics.getErrors() / count);
+        }
+        for (LoadRole role : arrivalRates.keySet()) {
+            out.printf("%s sessions: %d dropped, %d failed to log in%n", role.name().toLowerCase(),
+                    droppedSessions.get(role).get(), failedLogIns.get(role).get());
+        }
+    }
+
+    /**
+     * Starts sessions of role at random moments with given average rate until
+     * deadline.
+     *
+     * @param role role of sessions
+     * @param rate average number of sessions that start each second
+     * @param executor executor of sessions
+     * @param deadline end of test as {@link System#nanoTime()} value
+     */
+    private void arrive(LoadRole role, double rate, ThreadPoolExecutor executor, long deadline) {
+        if (rate <= 0) {
+            return;
+        }
+        Random random = ThreadLocalRandom.current();
+        while (true) {
+            long pause = (long) (exponential(random, 1000.0 / rate) * TimeUnit.MILLISECONDS.toNanos(1));
+            if (System.nanoTime() + pause >= deadline) {
+                return;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(pause);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            try {
+                executor.execute(() -> runSession(role, deadline));
+            } catch (RejectedExecutionException ex) {
+                droppedSessions.get(role).incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Runs one session of role.
+     *
+     * @param role role of session
+     * @param deadline end of test as {@link System#nanoTime()} value
+     */
+    private void runSession(LoadRole role, long deadline) {
+        Random random = ThreadLocalRandom.current();
+        int accounts = (role == LoadRole.BETTOR) ? users : DataSeeder.STAFF_ACCOUNTS;
+        LoadSession session = new LoadSession(url, statistics);
+        if (!role.logIn(session, 1 + random.nextInt(accounts))) {
+            failedLogIns.get(role).incrementAndGet();
+            return;
+        }
+        try {
+            for (int i = 0; (i < sessionActions) && (System.nanoTime() < deadline); i++) {
+                if (i > 0) {
+                    Thread.sleep((long) exponential(random, thinkTimeMillis));
+                }
+                role.act(session, random);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        session.execute("logout");
+    }
+
+    /**
+     * Get random value of exponential distribution.
+     *
+     * @param random random generator
+     * @param mean mean value
+     * @return random value
+     */
+    private static double exponential(Random random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     *
+     * @param nanos nanoseconds
+     * @return milliseconds
+     */
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Get arrival rate of role from system property.
+     *
+     * @param role role
+     * @param defaultRate rate if property is not set
+     * @return sessions per second
+     */
+    private static double getRate(LoadRole role, double defaultRate) {
+        String value = System.getProperty(PROPERTY_PREFIX + role.name().toLowerCase() + ".arrivalRate");
+        return (value == null) ? defaultRate : Double.parseDouble(value);
+    }
+
+    /**
+     * Get largest number of concurrent sessions of role from system property.
+     *
+     * @param role role
+     * @param defaultMaxSessions number if property is not set
+     * @return largest number of concurrent sessions
+     */
+    private static int getMaxSessions(LoadRole role, int defaultMaxSessions) {
+        return Integer.getInteger(PROPERTY_PREFIX + role.name().toLowerCase() + ".maxSessions", defaultMaxSessions);
+    }
+}
@@ -0,0 +1,147 @@
+package ua.epam.horseraceapp.util.loadtest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import ua.epam.horseraceapp.util.dao.h2.DataSeeder;
+
+/**
+ * Role of virtual user in load test.
+ * <p>
+ * Each role logs in with accounts created by {@link DataSeeder} and repeats
+ * its action: it reads a page and then sends a command about something found
+ * on it, the same way user clicks buttons of that page.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+enum LoadRole {
+
+    /**
+     * User who browses races and makes bets.
+     */
+    BETTOR(DataSeeder.EMAIL_PREFIX) {
+
+        @Override
+        void act(LoadSession session, Random random) {
+            List<String> raceIds = LoadSession.findAll(session.execute("get_races"), RACE_ID_PATTERN);
+            if (raceIds.isEmpty()) {
+                return;
+            }
+            String raceInfo = session.execute("race_info", "race_id", pick(raceIds, random));
+            List<String> horseIds = LoadSession.findAll(raceInfo, CONTESTANT_HORSE_ID_PATTERN);
+            if (!horseIds.isEmpty() && random.nextBoolean()) {
+                session.execute("make_bet", "contestant_horse_id", pick(horseIds, random),
+                        "amount", String.valueOf(1 + random.nextInt(20)));
+            }
+        }
+    },
+    /**
+     * Bookmaker who accepts, settles and pays bets.
+     */
+    BOOKMAKER(DataSeeder.BOOKMAKER_EMAIL_PREFIX) {
+
+        @Override
+        void act(LoadSession session, Random random) {
+            String page = session.execute("unviewed_bets");
+            List<String> toAccept = LoadSession.findAll(page, ACCEPT_BET_PATTERN);
+            List<String> toPay = LoadSession.findAll(page, PAY_BET_PATTERN);
+            List<String> toSettle = LoadSession.findAll(page, SETTLE_BET_PATTERN);
+            if (!toAccept.isEmpty()) {
+                session.execute("accept_bet", "bet_id", pick(toAccept, random));
+            }
+            if (!toSettle.isEmpty()) {
+                String[] bet = pick(toSettle, random).split(" ");
+                session.execute("determine_bet_result", "bet_id", bet[0], "position", bet[1]);
+            }
+            if (!toPay.isEmpty()) {
+                session.execute("pay_bet", "bet_id", pick(toPay, random));
+            }
+        }
+    },
+    /**
+     * Admin who creates results of races.
+     */
+    ADMIN(DataSeeder.ADMIN_EMAIL_PREFIX) {
+
+        @Override
+        void act(LoadSession session, Random random) {
+            List<String> raceIds = LoadSession.findAll(session.execute("unresulted_races"), RACE_ID_PATTERN);
+            if (!raceIds.isEmpty()) {
+                session.execute("create_result", "race_id", pick(raceIds, random));
+            }
+        }
+    };
+
+    /**
+     * Pattern of race identificator in races pages.
+     */
+    private static final Pattern RACE_ID_PATTERN = Pattern.compile("name=\"race_id\" value=\"(\\d+)\"");
+    /**
+     * Pattern of contestant horse identificator in race info page.
+     */
+    private static final Pattern CONTESTANT_HORSE_ID_PATTERN
+            = Pattern.compile("name=\"contestant_horse_id\" value=\"(\\d+)\"");
+    /**
+     * Pattern of identificator of bet that can be accepted.
+     */
+    private static final Pattern ACCEPT_BET_PATTERN
+            = Pattern.compile("value=\"accept_bet\">\\s*<input type=\"hidden\" name=\"bet_id\" value=\"(\\d+)\"");
+    /**
+     * Pattern of identificator of bet that can be paid.
+     */
+    private static final Pattern PAY_BET_PATTERN
+            = Pattern.compile("value=\"pay_bet\">\\s*<input type=\"hidden\" name=\"bet_id\" value=\"(\\d+)\"");
+    /**
+     * Pattern of identificator and horse position of bet whose result can be
+     * determined.
+     */
+    private static final Pattern SETTLE_BET_PATTERN = Pattern.compile("value=\"determine_bet_result\">\\s*"
+            + "<input type=\"hidden\" name=\"bet_id\" value=\"(\\d+)\">\\s*"
+            + "<input type=\"hidden\" name=\"position\" value=\"(\\d+)\"");
+
+    /**
+     * Prefix of emails of accounts of this role.
+     */
+    private final String emailPrefix;
+
+    /**
+     * Creates role.
+     *
+     * @param emailPrefix prefix of emails of accounts of this role
+     */
+    LoadRole(String emailPrefix) {
+        this.emailPrefix = emailPrefix;
+    }
+
+    /**
+     * Logs in session as account with given number.
+     *
+     * @param session session to log in
+     * @param account account number, starting from 1
+     * @return <code>true</code> if login command didn't fail
+     */
+    boolean logIn(LoadSession session, int account) {
+        return session.execute("login", "email", emailPrefix + account + DataSeeder.EMAIL_DOMAIN,
+                "password", DataSeeder.PASSWORD_PREFIX + account) != null;
+    }
+
+    /**
+     * Performs one action of this role.
+     *
+     * @param session logged in session
+     * @param random random generator of current thread
+     */
+    abstract void act(LoadSession session, Random random);
+
+    /**
+     * Picks random element of list.
+     *
+     * @param values list to pick from, not empty
+     * @param random random generator
+     * @return picked element
+     */
+    private static String pick(List<String> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
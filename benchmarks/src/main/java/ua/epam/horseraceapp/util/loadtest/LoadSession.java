@@ -0,0 +1,198 @@
+package ua.epam.horseraceapp.util.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP session of one virtual user.
+ * <p>
+ * Sends commands to application controller and keeps session cookie between
+ * them, as browser does. Latency and outcome of every command is recorded in
+ * statistics shared by all sessions.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+class LoadSession {
+
+    /**
+     * Name of servlet session cookie.
+     */
+    private static final String SESSION_COOKIE = "JSESSIONID";
+    /**
+     * Name of command parameter.
+     */
+    private static final String COMMAND_PARAMETER = "command";
+
+    /**
+     * URL of application controller.
+     */
+    private final URL url;
+    /**
+     * Statistics by command name.
+     */
+    private final Map<String, CommandStatistics> statistics;
+    /**
+     * Session cookie as name and value, <code>null</code> until server sets
+     * it.
+     */
+    private String sessionCookie;
+
+    /**
+     * Creates session.
+     *
+     * @param url URL of application controller
+     * @param statistics statistics by command name to record to
+     */
+    LoadSession(URL url, Map<String, CommandStatistics> statistics) {
+        this.url = url;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Sends command and reads response page.
+     * <p>
+     * Command fails if it can't be sent or server answers with error status.
+     * </p>
+     *
+     * @param command command name
+     * @param parameters command parameters as names followed by values
+     * @return response page or <code>null</code> if command failed
+     */
+    String execute(String command, String... parameters) {
+        long start = System.nanoTime();
+        String page = null;
+        try {
+            page = send(command, parameters);
+        } catch (IOException ex) {
+        }
+        statistics.computeIfAbsent(command, name -> new CommandStatistics())
+                .record(System.nanoTime() - start, page == null);
+        return page;
+    }
+
+    /**
+     * Finds all matches of pattern in page.
+     * <p>
+     * Value of match is its groups separated by space.
+     * </p>
+     *
+     * @param page page to search, may be <code>null</code>
+     * @param pattern pattern with groups to find
+     * @return found values
+     */
+    static List<String> findAll(String page, Pattern pattern) {
+        List<String> values = new ArrayList<>();
+        if (page != null) {
+            Matcher matcher = pattern.matcher(page);
+            while (matcher.find()) {
+                StringBuilder value = new StringBuilder(matcher.group(1));
+                for (int group = 2; group <= matcher.groupCount(); group++) {
+                    value.append(' ').append(matcher.group(group));
+                }
+                values.add(value.toString());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Posts command to controller.
+     *
+     * @param command command name
+     * @param parameters command parameters as names followed by values
+     * @return response page or <code>null</code> if server answered with
+     * error status
+     * @throws IOException if command can't be sent or response can't be read
+     */
+    private String send(String command, String... parameters) throws IOException {
+        StringBuilder form = new StringBuilder(COMMAND_PARAMETER).append('=').append(encode(command));
+        for (int i = 0; i + 1 < parameters.length; i += 2) {
+            form.append('&').append(encode(parameters[i])).append('=').append(encode(parameters[i + 1]));
+        }
+        byte[] body = form.toString().getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+        if (sessionCookie != null) {
+            connection.setRequestProperty("Cookie", sessionCookie);
+        }
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body);
+        }
+
+        int status = connection.getResponseCode();
+        rememberSessionCookie(connection);
+        InputStream input = (status < HttpURLConnection.HTTP_BAD_REQUEST)
+                ? connection.getInputStream() : connection.getErrorStream();
+        String page = (input == null) ? "" : read(input);
+        return (status < HttpURLConnection.HTTP_BAD_REQUEST) ? page : null;
+    }
+
+    /**
+     * Remembers session cookie if server set it.
+     *
+     * @param connection connection with response headers
+     */
+    private void rememberSessionCookie(HttpURLConnection connection) {
+        for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+            if (!"Set-Cookie".equalsIgnoreCase(header.getKey())) {
+                continue;
+            }
+            for (String cookie : header.getValue()) {
+                if (cookie.startsWith(SESSION_COOKIE + "=")) {
+                    int end = cookie.indexOf(';');
+                    sessionCookie = (end < 0) ? cookie : cookie.substring(0, end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads whole stream as UTF-8 text and closes it.
+     *
+     * @param input stream to read
+     * @return read text
+     * @throws IOException if stream can't be read
+     */
+    private String read(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Encodes form value.
+     *
+     * @param value value to encode
+     * @return URL-encoded value
+     */
+    private String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
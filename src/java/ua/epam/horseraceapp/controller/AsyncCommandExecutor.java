@@ -0,0 +1,317 @@
+package ua.epam.horseraceapp.controller;
+
+import java.io.PrintWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.concurrent.VirtualThreads;
+import ua.epam.horseraceapp.util.metrics.LatencyHistogram;
+import ua.epam.horseraceapp.util.metrics.MetricsSource;
+
+/**
+ * Executor of commands of asynchronous requests.
+ * <p>
+ * Has its own bounded number of threads and bounded queue, so commands that
+ * wait for database don't hold container threads. Command that doesn't fit
+ * into queue is rejected. Records how long commands wait in queue and how
+ * long they run.
+ * </p>
+ * <p>
+ * Command that doesn't start within timeout is dropped and its timeout
+ * handler is called instead. Started command is never timed out, so it may
+ * use its request until it ends.
+ * </p>
+ * <p>
+ * On Java 21 and later commands may run on virtual threads instead: every
+ * command, together with DAO calls it makes, starts at once on its own
+ * virtual thread, and only number of running commands is bounded. Blocking
+ * JDBC calls then don't occupy platform threads, so connection pool must be
+ * limited by {@link ua.epam.horseraceapp.util.connection.SemaphoreConnectionManager}
+ * to keep database from being flooded.
+ * </p>
+ * <p>
+ * Configured by system properties with prefix {@value #PROPERTY_PREFIX}:
+ * <ul>
+ * <li><code>enabled</code> whether controller processes requests
+ * asynchronously</li>
+ * <li><code>virtualThreads</code> whether commands run on virtual threads;
+ * enables asynchronous processing too</li>
+ * <li><code>threads</code> number of threads, or number of running commands
+ * if virtual threads are used</li>
+ * <li><code>queueSize</code> number of commands that may wait for thread,
+ * not used with virtual threads</li>
+ * <li><code>timeoutMillis</code> time after which request that is not
+ * started yet is answered with error</li>
+ * <li><code>tracePinnedThreads</code> <code>short</code> or
+ * <code>full</code> to print stack traces of virtual threads that block while
+ * pinned to carrier thread</li>
+ * </ul>
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+class AsyncCommandExecutor implements MetricsSource {
+
+    /**
+     * Prefix of system properties that configure executor.
+     */
+    static final String PROPERTY_PREFIX = "horserace.async.";
+    /**
+     * System property that enables asynchronous processing.
+     */
+    static final String ENABLED_PROPERTY = PROPERTY_PREFIX + "enabled";
+    /**
+     * System property that makes commands run on virtual threads.
+     */
+    static final String VIRTUAL_THREADS_PROPERTY = VirtualThreads.ENABLED_PROPERTY;
+
+    /**
+     * Default number of platform threads.
+     */
+    private static final int DEFAULT_THREADS = 50;
+    /**
+     * Default number of commands running on virtual threads.
+     */
+    private static final int DEFAULT_VIRTUAL_THREADS = 10000;
+    /**
+     * Prefix of names of command threads.
+     */
+    private static final String THREAD_NAME_PREFIX = "horserace-command-";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Logger.getLogger(AsyncCommandExecutor.class);
+
+    /**
+     * Executor of commands.
+     */
+    private final ExecutorService executor;
+    /**
+     * Permits of running commands if virtual threads are used,
+     * <code>null</code> otherwise.
+     */
+    private final Semaphore virtualSlots;
+    /**
+     * Time after which request whose command is not started yet is answered
+     * with error in milliseconds.
+     */
+    private final long timeoutMillis;
+    /**
+     * Thread that calls timeout handlers of commands that didn't start in
+     * time.
+     */
+    private final ScheduledThreadPoolExecutor timeouts = createTimeouts();
+
+    /**
+     * Time of waiting in queue.
+     */
+    private final LatencyHistogram queueTime = new LatencyHistogram();
+    /**
+     * Time of running command.
+     */
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    /**
+     * Number of commands waiting in queue.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+    /**
+     * Number of running commands.
+     */
+    private final AtomicInteger running = new AtomicInteger();
+    /**
+     * Number of commands that didn't fit into queue.
+     */
+    private final LongAdder rejections = new LongAdder();
+    /**
+     * Number of commands that didn't start in time.
+     */
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Creates executor with platform threads.
+     *
+     * @param threads number of threads
+     * @param queueSize number of commands that may wait for thread
+     * @param timeoutMillis time after which request whose command is not
+     * started yet is answered with error
+     */
+    AsyncCommandExecutor(int threads, int queueSize, long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.virtualSlots = null;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Creates executor with virtual threads.
+     *
+     * @param maxRunning largest number of running commands
+     * @param timeoutMillis time after which request whose command is not
+     * started yet is answered with error
+     * @throws IllegalStateException if runtime has no virtual threads
+     */
+    AsyncCommandExecutor(int maxRunning, long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.virtualSlots = new Semaphore(maxRunning);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor(THREAD_NAME_PREFIX);
+    }
+
+    /**
+     * Creates thread that calls timeout handlers.
+     *
+     * @return scheduled executor of timeout handlers
+     */
+    private static ScheduledThreadPoolExecutor createTimeouts() {
+        ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + "timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timeouts.setRemoveOnCancelPolicy(true);
+        return timeouts;
+    }
+
+    /**
+     * Checks whether asynchronous processing is enabled by system
+     * properties.
+     *
+     * @return <code>true</code> if requests must be processed
+     * asynchronously. Otherwise <code>false</code>
+     */
+    static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY) || Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY);
+    }
+
+    /**
+     * Creates executor configured by system properties.
+     * <p>
+     * If virtual threads are requested but runtime has none, platform threads
+     * are used.
+     * </p>
+     *
+     * @return executor
+     */
+    static AsyncCommandExecutor fromSystemProperties() {
+        long timeout = Long.getLong(PROPERTY_PREFIX + "timeoutMillis", 60000);
+        if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+            if (VirtualThreads.isSupported()) {
+                String tracePinnedThreads = System.getProperty(PROPERTY_PREFIX + "tracePinnedThreads");
+                if (tracePinnedThreads != null) {
+                    VirtualThreads.tracePinnedThreads(tracePinnedThreads);
+                }
+                LOG.info("Commands run on virtual threads");
+                return new AsyncCommandExecutor(
+                        Integer.getInteger(PROPERTY_PREFIX + "threads", DEFAULT_VIRTUAL_THREADS), timeout);
+            }
+            LOG.warn("Runtime has no virtual threads, commands run on platform threads");
+        }
+        return new AsyncCommandExecutor(
+                Integer.getInteger(PROPERTY_PREFIX + "threads", DEFAULT_THREADS),
+                Integer.getInteger(PROPERTY_PREFIX + "queueSize", 200), timeout);
+    }
+
+    /**
+     * Queues command for execution.
+     * <p>
+     * If command doesn't start within timeout, it is dropped and timeout
+     * handler is called instead, in thread of executor. Exactly one of them
+     * is called.
+     * </p>
+     *
+     * @param command command to execute
+     * @param timeoutHandler handler of command that didn't start in time
+     * @throws RejectedExecutionException if queue is full, too many commands
+     * run on virtual threads or executor is shut down
+     */
+    void execute(Runnable command, Runnable timeoutHandler) {
+        if ((virtualSlots != null) && !virtualSlots.tryAcquire()) {
+            rejections.increment();
+            throw new RejectedExecutionException("Too many running commands");
+        }
+        AtomicBoolean started = new AtomicBoolean();
+        ScheduledFuture<?> timeout = timeouts.schedule(() -> {
+            if (started.compareAndSet(false, true)) {
+                expirations.increment();
+                timeoutHandler.run();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        long submitted = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                queueTime.record(start - submitted);
+                queued.decrementAndGet();
+                if (!started.compareAndSet(false, true)) {
+                    if (virtualSlots != null) {
+                        virtualSlots.release();
+                    }
+                    return;
+                }
+                timeout.cancel(false);
+                running.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    running.decrementAndGet();
+                    runTime.record(System.nanoTime() - start);
+                    if (virtualSlots != null) {
+                        virtualSlots.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            timeout.cancel(false);
+            queued.decrementAndGet();
+            if (virtualSlots != null) {
+                virtualSlots.release();
+            }
+            rejections.increment();
+            throw ex;
+        }
+    }
+
+    /**
+     * Stops accepting commands and waits a bit for queued ones.
+     */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        timeouts.shutdownNow();
+    }
+
+    @Override
+    public void writeMetrics(PrintWriter writer) {
+        writer.println("# TYPE horserace_async_queue_seconds histogram");
+        queueTime.writeTo(writer, "horserace_async_queue_seconds", "");
+        writer.println("# TYPE horserace_async_run_seconds histogram");
+        runTime.writeTo(writer, "horserace_async_run_seconds", "");
+        writer.println("# TYPE horserace_async_threads_active gauge");
+        writer.println("horserace_async_threads_active " + running.get());
+        writer.println("# TYPE horserace_async_queued gauge");
+        writer.println("horserace_async_queued " + queued.get());
+        writer.println("# TYPE horserace_async_rejections_total counter");
+        writer.println("horserace_async_rejections_total " + rejections.sum());
+        writer.println("# TYPE horserace_async_timeouts_total counter");
+        writer.println("horserace_async_timeouts_total " + expirations.sum());
+    }
+}
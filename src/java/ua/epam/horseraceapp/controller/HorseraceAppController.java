@@ -7,15 +7,37 @@ package ua.epam.horseraceapp.controller;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import javax.servlet.AsyncContext;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import org.apache.log4j.Logger;
 import ua.epam.horseraceapp.controller.command.AbstractCommand;
 import ua.epam.horseraceapp.controller.command.CommandFactory;
+import ua.epam.horseraceapp.util.connection.ReadYourWrites;
+import ua.epam.horseraceapp.util.dao.entity.User;
+import ua.epam.horseraceapp.util.metrics.MetricsRegistry;
 
 /**
+ * Front controller of application.
+ * <p>
+ * By default command is executed in container thread that received request.
+ * If system property {@value AsyncCommandExecutor#ENABLED_PROPERTY} is
+ * <code>true</code>, request is processed asynchronously: container thread is
+ * released at once, command is executed by {@link AsyncCommandExecutor} and
+ * request is dispatched to page when command ends. Request that can't be
+ * queued or waits in queue longer than timeout is answered with
+ * <code>503 Service Unavailable</code>, and its command is not executed.
+ * Container never times out asynchronous request, so request and response
+ * stay valid until command that already started ends.
+ * If system property {@value AsyncCommandExecutor#VIRTUAL_THREADS_PROPERTY}
+ * is <code>true</code>, requests are processed asynchronously too, and
+ * commands run on virtual threads.
+ * </p>
  *
  * @author Koroid Daniil
  */
@@ -31,15 +53,31 @@ public class HorseraceAppController extends HttpServlet {
      */
     private static final String COMMAND_PARAMETER = "command";
 
+    /**
+     * Session attribute with logged in user.
+     */
+    private static final String USER_ATTRIBUTE = "user";
+
     /**
      * Log4j init file parameter.
      */
     private final String LOG4J_INIT_FILE_PARAMETER = "log4j-init-file";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Logger.getLogger(HorseraceAppController.class);
     
     /**
      * Command factory.
      */
     private final CommandFactory factory;
+
+    /**
+     * Executor of commands of asynchronous requests, <code>null</code> if
+     * requests are processed synchronously.
+     */
+    private AsyncCommandExecutor asyncExecutor;
     
     /**
      * Creates horserace application controller.
@@ -68,9 +106,112 @@ public class HorseraceAppController extends HttpServlet {
         String commandString = request.getParameter(COMMAND_PARAMETER);
         
         AbstractCommand command = factory.getCommand(commandString);
-        String forward = command.execute(request, response);
-        RequestDispatcher requestDispatcher = request.getRequestDispatcher(forward);
-        requestDispatcher.forward(request, response);
+        if (asyncExecutor != null) {
+            processAsync(request, response, command);
+            return;
+        }
+        ReadYourWrites.bindUser(getSessionUserId(request));
+        try {
+            String forward = command.execute(request, response);
+            RequestDispatcher requestDispatcher = request.getRequestDispatcher(forward);
+            requestDispatcher.forward(request, response);
+        } finally {
+            ReadYourWrites.unbindUser();
+        }
+    }
+
+    /**
+     * Starts asynchronous processing of request and queues command.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @param command command of request
+     * @throws IOException if an I/O error occurs
+     */
+    private void processAsync(HttpServletRequest request, HttpServletResponse response,
+            AbstractCommand command) throws IOException {
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(0);
+        Integer userId = getSessionUserId(request);
+
+        try {
+            asyncExecutor.execute(() -> executeAsync(asyncContext, command, userId),
+                    () -> answerUnavailable(asyncContext));
+        } catch (RejectedExecutionException ex) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            asyncContext.complete();
+        }
+    }
+
+    /**
+     * Executes command of asynchronous request and dispatches request to page
+     * returned by command.
+     * <p>
+     * If command throws exception, request is answered with
+     * <code>500 Internal Server Error</code>. If request was completed by
+     * container while command was running, for example on error of
+     * connection, result of command is dropped.
+     * </p>
+     *
+     * @param asyncContext context of asynchronous request
+     * @param command command of request
+     * @param userId identificator of user logged in in session of request
+     */
+    private void executeAsync(AsyncContext asyncContext, AbstractCommand command, Integer userId) {
+        HttpServletRequest request = (HttpServletRequest) asyncContext.getRequest();
+        HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+
+        String forward = null;
+        ReadYourWrites.bindUser(userId);
+        try {
+            forward = command.execute(request, response);
+        } catch (RuntimeException ex) {
+            LOG.error("Command failed", ex);
+        } finally {
+            ReadYourWrites.unbindUser();
+        }
+
+        try {
+            if (forward != null) {
+                asyncContext.dispatch(forward.startsWith("/") ? forward : "/" + forward);
+                return;
+            }
+            try {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } catch (IOException ex) {
+            }
+            asyncContext.complete();
+        } catch (IllegalStateException ex) {
+            LOG.warn("Request was completed before command ended");
+        }
+    }
+
+    /**
+     * Answers asynchronous request whose command didn't start in time with
+     * <code>503 Service Unavailable</code>.
+     *
+     * @param asyncContext context of asynchronous request
+     */
+    private void answerUnavailable(AsyncContext asyncContext) {
+        try {
+            ((HttpServletResponse) asyncContext.getResponse())
+                    .sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        } catch (IOException ex) {
+        }
+        asyncContext.complete();
+    }
+
+    /**
+     * Get identificator of user that is logged in in session of request.
+     *
+     * @param request servlet request
+     * @return user identificator or <code>null</code> if user is not logged
+     * in
+     */
+    private Integer getSessionUserId(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        User user = session == null ? null : (User) session.getAttribute(USER_ATTRIBUTE);
+        return user == null ? null : user.getId();
     }
 
     // <editor-fold defaultstate="collapsed" desc="HttpServlet methods. Click on the + sign on the left to edit the code.">
@@ -121,7 +262,25 @@ public class HorseraceAppController extends HttpServlet {
         } else {
             org.apache.log4j.BasicConfigurator.configure();
         }
+
+        try {
+            AbstractCommand.initializeFactory();
+        } catch (IllegalStateException | IllegalArgumentException ex) {
+            throw new ServletException("Can't initialize DAO factory", ex);
+        }
+
+        if (AsyncCommandExecutor.isEnabled()) {
+            asyncExecutor = AsyncCommandExecutor.fromSystemProperties();
+            MetricsRegistry.register(asyncExecutor);
+        }
     }
 
-    
+    @Override
+    public void destroy() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+        factory.destroy();
+        AbstractCommand.closeFactory();
+    }
 }
@@ -0,0 +1,44 @@
+package ua.epam.horseraceapp.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import ua.epam.horseraceapp.util.metrics.MetricsRegistry;
+
+/**
+ * Monitoring endpoint.
+ * <p>
+ * Writes metrics of all sources registered in {@link MetricsRegistry} in
+ * Prometheus text format. Only monitoring network may reach it, see
+ * {@link ua.epam.horseraceapp.filter.MetricsAccessFilter}.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class MetricsServlet extends HttpServlet {
+
+    /**
+     * Content type of Prometheus text format.
+     */
+    private static final String CONTENT_TYPE = "text/plain;version=0.0.4;charset=UTF-8";
+
+    /**
+     * Handles the HTTP <code>GET</code> method.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType(CONTENT_TYPE);
+        PrintWriter writer = response.getWriter();
+        MetricsRegistry.writeAll(writer);
+        writer.flush();
+    }
+}
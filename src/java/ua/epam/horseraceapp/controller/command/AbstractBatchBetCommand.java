@@ -0,0 +1,71 @@
+package ua.epam.horseraceapp.controller.command;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import ua.epam.horseraceapp.util.dao.BetDao;
+
+/**
+ * Abstract class for command that processes many selected bets at once.
+ * <p>
+ * Reads identificators of all selected bets from request, processes them with
+ * one call to {@link BetDao} and sets outcome of processing for each bet as
+ * request attribute. After that unviewed bets are shown.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public abstract class AbstractBatchBetCommand extends AbstractCommand {
+
+    @Override
+    public String execute(HttpServletRequest request, HttpServletResponse response) {
+        List<Integer> betIds = getBetIds(request);
+        if (betIds.isEmpty()) {
+            request.setAttribute(ERROR_ATTRIBUTE, ERR_NO_BETS_SELECTED);
+        } else {
+            Map<Integer, Boolean> outcomes = processBets(factory.createBetDao(), betIds);
+            request.setAttribute(BET_OUTCOMES, outcomes);
+            if (outcomes.containsValue(false)) {
+                request.setAttribute(ERROR_ATTRIBUTE, ERR_SOME_BETS_FAILED);
+            } else {
+                request.setAttribute(MESSAGE_ATTRIBUTE, MSG_BETS_SUCCESSFULLY_PROCESSED);
+            }
+        }
+        return getCommand(GetUnviewedBetsCommand.COMMAND).execute(request, response);
+    }
+
+    /**
+     * Processes bets with given identificators.
+     *
+     * @param betDao DAO to process bets with
+     * @param betIds identificators of bets to process
+     * @return outcome of processing for each bet identificator
+     */
+    abstract Map<Integer, Boolean> processBets(BetDao betDao, Collection<Integer> betIds);
+
+    /**
+     * Get identificators of all selected bets.
+     * <p>
+     * Values that are not integer numbers are skipped.
+     * </p>
+     *
+     * @param request request to get bet identificators from
+     * @return identificators of selected bets
+     */
+    private List<Integer> getBetIds(HttpServletRequest request) {
+        List<Integer> betIds = new ArrayList<>();
+        String[] values = request.getParameterValues(BET_ID);
+        if (values != null) {
+            for (String value : values) {
+                try {
+                    betIds.add(Integer.valueOf(value));
+                } catch (NumberFormatException ex) {
+                }
+            }
+        }
+        return betIds;
+    }
+}
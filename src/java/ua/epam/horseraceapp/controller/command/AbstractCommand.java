@@ -3,7 +3,10 @@ package ua.epam.horseraceapp.controller.command;
 import java.util.regex.Pattern;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import ua.epam.horseraceapp.util.dao.AsyncDaoFactory;
 import ua.epam.horseraceapp.util.dao.DaoFactory;
+import ua.epam.horseraceapp.util.dao.cache.CachingDaoFactory;
+import ua.epam.horseraceapp.util.dao.wallet.WalletDaoFactory;
 
 /**
  * Abstract class for command in application.
@@ -72,8 +75,10 @@ public abstract class AbstractCommand {
     /**
      * HTTP request parameters.
      */
+    protected static final String AFTER_ID = "after_id";
     protected static final String AMOUNT = "amount";
     protected static final String BET_ID = "bet_id";
+    protected static final String BET_OUTCOMES = "bet_outcomes";
     protected static final String CONTESTANT_HORSE_ID = "contestant_horse_id";
     protected static final String EMAIL = "email";
     protected static final String ERROR_ATTRIBUTE = "error";
@@ -81,6 +86,7 @@ public abstract class AbstractCommand {
     protected static final String LAST_NAME = "last_name";
     protected static final String MESSAGE_ATTRIBUTE = "message";
     protected static final String MY_BETS = "my_bets";
+    protected static final String NEXT_AFTER_ID = "next_after_id";
     protected static final String PASSWORD = "password";
     protected static final String PASSWORD_REPEAT = "password_repeat";
     protected static final String POSITION = "position";
@@ -106,6 +112,7 @@ public abstract class AbstractCommand {
     protected static final String ERR_NONPOSITIVE_BET_AMOUNT = "error.nonpositive.bet.amount";
     protected static final String ERR_BET_AMOUNT_GREATER_THEN_USER_BALANCE = "error.bet.amount.gt.user.balance";
     protected static final String ERR_CANT_MAKE_BET = "error.cant.make.bet";
+    protected static final String ERR_MARKET_CLOSED = "error.market.closed";
     protected static final String MSG_BET_SUCCESSFULLY_PAID = "message.bet.successfully.payed";
     protected static final String ERR_FAILED_PAYED_BET = "error.failed.payed.bet";
     protected static final String MSG_BALANCE_SUCCESSFULLY_RECHARGED = "message.balance.successfully.recharged";
@@ -115,6 +122,14 @@ public abstract class AbstractCommand {
     protected static final String ERR_TOO_SHORT_PASSWORD = "error.too.short.password";
     protected static final String ERR_PASSWORDS_DONT_MATCH = "error.passwords.dont.match";
     protected static final String ERR_EMAIL_EXISTS = "error.email.exists";
+    protected static final String MSG_BETS_SUCCESSFULLY_PROCESSED = "message.bets.successfully.processed";
+    protected static final String ERR_SOME_BETS_FAILED = "error.some.bets.failed";
+    protected static final String ERR_NO_BETS_SELECTED = "error.no.bets.selected";
+
+    /**
+     * Number of bets shown on one page.
+     */
+    protected static final int BETS_PAGE_SIZE = 50;
 
     /**
      * HTTP request parameter used to to set command that was used.
@@ -125,19 +140,66 @@ public abstract class AbstractCommand {
      */
     protected static final String REQ_ATTRIBUTE = "req";
 
+    /**
+     * Caching factory shared by all commands.
+     * <p>
+     * Must be shared for cached race cards to be invalidated by all commands.
+     * Decorates factory of database set by system property
+     * {@value DaoFactory#DAO_TYPE_PROPERTY}.
+     * </p>
+     */
+    private static final CachingDaoFactory CACHING_FACTORY
+            = new CachingDaoFactory(WalletDaoFactory.decorateIfEnabled(DaoFactory.getConfiguredInstance()));
+    /**
+     * Factory of asynchronous DAO shared by all commands, so all commands
+     * share one bounded executor of DAO calls.
+     */
+    private static final AsyncDaoFactory ASYNC_FACTORY = AsyncDaoFactory.fromSystemProperties(CACHING_FACTORY);
+
     /**
      * Factory to get DAO.
      */
     protected DaoFactory factory;
+    /**
+     * Factory to get asynchronous DAO, for commands that make several
+     * independent reads.
+     */
+    protected AsyncDaoFactory asyncFactory;
 
     /**
      * Instanciates Abstract command.
      * <p>
-     * Also creates factory that is used to create Dao.
+     * Also sets factories that are used to create Dao.
      * </p>
      */
     public AbstractCommand() {
-        factory = DaoFactory.getInstance(DaoFactory.DaoType.MySQL);
+        factory = CACHING_FACTORY;
+        asyncFactory = ASYNC_FACTORY;
+    }
+
+    /**
+     * Prepares factory shared by all commands for work.
+     * <p>
+     * Must be called once at application startup, so that factory with all
+     * its decorators, such as wallet ledger, is ready before any request is
+     * processed.
+     * </p>
+     *
+     * @throws IllegalStateException if factory can't be prepared
+     */
+    public static void initializeFactory() {
+        CACHING_FACTORY.initialize();
+    }
+
+    /**
+     * Releases resources of factory shared by all commands.
+     * <p>
+     * Must be called once at application shutdown.
+     * </p>
+     */
+    public static void closeFactory() {
+        ASYNC_FACTORY.close();
+        CACHING_FACTORY.close();
     }
 
     /**
@@ -149,6 +211,34 @@ public abstract class AbstractCommand {
      */
     public abstract String execute(HttpServletRequest request, HttpServletResponse response);
 
+    /**
+     * Releases resources of command.
+     * <p>
+     * Called once at application shutdown. Does nothing by default.
+     * </p>
+     */
+    public void destroy() {
+    }
+
+    /**
+     * Get request parameter with given name as integer number.
+     * <p>
+     * If there is no such parameter or it is not an integer number - returns
+     * <code>null</code>.
+     * </p>
+     *
+     * @param request request to get parameter from
+     * @param name name of parameter
+     * @return value of parameter or <code>null</code>
+     */
+    protected Integer getIntegerParameter(HttpServletRequest request, String name) {
+        try {
+            return Integer.valueOf(request.getParameter(name));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
     /**
      * Returns command by given string.
      *
@@ -156,6 +246,6 @@ public abstract class AbstractCommand {
      * @return command that is associated with given string
      */
     protected AbstractCommand getCommand(String command) {
-        return CommandFactory.getInstance().getCommand(command);
+        return CommandFactory.getInstance().getChainedCommand(command);
     }
 }
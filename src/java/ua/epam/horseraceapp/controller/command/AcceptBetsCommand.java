@@ -0,0 +1,24 @@
+package ua.epam.horseraceapp.controller.command;
+
+import java.util.Collection;
+import java.util.Map;
+import ua.epam.horseraceapp.util.dao.BetDao;
+
+/**
+ * Class that represents command that accepts all selected bets.
+ *
+ * @see BetDao#acceptBets(java.util.Collection)
+ * @author Koroid Daniil
+ */
+public class AcceptBetsCommand extends AbstractBatchBetCommand {
+
+    /**
+     * Command to accept selected bets.
+     */
+    static final String COMMAND = "accept_bets";
+
+    @Override
+    Map<Integer, Boolean> processBets(BetDao betDao, Collection<Integer> betIds) {
+        return betDao.acceptBets(betIds);
+    }
+}
@@ -5,9 +5,15 @@ import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.metrics.MetricsRegistry;
 
 /**
  * Factory for commands.
+ * <p>
+ * Every given command is measured: commands given to controller and commands
+ * given to other commands for chained execution are recorded separately in
+ * metrics, which are registered in {@link MetricsRegistry}.
+ * </p>
  *
  * @author Koroid Daniil
  */
@@ -18,10 +24,41 @@ public class CommandFactory {
      */
     private static final CommandFactory instance = new CommandFactory();
 
+    /**
+     * Name under which unknown commands are measured.
+     */
+    private static final String UNKNOWN_COMMAND = "unknown";
+
     /**
      * Pool of commands.
      */
     private final Map<String, AbstractCommand> commandsMap;
+    /**
+     * Measured commands for controller.
+     */
+    private final Map<String, AbstractCommand> measuredCommands = new HashMap<>();
+    /**
+     * Measured commands for chained execution.
+     */
+    private final Map<String, AbstractCommand> measuredChainedCommands = new HashMap<>();
+    /**
+     * Measured default command for controller.
+     */
+    private final AbstractCommand measuredDefaultCommand;
+    /**
+     * Measured default command for chained execution.
+     */
+    private final AbstractCommand measuredChainedDefaultCommand;
+    /**
+     * Command that is returned for unknown command names.
+     */
+    private final AbstractCommand defaultCommand = new AbstractCommand() {
+
+        @Override
+        public String execute(HttpServletRequest request, HttpServletResponse response) {
+            return "index.jsp";
+        }
+    };
 
     /**
      * Contructs factory object.
@@ -32,8 +69,10 @@ public class CommandFactory {
     private CommandFactory() {
         commandsMap = new HashMap<>();
         commandsMap.put(AcceptBetCommand.COMMAND, new AcceptBetCommand());
+        commandsMap.put(AcceptBetsCommand.COMMAND, new AcceptBetsCommand());
         commandsMap.put(CreateResultCommand.COMMAND, new CreateResultCommand());
         commandsMap.put(DeclineBetCommand.COMMAND, new DeclineBetCommand());
+        commandsMap.put(DeclineBetsCommand.COMMAND, new DeclineBetsCommand());
         commandsMap.put(DetermineBetResultCommand.COMMAND, new DetermineBetResultCommand());
         commandsMap.put(GetAllRacesCommand.COMMAND, new GetAllRacesCommand());
         commandsMap.put(GetRaceInfoCommand.COMMAND, new GetRaceInfoCommand());
@@ -44,8 +83,23 @@ public class CommandFactory {
         commandsMap.put(LogOutCommand.COMMAND, new LogOutCommand());
         commandsMap.put(MakeBetCommand.COMMAND, new MakeBetCommand());
         commandsMap.put(PayBetCommand.COMMAND, new PayBetCommand());
+        commandsMap.put(PayBetsCommand.COMMAND, new PayBetsCommand());
         commandsMap.put(RechargeBalanceCommand.COMMAND, new RechargeBalanceCommand());
         commandsMap.put(RegisterCommand.COMMAND, new RegisterCommand());
+        commandsMap.put(SettleBetsCommand.COMMAND, new SettleBetsCommand());
+
+        CommandMetrics metrics = new CommandMetrics();
+        for (Map.Entry<String, AbstractCommand> command : commandsMap.entrySet()) {
+            measuredCommands.put(command.getKey(), new MeasuredCommand(command.getValue(),
+                    metrics.getTimer(command.getKey(), false), false));
+            measuredChainedCommands.put(command.getKey(), new MeasuredCommand(command.getValue(),
+                    metrics.getTimer(command.getKey(), true), true));
+        }
+        measuredDefaultCommand = new MeasuredCommand(defaultCommand,
+                metrics.getTimer(UNKNOWN_COMMAND, false), false);
+        measuredChainedDefaultCommand = new MeasuredCommand(defaultCommand,
+                metrics.getTimer(UNKNOWN_COMMAND, true), true);
+        MetricsRegistry.register(metrics);
     }
 
     /**
@@ -71,20 +125,44 @@ public class CommandFactory {
      * @return instance of command
      */
     public AbstractCommand getCommand(String commandName) {
-        AbstractCommand command = commandsMap.get(commandName);
+        AbstractCommand command = measuredCommands.get(commandName);
         if (command == null) {
             Logger log = Logger.getLogger(CommandFactory.class);
             log.warn("Unknown command string was given: " + commandName);
             
-            return new AbstractCommand() {
-
-                @Override
-                public String execute(HttpServletRequest request, HttpServletResponse response) {
-                    return "index.jsp";
-                }
-            };
+            return measuredDefaultCommand;
         } else {
             return command;
         }
     }
+
+    /**
+     * Get command associated with given command name for execution by other
+     * command.
+     * <p>
+     * The same as {@link #getCommand(String)}, but execution is measured as
+     * chained.
+     * </p>
+     *
+     * @param commandName name of command
+     * @return instance of command
+     */
+    AbstractCommand getChainedCommand(String commandName) {
+        AbstractCommand command = measuredChainedCommands.get(commandName);
+        return (command == null) ? measuredChainedDefaultCommand : command;
+    }
+
+    /**
+     * Releases resources of all commands.
+     * <p>
+     * Must be called once at application shutdown.
+     * </p>
+     *
+     * @see AbstractCommand#destroy()
+     */
+    public void destroy() {
+        for (AbstractCommand command : commandsMap.values()) {
+            command.destroy();
+        }
+    }
 }
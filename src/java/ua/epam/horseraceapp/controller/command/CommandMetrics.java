@@ -0,0 +1,131 @@
+package ua.epam.horseraceapp.controller.command;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import ua.epam.horseraceapp.util.metrics.LatencyHistogram;
+import ua.epam.horseraceapp.util.metrics.MetricsSource;
+
+/**
+ * Latencies, executions and errors of commands.
+ * <p>
+ * Commands executed by controller and commands executed by other commands
+ * are recorded separately, so time of chained command is visible both on its
+ * own and inside time of command that called it.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+class CommandMetrics implements MetricsSource {
+
+    /**
+     * Quantiles of latency that are written.
+     */
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    /**
+     * Metrics of commands executed by controller, by command name.
+     */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    /**
+     * Metrics of commands executed by other commands, by command name.
+     */
+    private final Map<String, Timer> chainedTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Get metrics of command.
+     *
+     * @param commandName command name
+     * @param chained whether command is executed by other command
+     * @return metrics of command
+     */
+    Timer getTimer(String commandName, boolean chained) {
+        return (chained ? chainedTimers : timers).computeIfAbsent(commandName, name -> new Timer());
+    }
+
+    @Override
+    public void writeMetrics(PrintWriter writer) {
+        writer.println("# TYPE horserace_command_duration_seconds histogram");
+        forEach((labels, timer) -> timer.duration.writeTo(writer, "horserace_command_duration_seconds", labels));
+        writer.println("# TYPE horserace_command_duration_quantile_seconds gauge");
+        forEach((labels, timer) -> {
+            for (double quantile : QUANTILES) {
+                writer.println("horserace_command_duration_quantile_seconds{" + labels + ",quantile=\""
+                        + quantile + "\"} " + timer.duration.getQuantile(quantile));
+            }
+        });
+        writer.println("# TYPE horserace_command_duration_max_seconds gauge");
+        forEach((labels, timer) -> writer.println("horserace_command_duration_max_seconds{" + labels + "} "
+                + timer.duration.getMax()));
+        writer.println("# TYPE horserace_command_executions_total counter");
+        forEach((labels, timer) -> writer.println("horserace_command_executions_total{" + labels + "} "
+                + timer.duration.getCount()));
+        writer.println("# TYPE horserace_command_exceptions_total counter");
+        forEach((labels, timer) -> writer.println("horserace_command_exceptions_total{" + labels + "} "
+                + timer.exceptions.sum()));
+        writer.println("# TYPE horserace_command_rejections_total counter");
+        for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+            if (timer.getValue().duration.getCount() > 0) {
+                writer.println("horserace_command_rejections_total{command=\"" + timer.getKey() + "\"} "
+                        + timer.getValue().rejections.sum());
+            }
+        }
+    }
+
+    /**
+     * Passes metrics of every command that was executed together with its
+     * labels to consumer.
+     *
+     * @param consumer consumer of labels and metrics
+     */
+    private void forEach(BiConsumer<String, Timer> consumer) {
+        for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+            if (timer.getValue().duration.getCount() > 0) {
+                consumer.accept("command=\"" + timer.getKey() + "\",chained=\"false\"", timer.getValue());
+            }
+        }
+        for (Map.Entry<String, Timer> timer : chainedTimers.entrySet()) {
+            if (timer.getValue().duration.getCount() > 0) {
+                consumer.accept("command=\"" + timer.getKey() + "\",chained=\"true\"", timer.getValue());
+            }
+        }
+    }
+
+    /**
+     * Metrics of one command.
+     */
+    static class Timer {
+
+        /**
+         * Durations of executions.
+         */
+        private final LatencyHistogram duration = new LatencyHistogram();
+        /**
+         * Number of executions that threw exception.
+         */
+        private final LongAdder exceptions = new LongAdder();
+        /**
+         * Number of executions that ended with error message for user.
+         */
+        private final LongAdder rejections = new LongAdder();
+
+        /**
+         * Records execution of command.
+         *
+         * @param nanos duration in nanoseconds
+         * @param thrown whether execution threw exception
+         * @param rejected whether execution ended with error message for user
+         */
+        void record(long nanos, boolean thrown, boolean rejected) {
+            duration.record(nanos);
+            if (thrown) {
+                exceptions.increment();
+            }
+            if (rejected) {
+                rejections.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ua.epam.horseraceapp.controller.command;
+
+import java.util.Collection;
+import java.util.Map;
+import ua.epam.horseraceapp.util.dao.BetDao;
+
+/**
+ * Class that represents command that declines all selected bets.
+ *
+ * @see BetDao#declineBets(java.util.Collection)
+ * @author Koroid Daniil
+ */
+public class DeclineBetsCommand extends AbstractBatchBetCommand {
+
+    /**
+     * Command to decline selected bets.
+     */
+    static final String COMMAND = "decline_bets";
+
+    @Override
+    Map<Integer, Boolean> processBets(BetDao betDao, Collection<Integer> betIds) {
+        return betDao.declineBets(betIds);
+    }
+}
@@ -1,16 +1,24 @@
 package ua.epam.horseraceapp.controller.command;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import ua.epam.horseraceapp.util.dao.AsyncDao;
 import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
 import ua.epam.horseraceapp.util.dao.RaceDao;
+import ua.epam.horseraceapp.util.dao.cache.CachingDaoFactory;
 import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
 import ua.epam.horseraceapp.util.dao.entity.Race;
 import ua.epam.horseraceapp.util.dao.entity.RaceInfo;
 
 /**
  * Class that represents command that gets race information.
+ * <p>
+ * Horses and race are loaded in parallel by asynchronous DAO, unless both
+ * are cached: then they are read in calling thread, as parallel reads would
+ * only add handing over to executor.
+ * </p>
  * 
  * @see RaceInfo
  * @author Koroid Daniil
@@ -40,9 +48,15 @@ public class GetRaceInfoCommand extends AbstractCommand {
     @Override
     public String execute(HttpServletRequest request, HttpServletResponse response) {
         Integer raceId = getRaceId(request);
-        List<ContestantHorse> horsesInRace = getHorsesInRace(raceId);
-        Race race = getRaceById(raceId);
-        RaceInfo raceInfo = new RaceInfo(race, horsesInRace);
+        RaceInfo raceInfo;
+        if ((factory instanceof CachingDaoFactory) && ((CachingDaoFactory) factory).isRaceInfoCached(raceId)) {
+            raceInfo = new RaceInfo(factory.createRaceDao().findRaceById(raceId),
+                    factory.createContestantHorseDao().findAllHorsesByRaceId(raceId));
+        } else {
+            CompletableFuture<List<ContestantHorse>> horsesInRace = getHorsesInRace(raceId);
+            CompletableFuture<Race> race = getRaceById(raceId);
+            raceInfo = new RaceInfo(AsyncDao.await(race), AsyncDao.await(horsesInRace));
+        }
         request.setAttribute(RACE_INFO, raceInfo);
         request.setAttribute(REQ_ATTRIBUTE, RACE_INFO);
         request.setAttribute(COM_ATTRIBUTE, COMMAND);
@@ -92,26 +106,27 @@ public class GetRaceInfoCommand extends AbstractCommand {
      * Get horses that participated in race with given identificator.
      *
      * @param raceId race identificator
-     * @return horses that participated in race with given identificator
+     * @return future horses that participated in race with given
+     * identificator
      * @see ContestantHorse
      * @see ContestantHorseDao#findAllHorsesByRaceId(java.lang.Integer)
      */
-    private List<ContestantHorse> getHorsesInRace(Integer raceId) {
-        ContestantHorseDao contestantHorseDao = factory.createContestantHorseDao();
-        return contestantHorseDao.findAllHorsesByRaceId(raceId);
+    private CompletableFuture<List<ContestantHorse>> getHorsesInRace(Integer raceId) {
+        AsyncDao<ContestantHorseDao> contestantHorseDao = asyncFactory.createContestantHorseDao();
+        return contestantHorseDao.supply(dao -> dao.findAllHorsesByRaceId(raceId));
     }
 
     /**
      * Get race by given identificator.
      *
      * @param raceId race identificator
-     * @return race object
+     * @return future race object
      * @see Race
      * @see RaceDao#findRaceById(java.lang.Integer)
      */
-    private Race getRaceById(Integer raceId) {
-        RaceDao raceDao = factory.createRaceDao();
-        return raceDao.findRaceById(raceId);
+    private CompletableFuture<Race> getRaceById(Integer raceId) {
+        AsyncDao<RaceDao> raceDao = asyncFactory.createRaceDao();
+        return raceDao.supply(dao -> dao.findRaceById(raceId));
     }
 
 }
@@ -12,6 +12,11 @@ import ua.epam.horseraceapp.util.dao.entity.Bet;
  * Unviewed bets are such bets that need to be viewed by bookmaker
  * {@link UserType#BOOKMAKER}.
  * </p>
+ * <p>
+ * Bets are shown by pages of {@link #BETS_PAGE_SIZE} bets. Page starts after
+ * bet with identificator given by {@link #AFTER_ID} parameter. If it is not
+ * given - first page is shown.
+ * </p>
  * 
  * @author Koroid Daniil
  */
@@ -24,7 +29,12 @@ public class GetUnviewedBetsCommand extends AbstractCommand {
 
     @Override
     public String execute(HttpServletRequest request, HttpServletResponse response) {
-        List<Bet> unviewedBets = getAllUnviewedBets();
+        Integer afterBetId = getIntegerParameter(request, AFTER_ID);
+        List<Bet> unviewedBets = getUnviewedBets(afterBetId);
+
+        if (unviewedBets.size() == BETS_PAGE_SIZE) {
+            request.setAttribute(NEXT_AFTER_ID, unviewedBets.get(unviewedBets.size() - 1).getId());
+        }
         request.setAttribute(UNVIEWED_BETS, unviewedBets);
         request.setAttribute(REQ_ATTRIBUTE, UNVIEWED_BETS);
         request.setAttribute(COM_ATTRIBUTE, COMMAND);
@@ -33,13 +43,14 @@ public class GetUnviewedBetsCommand extends AbstractCommand {
     }
 
     /**
-     * Get all unviewed bets.
+     * Get page of unviewed bets.
      *
-     * @return all unviewed bets
-     * @see BetDao#findUnviewedBets()
+     * @param afterBetId identificator of last bet on previous page
+     * @return page of unviewed bets
+     * @see BetDao#findUnviewedBets(java.lang.Integer, int)
      */
-    private List<Bet> getAllUnviewedBets() {
+    private List<Bet> getUnviewedBets(Integer afterBetId) {
         BetDao betDao = factory.createBetDao();
-        return betDao.findUnviewedBets();
+        return betDao.findUnviewedBets(afterBetId, BETS_PAGE_SIZE);
     }
 }
@@ -9,6 +9,11 @@ import ua.epam.horseraceapp.util.dao.entity.User;
 
 /**
  * Class represents command to get user bets.
+ * <p>
+ * Bets are shown by pages of {@link #BETS_PAGE_SIZE} bets in order they were
+ * placed. Page starts after bet that is given by bet identificator
+ * ({@link #AFTER_ID}) parameter. If it is not given - first page is shown.
+ * </p>
  *
  * @author Koroid Daniil
  */
@@ -22,8 +27,13 @@ public class GetUserBetsCommand extends AbstractCommand {
     @Override
     public String execute(HttpServletRequest request, HttpServletResponse response) {
         User user = (User) request.getSession().getAttribute(USER);
-        List<Bet> userBets = getUserBetsById(user.getId());
+        Integer afterBetId = getIntegerParameter(request, AFTER_ID);
+        List<Bet> userBets = getUserBetsById(user.getId(), afterBetId);
 
+        if (userBets.size() == BETS_PAGE_SIZE) {
+            Bet lastBet = userBets.get(userBets.size() - 1);
+            request.setAttribute(NEXT_AFTER_ID, lastBet.getId());
+        }
         request.setAttribute(MY_BETS, userBets);
         request.setAttribute(REQ_ATTRIBUTE, MY_BETS);
         request.setAttribute(COM_ATTRIBUTE, COMMAND);
@@ -32,14 +42,16 @@ public class GetUserBetsCommand extends AbstractCommand {
     }
 
     /**
-     * Get all user bets by user identificator.
+     * Get page of user bets by user identificator.
      *
      * @param userId user identificator
-     * @return all user bets by user identificator
+     * @param afterBetId identificator of last bet on previous page
+     * @return page of user bets by user identificator
+     * @see BetDao#findUserBets(java.lang.Integer, java.lang.Integer, int)
      */
-    private List<Bet> getUserBetsById(Integer userId) {
+    private List<Bet> getUserBetsById(Integer userId, Integer afterBetId) {
         BetDao betDao = factory.createBetDao();
-        return betDao.findUserBets(userId);
+        return betDao.findUserBets(userId, afterBetId, BETS_PAGE_SIZE);
     }
 
 }
@@ -4,6 +4,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.BetIntakeQueue;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
 import ua.epam.horseraceapp.util.dao.RaceDao;
 import ua.epam.horseraceapp.util.dao.UserDao;
 import ua.epam.horseraceapp.util.dao.entity.User;
@@ -12,7 +14,7 @@ import ua.epam.horseraceapp.util.dao.entity.User;
  * Class that represents command to make bet.
  *
  * @author Koroid Daniil
- * @see BetDao#makeBet(java.lang.Integer, java.lang.Integer, java.lang.Integer) 
+ * @see BetDao#placeBet(java.lang.Integer, java.lang.Integer, java.lang.Integer)
  */
 public class MakeBetCommand extends AbstractCommand {
 
@@ -21,6 +23,29 @@ public class MakeBetCommand extends AbstractCommand {
      */
     static final String COMMAND = "make_bet";
 
+    /**
+     * Queue that makes bets of all users in groups.
+     */
+    private final BetIntakeQueue betIntakeQueue;
+
+    /**
+     * Creates command to make bet.
+     * <p>
+     * Also starts queue that makes bets in groups.
+     * </p>
+     */
+    public MakeBetCommand() {
+        betIntakeQueue = new BetIntakeQueue(factory.createBetDao());
+    }
+
+    /**
+     * Makes bets that are already queued and stops queue.
+     */
+    @Override
+    public void destroy() {
+        betIntakeQueue.shutdown();
+    }
+
     @Override
     public String execute(HttpServletRequest request, HttpServletResponse response) {
         HttpSession session = request.getSession();
@@ -42,46 +67,49 @@ public class MakeBetCommand extends AbstractCommand {
             return setErrorAndReloadPage(request, response, ERR_BET_AMOUNT_GREATER_THEN_USER_BALANCE, contestantHorseId);
         }
 
-        boolean betDone = makeBet(user.getId(), betAmount, contestantHorseId);
+        BetPlacementResult result = placeBet(user.getId(), betAmount, contestantHorseId);
 
-        if (betDone) {
-            resetUserInSession(session, user.getId());
-            return getCommand(GetUserBetsCommand.COMMAND).execute(request, response);
-        } else {
-            return setErrorAndReloadPage(request, response, ERR_CANT_MAKE_BET, contestantHorseId);
+        switch (result) {
+            case SUCCESS:
+                resetUserInSession(session, user.getId());
+                return getCommand(GetUserBetsCommand.COMMAND).execute(request, response);
+            case INSUFFICIENT_FUNDS:
+                resetUserInSession(session, user.getId());
+                return setErrorAndReloadPage(request, response, ERR_BET_AMOUNT_GREATER_THEN_USER_BALANCE, contestantHorseId);
+            case MARKET_CLOSED:
+                return setErrorAndReloadPage(request, response, ERR_MARKET_CLOSED, contestantHorseId);
+            default:
+                return setErrorAndReloadPage(request, response, ERR_CANT_MAKE_BET, contestantHorseId);
         }
     }
 
     /**
-     * Make bet with given user identificator, contestant horse identificator
+     * Place bet with given user identificator, contestant horse identificator
      * and bet amount.
      * <p>
      * Creates bet with given amount. This bet's owner is seted user with given
      * identificator.
      * </p>
      * <p>
-     * Before creating checks user balance for having enough sum to make this
-     * bet. If user's balance is less than given amount - returns
-     * <code>false</code> as bet is not done.
+     * Bet amount is charged off user's balance and bet is created only if
+     * user's balance is enough and race has no result yet. Otherwise nothing
+     * performs and reason is returned.
      * </p>
      * <p>
-     * If user's balance is OK, charges bet amount off an balance and creates
-     * bet. If with one of this operations went wrong - nothing performs,
-     * <code>false</code> is returned. If this operations went seccessfully -
-     * returns <code>true</code>.
+     * Bet is placed by {@link BetIntakeQueue} together with bets of other
+     * users that are placed at the same time.
      * </p>
      *
      * @param userId user identificator
      * @param betAmount bet amount
      * @param contestantHorseId contestant horse id
-     * @return <code>true</code> if bet successfully done. Otherwise
-     * <code>false</code>
-     * @see BetDao#makeBet(java.lang.Integer, java.lang.Integer,
+     * @return {@link BetPlacementResult#SUCCESS} if bet was made, otherwise
+     * reason why it was not made
+     * @see BetDao#placeBet(java.lang.Integer, java.lang.Integer,
      * java.lang.Integer)
      */
-    private boolean makeBet(Integer userId, Integer betAmount, Integer contestantHorseId) {
-        BetDao betDao = factory.createBetDao();
-        return betDao.makeBet(userId, betAmount, contestantHorseId);
+    private BetPlacementResult placeBet(Integer userId, Integer betAmount, Integer contestantHorseId) {
+        return betIntakeQueue.placeBet(userId, betAmount, contestantHorseId);
     }
 
     /**
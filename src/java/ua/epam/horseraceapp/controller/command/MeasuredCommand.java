@@ -0,0 +1,59 @@
+package ua.epam.horseraceapp.controller.command;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Command that records latency and outcome of other command.
+ * <p>
+ * Execution that threw exception is counted as exception. Execution by
+ * controller that left error message for user in request is counted as
+ * rejection; chained executions are not checked for it, as error of chained
+ * command is shown by command that called it.
+ * </p>
+ *
+ * @see CommandMetrics
+ * @author Koroid Daniil
+ */
+class MeasuredCommand extends AbstractCommand {
+
+    /**
+     * Measured command.
+     */
+    private final AbstractCommand command;
+    /**
+     * Metrics to record to.
+     */
+    private final CommandMetrics.Timer timer;
+    /**
+     * Whether command is executed by other command.
+     */
+    private final boolean chained;
+
+    /**
+     * Creates measured command.
+     *
+     * @param command measured command
+     * @param timer metrics to record to
+     * @param chained whether command is executed by other command
+     */
+    MeasuredCommand(AbstractCommand command, CommandMetrics.Timer timer, boolean chained) {
+        this.command = command;
+        this.timer = timer;
+        this.chained = chained;
+    }
+
+    @Override
+    public String execute(HttpServletRequest request, HttpServletResponse response) {
+        long start = System.nanoTime();
+        boolean thrown = true;
+        try {
+            String forward = command.execute(request, response);
+            thrown = false;
+            return forward;
+        } finally {
+            boolean rejected = !thrown && !chained && (request.getAttribute(ERROR_ATTRIBUTE) != null);
+            timer.record(System.nanoTime() - start, thrown, rejected);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ua.epam.horseraceapp.controller.command;
+
+import java.util.Collection;
+import java.util.Map;
+import ua.epam.horseraceapp.util.dao.BetDao;
+
+/**
+ * Class that represents command that pays all selected bets.
+ *
+ * @see BetDao#payBets(java.util.Collection)
+ * @author Koroid Daniil
+ */
+public class PayBetsCommand extends AbstractBatchBetCommand {
+
+    /**
+     * Command to pay selected bets.
+     */
+    static final String COMMAND = "pay_bets";
+
+    @Override
+    Map<Integer, Boolean> processBets(BetDao betDao, Collection<Integer> betIds) {
+        return betDao.payBets(betIds);
+    }
+}
@@ -0,0 +1,24 @@
+package ua.epam.horseraceapp.controller.command;
+
+import java.util.Collection;
+import java.util.Map;
+import ua.epam.horseraceapp.util.dao.BetDao;
+
+/**
+ * Class that represents command that determines results of all selected bets.
+ *
+ * @see BetDao#settleBets(java.util.Collection)
+ * @author Koroid Daniil
+ */
+public class SettleBetsCommand extends AbstractBatchBetCommand {
+
+    /**
+     * Command to determine results of selected bets.
+     */
+    static final String COMMAND = "settle_bets";
+
+    @Override
+    Map<Integer, Boolean> processBets(BetDao betDao, Collection<Integer> betIds) {
+        return betDao.settleBets(betIds);
+    }
+}
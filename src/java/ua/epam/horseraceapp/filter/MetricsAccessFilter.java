@@ -0,0 +1,102 @@
+package ua.epam.horseraceapp.filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Filter that lets only monitoring network reach monitoring endpoint.
+ * <p>
+ * Allowed addresses are listed by init parameter
+ * {@value #ALLOWED_ADDRESSES_PARAMETER}, separated by commas. Address that
+ * ends with dot or colon is a prefix and allows whole network, for example
+ * <code>10.0.</code>. If parameter is not set, only local host is allowed.
+ * Requests from other addresses are answered with
+ * <code>403 Forbidden</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class MetricsAccessFilter implements Filter {
+
+    /**
+     * Init parameter that lists allowed addresses.
+     */
+    static final String ALLOWED_ADDRESSES_PARAMETER = "allowed-addresses";
+
+    /**
+     * Addresses of local host.
+     */
+    private static final String LOCAL_ADDRESSES = "127.0.0.1,0:0:0:0:0:0:0:1,::1";
+
+    /**
+     * Allowed addresses and address prefixes.
+     */
+    private final List<String> allowedAddresses = new ArrayList<>();
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        String addresses = filterConfig.getInitParameter(ALLOWED_ADDRESSES_PARAMETER);
+        if ((addresses == null) || addresses.trim().isEmpty()) {
+            addresses = LOCAL_ADDRESSES;
+        }
+        for (String address : addresses.split(",")) {
+            if (!address.trim().isEmpty()) {
+                allowedAddresses.add(address.trim());
+            }
+        }
+    }
+
+    /**
+     *
+     * @param request The servlet request we are processing
+     * @param response The servlet response we are creating
+     * @param chain The filter chain we are processing
+     *
+     * @exception IOException if an input/output error occurs
+     * @exception ServletException if a servlet error occurs
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (isAllowed(request.getRemoteAddr())) {
+            chain.doFilter(request, response);
+        } else {
+            ((HttpServletResponse) response).sendError(HttpServletResponse.SC_FORBIDDEN);
+        }
+    }
+
+    /**
+     * Destroy method for this filter
+     */
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * Checks whether address is allowed.
+     *
+     * @param address address of client
+     * @return <code>true</code> if address is allowed. Otherwise
+     * <code>false</code>
+     */
+    private boolean isAllowed(String address) {
+        if (address == null) {
+            return false;
+        }
+        for (String allowed : allowedAddresses) {
+            boolean prefix = allowed.endsWith(".") || allowed.endsWith(":");
+            if (prefix ? address.startsWith(allowed) : address.equals(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
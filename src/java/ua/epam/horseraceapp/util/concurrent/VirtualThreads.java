@@ -0,0 +1,112 @@
+package ua.epam.horseraceapp.util.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads of Java 21 and later.
+ * <p>
+ * Application is compiled for older Java, so virtual threads are created
+ * through reflection and are available only when application runs on runtime
+ * that has them.
+ * </p>
+ * <p>
+ * Virtual threads are requested by system property
+ * {@value #ENABLED_PROPERTY}; both commands and asynchronous DAO calls run on
+ * them then.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public final class VirtualThreads {
+
+    /**
+     * System property that makes commands and DAO calls run on virtual
+     * threads.
+     */
+    public static final String ENABLED_PROPERTY = "horserace.async.virtualThreads";
+
+    /**
+     * Runtime system property that makes JVM print stack trace of virtual
+     * thread that blocks while pinned to its carrier thread.
+     */
+    public static final String TRACE_PINNED_THREADS_PROPERTY = "jdk.tracePinnedThreads";
+
+    /**
+     * Class has only static methods.
+     */
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether runtime has virtual threads.
+     * <p>
+     * Builder of virtual threads is actually created, as on Java 19 and 20
+     * method <code>Thread.ofVirtual</code> exists but throws if preview
+     * features are not enabled.
+     * </p>
+     *
+     * @return <code>true</code> if virtual threads can be created. Otherwise
+     * <code>false</code>
+     */
+    public static boolean isSupported() {
+        try {
+            return Thread.class.getMethod("ofVirtual").invoke(null) != null;
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException
+                | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether virtual threads are requested by system property
+     * {@value #ENABLED_PROPERTY} and runtime has them.
+     *
+     * @return <code>true</code> if work must run on virtual threads.
+     * Otherwise <code>false</code>
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY) && isSupported();
+    }
+
+    /**
+     * Makes JVM print stack traces of pinned virtual threads.
+     * <p>
+     * Takes effect only if it is called before the first virtual thread is
+     * created and runtime property {@value #TRACE_PINNED_THREADS_PROPERTY} is
+     * not set already. Runtimes that don't pin virtual threads in
+     * <code>synchronized</code> blocks ignore it; their pinning is reported by
+     * <code>jdk.VirtualThreadPinned</code> flight recorder event.
+     * </p>
+     *
+     * @param mode <code>short</code> or <code>full</code>
+     */
+    public static void tracePinnedThreads(String mode) {
+        if (System.getProperty(TRACE_PINNED_THREADS_PROPERTY) == null) {
+            System.setProperty(TRACE_PINNED_THREADS_PROPERTY, mode);
+        }
+    }
+
+    /**
+     * Creates executor that starts new virtual thread for each task.
+     *
+     * @param namePrefix prefix of thread names, followed by thread number
+     * @return executor
+     * @throws IllegalStateException if runtime has no virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+                | InvocationTargetException ex) {
+            throw new IllegalStateException("Runtime has no virtual threads", ex);
+        }
+    }
+}
@@ -11,8 +11,81 @@ public abstract class ConnectionManager {
 
     /**
      * Get available connection.
+     * <p>
+     * If there is active unit of work in current thread - returns its
+     * connection. Otherwise returns new connection.
+     * </p>
      *
      * @return connection instance
+     * @see UnitOfWork
      */
-    public abstract Connection getConnection();
+    public Connection getConnection() {
+        Connection connection = UnitOfWork.getCurrentConnection();
+        if (connection != null) {
+            return connection;
+        }
+        return openConnection();
+    }
+
+    /**
+     * Get new available connection.
+     * <p>
+     * Must not take unit of work into account.
+     * </p>
+     *
+     * @return connection instance
+     */
+    protected abstract Connection openConnection();
+
+    /**
+     * Get available connection for reading.
+     * <p>
+     * If there is active unit of work in current thread - returns its
+     * connection. Otherwise returns new connection that may be connection to
+     * replica of database, so data written by other connections may be not
+     * visible yet.
+     * </p>
+     *
+     * @return connection instance
+     * @see ReplicatedConnectionManager
+     */
+    public Connection getReadOnlyConnection() {
+        Connection connection = UnitOfWork.getCurrentConnection();
+        if (connection != null) {
+            return connection;
+        }
+        return openReadOnlyConnection();
+    }
+
+    /**
+     * Get new available connection for reading.
+     * <p>
+     * Must not take unit of work into account. By default returns the same
+     * connection as {@link #openConnection()}.
+     * </p>
+     *
+     * @return connection instance
+     */
+    protected Connection openReadOnlyConnection() {
+        return openConnection();
+    }
+
+    /**
+     * Get number of idle connections in connection pool.
+     *
+     * @return number of idle connections or <code>-1</code> if it is unknown
+     */
+    public int getIdleConnections() {
+        return -1;
+    }
+
+    /**
+     * Releases resources of connection manager, such as its own connection
+     * pool and background threads.
+     * <p>
+     * Must be called once at application shutdown. Does nothing by default.
+     * </p>
+     */
+    public void close() {
+    }
 }
\ No newline at end of file
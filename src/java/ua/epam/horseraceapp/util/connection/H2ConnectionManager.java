@@ -0,0 +1,142 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.apache.log4j.Logger;
+
+/**
+ * Implementation of connection manager to manage embedded H2 connections.
+ * <p>
+ * Needs no JNDI and no external database server, so it can be used outside
+ * servlet container, for example in load tests. Database works in MySQL mode,
+ * so MySQL DAO can be used with it.
+ * </p>
+ * <p>
+ * Before first connection is given out, database schema is created and filled
+ * with bet states and user types. Schema creation can be repeated safely on
+ * already created database.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class H2ConnectionManager extends ConnectionManager {
+
+    /**
+     * URL of default in-memory database.
+     * <p>
+     * Database lives until virtual machine stops.
+     * </p>
+     */
+    public static final String DEFAULT_URL = "jdbc:h2:mem:horserace;MODE=MySQL;"
+            + "DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER";
+
+    /**
+     * System property that sets URL of database used by application instead
+     * of {@link #DEFAULT_URL}, for example of file database filled by data
+     * seeder.
+     * <p>
+     * Connections are not pooled, so URL of file database must keep database
+     * open with <code>DB_CLOSE_DELAY=-1</code>. Otherwise database is opened
+     * again for every connection.
+     * </p>
+     */
+    public static final String URL_PROPERTY = "horserace.h2.url";
+
+    /**
+     * Query that creates database schema from script in classpath.
+     */
+    private static final String CREATE_SCHEMA_QUERY = "RUNSCRIPT FROM "
+            + "'classpath:/ua/epam/horseraceapp/util/connection/h2-schema.sql'";
+
+    /**
+     * Instance of H2 connection manager for default database.
+     */
+    private static H2ConnectionManager instance;
+
+    /**
+     * URL of database.
+     */
+    private final String url;
+    /**
+     * Whether database schema is already created.
+     */
+    private volatile boolean schemaCreated;
+
+    /**
+     * Constructs H2 connection manager for database with given URL.
+     * <p>
+     * URL must turn on MySQL mode and allow <code>user</code> as table name,
+     * as {@link #DEFAULT_URL} does.
+     * </p>
+     *
+     * @param url URL of database
+     */
+    public H2ConnectionManager(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Static method to get single instance of this object for database set
+     * by system property {@value #URL_PROPERTY}, default in-memory database
+     * if property is not set.
+     *
+     * @return instance of H2 connection manager
+     */
+    public static synchronized H2ConnectionManager getInstance() {
+        if (instance == null) {
+            instance = new H2ConnectionManager(System.getProperty(URL_PROPERTY, DEFAULT_URL));
+        }
+        return instance;
+    }
+
+    @Override
+    protected Connection openConnection() {
+        Connection connection = null;
+
+        try {
+            connection = DriverManager.getConnection(url);
+            if (!schemaCreated) {
+                createSchema(connection);
+            }
+        } catch (SQLException ex) {
+            Logger log = Logger.getLogger(H2ConnectionManager.class);
+            log.error("Can't get connection to H2 database", ex);
+            closeQuietly(connection);
+            connection = null;
+        }
+
+        return connection;
+    }
+
+    /**
+     * Creates database schema if it was not created yet.
+     *
+     * @param connection connection to create schema with
+     * @throws SQLException if schema can't be created
+     */
+    private synchronized void createSchema(Connection connection) throws SQLException {
+        if (schemaCreated) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_SCHEMA_QUERY);
+        }
+        schemaCreated = true;
+    }
+
+    /**
+     * Closes given connection ignoring errors.
+     *
+     * @param connection connection to close, may be <code>null</code>
+     */
+    private void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+            }
+        }
+    }
+}
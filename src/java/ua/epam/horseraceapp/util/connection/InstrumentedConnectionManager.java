@@ -0,0 +1,355 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.metrics.LatencyHistogram;
+import ua.epam.horseraceapp.util.metrics.MetricsSource;
+
+/**
+ * Connection manager that measures work of another connection manager.
+ * <p>
+ * Records how long callers wait for connections, how many connections are
+ * used, idle and waited for, and how long connections are held.
+ * </p>
+ * <p>
+ * Hold time is recorded for each call site. By default call site is name of
+ * the first statement prepared with connection, taken from
+ * {@link QueryNames}, so it costs one map lookup when connection is closed.
+ * Connection that had no statement prepared is labeled by the method that
+ * closes it, found by stack trace.
+ * </p>
+ * <p>
+ * If leak threshold is set, connection that is held longer than it is
+ * reported as leaked once, with stack trace of the call that acquired it.
+ * Call site is the first method outside this package that asked for
+ * connection then, usually DAO method. Stack trace is captured on every
+ * borrowing, so leak detection is turned off by default.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class InstrumentedConnectionManager extends ConnectionManager implements MetricsSource {
+
+    /**
+     * System property that sets leak threshold in milliseconds; leak
+     * detection is turned off if it is not set or not positive.
+     */
+    public static final String LEAK_THRESHOLD_PROPERTY = "horserace.pool.leakThresholdMillis";
+
+    /**
+     * Package of connection managers; its frames are skipped when call site
+     * is determined.
+     */
+    private static final String CONNECTION_PACKAGE = InstrumentedConnectionManager.class.getPackage().getName();
+
+    /**
+     * Part of names of proxy classes; their frames are skipped when call site
+     * is determined.
+     */
+    private static final String PROXY_CLASS_MARK = "$Proxy";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Logger.getLogger(InstrumentedConnectionManager.class);
+
+    /**
+     * Name of measured pool, used as metric label.
+     */
+    private final String poolName;
+    /**
+     * Measured connection manager.
+     */
+    private final ConnectionManager delegate;
+    /**
+     * Time of holding connection after which connection is reported as
+     * leaked.
+     */
+    private final long leakThresholdNanos;
+    /**
+     * Executor of leak detection, <code>null</code> if it is turned off.
+     */
+    private final ScheduledExecutorService leakDetector;
+
+    /**
+     * Time of waiting for connection.
+     */
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    /**
+     * Time of holding connection by call site.
+     */
+    private final Map<String, LatencyHistogram> holdTimes = new ConcurrentHashMap<>();
+    /**
+     * Connections that are held now.
+     */
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    /**
+     * Number of threads waiting for connection.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    /**
+     * Number of failed attempts to get connection.
+     */
+    private final LongAdder failures = new LongAdder();
+    /**
+     * Number of detected connection leaks.
+     */
+    private final LongAdder leaks = new LongAdder();
+
+    /**
+     * Constructs instrumented connection manager with leak threshold set by
+     * system property {@value #LEAK_THRESHOLD_PROPERTY}.
+     *
+     * @param poolName name of measured pool, used as metric label
+     * @param delegate measured connection manager
+     */
+    public InstrumentedConnectionManager(String poolName, ConnectionManager delegate) {
+        this(poolName, delegate, Long.getLong(LEAK_THRESHOLD_PROPERTY, 0));
+    }
+
+    /**
+     * Constructs instrumented connection manager.
+     *
+     * @param poolName name of measured pool, used as metric label
+     * @param delegate measured connection manager
+     * @param leakThresholdMillis time of holding connection after which
+     * connection is reported as leaked, not positive to turn leak detection
+     * off
+     */
+    public InstrumentedConnectionManager(String poolName, ConnectionManager delegate, long leakThresholdMillis) {
+        this.poolName = poolName;
+        this.delegate = delegate;
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMillis);
+
+        if (leakThresholdMillis <= 0) {
+            leakDetector = null;
+            return;
+        }
+        leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "horserace-leak-detector-" + poolName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkPeriod = Math.max(leakThresholdMillis / 2, 1);
+        leakDetector.scheduleWithFixedDelay(this::detectLeaks, checkPeriod, checkPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Connection openConnection() {
+        Throwable acquisition = (leakDetector == null) ? null : new Throwable("Connection acquired here");
+        long start = System.nanoTime();
+        pending.incrementAndGet();
+        Connection connection;
+        try {
+            connection = delegate.openConnection();
+        } finally {
+            pending.decrementAndGet();
+        }
+        long acquired = System.nanoTime();
+        waitTime.record(acquired - start);
+
+        if (connection == null) {
+            failures.increment();
+            return null;
+        }
+        Lease lease = new Lease(connection,
+                (acquisition == null) ? null : callSite(acquisition), acquisition, acquired);
+        leases.add(lease);
+        return lease.handle;
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return delegate.getIdleConnections();
+    }
+
+    /**
+     * Stops leak detection and closes measured connection manager.
+     */
+    @Override
+    public void close() {
+        if (leakDetector != null) {
+            leakDetector.shutdownNow();
+        }
+        delegate.close();
+    }
+
+    /**
+     * Get number of connections that are held now.
+     *
+     * @return number of active connections
+     */
+    public int getActiveConnections() {
+        return leases.size();
+    }
+
+    @Override
+    public void writeMetrics(PrintWriter writer) {
+        String label = "pool=\"" + poolName + "\"";
+
+        writer.println("# TYPE horserace_connection_wait_seconds histogram");
+        waitTime.writeTo(writer, "horserace_connection_wait_seconds", label);
+        writer.println("# TYPE horserace_connection_hold_seconds histogram");
+        for (Map.Entry<String, LatencyHistogram> holdTime : holdTimes.entrySet()) {
+            holdTime.getValue().writeTo(writer, "horserace_connection_hold_seconds",
+                    label + ",site=\"" + holdTime.getKey() + "\"");
+        }
+        writer.println("# TYPE horserace_connections_active gauge");
+        writer.println("horserace_connections_active{" + label + "} " + getActiveConnections());
+        int idle = getIdleConnections();
+        if (idle >= 0) {
+            writer.println("# TYPE horserace_connections_idle gauge");
+            writer.println("horserace_connections_idle{" + label + "} " + idle);
+        }
+        writer.println("# TYPE horserace_connections_pending gauge");
+        writer.println("horserace_connections_pending{" + label + "} " + pending.get());
+        writer.println("# TYPE horserace_connection_failures_total counter");
+        writer.println("horserace_connection_failures_total{" + label + "} " + failures.sum());
+        writer.println("# TYPE horserace_connection_leaks_total counter");
+        writer.println("horserace_connection_leaks_total{" + label + "} " + leaks.sum());
+    }
+
+    /**
+     * Determines call site that acquired or closed connection.
+     *
+     * @param acquisition throwable created when connection was acquired or
+     * closed
+     * @return call site as simple class name and method name
+     */
+    private String callSite(Throwable acquisition) {
+        for (StackTraceElement frame : acquisition.getStackTrace()) {
+            String className = frame.getClassName();
+            if (!className.startsWith(CONNECTION_PACKAGE) && !className.contains(PROXY_CLASS_MARK)) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * Reports connections that are held longer than leak threshold.
+     */
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (Lease lease : leases) {
+            if (!lease.reported && (now - lease.acquired > leakThresholdNanos)) {
+                lease.reported = true;
+                leaks.increment();
+                LOG.warn("Connection is held by " + lease.callSite + " for "
+                        + TimeUnit.NANOSECONDS.toMillis(now - lease.acquired) + " ms", lease.acquisition);
+            }
+        }
+    }
+
+    /**
+     * Connection that is held by caller.
+     */
+    private final class Lease implements InvocationHandler {
+
+        /**
+         * Connection of measured connection manager.
+         */
+        private final Connection connection;
+        /**
+         * Proxy that is given out instead of connection.
+         */
+        private final Connection handle;
+        /**
+         * Call site that acquired connection, <code>null</code> if leak
+         * detection is turned off.
+         */
+        private final String callSite;
+        /**
+         * Text of the first statement prepared with connection.
+         */
+        private String firstQuery;
+        /**
+         * Throwable created when connection was acquired, <code>null</code>
+         * if leak detection is turned off.
+         */
+        private final Throwable acquisition;
+        /**
+         * Time when connection was acquired in nanoseconds.
+         */
+        private final long acquired;
+        /**
+         * Whether connection was already reported as leaked.
+         */
+        private volatile boolean reported;
+
+        /**
+         * Creates lease of connection.
+         *
+         * @param connection connection of measured connection manager
+         * @param callSite call site that acquired connection,
+         * <code>null</code> if leak detection is turned off
+         * @param acquisition throwable created when connection was acquired,
+         * <code>null</code> if leak detection is turned off
+         * @param acquired time when connection was acquired in nanoseconds
+         */
+        private Lease(Connection connection, String callSite, Throwable acquisition, long acquired) {
+            this.connection = connection;
+            this.callSite = callSite;
+            this.acquisition = acquisition;
+            this.acquired = acquired;
+            this.handle = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    end();
+                    break;
+                case "prepareStatement":
+                case "prepareCall":
+                    if (firstQuery == null) {
+                        firstQuery = (String) args[0];
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        /**
+         * Records hold time when connection is closed for the first time.
+         */
+        private void end() {
+            if (!leases.remove(this)) {
+                return;
+            }
+            long held = System.nanoTime() - acquired;
+            String site = callSite;
+            if (site == null) {
+                site = (firstQuery == null) ? callSite(new Throwable()) : QueryNames.get(firstQuery);
+            }
+            holdTimes.computeIfAbsent(site, key -> new LatencyHistogram()).record(held);
+            if (reported) {
+                LOG.info("Leaked connection of " + callSite + " was closed after "
+                        + TimeUnit.NANOSECONDS.toMillis(held) + " ms");
+            }
+        }
+    }
+}
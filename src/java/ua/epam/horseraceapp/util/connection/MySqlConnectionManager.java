@@ -1,5 +1,6 @@
 package ua.epam.horseraceapp.util.connection;
 
+import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.SQLException;
 import javax.naming.Context;
@@ -48,17 +49,22 @@ public class MySqlConnectionManager extends ConnectionManager {
     /**
      * Constructs MySQL connection manager.
      * <p>
-     * Looks up for connection pool (data source) for this application.
+     * Looks up for connection pool (data source) with given name. Used for
+     * connection pools of database replicas; primary pool of this application
+     * is given by {@link #getInstance()}.
      * </p>
+     *
+     * @param connectionPoolName name of connection pool in component's
+     * environment-related bindings subtree
      */
-    private MySqlConnectionManager() {
+    public MySqlConnectionManager(String connectionPoolName) {
         try {
             initContext = new InitialContext();
             envContext = (Context) initContext.lookup(JAVA_COMP_ENV);
-            dataSource = (DataSource) envContext.lookup(CONNECTION_POOL_NAME);
+            dataSource = (DataSource) envContext.lookup(connectionPoolName);
         } catch (NamingException ex) {
             Logger log = Logger.getLogger(MySqlConnectionManager.class);
-            log.error("Error while creating DataSource");
+            log.error("Error while creating DataSource " + connectionPoolName);
         }
     }
 
@@ -69,23 +75,47 @@ public class MySqlConnectionManager extends ConnectionManager {
      */
     public static MySqlConnectionManager getInstance() {
         if (instance == null) {
-            instance = new MySqlConnectionManager();
+            instance = new MySqlConnectionManager(CONNECTION_POOL_NAME);
         }
         return instance;
     }
 
     @Override
-    public Connection getConnection() {
+    protected Connection openConnection() {
         Connection connection = null;
 
         try {
             connection = dataSource.getConnection();
         } catch (SQLException ex) {
             Logger log = Logger.getLogger(MySqlConnectionManager.class);
-            log.error("Can't get connection from DataSource");   
+            log.error("Can't get connection from DataSource", ex);
         }
 
         return connection;
     }
 
+    /**
+     * Get number of idle connections in container connection pool.
+     * <p>
+     * Container pools of Tomcat report it with <code>getNumIdle</code> method,
+     * which is not part of {@link DataSource} interface, so it is called
+     * reflectively.
+     * </p>
+     *
+     * @return number of idle connections or <code>-1</code> if data source
+     * doesn't report it
+     */
+    @Override
+    public int getIdleConnections() {
+        if (dataSource == null) {
+            return -1;
+        }
+        try {
+            Method getNumIdle = dataSource.getClass().getMethod("getNumIdle");
+            return ((Number) getNumIdle.invoke(dataSource)).intValue();
+        } catch (ReflectiveOperationException | ClassCastException ex) {
+            return -1;
+        }
+    }
+
 }
@@ -0,0 +1,557 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.log4j.Logger;
+
+/**
+ * Implementation of connection manager with its own connection pool.
+ * <p>
+ * Connections are opened with {@link DriverManager}, so no JNDI data source
+ * is needed. Pool takes no locks when connections are borrowed and returned:
+ * every pooled connection has its own atomic state, and connection is
+ * borrowed by changing its state from idle to used.
+ * </p>
+ * <p>
+ * Every thread first tries connection that it used last time, so under low
+ * contention thread gets the same connection again without scanning the pool.
+ * Connection is checked with {@link Connection#isValid(int)} only if it was
+ * idle longer than validation interval; connections that were idle longer
+ * than idle timeout are closed by background thread.
+ * </p>
+ * <p>
+ * Connection that is given out is a proxy, new for every borrowing: closing
+ * it returns real connection to the pool, and it can't be used after that
+ * even if real connection is borrowed again.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class PooledConnectionManager extends ConnectionManager {
+
+    /**
+     * Prefix of system properties that configure pool of MySQL DAO factory.
+     */
+    public static final String PROPERTY_PREFIX = "horserace.pool.";
+
+    /**
+     * State of connection that can be borrowed.
+     */
+    private static final int IDLE = 0;
+    /**
+     * State of borrowed connection.
+     */
+    private static final int IN_USE = 1;
+    /**
+     * State of connection that is removed from the pool.
+     */
+    private static final int REMOVED = 2;
+
+    /**
+     * Time of idleness after which connection is validated before it is given
+     * out.
+     */
+    private static final long VALIDATION_INTERVAL_MILLIS = 500;
+    /**
+     * Longest time waiting thread sleeps before it scans the pool again.
+     */
+    private static final long MAX_WAIT_STEP_MILLIS = 10;
+
+    /**
+     * URL of database.
+     */
+    private final String url;
+    /**
+     * Database user.
+     */
+    private final String user;
+    /**
+     * Database user password.
+     */
+    private final String password;
+    /**
+     * Largest number of opened connections.
+     */
+    private final int maxSize;
+    /**
+     * Longest time to wait for connection when all connections are used.
+     */
+    private final long maxWaitMillis;
+    /**
+     * Time of idleness after which connection is closed.
+     */
+    private final long idleTimeoutMillis;
+    /**
+     * Timeout of connection validation in seconds.
+     */
+    private final int validationTimeoutSeconds;
+
+    /**
+     * All pooled connections.
+     */
+    private final CopyOnWriteArrayList<PooledConnection> connections = new CopyOnWriteArrayList<>();
+    /**
+     * Number of opened connections and connections that are being opened.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * Number of threads waiting for connection.
+     */
+    private final AtomicInteger waiters = new AtomicInteger();
+    /**
+     * Queue to hand returned connection directly to waiting thread.
+     */
+    private final SynchronousQueue<PooledConnection> handoff = new SynchronousQueue<>();
+    /**
+     * Connection that each thread used last time.
+     */
+    private final ThreadLocal<PooledConnection> lastUsed = new ThreadLocal<>();
+    /**
+     * Executor of idle connections eviction.
+     */
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Constructs connection manager with its own connection pool.
+     *
+     * @param url URL of database
+     * @param user database user
+     * @param password database user password
+     * @param maxSize largest number of opened connections
+     * @param maxWaitMillis longest time to wait for connection when all
+     * connections are used
+     * @param idleTimeoutMillis time of idleness after which connection is
+     * closed
+     * @param validationTimeoutSeconds timeout of connection validation in
+     * seconds
+     */
+    public PooledConnectionManager(String url, String user, String password, int maxSize,
+            long maxWaitMillis, long idleTimeoutMillis, int validationTimeoutSeconds) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "horserace-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionPeriod = Math.max(idleTimeoutMillis / 2, 1);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections,
+                evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs connection manager configured by system properties with
+     * prefix {@value #PROPERTY_PREFIX}.
+     * <p>
+     * Properties are <code>url</code>, <code>user</code>,
+     * <code>password</code>, <code>maxSize</code>, <code>maxWaitMillis</code>,
+     * <code>idleTimeoutMillis</code> and <code>validationTimeoutSeconds</code>.
+     * Defaults are the same as settings of container pool in
+     * <code>META-INF/context.xml</code>.
+     * </p>
+     *
+     * @return connection manager with its own connection pool
+     * @throws NumberFormatException if numeric property is not a number
+     */
+    public static PooledConnectionManager fromSystemProperties() {
+        return fromSystemProperties(System.getProperty(PROPERTY_PREFIX + "url", "jdbc:mysql://localhost/horserace"));
+    }
+
+    /**
+     * Constructs connection manager for database with given URL, configured
+     * by other system properties with prefix {@value #PROPERTY_PREFIX}.
+     * <p>
+     * Used for replicas of database, which share settings of primary pool.
+     * </p>
+     *
+     * @param url URL of database
+     * @return connection manager with its own connection pool
+     * @throws NumberFormatException if numeric property is not a number
+     * @see #fromSystemProperties()
+     */
+    public static PooledConnectionManager fromSystemProperties(String url) {
+        return new PooledConnectionManager(url,
+                System.getProperty(PROPERTY_PREFIX + "user", "root"),
+                System.getProperty(PROPERTY_PREFIX + "password", "root"),
+                Integer.parseInt(System.getProperty(PROPERTY_PREFIX + "maxSize", "100")),
+                Long.parseLong(System.getProperty(PROPERTY_PREFIX + "maxWaitMillis", "10000")),
+                Long.parseLong(System.getProperty(PROPERTY_PREFIX + "idleTimeoutMillis", "600000")),
+                Integer.parseInt(System.getProperty(PROPERTY_PREFIX + "validationTimeoutSeconds", "2")));
+    }
+
+    @Override
+    protected Connection openConnection() {
+        try {
+            return borrow().newHandle();
+        } catch (SQLException ex) {
+            Logger log = Logger.getLogger(PooledConnectionManager.class);
+            log.error("Can't get connection from pool", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Get number of opened connections.
+     *
+     * @return number of opened connections
+     */
+    public int getTotalConnections() {
+        return connections.size();
+    }
+
+    /**
+     * Get number of connections that can be borrowed.
+     *
+     * @return number of idle connections
+     */
+    @Override
+    public int getIdleConnections() {
+        int idle = 0;
+        for (PooledConnection connection : connections) {
+            if (connection.state.get() == IDLE) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * Get number of threads waiting for connection.
+     *
+     * @return number of waiting threads
+     */
+    public int getWaitingThreads() {
+        return waiters.get();
+    }
+
+    /**
+     * Stops idle connections eviction and closes all idle connections.
+     * <p>
+     * Borrowed connections are closed when they are returned.
+     * </p>
+     */
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        for (PooledConnection connection : connections) {
+            if (connection.state.compareAndSet(IDLE, REMOVED)) {
+                remove(connection);
+            }
+        }
+    }
+
+    /**
+     * Borrows connection from the pool.
+     *
+     * @return borrowed connection
+     * @throws SQLException if connection can't be opened or no connection was
+     * returned within wait time
+     */
+    private PooledConnection borrow() throws SQLException {
+        PooledConnection connection = lastUsed.get();
+        if ((connection != null) && connection.state.compareAndSet(IDLE, IN_USE)
+                && ((connection = validate(connection)) != null)) {
+            return connection;
+        }
+
+        connection = scan();
+        if (connection != null) {
+            return connection;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        waiters.incrementAndGet();
+        try {
+            while (true) {
+                connection = scan();
+                if (connection != null) {
+                    return connection;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SQLException("No connection was returned to pool within "
+                            + maxWaitMillis + " ms");
+                }
+                connection = handoff.poll(Math.min(remaining,
+                        TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_STEP_MILLIS)), TimeUnit.NANOSECONDS);
+                if ((connection != null) && ((connection = validate(connection)) != null)) {
+                    return connection;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection", ex);
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Borrows any idle connection or opens new one if pool is not full.
+     *
+     * @return borrowed connection or <code>null</code> if all connections
+     * are used and pool is full
+     * @throws SQLException if new connection can't be opened
+     */
+    private PooledConnection scan() throws SQLException {
+        for (PooledConnection connection : connections) {
+            if (connection.state.compareAndSet(IDLE, IN_USE)) {
+                PooledConnection valid = validate(connection);
+                if (valid != null) {
+                    return valid;
+                }
+            }
+        }
+
+        int currentSize;
+        while ((currentSize = size.get()) < maxSize) {
+            if (size.compareAndSet(currentSize, currentSize + 1)) {
+                try {
+                    PooledConnection connection = new PooledConnection(
+                            DriverManager.getConnection(url, user, password));
+                    connections.add(connection);
+                    lastUsed.set(connection);
+                    return connection;
+                } catch (SQLException ex) {
+                    size.decrementAndGet();
+                    throw ex;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks borrowed connection if it was idle longer than validation
+     * interval.
+     * <p>
+     * Broken connection is removed from the pool.
+     * </p>
+     *
+     * @param connection borrowed connection
+     * @return the same connection if it is valid, <code>null</code> otherwise
+     */
+    private PooledConnection validate(PooledConnection connection) {
+        boolean valid = true;
+        if (System.currentTimeMillis() - connection.lastReturned > VALIDATION_INTERVAL_MILLIS) {
+            try {
+                valid = connection.connection.isValid(validationTimeoutSeconds);
+            } catch (SQLException ex) {
+                valid = false;
+            }
+        }
+        if (!valid) {
+            connection.state.set(REMOVED);
+            remove(connection);
+            return null;
+        }
+        lastUsed.set(connection);
+        return connection;
+    }
+
+    /**
+     * Returns borrowed connection to the pool.
+     * <p>
+     * If some thread waits for connection, connection is handed directly to
+     * it.
+     * </p>
+     *
+     * @param connection borrowed connection
+     */
+    private void release(PooledConnection connection) {
+        connection.lastReturned = System.currentTimeMillis();
+        if (evictor.isShutdown()) {
+            connection.state.set(REMOVED);
+            remove(connection);
+            return;
+        }
+        if ((waiters.get() > 0) && handoff.offer(connection)) {
+            return;
+        }
+        connection.state.set(IDLE);
+    }
+
+    /**
+     * Closes connections that were idle longer than idle timeout.
+     */
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection connection : connections) {
+            if ((now - connection.lastReturned > idleTimeoutMillis)
+                    && connection.state.compareAndSet(IDLE, REMOVED)) {
+                remove(connection);
+            }
+        }
+    }
+
+    /**
+     * Removes connection from the pool and closes it.
+     *
+     * @param connection removed connection
+     */
+    private void remove(PooledConnection connection) {
+        if (connections.remove(connection)) {
+            size.decrementAndGet();
+        }
+        try {
+            connection.connection.close();
+        } catch (SQLException ex) {
+        }
+    }
+
+    /**
+     * Connection that is kept in the pool.
+     */
+    private final class PooledConnection {
+
+        /**
+         * Real database connection.
+         */
+        private final Connection connection;
+        /**
+         * State of connection in the pool.
+         */
+        private final AtomicInteger state = new AtomicInteger(IN_USE);
+        /**
+         * Time when connection was returned to the pool last time.
+         */
+        private volatile long lastReturned = System.currentTimeMillis();
+        /**
+         * Whether borrower changed read-only mode of connection.
+         * <p>
+         * Tracked by proxy, because some drivers ask database for read-only
+         * mode, which would cost query on every return.
+         * </p>
+         */
+        private boolean readOnlyChanged;
+
+        /**
+         * Creates pooled connection for real database connection.
+         *
+         * @param connection real database connection
+         */
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Creates proxy that is given out to borrower instead of real
+         * connection.
+         *
+         * @return proxy of borrowed connection
+         */
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+
+        /**
+         * Resets connection to default state and returns it to the pool.
+         * <p>
+         * Connection that can't be reset is removed from the pool.
+         * </p>
+         */
+        private void giveBack() {
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                if (readOnlyChanged) {
+                    connection.setReadOnly(false);
+                    readOnlyChanged = false;
+                }
+            } catch (SQLException ex) {
+                state.set(REMOVED);
+                remove(this);
+                return;
+            }
+            release(this);
+        }
+    }
+
+    /**
+     * Handler of connection proxy given out for one borrowing.
+     * <p>
+     * Closing proxy gives connection back to the pool only once; after that
+     * proxy can't be used, so borrower that keeps it can't touch connection
+     * borrowed by somebody else.
+     * </p>
+     */
+    private static final class Handle implements InvocationHandler {
+
+        /**
+         * Borrowed connection.
+         */
+        private final PooledConnection pooled;
+        /**
+         * Whether borrower already closed this proxy.
+         */
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * Creates handler of borrowed connection.
+         *
+         * @param pooled borrowed connection
+         */
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed.get() || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + pooled.connection;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection is closed");
+            }
+            if ("setReadOnly".equals(method.getName())) {
+                pooled.readOnlyChanged = true;
+            }
+            try {
+                return method.invoke(pooled.connection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        /**
+         * Gives connection back to the pool if proxy is closed for the first
+         * time.
+         */
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                pooled.giveBack();
+            }
+        }
+    }
+}
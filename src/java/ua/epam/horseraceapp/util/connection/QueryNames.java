@@ -0,0 +1,78 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names of queries of DAO, used to label measurements of connection
+ * managers.
+ * <p>
+ * Query is named after DAO constant that holds its text. DAO are registered
+ * once when they are created, so name of query is found by one map lookup.
+ * </p>
+ *
+ * @see StatementTimingConnectionManager
+ * @see InstrumentedConnectionManager
+ * @author Koroid Daniil
+ */
+public final class QueryNames {
+
+    /**
+     * Name of queries whose text is not known.
+     */
+    public static final String UNKNOWN_QUERY = "other";
+
+    /**
+     * Names of queries by their text.
+     */
+    private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+
+    /**
+     * Class has only static methods.
+     */
+    private QueryNames() {
+    }
+
+    /**
+     * Registers names of queries of DAO.
+     * <p>
+     * Every final string field of DAO class and its superclasses whose name is
+     * written in upper case is taken as query, named after the field. If the
+     * same text is held by several fields, the first registered name is used.
+     * </p>
+     *
+     * @param dao DAO that holds queries in constant fields
+     */
+    public static void register(Object dao) {
+        for (Class<?> type = dao.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                String name = field.getName();
+                if ((field.getType() != String.class) || !Modifier.isFinal(field.getModifiers())
+                        || !name.equals(name.toUpperCase())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    String query = (String) field.get(dao);
+                    if (query != null) {
+                        NAMES.putIfAbsent(query, name);
+                    }
+                } catch (IllegalAccessException | SecurityException ex) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Get name of query.
+     *
+     * @param query query text, may be <code>null</code>
+     * @return name of registered query or {@value #UNKNOWN_QUERY}
+     */
+    public static String get(String query) {
+        String name = (query == null) ? null : NAMES.get(query);
+        return (name == null) ? UNKNOWN_QUERY : name;
+    }
+}
@@ -0,0 +1,142 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of users that recently changed their own data.
+ * <p>
+ * Replicas may lag behind primary database, so user that has just made bet or
+ * recharged balance could not see the change if his next reads went to
+ * replica. For stickiness window after such change reads of that user are
+ * made on primary database.
+ * </p>
+ * <p>
+ * User is bound to current thread for the time of request processing.
+ * </p>
+ *
+ * @see ReplicatedConnectionManager
+ * @author Koroid Daniil
+ */
+public final class ReadYourWrites {
+
+    /**
+     * System property that sets stickiness window in milliseconds.
+     */
+    public static final String STICKINESS_PROPERTY = "horserace.replica.stickinessMillis";
+
+    /**
+     * Time after user's change during which his reads are made on primary
+     * database.
+     */
+    private static final long STICKINESS_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Long.getLong(STICKINESS_PROPERTY, 5000));
+
+    /**
+     * User identificator bound to current thread.
+     */
+    private static final ThreadLocal<Integer> CURRENT_USER = new ThreadLocal<>();
+    /**
+     * Time of last change of each user that changed data within stickiness
+     * window.
+     */
+    private static final Map<Integer, Long> LAST_WRITES = new ConcurrentHashMap<>();
+    /**
+     * Time after which changes older than stickiness window are removed.
+     */
+    private static final AtomicLong NEXT_PRUNE = new AtomicLong(System.nanoTime() + STICKINESS_NANOS);
+
+    /**
+     * Class has only static methods.
+     */
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Get time after user's change during which his reads are made on
+     * primary database.
+     *
+     * @return stickiness window in milliseconds
+     */
+    public static long getStickinessMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(STICKINESS_NANOS);
+    }
+
+    /**
+     * Binds user to current thread.
+     *
+     * @param userId user identificator, <code>null</code> for guest
+     */
+    public static void bindUser(Integer userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    /**
+     * Get user bound to current thread.
+     * <p>
+     * Used to bind the same user to thread that continues request processing.
+     * </p>
+     *
+     * @return user identificator, <code>null</code> if no user is bound
+     */
+    public static Integer getBoundUser() {
+        return CURRENT_USER.get();
+    }
+
+    /**
+     * Unbinds user from current thread.
+     */
+    public static void unbindUser() {
+        CURRENT_USER.remove();
+    }
+
+    /**
+     * Records that user changed his own data.
+     * <p>
+     * Changes older than stickiness window are removed not more often than
+     * once per window, by the first writer after it passes.
+     * </p>
+     *
+     * @param userId user identificator
+     */
+    public static void recordWrite(Integer userId) {
+        long now = System.nanoTime();
+        LAST_WRITES.put(userId, now);
+        long nextPrune = NEXT_PRUNE.get();
+        if ((now - nextPrune >= 0) && NEXT_PRUNE.compareAndSet(nextPrune, now + STICKINESS_NANOS)) {
+            LAST_WRITES.values().removeIf(time -> now - time > STICKINESS_NANOS);
+        }
+    }
+
+    /**
+     * Records that user bound to current thread changed data, such as
+     * bookmaker that accepted bet or administrator that set race result.
+     * <p>
+     * Does nothing if no user is bound.
+     * </p>
+     */
+    public static void recordBoundUserWrite() {
+        Integer userId = CURRENT_USER.get();
+        if (userId != null) {
+            recordWrite(userId);
+        }
+    }
+
+    /**
+     * Checks whether reads of user bound to current thread must be made on
+     * primary database.
+     *
+     * @return <code>true</code> if bound user changed data within stickiness
+     * window, <code>false</code> otherwise
+     */
+    public static boolean requiresPrimary() {
+        Integer userId = CURRENT_USER.get();
+        if (userId == null) {
+            return false;
+        }
+        Long lastWrite = LAST_WRITES.get(userId);
+        return (lastWrite != null) && (System.nanoTime() - lastWrite <= STICKINESS_NANOS);
+    }
+}
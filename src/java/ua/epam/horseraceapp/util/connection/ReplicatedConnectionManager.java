@@ -0,0 +1,73 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection manager that routes reads to replicas of database.
+ * <p>
+ * Read-only connections are taken from replicas in turn. Other connections,
+ * and read-only connections of user that recently changed his own data, are
+ * taken from primary database. If replica gives no connection, primary is
+ * used.
+ * </p>
+ *
+ * @see ReadYourWrites
+ * @author Koroid Daniil
+ */
+public class ReplicatedConnectionManager extends ConnectionManager {
+
+    /**
+     * Connection manager of primary database.
+     */
+    private final ConnectionManager primary;
+    /**
+     * Connection managers of replicas.
+     */
+    private final List<ConnectionManager> replicas;
+    /**
+     * Counter to choose replicas in turn.
+     */
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Constructs connection manager of primary database and its replicas.
+     *
+     * @param primary connection manager of primary database
+     * @param replicas connection managers of replicas
+     */
+    public ReplicatedConnectionManager(ConnectionManager primary, List<ConnectionManager> replicas) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+    }
+
+    @Override
+    protected Connection openConnection() {
+        return primary.openConnection();
+    }
+
+    @Override
+    protected Connection openReadOnlyConnection() {
+        if (replicas.isEmpty() || ReadYourWrites.requiresPrimary()) {
+            return primary.openConnection();
+        }
+        int replica = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        Connection connection = replicas.get(replica).openReadOnlyConnection();
+        return connection != null ? connection : primary.openConnection();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return primary.getIdleConnections();
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        for (ConnectionManager replica : replicas) {
+            replica.close();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.metrics.MetricsSource;
+
+/**
+ * Connection manager that limits number of connections held at once from
+ * another connection manager.
+ * <p>
+ * Caller takes permit of fair semaphore before connection is opened and
+ * returns it when connection is closed, so callers wait in order of arrival
+ * and only limited number of them reach the pool. It keeps thousands of
+ * virtual threads from flooding the database and from spinning in the pool's
+ * wait loop. Caller that doesn't get permit within wait time gets
+ * <code>null</code>, as if pool had no connection.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class SemaphoreConnectionManager extends ConnectionManager implements MetricsSource {
+
+    /**
+     * System property that sets number of permits; connections are not
+     * limited if it is not set.
+     */
+    public static final String PERMITS_PROPERTY = "horserace.pool.permits";
+    /**
+     * System property that sets longest time of waiting for permit in
+     * milliseconds.
+     */
+    public static final String PERMIT_WAIT_PROPERTY = "horserace.pool.permitWaitMillis";
+
+    /**
+     * Default longest time of waiting for permit.
+     */
+    private static final long DEFAULT_PERMIT_WAIT_MILLIS = 10000;
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Logger.getLogger(SemaphoreConnectionManager.class);
+
+    /**
+     * Name of limited pool, used as metric label.
+     */
+    private final String poolName;
+    /**
+     * Limited connection manager.
+     */
+    private final ConnectionManager delegate;
+    /**
+     * Permits to hold connection.
+     */
+    private final Semaphore permits;
+    /**
+     * Longest time of waiting for permit.
+     */
+    private final long permitWaitMillis;
+    /**
+     * Number of callers that didn't get permit in time.
+     */
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Constructs connection manager that limits connections.
+     *
+     * @param poolName name of limited pool, used as metric label
+     * @param delegate limited connection manager
+     * @param permits largest number of connections held at once
+     * @param permitWaitMillis longest time of waiting for permit
+     */
+    public SemaphoreConnectionManager(String poolName, ConnectionManager delegate, int permits,
+            long permitWaitMillis) {
+        this.poolName = poolName;
+        this.delegate = delegate;
+        this.permits = new Semaphore(permits, true);
+        this.permitWaitMillis = permitWaitMillis;
+    }
+
+    /**
+     * Wraps connection manager into one that limits connections if system
+     * property {@value #PERMITS_PROPERTY} is set.
+     * <p>
+     * Wait time is set by system property {@value #PERMIT_WAIT_PROPERTY}.
+     * </p>
+     *
+     * @param poolName name of pool, used as metric label
+     * @param connectionManager connection manager to limit
+     * @return limiting connection manager or given one if limit is not set
+     * @throws NumberFormatException if property is not a number
+     */
+    public static ConnectionManager limitIfConfigured(String poolName, ConnectionManager connectionManager) {
+        String permits = System.getProperty(PERMITS_PROPERTY);
+        if (permits == null) {
+            return connectionManager;
+        }
+        return new SemaphoreConnectionManager(poolName, connectionManager, Integer.parseInt(permits),
+                Long.getLong(PERMIT_WAIT_PROPERTY, DEFAULT_PERMIT_WAIT_MILLIS));
+    }
+
+    @Override
+    protected Connection openConnection() {
+        return open(false);
+    }
+
+    @Override
+    protected Connection openReadOnlyConnection() {
+        return open(true);
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return delegate.getIdleConnections();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public void writeMetrics(PrintWriter writer) {
+        String label = "pool=\"" + poolName + "\"";
+
+        writer.println("# TYPE horserace_connection_permits_available gauge");
+        writer.println("horserace_connection_permits_available{" + label + "} " + permits.availablePermits());
+        writer.println("# TYPE horserace_connection_permits_waiting gauge");
+        writer.println("horserace_connection_permits_waiting{" + label + "} " + permits.getQueueLength());
+        writer.println("# TYPE horserace_connection_permit_timeouts_total counter");
+        writer.println("horserace_connection_permit_timeouts_total{" + label + "} " + timeouts.sum());
+    }
+
+    /**
+     * Takes permit and opens connection of limited connection manager.
+     *
+     * @param readOnly whether connection is used only for reading
+     * @return connection that returns permit when closed or <code>null</code>
+     * if permit or connection can't be got
+     */
+    private Connection open(boolean readOnly) {
+        try {
+            if (!permits.tryAcquire(permitWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                LOG.error("No connection permit was returned within " + permitWaitMillis + " ms");
+                return null;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        Connection connection = null;
+        try {
+            connection = readOnly ? delegate.openReadOnlyConnection() : delegate.openConnection();
+        } finally {
+            if (connection == null) {
+                permits.release();
+            }
+        }
+        if (connection == null) {
+            return null;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PermitHandler(connection));
+    }
+
+    /**
+     * Handler of connection proxy that returns permit when connection is
+     * closed for the first time.
+     */
+    private final class PermitHandler implements InvocationHandler {
+
+        /**
+         * Connection of limited connection manager.
+         */
+        private final Connection connection;
+        /**
+         * Whether permit was returned.
+         */
+        private boolean released;
+
+        /**
+         * Creates handler of connection.
+         *
+         * @param connection connection of limited connection manager
+         */
+        private PermitHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            } finally {
+                if ("close".equals(method.getName()) && !released) {
+                    released = true;
+                    permits.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.metrics.LatencyHistogram;
+import ua.epam.horseraceapp.util.metrics.MetricsSource;
+
+/**
+ * Connection manager that measures statements executed with connections of
+ * another connection manager.
+ * <p>
+ * Records execution time, rows returned and rows updated of every query.
+ * Query is named after DAO constant that holds its text, so DAO must be
+ * registered by {@link QueryNames#register(Object)}; queries of unregistered
+ * text are recorded as {@value QueryNames#UNKNOWN_QUERY}. Execution time is
+ * time of execute call, so rows that streaming query reads afterwards are
+ * counted but not timed.
+ * </p>
+ * <p>
+ * Execution that takes longer than slow query threshold is logged with query
+ * text and types of bound parameters. Bound values may hold emails and
+ * passwords, so they are logged only if system property
+ * {@value #LOG_PARAMETER_VALUES_PROPERTY} is <code>true</code>.
+ * </p>
+ * <p>
+ * Every statement and result set is wrapped into reflective proxy, so DAO
+ * factories measure queries only if system property
+ * {@value #ENABLED_PROPERTY} is <code>true</code>.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class StatementTimingConnectionManager extends ConnectionManager implements MetricsSource {
+
+    /**
+     * System property that sets slow query threshold in milliseconds.
+     */
+    public static final String SLOW_QUERY_THRESHOLD_PROPERTY = "horserace.jdbc.slowQueryMillis";
+    /**
+     * System property that turns measuring of queries on.
+     */
+    public static final String ENABLED_PROPERTY = "horserace.jdbc.statementTiming";
+    /**
+     * System property that makes slow queries logged with values of bound
+     * parameters instead of their types.
+     */
+    public static final String LOG_PARAMETER_VALUES_PROPERTY = "horserace.jdbc.logParameterValues";
+
+    /**
+     * Default execution time after which query is logged as slow.
+     */
+    private static final long DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS = 500;
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Logger.getLogger(StatementTimingConnectionManager.class);
+
+    /**
+     * Measured connection manager.
+     */
+    private final ConnectionManager delegate;
+    /**
+     * Execution time after which query is logged as slow.
+     */
+    private final long slowQueryThresholdNanos;
+    /**
+     * Whether slow queries are logged with values of bound parameters.
+     */
+    private final boolean logParameterValues = Boolean.getBoolean(LOG_PARAMETER_VALUES_PROPERTY);
+    /**
+     * Statistics by query name.
+     */
+    private final Map<String, QueryStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs statement timing connection manager with slow query threshold
+     * set by system property {@value #SLOW_QUERY_THRESHOLD_PROPERTY}.
+     *
+     * @param delegate measured connection manager
+     */
+    public StatementTimingConnectionManager(ConnectionManager delegate) {
+        this(delegate, Long.getLong(SLOW_QUERY_THRESHOLD_PROPERTY, DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS));
+    }
+
+    /**
+     * Constructs statement timing connection manager.
+     *
+     * @param delegate measured connection manager
+     * @param slowQueryThresholdMillis execution time after which query is
+     * logged as slow
+     */
+    public StatementTimingConnectionManager(ConnectionManager delegate, long slowQueryThresholdMillis) {
+        this.delegate = delegate;
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+    }
+
+    @Override
+    protected Connection openConnection() {
+        return wrap(delegate.openConnection());
+    }
+
+    @Override
+    protected Connection openReadOnlyConnection() {
+        return wrap(delegate.openReadOnlyConnection());
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return delegate.getIdleConnections();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public void writeMetrics(PrintWriter writer) {
+        writer.println("# TYPE horserace_query_duration_seconds histogram");
+        for (Map.Entry<String, QueryStatistics> query : statistics.entrySet()) {
+            query.getValue().duration.writeTo(writer, "horserace_query_duration_seconds",
+                    "query=\"" + query.getKey() + "\"");
+        }
+        writer.println("# TYPE horserace_query_rows_returned_total counter");
+        for (Map.Entry<String, QueryStatistics> query : statistics.entrySet()) {
+            writer.println("horserace_query_rows_returned_total{query=\"" + query.getKey() + "\"} "
+                    + query.getValue().rowsReturned.sum());
+        }
+        writer.println("# TYPE horserace_query_rows_updated_total counter");
+        for (Map.Entry<String, QueryStatistics> query : statistics.entrySet()) {
+            writer.println("horserace_query_rows_updated_total{query=\"" + query.getKey() + "\"} "
+                    + query.getValue().rowsUpdated.sum());
+        }
+        writer.println("# TYPE horserace_query_slow_total counter");
+        for (Map.Entry<String, QueryStatistics> query : statistics.entrySet()) {
+            writer.println("horserace_query_slow_total{query=\"" + query.getKey() + "\"} "
+                    + query.getValue().slow.sum());
+        }
+    }
+
+    /**
+     * Wraps connection into proxy that measures its statements.
+     *
+     * @param connection connection of measured connection manager, may be
+     * <code>null</code>
+     * @return proxy of connection or <code>null</code> if connection is
+     * <code>null</code>
+     */
+    private Connection wrap(Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Invokes method of wrapped object and unwraps exception thrown by it.
+     *
+     * @param target wrapped object
+     * @param method invoked method
+     * @param args arguments of method
+     * @return result of method
+     * @throws Throwable exception thrown by method
+     */
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Statistics of one query.
+     */
+    private static class QueryStatistics {
+
+        /**
+         * Execution times.
+         */
+        private final LatencyHistogram duration = new LatencyHistogram();
+        /**
+         * Number of rows read from results.
+         */
+        private final LongAdder rowsReturned = new LongAdder();
+        /**
+         * Number of rows changed.
+         */
+        private final LongAdder rowsUpdated = new LongAdder();
+        /**
+         * Number of executions slower than threshold.
+         */
+        private final LongAdder slow = new LongAdder();
+    }
+
+    /**
+     * Handler of connection proxy that wraps created statements.
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        /**
+         * Connection of measured connection manager.
+         */
+        private final Connection connection;
+
+        /**
+         * Creates handler of connection.
+         *
+         * @param connection connection of measured connection manager
+         */
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    Object statement = invokeTarget(connection, method, args);
+                    String query = "createStatement".equals(method.getName()) ? null : (String) args[0];
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                            new Class<?>[]{method.getReturnType()},
+                            new StatementHandler((Statement) statement, query));
+                default:
+                    return invokeTarget(connection, method, args);
+            }
+        }
+    }
+
+    /**
+     * Handler of statement proxy that measures executions.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        /**
+         * Statement of measured connection.
+         */
+        private final Statement statement;
+        /**
+         * Text of prepared query, <code>null</code> for plain statement.
+         */
+        private final String preparedQuery;
+        /**
+         * Bound parameters by index: values if they are logged, otherwise
+         * types named after setter methods.
+         */
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        /**
+         * Number of parameter sets added to batch.
+         */
+        private int batchSize;
+        /**
+         * Statistics of last executed query, used by its results.
+         */
+        private QueryStatistics lastStatistics;
+
+        /**
+         * Creates handler of statement.
+         *
+         * @param statement statement of measured connection
+         * @param preparedQuery text of prepared query, <code>null</code> for
+         * plain statement
+         */
+        private StatementHandler(Statement statement, String preparedQuery) {
+            this.statement = statement;
+            this.preparedQuery = preparedQuery;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getResultSet":
+                    return wrap((ResultSet) invokeTarget(statement, method, args));
+                case "clearParameters":
+                    parameters.clear();
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                default:
+                    if (name.startsWith("set") && (args != null) && (args.length >= 2)
+                            && (args[0] instanceof Integer)) {
+                        parameters.put((Integer) args[0], logParameterValues ? args[1] : name.substring(3));
+                    }
+            }
+            return invokeTarget(statement, method, args);
+        }
+
+        /**
+         * Executes query and records its time and changed rows.
+         *
+         * @param method execute method of statement
+         * @param args arguments of method, query text first for plain
+         * statement
+         * @return result of method, with result set wrapped
+         * @throws Throwable exception thrown by method
+         */
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String query = ((args != null) && (args.length > 0) && (args[0] instanceof String))
+                    ? (String) args[0] : preparedQuery;
+            String queryName = QueryNames.get(query);
+            QueryStatistics queryStatistics = statistics.computeIfAbsent(queryName,
+                    key -> new QueryStatistics());
+            lastStatistics = queryStatistics;
+
+            long start = System.nanoTime();
+            Object result = invokeTarget(statement, method, args);
+            long nanos = System.nanoTime() - start;
+            queryStatistics.duration.record(nanos);
+
+            if (result instanceof int[]) {
+                for (int updateCount : (int[]) result) {
+                    if (updateCount > 0) {
+                        queryStatistics.rowsUpdated.add(updateCount);
+                    }
+                }
+            } else if ((result instanceof Integer) || (result instanceof Long)) {
+                queryStatistics.rowsUpdated.add(((Number) result).longValue());
+            } else if (Boolean.FALSE.equals(result)) {
+                queryStatistics.rowsUpdated.add(Math.max(statement.getUpdateCount(), 0));
+            }
+
+            if (nanos > slowQueryThresholdNanos) {
+                queryStatistics.slow.increment();
+                LOG.warn("Slow query " + queryName + " took " + TimeUnit.NANOSECONDS.toMillis(nanos)
+                        + " ms with " + parameters.size() + " parameters "
+                        + (logParameterValues ? "" : "of types ") + parameters.values()
+                        + ((batchSize > 0) ? " (last of batch of " + batchSize + ")" : "") + ": " + query);
+            }
+            if (result instanceof int[]) {
+                batchSize = 0;
+            }
+            return (result instanceof ResultSet) ? wrap((ResultSet) result) : result;
+        }
+
+        /**
+         * Wraps result set into proxy that counts read rows.
+         *
+         * @param resultSet result set of statement, may be <code>null</code>
+         * @return proxy of result set or <code>null</code> if result set is
+         * <code>null</code>
+         */
+        private ResultSet wrap(ResultSet resultSet) {
+            if ((resultSet == null) || (lastStatistics == null)) {
+                return resultSet;
+            }
+            QueryStatistics queryStatistics = lastStatistics;
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        Object result = invokeTarget(resultSet, method, args);
+                        if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                            queryStatistics.rowsReturned.increment();
+                        }
+                        return result;
+                    });
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package ua.epam.horseraceapp.util.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Unit of work that binds one transactional connection to current thread.
+ * <p>
+ * While unit of work is active, every call to
+ * {@link ConnectionManager#getConnection()} in the same thread returns the
+ * connection of this unit. So all DAO calls of one business operation are
+ * executed in one transaction and hold only one pooled connection.
+ * </p>
+ * <p>
+ * Connection returned to DAO ignores <code>close()</code>,
+ * <code>commit()</code> and <code>setAutoCommit()</code> calls, as
+ * transaction is controlled by unit of work. Its <code>rollback()</code>
+ * marks unit of work as rollback-only.
+ * </p>
+ * <p>
+ * If unit of work is begun while other unit of work is active - it joins the
+ * active one. Only the outermost unit of work commits or rolls back the
+ * transaction.
+ * </p>
+ * <p>
+ * Must be used in try-with-resources block:
+ * <pre>
+ * try (UnitOfWork unitOfWork = UnitOfWork.begin(connectionManager)) {
+ *     ...
+ *     unitOfWork.commit();
+ * }
+ * </pre>
+ * If unit of work was not committed - it is rolled back on close.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    /**
+     * Unit of work that is active in current thread.
+     */
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Connection of this unit of work.
+     */
+    private final Connection connection;
+    /**
+     * Connection that is given to DAO while this unit of work is active.
+     */
+    private final Connection boundConnection;
+    /**
+     * Number of begun and not closed units that share this unit of work.
+     */
+    private int depth = 1;
+    /**
+     * Whether transaction must be rolled back.
+     */
+    private boolean rollbackOnly;
+    /**
+     * Whether transaction was already committed or rolled back.
+     */
+    private boolean completed;
+
+    /**
+     * Creates unit of work with given connection.
+     *
+     * @param connection connection of this unit of work
+     */
+    private UnitOfWork(final Connection connection) {
+        this.connection = connection;
+        this.boundConnection = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new InvocationHandler() {
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        switch (method.getName()) {
+                            case "close":
+                            case "commit":
+                            case "setAutoCommit":
+                                return null;
+                            case "rollback":
+                                if (args == null) {
+                                    rollbackOnly = true;
+                                    return null;
+                                }
+                                break;
+                            case "isClosed":
+                                return completed || connection.isClosed();
+                            case "getAutoCommit":
+                                return false;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Begins unit of work in current thread.
+     * <p>
+     * If there is already active unit of work in current thread - joins it.
+     * Otherwise takes connection from given connection manager and starts
+     * transaction on it.
+     * </p>
+     *
+     * @param connectionManager connection manager to take connection from
+     * @return begun unit of work
+     * @throws SQLException if connection can't be taken or transaction can't be
+     * started
+     */
+    public static UnitOfWork begin(ConnectionManager connectionManager) throws SQLException {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            current.depth++;
+            return current;
+        }
+
+        Connection connection = connectionManager.openConnection();
+        if (connection == null) {
+            throw new SQLException("Can't get connection for unit of work");
+        }
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+
+        UnitOfWork unitOfWork = new UnitOfWork(connection);
+        CURRENT.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    /**
+     * Checks whether unit of work is active in current thread.
+     *
+     * @return <code>true</code> if DAO calls of current thread are made in
+     * unit of work. Otherwise <code>false</code>
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Get connection of unit of work that is active in current thread.
+     *
+     * @return connection of active unit of work. If there is no active unit of
+     * work - <code>null</code>
+     */
+    static Connection getCurrentConnection() {
+        UnitOfWork current = CURRENT.get();
+        return current == null ? null : current.boundConnection;
+    }
+
+    /**
+     * Commits transaction of this unit of work.
+     * <p>
+     * If unit of work was marked as rollback-only - rolls transaction back and
+     * returns <code>false</code>. If this unit of work joined other one - only
+     * checks rollback-only mark, as transaction is committed by the outermost
+     * unit of work.
+     * </p>
+     *
+     * @return <code>true</code> if transaction was (or may be) committed.
+     * Otherwise <code>false</code>
+     * @throws SQLException if transaction can't be committed
+     */
+    public boolean commit() throws SQLException {
+        if (rollbackOnly) {
+            rollback();
+            return false;
+        }
+        if (depth == 1) {
+            connection.commit();
+            completed = true;
+        }
+        return true;
+    }
+
+    /**
+     * Rolls back transaction of this unit of work.
+     * <p>
+     * If this unit of work joined other one - only marks it as rollback-only.
+     * </p>
+     *
+     * @throws SQLException if transaction can't be rolled back
+     */
+    public void rollback() throws SQLException {
+        rollbackOnly = true;
+        if (depth == 1 && !completed) {
+            completed = true;
+            connection.rollback();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (--depth > 0) {
+            return;
+        }
+        CURRENT.remove();
+        try {
+            if (!completed) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(true);
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+-- Schema of horserace database for embedded H2 in MySQL mode.
+-- Can be executed on already created database.
+
+CREATE TABLE IF NOT EXISTS bet_state (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    state VARCHAR(45) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS user_type (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    user_type VARCHAR(45) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS user (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(45) NOT NULL,
+    last_name VARCHAR(45) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(100) NOT NULL,
+    balance INT NOT NULL DEFAULT 0,
+    type_id INT NOT NULL,
+    FOREIGN KEY (type_id) REFERENCES user_type (id)
+);
+
+CREATE TABLE IF NOT EXISTS horse (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(45) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS race (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    start_time TIMESTAMP NOT NULL,
+    place VARCHAR(100) NOT NULL,
+    distance INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS contestant_horse (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    race_id INT NOT NULL,
+    horse_id INT NOT NULL,
+    position INT,
+    coefficient DOUBLE NOT NULL,
+    FOREIGN KEY (race_id) REFERENCES race (id),
+    FOREIGN KEY (horse_id) REFERENCES horse (id)
+);
+
+CREATE TABLE IF NOT EXISTS bet (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    state_id INT NOT NULL,
+    owner_id INT NOT NULL,
+    amount INT NOT NULL,
+    contestant_horse_id INT NOT NULL,
+    place_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (state_id) REFERENCES bet_state (id),
+    FOREIGN KEY (owner_id) REFERENCES user (id),
+    FOREIGN KEY (contestant_horse_id) REFERENCES contestant_horse (id)
+);
+
+CREATE INDEX IF NOT EXISTS bet_owner_idx ON bet (owner_id, id);
+CREATE INDEX IF NOT EXISTS bet_state_idx ON bet (state_id, id);
+CREATE INDEX IF NOT EXISTS bet_contestant_horse_state_idx ON bet (contestant_horse_id, state_id);
+CREATE INDEX IF NOT EXISTS contestant_horse_race_idx ON contestant_horse (race_id);
+
+MERGE INTO bet_state (state) KEY (state) VALUES
+    ('WON_PAYED'),
+    ('WON_WAITING_FOR_PAY'),
+    ('LOSE'),
+    ('ACCEPTED'),
+    ('DECLINED'),
+    ('WAITING_FOR_ACCEPT');
+
+MERGE INTO user_type (user_type) KEY (user_type) VALUES
+    ('USER'),
+    ('ADMIN'),
+    ('BOOKMAKER');
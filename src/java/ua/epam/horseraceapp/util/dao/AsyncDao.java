@@ -0,0 +1,127 @@
+package ua.epam.horseraceapp.util.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import ua.epam.horseraceapp.util.connection.ReadYourWrites;
+import ua.epam.horseraceapp.util.connection.UnitOfWork;
+
+/**
+ * Asynchronous variant of DAO.
+ * <p>
+ * Every call of DAO method is made on executor of DAO calls and returns
+ * {@link CompletableFuture} of its result, so independent reads can run in
+ * parallel and be composed. User bound to calling thread by
+ * {@link ReadYourWrites} is bound to executor thread for the call, so reads
+ * are routed to the same database as synchronous ones.
+ * </p>
+ * <p>
+ * Call made while unit of work is active in calling thread is made at once
+ * in calling thread, as it must use connection of that unit of work. So is
+ * call that executor rejects because it is overloaded or stopped.
+ * </p>
+ *
+ * @param <D> type of DAO
+ * @see AsyncDaoFactory
+ * @author Koroid Daniil
+ */
+public class AsyncDao<D> {
+
+    /**
+     * Synchronous DAO.
+     */
+    private final D dao;
+    /**
+     * Executor of DAO calls.
+     */
+    private final Executor executor;
+
+    /**
+     * Creates asynchronous variant of DAO.
+     *
+     * @param dao synchronous DAO
+     * @param executor executor of DAO calls
+     */
+    AsyncDao(D dao, Executor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    /**
+     * Calls method of DAO asynchronously.
+     * <p>
+     * For example <code>raceDao.supply(dao -&gt; dao.findRaceById(raceId))</code>.
+     * </p>
+     *
+     * @param <T> type of result
+     * @param call call of DAO method
+     * @return future result of call, completed exceptionally if call threw
+     * exception
+     */
+    public <T> CompletableFuture<T> supply(Function<? super D, ? extends T> call) {
+        if (UnitOfWork.isActive()) {
+            return supplyNow(call);
+        }
+
+        Integer userId = ReadYourWrites.getBoundUser();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Integer previousUserId = ReadYourWrites.getBoundUser();
+                ReadYourWrites.bindUser(userId);
+                try {
+                    return call.apply(dao);
+                } finally {
+                    ReadYourWrites.bindUser(previousUserId);
+                }
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            return supplyNow(call);
+        }
+    }
+
+    /**
+     * Calls method of DAO in calling thread.
+     *
+     * @param <T> type of result
+     * @param call call of DAO method
+     * @return completed result of call, completed exceptionally if call threw
+     * exception
+     */
+    private <T> CompletableFuture<T> supplyNow(Function<? super D, ? extends T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(call.apply(dao));
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    /**
+     * Waits for result of asynchronous call.
+     * <p>
+     * Exception thrown by DAO method is rethrown as it is, as if method was
+     * called synchronously.
+     * </p>
+     *
+     * @param <T> type of result
+     * @param future future result of call
+     * @return result of call
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ua.epam.horseraceapp.util.dao;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import ua.epam.horseraceapp.util.concurrent.VirtualThreads;
+
+/**
+ * Factory of asynchronous variants of DAO.
+ * <p>
+ * DAO of given factory are called on bounded executor of DAO calls, which
+ * has fixed number of threads and bounded queue. Call that doesn't fit into
+ * queue is made in calling thread, so under overload calls become serial
+ * again instead of failing.
+ * </p>
+ * <p>
+ * Executor is configured by system properties with prefix
+ * {@value #PROPERTY_PREFIX}:
+ * <ul>
+ * <li><code>threads</code> number of threads, should not exceed size of
+ * connection pool</li>
+ * <li><code>queueSize</code> number of calls that may wait for thread</li>
+ * </ul>
+ * </p>
+ * <p>
+ * If virtual threads are enabled by system property
+ * {@value VirtualThreads#ENABLED_PROPERTY}, every call starts at once on its
+ * own virtual thread instead, so calls are not limited by number of platform
+ * threads; connections they take are limited by
+ * {@link ua.epam.horseraceapp.util.connection.SemaphoreConnectionManager}.
+ * </p>
+ *
+ * @see AsyncDao
+ * @author Koroid Daniil
+ */
+public class AsyncDaoFactory {
+
+    /**
+     * Prefix of system properties that configure executor of DAO calls.
+     */
+    public static final String PROPERTY_PREFIX = "horserace.dao.async.";
+
+    /**
+     * Factory of synchronous DAO.
+     */
+    private final DaoFactory factory;
+    /**
+     * Executor of DAO calls.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Creates factory of asynchronous DAO.
+     *
+     * @param factory factory of synchronous DAO
+     * @param threads number of threads of executor
+     * @param queueSize number of calls that may wait for thread
+     */
+    public AsyncDaoFactory(DaoFactory factory, int threads, int queueSize) {
+        this.factory = factory;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "horserace-dao-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Creates factory of asynchronous DAO whose calls are made on given
+     * executor.
+     *
+     * @param factory factory of synchronous DAO
+     * @param executor executor of DAO calls
+     */
+    public AsyncDaoFactory(DaoFactory factory, ExecutorService executor) {
+        this.factory = factory;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates factory of asynchronous DAO with executor configured by system
+     * properties.
+     *
+     * @param factory factory of synchronous DAO
+     * @return factory of asynchronous DAO
+     */
+    public static AsyncDaoFactory fromSystemProperties(DaoFactory factory) {
+        if (VirtualThreads.isEnabled()) {
+            return new AsyncDaoFactory(factory, VirtualThreads.newThreadPerTaskExecutor("horserace-dao-"));
+        }
+        return new AsyncDaoFactory(factory,
+                Integer.getInteger(PROPERTY_PREFIX + "threads", 16),
+                Integer.getInteger(PROPERTY_PREFIX + "queueSize", 1000));
+    }
+
+    /**
+     * Get asynchronous ContestantHorse DAO.
+     *
+     * @return asynchronous ContestantHorse DAO
+     */
+    public AsyncDao<ContestantHorseDao> createContestantHorseDao() {
+        return new AsyncDao<>(factory.createContestantHorseDao(), executor);
+    }
+
+    /**
+     * Get asynchronous Race DAO.
+     *
+     * @return asynchronous Race DAO
+     */
+    public AsyncDao<RaceDao> createRaceDao() {
+        return new AsyncDao<>(factory.createRaceDao(), executor);
+    }
+
+    /**
+     * Get asynchronous Bet DAO.
+     *
+     * @return asynchronous Bet DAO
+     */
+    public AsyncDao<BetDao> createBetDao() {
+        return new AsyncDao<>(factory.createBetDao(), executor);
+    }
+
+    /**
+     * Get asynchronous User DAO.
+     *
+     * @return asynchronous User DAO
+     */
+    public AsyncDao<UserDao> createUserDao() {
+        return new AsyncDao<>(factory.createUserDao(), executor);
+    }
+
+    /**
+     * Stops executor of DAO calls.
+     * <p>
+     * Calls that are already queued are made; calls made later run in calling
+     * thread.
+     * </p>
+     */
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -1,6 +1,8 @@
 package ua.epam.horseraceapp.util.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import ua.epam.horseraceapp.util.dao.entity.Bet;
 import ua.epam.horseraceapp.util.dao.entity.BetState;
 import ua.epam.horseraceapp.util.dao.entity.User;
@@ -26,6 +28,26 @@ public interface BetDao {
      */
     List<Bet> findUserBets(Integer userId);
 
+    /**
+     * Find one page of bets of user with given identificator.
+     * <p>
+     * Bets are ordered by identificator, that is in order they were placed.
+     * Page starts right after bet with given identificator. If it is
+     * <code>null</code> - first page is returned.
+     * </p>
+     * <p>
+     * If there are no more bets - returns empty list.
+     * </p>
+     *
+     * @param userId identificator of user whose stakes must be found
+     * {@link User#id}
+     * @param afterBetId identificator of last bet on previous page
+     * {@link Bet#id}
+     * @param pageSize maximum number of bets to return
+     * @return page of bets of user with given identificator
+     */
+    List<Bet> findUserBets(Integer userId, Integer afterBetId, int pageSize);
+
     /**
      * Find all unviewed bets.
      * <p>
@@ -40,6 +62,43 @@ public interface BetDao {
      */
     List<Bet> findUnviewedBets();
 
+    /**
+     * Find one page of unviewed bets.
+     * <p>
+     * Bets are ordered by identificator. Page starts right after bet with
+     * given identificator. If it is <code>null</code> - first page is
+     * returned.
+     * </p>
+     * <p>
+     * If there are no more unviewed bets - returns empty list.
+     * </p>
+     *
+     * @param afterBetId identificator of last bet on previous page
+     * {@link Bet#id}
+     * @param pageSize maximum number of bets to return
+     * @return page of unviewed bets
+     */
+    List<Bet> findUnviewedBets(Integer afterBetId, int pageSize);
+
+    /**
+     * Streams all bets with given state to given handler.
+     * <p>
+     * Bets are passed to handler one by one as they are read, without
+     * collecting them in memory, so this method can be used to process any
+     * number of bets. If state is <code>null</code> - all bets are streamed.
+     * </p>
+     * <p>
+     * Streaming stops when all bets were handled or when handler returned
+     * <code>false</code>.
+     * </p>
+     *
+     * @param state state of bets to stream or <code>null</code>
+     * @param handler handler to pass bets to
+     * @return <code>true</code> if streaming was finished without errors.
+     * Otherwise <code>false</code>
+     */
+    boolean streamBets(BetState state, BetRowHandler handler);
+
     /**
      * Creates bet with given amount with user with given identificator as an
      * owner.
@@ -48,14 +107,10 @@ public interface BetDao {
      * identificator.
      * </p>
      * <p>
-     * Before creating checks user balance for having enough sum to make this
-     * stake. If user's balance is less than given amount - returns
-     * <code>false</code> as bet is not done.
-     * </p>
-     * <p>
-     * If user's balance is OK, charges bet amount off an balance and creates
-     * bet. If with one of this operations went wrong - nothing performs,
-     * <code>false</code> is returned. If this operations went seccessfully -
+     * Bet is placed the same way as by
+     * {@link #placeBet(Integer, Integer, Integer)}. If user's balance is less
+     * than given amount, race already has result or something went wrong -
+     * nothing performs, <code>false</code> is returned. If bet was placed -
      * returns <code>true</code>.
      * </p>
      *
@@ -67,6 +122,61 @@ public interface BetDao {
      */
     boolean makeBet(Integer userId, Integer amount, Integer contestantHorseId);
 
+    /**
+     * Places bet with given amount with user with given identificator as an
+     * owner.
+     * <p>
+     * Charges bet amount off owner's balance and creates bet as one atomic
+     * operation: balance is charged only if it is not less than bet amount and
+     * race of beted horse has no result yet, so concurrent bets of the same
+     * user can't overdraw his balance.
+     * </p>
+     *
+     * @param userId bet owner identificator
+     * @param amount bet amount
+     * @param contestantHorseId beted contestant horse identificator
+     * @return {@link BetPlacementResult#SUCCESS} if bet was made, otherwise
+     * reason why it was not made
+     */
+    BetPlacementResult placeBet(Integer userId, Integer amount, Integer contestantHorseId);
+
+    /**
+     * Places all requested bets.
+     * <p>
+     * Each bet is placed the same way as by
+     * {@link #placeBet(Integer, Integer, Integer)}, but all balance changes
+     * and bet creations are sent to database as batches in one transaction.
+     * Bets are placed in the order they were given, so later bet of the same
+     * user is checked against balance that is left after his earlier bets.
+     * </p>
+     * <p>
+     * Returns result for each request in the order they were given. Failed
+     * request doesn't prevent other requests from being placed.
+     * </p>
+     *
+     * @param requests requests to place bets
+     * @return result of placing each bet
+     */
+    List<BetPlacementResult> placeBets(List<BetRequest> requests);
+
+    /**
+     * Creates bets whose amounts were already charged off owners' balances.
+     * <p>
+     * Used when balances are kept outside of this DAO, for example by wallet
+     * ledger. Owners' balances are not checked and not changed. Bet is not
+     * created if race of beted horse already has result.
+     * </p>
+     * <p>
+     * Returns result for each request in the order they were given: never
+     * {@link BetPlacementResult#INSUFFICIENT_FUNDS}. Failed request doesn't
+     * prevent other requests from being created.
+     * </p>
+     *
+     * @param requests requests to create bets
+     * @return result of creating each bet
+     */
+    List<BetPlacementResult> placePrepaidBets(List<BetRequest> requests);
+
     /**
      * Changes bet state from {@link BetState#WAITING_FOR_ACCEPT} to
      * {@link BetState#ACCEPTED}.
@@ -157,6 +267,83 @@ public interface BetDao {
      */
     boolean payBet(Integer betId);
 
+    /**
+     * Accepts all bets with given identificators.
+     * <p>
+     * Each bet is accepted the same way as by {@link #acceptBet(Integer)}, but
+     * all state changes are sent to database as one batch in one transaction.
+     * </p>
+     * <p>
+     * Returns outcome for each given identificator in the order they were
+     * given: <code>true</code> if bet was accepted, otherwise
+     * <code>false</code>. If something went wrong with the whole batch -
+     * nothing performs and all outcomes are <code>false</code>.
+     * </p>
+     *
+     * @param betIds identificators of bets to accept
+     * @return outcome of accepting for each bet identificator
+     */
+    Map<Integer, Boolean> acceptBets(Collection<Integer> betIds);
+
+    /**
+     * Declines all bets with given identificators.
+     * <p>
+     * Each bet is declined the same way as by {@link #declineBet(Integer)}:
+     * bet amount is returned to bet owner. All state changes and balance
+     * changes are sent to database as batches in one transaction.
+     * </p>
+     * <p>
+     * Returns outcome for each given identificator in the order they were
+     * given: <code>true</code> if bet was declined, otherwise
+     * <code>false</code>. If something went wrong with returning money -
+     * nothing performs and all outcomes are <code>false</code>.
+     * </p>
+     *
+     * @param betIds identificators of bets to decline
+     * @return outcome of declining for each bet identificator
+     */
+    Map<Integer, Boolean> declineBets(Collection<Integer> betIds);
+
+    /**
+     * Determines results of all bets with given identificators.
+     * <p>
+     * Each bet that was made on race winner is changed to
+     * {@link BetState#WON_WAITING_FOR_PAY}, other bets are changed to
+     * {@link BetState#LOSE}, the same way as by {@link #waitForPayBet(Integer)}
+     * and {@link #loseBet(Integer)}. All state changes are sent to database as
+     * one batch in one transaction.
+     * </p>
+     * <p>
+     * Returns outcome for each given identificator in the order they were
+     * given: <code>true</code> if bet result was determined, otherwise
+     * <code>false</code>. If something went wrong with the whole batch -
+     * nothing performs and all outcomes are <code>false</code>.
+     * </p>
+     *
+     * @param betIds identificators of bets to determine result
+     * @return outcome of result determination for each bet identificator
+     */
+    Map<Integer, Boolean> settleBets(Collection<Integer> betIds);
+
+    /**
+     * Pays all bets with given identificators.
+     * <p>
+     * Each bet is paid the same way as by {@link #payBet(Integer)}. All state
+     * changes and balance changes are sent to database as batches in one
+     * transaction.
+     * </p>
+     * <p>
+     * Returns outcome for each given identificator in the order they were
+     * given: <code>true</code> if bet was paid, otherwise <code>false</code>.
+     * If something went wrong with paying - nothing performs and all outcomes
+     * are <code>false</code>.
+     * </p>
+     *
+     * @param betIds identificators of bets to pay
+     * @return outcome of paying for each bet identificator
+     */
+    Map<Integer, Boolean> payBets(Collection<Integer> betIds);
+
     /**
      * Get amount that must be payed on bet win.
      * <p>
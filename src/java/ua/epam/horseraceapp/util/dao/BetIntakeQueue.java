@@ -0,0 +1,294 @@
+package ua.epam.horseraceapp.util.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.log4j.Logger;
+
+/**
+ * Queue that makes bets of many users in groups.
+ * <p>
+ * Every caller puts its bet request into the queue and waits for its own
+ * outcome. One intake thread takes requests from the queue and makes them
+ * with {@link BetDao#placeBets(List)}, so a group of bets costs one
+ * transaction and one commit instead of one for each bet.
+ * </p>
+ * <p>
+ * Intake thread collects requests for not longer than collection window
+ * after the first request of a group, and not more than largest group size.
+ * While one group is being committed, next one is collected, so under heavy
+ * load groups grow without waiting.
+ * </p>
+ * <p>
+ * Queue is bounded, and caller waits for its bet to be taken from the queue
+ * not longer than wait time. Bet that doesn't fit into queue or is not taken
+ * in time is not made and caller gets {@link BetPlacementResult#FAILED}.
+ * Bet that is already taken is being committed, so caller waits for its
+ * outcome.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class BetIntakeQueue {
+
+    /**
+     * Default largest number of bets in one group.
+     */
+    public static final int DEFAULT_MAX_GROUP_SIZE = 100;
+    /**
+     * Default longest time to collect one group in milliseconds.
+     */
+    public static final long DEFAULT_COLLECTION_WINDOW_MILLIS = 5;
+    /**
+     * Default largest number of bets waiting in queue.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+    /**
+     * Default longest time of waiting for bet to be taken from queue in
+     * milliseconds.
+     */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 10000;
+    /**
+     * Period of checking whether intake thread was stopped while caller waits
+     * for outcome.
+     */
+    private static final long STOP_CHECK_PERIOD_MILLIS = 100;
+    /**
+     * Longest time of waiting for intake thread to make queued bets when
+     * queue is shut down in milliseconds.
+     */
+    private static final long SHUTDOWN_WAIT_MILLIS = 10000;
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Logger.getLogger(BetIntakeQueue.class);
+
+    /**
+     * DAO to make groups of bets with.
+     */
+    private final BetDao betDao;
+    /**
+     * Largest number of bets in one group.
+     */
+    private final int maxGroupSize;
+    /**
+     * Longest time to collect one group in nanoseconds.
+     */
+    private final long collectionWindowNanos;
+    /**
+     * Longest time of waiting for bet to be taken from queue in nanoseconds.
+     */
+    private final long maxWaitNanos;
+    /**
+     * Requests waiting to be made.
+     */
+    private final BlockingQueue<PendingBet> queue;
+    /**
+     * Thread that makes groups of bets.
+     */
+    private final Thread intakeThread;
+
+    /**
+     * Creates queue with default group size, collection window, capacity and
+     * wait time and starts its intake thread.
+     *
+     * @param betDao DAO to make groups of bets with
+     */
+    public BetIntakeQueue(BetDao betDao) {
+        this(betDao, DEFAULT_MAX_GROUP_SIZE, DEFAULT_COLLECTION_WINDOW_MILLIS, DEFAULT_CAPACITY,
+                DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Creates queue and starts its intake thread.
+     *
+     * @param betDao DAO to make groups of bets with
+     * @param maxGroupSize largest number of bets in one group
+     * @param collectionWindowMillis longest time to collect one group in
+     * milliseconds
+     * @param capacity largest number of bets waiting in queue
+     * @param maxWaitMillis longest time of waiting for bet to be taken from
+     * queue in milliseconds
+     */
+    public BetIntakeQueue(BetDao betDao, int maxGroupSize, long collectionWindowMillis, int capacity,
+            long maxWaitMillis) {
+        this.betDao = betDao;
+        this.maxGroupSize = maxGroupSize;
+        this.collectionWindowNanos = TimeUnit.MILLISECONDS.toNanos(collectionWindowMillis);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        intakeThread = new Thread(this::processGroups, "horserace-bet-intake");
+        intakeThread.setDaemon(true);
+        intakeThread.start();
+    }
+
+    /**
+     * Places bet and waits for its result.
+     * <p>
+     * Result is the same as of
+     * {@link BetDao#placeBet(Integer, Integer, Integer)}.
+     * </p>
+     *
+     * @param userId bet owner identificator
+     * @param amount bet amount
+     * @param contestantHorseId beted contestant horse identificator
+     * @return {@link BetPlacementResult#SUCCESS} if bet was made, otherwise
+     * reason why it was not made; {@link BetPlacementResult#FAILED} if queue
+     * is full or bet was not taken from queue in time
+     */
+    public BetPlacementResult placeBet(Integer userId, Integer amount, Integer contestantHorseId) {
+        if (!intakeThread.isAlive()) {
+            return betDao.placeBet(userId, amount, contestantHorseId);
+        }
+        PendingBet bet = new PendingBet(new BetRequest(userId, amount, contestantHorseId));
+        if (!queue.offer(bet)) {
+            LOG.warn("Bet intake queue is full, bet is not made");
+            return BetPlacementResult.FAILED;
+        }
+        long deadline = System.nanoTime() + maxWaitNanos;
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return bet.outcome.get(STOP_CHECK_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ex) {
+                    boolean stopped = !intakeThread.isAlive();
+                    if ((stopped || (System.nanoTime() - deadline >= 0)) && queue.remove(bet)) {
+                        if (stopped) {
+                            return betDao.placeBet(userId, amount, contestantHorseId);
+                        }
+                        LOG.warn("Bet was not taken from intake queue in time, bet is not made");
+                        return BetPlacementResult.FAILED;
+                    }
+                } catch (InterruptedException ex) {
+                    // bet may be already made, so outcome must be waited for
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    return BetPlacementResult.FAILED;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops intake thread after requests that are already queued are made and
+     * waits a bit for it to end.
+     * <p>
+     * Bets that are requested later are made one by one by their callers.
+     * </p>
+     */
+    public void shutdown() {
+        intakeThread.interrupt();
+        try {
+            intakeThread.join(SHUTDOWN_WAIT_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Collects and makes groups of bets until intake thread is interrupted.
+     */
+    private void processGroups() {
+        List<PendingBet> group = new ArrayList<>(maxGroupSize);
+        boolean running = true;
+        while (running || !queue.isEmpty()) {
+            try {
+                if (running) {
+                    collectGroup(group);
+                } else {
+                    queue.drainTo(group, maxGroupSize);
+                }
+            } catch (InterruptedException ex) {
+                running = false;
+            }
+            if (!group.isEmpty()) {
+                makeGroup(group);
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Waits for first request and collects group of requests within
+     * collection window.
+     *
+     * @param group list to collect requests to
+     * @throws InterruptedException if intake thread is interrupted
+     */
+    private void collectGroup(List<PendingBet> group) throws InterruptedException {
+        group.add(queue.take());
+        long deadline = System.nanoTime() + collectionWindowNanos;
+        while (group.size() < maxGroupSize) {
+            queue.drainTo(group, maxGroupSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if ((group.size() >= maxGroupSize) || (remaining <= 0)) {
+                break;
+            }
+            PendingBet next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+    }
+
+    /**
+     * Makes group of bets and gives outcome to each caller.
+     *
+     * @param group group of requests
+     */
+    private void makeGroup(List<PendingBet> group) {
+        List<BetRequest> requests = new ArrayList<>(group.size());
+        for (PendingBet bet : group) {
+            requests.add(bet.request);
+        }
+        try {
+            List<BetPlacementResult> outcomes = betDao.placeBets(requests);
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).outcome.complete(outcomes.get(i));
+            }
+        } catch (RuntimeException ex) {
+            LOG.error("Failed to make group of bets", ex);
+            for (PendingBet bet : group) {
+                bet.outcome.complete(BetPlacementResult.FAILED);
+            }
+        }
+    }
+
+    /**
+     * Request waiting in queue together with its future outcome.
+     */
+    private static class PendingBet {
+
+        /**
+         * Request to make bet.
+         */
+        private final BetRequest request;
+        /**
+         * Outcome of making bet.
+         */
+        private final CompletableFuture<BetPlacementResult> outcome = new CompletableFuture<>();
+
+        /**
+         * Creates pending bet.
+         *
+         * @param request request to make bet
+         */
+        private PendingBet(BetRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ua.epam.horseraceapp.util.dao;
+
+/**
+ * Result of bet placement.
+ *
+ * @see BetDao#placeBet(Integer, Integer, Integer)
+ * @author Koroid Daniil
+ */
+public enum BetPlacementResult {
+
+    /**
+     * Bet was made and its amount was charged off owner's balance.
+     */
+    SUCCESS,
+    /**
+     * Owner's balance is less than bet amount.
+     */
+    INSUFFICIENT_FUNDS,
+    /**
+     * Race of beted horse already has result, so bets on it are not
+     * accepted.
+     */
+    MARKET_CLOSED,
+    /**
+     * Bet was not made for other reason: owner or contestant horse doesn't
+     * exist, database failed, or bet intake is overloaded.
+     */
+    FAILED
+}
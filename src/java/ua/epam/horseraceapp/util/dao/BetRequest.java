@@ -0,0 +1,63 @@
+package ua.epam.horseraceapp.util.dao;
+
+/**
+ * Request to make bet.
+ *
+ * @see BetDao#placeBets(java.util.List)
+ * @author Koroid Daniil
+ */
+public class BetRequest {
+
+    /**
+     * Bet owner identificator.
+     */
+    private final Integer userId;
+    /**
+     * Bet amount.
+     */
+    private final Integer amount;
+    /**
+     * Beted contestant horse identificator.
+     */
+    private final Integer contestantHorseId;
+
+    /**
+     * Creates request to make bet.
+     *
+     * @param userId bet owner identificator
+     * @param amount bet amount
+     * @param contestantHorseId beted contestant horse identificator
+     */
+    public BetRequest(Integer userId, Integer amount, Integer contestantHorseId) {
+        this.userId = userId;
+        this.amount = amount;
+        this.contestantHorseId = contestantHorseId;
+    }
+
+    /**
+     * Get bet owner identificator.
+     *
+     * @return bet owner identificator
+     */
+    public Integer getUserId() {
+        return userId;
+    }
+
+    /**
+     * Get bet amount.
+     *
+     * @return bet amount
+     */
+    public Integer getAmount() {
+        return amount;
+    }
+
+    /**
+     * Get beted contestant horse identificator.
+     *
+     * @return beted contestant horse identificator
+     */
+    public Integer getContestantHorseId() {
+        return contestantHorseId;
+    }
+}
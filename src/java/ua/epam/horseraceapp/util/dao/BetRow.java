@@ -0,0 +1,197 @@
+package ua.epam.horseraceapp.util.dao;
+
+import ua.epam.horseraceapp.util.dao.entity.Bet;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+
+/**
+ * Mutable view of one bet row in streamed result.
+ * <p>
+ * One instance is reused for all rows of one streamed result, so it is valid
+ * only while {@link BetRowHandler#handleRow(BetRow)} is executed. Handler that
+ * needs row data later must copy it.
+ * </p>
+ * <p>
+ * Such information is available:
+ * <ul>
+ * <li>Bet identificator {@link #betId}</li>
+ * <li>Bet state {@link #state}</li>
+ * <li>Bet owner identificator {@link #ownerId}</li>
+ * <li>Bet amount {@link #amount}</li>
+ * <li>Bet coefficient {@link #coefficient}</li>
+ * <li>Beted contestant horse identificator {@link #contestantHorseId}</li>
+ * <li>Race identificator {@link #raceId}</li>
+ * <li>Race start time {@link #raceStartTime}</li>
+ * <li>Bet place time {@link #betPlaceTime}</li>
+ * <li>Position of horse in race {@link #horsePosition}</li>
+ * </ul>
+ * </p>
+ *
+ * @see BetDao#streamBets(BetState, BetRowHandler)
+ * @see Bet
+ * @author Koroid Daniil
+ */
+public class BetRow {
+
+    /**
+     * Bet identificator.
+     */
+    private int betId;
+    /**
+     * Bet state.
+     */
+    private BetState state;
+    /**
+     * Bet owner identificator.
+     */
+    private int ownerId;
+    /**
+     * Bet amount.
+     */
+    private int amount;
+    /**
+     * Bet coefficient.
+     */
+    private double coefficient;
+    /**
+     * Beted contestant horse identificator.
+     */
+    private int contestantHorseId;
+    /**
+     * Race identificator.
+     */
+    private int raceId;
+    /**
+     * Race start time in milliseconds since epoch.
+     */
+    private long raceStartTime;
+    /**
+     * Bet place time in milliseconds since epoch.
+     */
+    private long betPlaceTime;
+    /**
+     * Position of horse in race.
+     * <p>
+     * If there are no race results yet - <code>0</code>.
+     * </p>
+     */
+    private int horsePosition;
+
+    /**
+     * Sets all values of row.
+     *
+     * @param betId bet identificator
+     * @param state bet state
+     * @param ownerId bet owner identificator
+     * @param amount bet amount
+     * @param coefficient bet coefficient
+     * @param contestantHorseId beted contestant horse identificator
+     * @param raceId race identificator
+     * @param raceStartTime race start time in milliseconds since epoch
+     * @param betPlaceTime bet place time in milliseconds since epoch
+     * @param horsePosition position of horse in race or <code>0</code>
+     */
+    public void set(int betId, BetState state, int ownerId, int amount, double coefficient,
+            int contestantHorseId, int raceId, long raceStartTime, long betPlaceTime, int horsePosition) {
+        this.betId = betId;
+        this.state = state;
+        this.ownerId = ownerId;
+        this.amount = amount;
+        this.coefficient = coefficient;
+        this.contestantHorseId = contestantHorseId;
+        this.raceId = raceId;
+        this.raceStartTime = raceStartTime;
+        this.betPlaceTime = betPlaceTime;
+        this.horsePosition = horsePosition;
+    }
+
+    /**
+     * Retrieves bet identificator.
+     *
+     * @return bet identificator
+     */
+    public int getBetId() {
+        return betId;
+    }
+
+    /**
+     * Retrieves bet state.
+     *
+     * @return bet state
+     */
+    public BetState getState() {
+        return state;
+    }
+
+    /**
+     * Retrieves bet owner identificator.
+     *
+     * @return bet owner identificator
+     */
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Retrieves bet amount.
+     *
+     * @return bet amount
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    /**
+     * Retrieves bet coefficient.
+     *
+     * @return bet coefficient
+     */
+    public double getCoefficient() {
+        return coefficient;
+    }
+
+    /**
+     * Retrieves beted contestant horse identificator.
+     *
+     * @return beted contestant horse identificator
+     */
+    public int getContestantHorseId() {
+        return contestantHorseId;
+    }
+
+    /**
+     * Retrieves race identificator.
+     *
+     * @return race identificator
+     */
+    public int getRaceId() {
+        return raceId;
+    }
+
+    /**
+     * Retrieves race start time.
+     *
+     * @return race start time in milliseconds since epoch
+     */
+    public long getRaceStartTime() {
+        return raceStartTime;
+    }
+
+    /**
+     * Retrieves bet place time.
+     *
+     * @return bet place time in milliseconds since epoch
+     */
+    public long getBetPlaceTime() {
+        return betPlaceTime;
+    }
+
+    /**
+     * Retrieves position of horse in race.
+     *
+     * @return position of horse in race. If there are no race results yet -
+     * <code>0</code>
+     */
+    public int getHorsePosition() {
+        return horsePosition;
+    }
+}
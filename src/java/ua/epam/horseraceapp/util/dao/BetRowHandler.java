@@ -0,0 +1,23 @@
+package ua.epam.horseraceapp.util.dao;
+
+/**
+ * Callback that receives bet rows of streamed result one by one.
+ *
+ * @see BetDao#streamBets(ua.epam.horseraceapp.util.dao.entity.BetState,
+ * BetRowHandler)
+ * @author Koroid Daniil
+ */
+public interface BetRowHandler {
+
+    /**
+     * Handles one bet row.
+     * <p>
+     * Given row is reused for next rows, so it must not be stored.
+     * </p>
+     *
+     * @param row current bet row
+     * @return <code>true</code> to continue streaming. <code>false</code> to
+     * stop it
+     */
+    boolean handleRow(BetRow row);
+}
@@ -41,9 +41,16 @@ public interface ContestantHorseDao {
      * so on).
      * </p>
      * <p>
+     * Together with results all accepted bets on this race are settled: bets
+     * on the first horse become
+     * {@link ua.epam.horseraceapp.util.dao.entity.BetState#WON_WAITING_FOR_PAY},
+     * bets on other horses become
+     * {@link ua.epam.horseraceapp.util.dao.entity.BetState#LOSE}.
+     * </p>
+     * <p>
      * Returns <code>true</code> if results were successfully seted. Otherwise,
      * if something went wrong, <code>false</code> is returned. In this case
-     * none of results is seted.
+     * none of results is seted and no bets are settled.
      * </p>
      *
      * @param horsesInPositionOrder horses in position order (1->2->3 and so on)
@@ -1,5 +1,11 @@
 package ua.epam.horseraceapp.util.dao;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import ua.epam.horseraceapp.util.dao.h2.H2DaoFactory;
+import ua.epam.horseraceapp.util.dao.memory.InMemoryDaoFactory;
+import ua.epam.horseraceapp.util.dao.mysql.MySqlDaoFactory;
+
 /**
  * Abstract factory to get proper DAO.
  *
@@ -13,6 +19,9 @@ public abstract class DaoFactory {
      * Currently supported databases are:
      * <ul>
      * <li>{@link #MySQL} MySQL database</li>
+     * <li>{@link #H2} embedded H2 database</li>
+     * <li>{@link #InMemory} data kept in memory with journal on local
+     * disk</li>
      * </ul>
      * </p>
      */
@@ -21,47 +30,125 @@ public abstract class DaoFactory {
         /**
          * Type that represents MySQL database.
          */
-        MySQL("ua.epam.horseraceapp.util.dao.mysql.MySqlDaoFactory"),;
+        MySQL {
 
+            @Override
+            DaoFactory createFactory() {
+                return new MySqlDaoFactory();
+            }
+        },
         /**
-         * Path to DAO factory.
+         * Type that represents embedded H2 database.
          */
-        private final String pathToClass;
+        H2 {
+
+            @Override
+            DaoFactory createFactory() {
+                return new H2DaoFactory();
+            }
+        },
+        /**
+         * Type that represents data kept in memory.
+         */
+        InMemory {
+
+            @Override
+            DaoFactory createFactory() {
+                return new InMemoryDaoFactory();
+            }
+        },;
 
         /**
-         * Creates enumeration element that represents database type and path to
-         * apropriate DAO factory class.
+         * Creates DAO factory for this database type.
          *
-         * @param pathToClass path to appropriate DAO factory class
+         * @return new DAO factory for this database type
          */
-        DaoType(String pathToClass) {
-            this.pathToClass = pathToClass;
-        }
+        abstract DaoFactory createFactory();
     }
 
+    /**
+     * System property that sets database type used by application, one of
+     * {@link DaoType} names.
+     */
+    public static final String DAO_TYPE_PROPERTY = "horserace.dao";
+
+    /**
+     * Instances of DAO factories for database types.
+     * <p>
+     * Factory is created when it is asked for the first time, so factories of
+     * unused databases don't look up their connections. Lookup of created
+     * factory takes no lock.
+     * </p>
+     */
+    private static final ConcurrentMap<DaoType, DaoFactory> INSTANCES = new ConcurrentHashMap<>();
+
     /**
      * Static method to get instance of DAO factory for given database type.
+     * <p>
+     * Always returns the same instance for the same database type.
+     * </p>
      *
      * @param type type of database
      * @return instance of DAO factory for given database type if this database
      * is supported. If not - returns <code>null</code>
      */
     public static DaoFactory getInstance(DaoType type) {
-        switch (type) {
-            case MySQL:
-                try {
-                    Class<?> clazz = Class.forName(type.pathToClass);
-                    return (DaoFactory) clazz.newInstance();
-                } catch (ClassNotFoundException | InstantiationException | IllegalAccessException ex) {
-                    return null;
-                }
-            default:
-                return null;
+        if (type == null) {
+            return null;
+        }
+        DaoFactory factory = INSTANCES.get(type);
+        if (factory == null) {
+            factory = INSTANCES.computeIfAbsent(type, DaoType::createFactory);
         }
+        return factory;
+    }
+
+    /**
+     * Get instance of DAO factory for database type that is set by system
+     * property {@value #DAO_TYPE_PROPERTY}.
+     * <p>
+     * If property is not set - MySQL factory is returned, so application
+     * works with MySQL database unless told otherwise. Other types let
+     * commands work without servlet container and database server.
+     * </p>
+     *
+     * @return instance of DAO factory for configured database type
+     * @throws IllegalArgumentException if property value is not a database
+     * type name
+     */
+    public static DaoFactory getConfiguredInstance() {
+        return getInstance(DaoType.valueOf(System.getProperty(DAO_TYPE_PROPERTY, DaoType.MySQL.name())));
+    }
+
+    /**
+     * Prepares factory and its DAO for work.
+     * <p>
+     * Must be called once at application startup, so that wrong database
+     * state is found before any request is processed. Does nothing by
+     * default.
+     * </p>
+     *
+     * @throws IllegalStateException if factory can't be prepared
+     */
+    public void initialize() {
+    }
+
+    /**
+     * Releases resources of factory and its DAO.
+     * <p>
+     * Must be called once at application shutdown, so that background work
+     * of factory is ended and nothing is left running after application is
+     * undeployed. Does nothing by default.
+     * </p>
+     */
+    public void close() {
     }
 
     /**
      * Create ContestantHorse DAO.
+     * <p>
+     * Returned DAO may be shared between threads.
+     * </p>
      *
      * @return ContestantHorse DAO
      */
@@ -0,0 +1,101 @@
+package ua.epam.horseraceapp.util.dao.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that collects statistics of one cache.
+ * <p>
+ * Such information is collected:
+ * <ul>
+ * <li>Number of cache hits {@link #hits}</li>
+ * <li>Number of cache misses {@link #misses}</li>
+ * <li>Number of evicted entries {@link #evictions}</li>
+ * </ul>
+ * </p>
+ *
+ * @see LruTtlCache
+ * @author Koroid Daniil
+ */
+public class CacheStatistics {
+
+    /**
+     * Number of cache hits.
+     */
+    private final AtomicLong hits = new AtomicLong();
+    /**
+     * Number of cache misses.
+     */
+    private final AtomicLong misses = new AtomicLong();
+    /**
+     * Number of entries that were evicted because of size limit or expiration.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Registers cache hit.
+     */
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Registers cache miss.
+     */
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Registers eviction of cache entry.
+     */
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    /**
+     * Retrieves number of cache hits.
+     *
+     * @return number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Retrieves number of cache misses.
+     *
+     * @return number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Retrieves number of evicted entries.
+     *
+     * @return number of evicted entries
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Retrieves part of requests that were served from cache.
+     * <p>
+     * If there were no requests yet - returns <code>0</code>.
+     * </p>
+     *
+     * @return hit rate in range from <code>0</code> to <code>1</code>
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long requestCount = hitCount + misses.get();
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + ", hitRate=" + getHitRate();
+    }
+}
@@ -0,0 +1,83 @@
+package ua.epam.horseraceapp.util.dao.cache;
+
+import java.util.Collections;
+import java.util.List;
+import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.RaceDao;
+import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
+
+/**
+ * Decorator of {@link ContestantHorseDao} that caches horses of races.
+ * <p>
+ * Results of {@link #findAllHorsesByRaceId(java.lang.Integer)} are cached.
+ * Successful {@link #setResults(java.util.List)} invalidates horses of its
+ * race as positions of horses are changed. Horses read while results were
+ * being set are not cached, as they are put by version of race taken before
+ * reading. Other methods are delegated to decorated DAO.
+ * </p>
+ *
+ * @see CachingDaoFactory
+ * @author Koroid Daniil
+ */
+public class CachingContestantHorseDao implements ContestantHorseDao {
+
+    /**
+     * Decorated DAO.
+     */
+    private final ContestantHorseDao contestantHorseDao;
+    /**
+     * DAO that is used to find race of horses.
+     */
+    private final RaceDao raceDao;
+    /**
+     * Cache of horses by race identificators.
+     */
+    private final LruTtlCache<Integer, List<ContestantHorse>> horsesByRaceIdCache;
+
+    /**
+     * Creates caching ContestantHorse DAO.
+     *
+     * @param contestantHorseDao decorated DAO
+     * @param raceDao DAO that is used to find race of horses
+     * @param horsesByRaceIdCache cache of horses by race identificators
+     */
+    CachingContestantHorseDao(ContestantHorseDao contestantHorseDao, RaceDao raceDao,
+            LruTtlCache<Integer, List<ContestantHorse>> horsesByRaceIdCache) {
+        this.contestantHorseDao = contestantHorseDao;
+        this.raceDao = raceDao;
+        this.horsesByRaceIdCache = horsesByRaceIdCache;
+    }
+
+    @Override
+    public List<ContestantHorse> findAllHorsesByRaceId(Integer raceId) {
+        List<ContestantHorse> horses = horsesByRaceIdCache.get(raceId);
+        if (horses == null) {
+            long version = horsesByRaceIdCache.getVersion(raceId);
+            horses = Collections.unmodifiableList(contestantHorseDao.findAllHorsesByRaceId(raceId));
+            horsesByRaceIdCache.putIfVersion(raceId, horses, version);
+        }
+        return horses;
+    }
+
+    @Override
+    public List<ContestantHorse> findAllHorsesWithoutResultByRaceId(Integer raceId) {
+        return contestantHorseDao.findAllHorsesWithoutResultByRaceId(raceId);
+    }
+
+    @Override
+    public boolean setResults(List<ContestantHorse> horsesInPositionOrder) {
+        Integer raceId = null;
+        if (!horsesInPositionOrder.isEmpty()) {
+            raceId = raceDao.getRaceIdByContestantHorseId(horsesInPositionOrder.get(0).getId());
+        }
+        boolean resultsSeted = contestantHorseDao.setResults(horsesInPositionOrder);
+        if (resultsSeted) {
+            if (raceId != null) {
+                horsesByRaceIdCache.invalidate(raceId);
+            } else {
+                horsesByRaceIdCache.invalidateAll();
+            }
+        }
+        return resultsSeted;
+    }
+}
@@ -0,0 +1,152 @@
+package ua.epam.horseraceapp.util.dao.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import ua.epam.horseraceapp.util.connection.ReadYourWrites;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.DaoFactory;
+import ua.epam.horseraceapp.util.dao.RaceDao;
+import ua.epam.horseraceapp.util.dao.UserDao;
+import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
+import ua.epam.horseraceapp.util.dao.entity.Race;
+
+/**
+ * DAO factory that decorates other DAO factory with caching.
+ * <p>
+ * Race DAO and ContestantHorse DAO created by this factory cache rarely
+ * changed race cards. Caches are owned by factory, so all DAO created by one
+ * factory share them. Other DAO are created by decorated factory as is.
+ * </p>
+ * <p>
+ * Horses of race are not cached for replica stickiness window after they
+ * were invalidated, so horses read from lagging replica without positions
+ * don't stay in cache.
+ * </p>
+ *
+ * @see CachingRaceDao
+ * @see CachingContestantHorseDao
+ * @author Koroid Daniil
+ */
+public class CachingDaoFactory extends DaoFactory {
+
+    /**
+     * Default maximum number of entries in each cache.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    /**
+     * Default time-to-live of cache entry in milliseconds.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 60 * 1000;
+
+    /**
+     * Decorated factory.
+     */
+    private final DaoFactory factory;
+    /**
+     * Cache of {@link RaceDao#findAll()} results.
+     */
+    private final LruTtlCache<String, List<Race>> allRacesCache;
+    /**
+     * Cache of {@link RaceDao#findRaceById(java.lang.Integer)} results.
+     */
+    private final LruTtlCache<Integer, Race> raceByIdCache;
+    /**
+     * Cache of
+     * {@link ContestantHorseDao#findAllHorsesByRaceId(java.lang.Integer)}
+     * results.
+     */
+    private final LruTtlCache<Integer, List<ContestantHorse>> horsesByRaceIdCache;
+
+    /**
+     * Creates caching factory with default cache settings.
+     *
+     * @param factory factory to decorate
+     */
+    public CachingDaoFactory(DaoFactory factory) {
+        this(factory, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Creates caching factory.
+     *
+     * @param factory factory to decorate
+     * @param maxEntries maximum number of entries in each cache
+     * @param ttlMillis time-to-live of cache entry in milliseconds
+     */
+    public CachingDaoFactory(DaoFactory factory, int maxEntries, long ttlMillis) {
+        this.factory = factory;
+        allRacesCache = new LruTtlCache<>(1, ttlMillis);
+        raceByIdCache = new LruTtlCache<>(maxEntries, ttlMillis);
+        horsesByRaceIdCache = new LruTtlCache<>(maxEntries, ttlMillis, ReadYourWrites.getStickinessMillis());
+    }
+
+    /**
+     * Retrieves statistics of all caches of this factory.
+     * <p>
+     * Keys of returned map are names of cached DAO methods.
+     * </p>
+     *
+     * @return statistics of caches by cached method names
+     */
+    public Map<String, CacheStatistics> getStatistics() {
+        Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+        statistics.put("RaceDao.findAll", allRacesCache.getStatistics());
+        statistics.put("RaceDao.findRaceById", raceByIdCache.getStatistics());
+        statistics.put("ContestantHorseDao.findAllHorsesByRaceId", horsesByRaceIdCache.getStatistics());
+        return statistics;
+    }
+
+    /**
+     * Checks whether race and its horses are both cached, so they can be
+     * read without going to database.
+     *
+     * @param raceId race identificator
+     * @return <code>true</code> if race and its horses are cached. Otherwise
+     * <code>false</code>
+     */
+    public boolean isRaceInfoCached(Integer raceId) {
+        return raceByIdCache.contains(raceId) && horsesByRaceIdCache.contains(raceId);
+    }
+
+    /**
+     * Removes all cached values.
+     */
+    public void invalidateAll() {
+        allRacesCache.invalidateAll();
+        raceByIdCache.invalidateAll();
+        horsesByRaceIdCache.invalidateAll();
+    }
+
+    @Override
+    public void initialize() {
+        factory.initialize();
+    }
+
+    @Override
+    public void close() {
+        factory.close();
+    }
+
+    @Override
+    public ContestantHorseDao createContestantHorseDao() {
+        return new CachingContestantHorseDao(factory.createContestantHorseDao(), factory.createRaceDao(),
+                horsesByRaceIdCache);
+    }
+
+    @Override
+    public RaceDao createRaceDao() {
+        return new CachingRaceDao(factory.createRaceDao(), allRacesCache, raceByIdCache);
+    }
+
+    @Override
+    public BetDao createBetDao() {
+        return factory.createBetDao();
+    }
+
+    @Override
+    public UserDao createUserDao() {
+        return factory.createUserDao();
+    }
+}
@@ -0,0 +1,81 @@
+package ua.epam.horseraceapp.util.dao.cache;
+
+import java.util.Collections;
+import java.util.List;
+import ua.epam.horseraceapp.util.dao.RaceDao;
+import ua.epam.horseraceapp.util.dao.entity.Race;
+
+/**
+ * Decorator of {@link RaceDao} that caches races.
+ * <p>
+ * Results of {@link #findAll()} and {@link #findRaceById(java.lang.Integer)}
+ * are cached. Other methods are delegated to decorated DAO.
+ * </p>
+ *
+ * @see CachingDaoFactory
+ * @author Koroid Daniil
+ */
+public class CachingRaceDao implements RaceDao {
+
+    /**
+     * Key of {@link #findAll()} result in cache.
+     */
+    private static final String ALL_RACES_KEY = "all";
+
+    /**
+     * Decorated DAO.
+     */
+    private final RaceDao raceDao;
+    /**
+     * Cache of all races.
+     */
+    private final LruTtlCache<String, List<Race>> allRacesCache;
+    /**
+     * Cache of races by their identificators.
+     */
+    private final LruTtlCache<Integer, Race> raceByIdCache;
+
+    /**
+     * Creates caching Race DAO.
+     *
+     * @param raceDao decorated DAO
+     * @param allRacesCache cache of all races
+     * @param raceByIdCache cache of races by their identificators
+     */
+    CachingRaceDao(RaceDao raceDao, LruTtlCache<String, List<Race>> allRacesCache,
+            LruTtlCache<Integer, Race> raceByIdCache) {
+        this.raceDao = raceDao;
+        this.allRacesCache = allRacesCache;
+        this.raceByIdCache = raceByIdCache;
+    }
+
+    @Override
+    public List<Race> findAll() {
+        List<Race> allRaces = allRacesCache.get(ALL_RACES_KEY);
+        if (allRaces == null) {
+            allRaces = Collections.unmodifiableList(raceDao.findAll());
+            allRacesCache.put(ALL_RACES_KEY, allRaces);
+        }
+        return allRaces;
+    }
+
+    @Override
+    public List<Race> findUnresultedRaces() {
+        return raceDao.findUnresultedRaces();
+    }
+
+    @Override
+    public Race findRaceById(Integer raceId) {
+        Race race = raceByIdCache.get(raceId);
+        if (race == null) {
+            race = raceDao.findRaceById(raceId);
+            raceByIdCache.put(raceId, race);
+        }
+        return race;
+    }
+
+    @Override
+    public Integer getRaceIdByContestantHorseId(Integer contestantHorseId) {
+        return raceDao.getRaceIdByContestantHorseId(contestantHorseId);
+    }
+}
@@ -0,0 +1,288 @@
+package ua.epam.horseraceapp.util.dao.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache with least-recently-used and time-to-live eviction.
+ * <p>
+ * When cache size exceeds maximum number of entries - least recently used
+ * entry is evicted. Entry that lives in cache longer than time-to-live is
+ * treated as absent and is evicted on access.
+ * </p>
+ * <p>
+ * Value read from database while it was being changed must not be put after
+ * invalidation of the change. So reader takes version of key by
+ * {@link #getVersion(Object)} before it reads value, and puts value by
+ * {@link #putIfVersion(Object, Object, long)}, that does nothing if key was
+ * invalidated since then. Versions are kept for stripes of keys, so
+ * invalidation of key also drops puts of some other keys. Cache can be
+ * created with quiet period after invalidation during which such puts are
+ * dropped too, so value read from lagging replica isn't cached.
+ * </p>
+ * <p>
+ * All operations are thread-safe. <code>null</code> values are not cached.
+ * </p>
+ *
+ * @param <K> type of keys
+ * @param <V> type of cached values
+ * @author Koroid Daniil
+ */
+public class LruTtlCache<K, V> {
+
+    /**
+     * Cached value together with time of it's expiration.
+     *
+     * @param <V> type of cached value
+     */
+    private static class CacheEntry<V> {
+
+        /**
+         * Cached value.
+         */
+        private final V value;
+        /**
+         * Time (in nanoseconds) after which value is expired.
+         */
+        private final long expiresAt;
+
+        /**
+         * Creates cache entry.
+         *
+         * @param value cached value
+         * @param expiresAt time (in nanoseconds) after which value is expired
+         */
+        CacheEntry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Number of stripes of key versions.
+     */
+    private static final int VERSION_STRIPES = 64;
+
+    /**
+     * Maximum number of entries in cache.
+     */
+    private final int maxEntries;
+    /**
+     * Time-to-live of cache entry in nanoseconds.
+     */
+    private final long ttlNanos;
+    /**
+     * Time after invalidation of key in nanoseconds during which values of
+     * key are not put by version.
+     */
+    private final long quietNanos;
+    /**
+     * Number of invalidations by stripe index.
+     */
+    private final long[] versions = new long[VERSION_STRIPES];
+    /**
+     * Time (in nanoseconds) of last invalidation by stripe index.
+     */
+    private final long[] invalidatedAt = new long[VERSION_STRIPES];
+    /**
+     * Cache statistics.
+     */
+    private final CacheStatistics statistics = new CacheStatistics();
+    /**
+     * Cache entries in access order.
+     */
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    /**
+     * Creates cache.
+     *
+     * @param maxEntries maximum number of entries in cache
+     * @param ttlMillis time-to-live of cache entry in milliseconds
+     */
+    public LruTtlCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, 0);
+    }
+
+    /**
+     * Creates cache with quiet period after invalidation.
+     *
+     * @param maxEntries maximum number of entries in cache
+     * @param ttlMillis time-to-live of cache entry in milliseconds
+     * @param quietMillis time after invalidation of key in milliseconds
+     * during which values of key are not put by version
+     */
+    public LruTtlCache(final int maxEntries, long ttlMillis, long quietMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1000000L;
+        this.quietNanos = quietMillis * 1000000L;
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > LruTtlCache.this.maxEntries) {
+                    statistics.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get cached value by given key.
+     * <p>
+     * If there is no such value or it is expired - returns <code>null</code>.
+     * </p>
+     *
+     * @param key key of value
+     * @return cached value or <code>null</code>
+     */
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            statistics.recordMiss();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt > 0) {
+            entries.remove(key);
+            statistics.recordEviction();
+            statistics.recordMiss();
+            return null;
+        }
+        statistics.recordHit();
+        return entry.value;
+    }
+
+    /**
+     * Checks whether cache has value with given key that is not expired.
+     * <p>
+     * Statistics are not changed.
+     * </p>
+     *
+     * @param key key of value
+     * @return <code>true</code> if value is cached. Otherwise
+     * <code>false</code>
+     */
+    public synchronized boolean contains(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        return (entry != null) && (System.nanoTime() - entry.expiresAt <= 0);
+    }
+
+    /**
+     * Puts value to cache.
+     * <p>
+     * If value is <code>null</code> - nothing performs.
+     * </p>
+     *
+     * @param key key of value
+     * @param value value to cache
+     */
+    public synchronized void put(K key, V value) {
+        if (value != null) {
+            entries.put(key, new CacheEntry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Get version of given key, that is changed by each invalidation of key.
+     *
+     * @param key key of value
+     * @return version of key
+     */
+    public synchronized long getVersion(K key) {
+        return versions[stripeIndex(key)];
+    }
+
+    /**
+     * Puts value to cache if key was not invalidated since given version was
+     * taken, and its quiet period is over.
+     * <p>
+     * If value is <code>null</code> - nothing performs.
+     * </p>
+     *
+     * @param key key of value
+     * @param value value to cache
+     * @param version version of key taken before value was read
+     * @return <code>true</code> if value was put. Otherwise
+     * <code>false</code>
+     */
+    public synchronized boolean putIfVersion(K key, V value, long version) {
+        int index = stripeIndex(key);
+        if ((value == null) || (versions[index] != version)) {
+            return false;
+        }
+        if ((version != 0) && (System.nanoTime() - invalidatedAt[index] < quietNanos)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Removes value with given key from cache.
+     *
+     * @param key key of value to remove
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        int index = stripeIndex(key);
+        versions[index]++;
+        invalidatedAt[index] = System.nanoTime();
+    }
+
+    /**
+     * Removes all values from cache.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        long now = System.nanoTime();
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions[i]++;
+            invalidatedAt[i] = now;
+        }
+    }
+
+    /**
+     * Removes all expired values from cache.
+     */
+    public synchronized void evictExpired() {
+        long now = System.nanoTime();
+        Iterator<CacheEntry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().expiresAt > 0) {
+                iterator.remove();
+                statistics.recordEviction();
+            }
+        }
+    }
+
+    /**
+     * Retrieves current number of entries in cache.
+     *
+     * @return current number of entries in cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get index of version stripe of given key.
+     *
+     * @param key key of value
+     * @return stripe index
+     */
+    private int stripeIndex(K key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * Retrieves cache statistics.
+     *
+     * @return cache statistics
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+}
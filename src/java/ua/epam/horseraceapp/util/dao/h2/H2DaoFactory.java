@@ -0,0 +1,51 @@
+package ua.epam.horseraceapp.util.dao.h2;
+
+import ua.epam.horseraceapp.util.connection.H2ConnectionManager;
+import ua.epam.horseraceapp.util.dao.DaoFactory;
+import ua.epam.horseraceapp.util.dao.mysql.MySqlDaoFactory;
+
+/**
+ * DAO Factory implementation for embedded H2 database.
+ * <p>
+ * H2 database works in MySQL mode, so MySQL DAO are used with connections of
+ * {@link H2ConnectionManager}. Needs H2 driver in classpath.
+ * </p>
+ * <p>
+ * Database is set by system property
+ * {@value H2ConnectionManager#URL_PROPERTY}. Data of production volumes can
+ * be loaded into file database by data seeder of benchmarks module.
+ * </p>
+ *
+ * @see DaoFactory
+ * @author Koroid Daniil
+ */
+public class H2DaoFactory extends MySqlDaoFactory {
+
+    /**
+     * Fetch size to read rows while streaming.
+     * <p>
+     * H2 driver doesn't accept negative fetch size that MySQL driver uses for
+     * streaming.
+     * </p>
+     */
+    private static final int H2_STREAMING_FETCH_SIZE = 1000;
+
+    /**
+     * Creates factory of DAO that work with H2 database set by system
+     * property {@value H2ConnectionManager#URL_PROPERTY}.
+     */
+    public H2DaoFactory() {
+        this(H2ConnectionManager.getInstance());
+    }
+
+    /**
+     * Creates factory of DAO that work with H2 database of given connection
+     * manager.
+     *
+     * @param connectionManager connection manager to get connections from
+     */
+    public H2DaoFactory(H2ConnectionManager connectionManager) {
+        super(connectionManager, H2_STREAMING_FETCH_SIZE);
+    }
+
+}
@@ -0,0 +1,96 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+
+/**
+ * Immutable state of bet in in-memory store.
+ *
+ * @see ua.epam.horseraceapp.util.dao.entity.Bet
+ * @author Koroid Daniil
+ */
+final class BetRecord {
+
+    /**
+     * Bet identificator.
+     */
+    final int id;
+    /**
+     * Bet owner identificator.
+     */
+    final int ownerId;
+    /**
+     * Bet amount.
+     */
+    final int amount;
+    /**
+     * Beted contestant horse identificator.
+     */
+    final int contestantHorseId;
+    /**
+     * Bet place time in milliseconds.
+     */
+    final long placeTime;
+    /**
+     * Bet state.
+     */
+    final BetState state;
+
+    /**
+     * Creates bet record.
+     *
+     * @param id bet identificator
+     * @param ownerId bet owner identificator
+     * @param amount bet amount
+     * @param contestantHorseId beted contestant horse identificator
+     * @param placeTime bet place time in milliseconds
+     * @param state bet state
+     */
+    BetRecord(int id, int ownerId, int amount, int contestantHorseId, long placeTime, BetState state) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.amount = amount;
+        this.contestantHorseId = contestantHorseId;
+        this.placeTime = placeTime;
+        this.state = state;
+    }
+
+    /**
+     * Creates copy of this record with given state.
+     *
+     * @param newState state of copy
+     * @return copy of this record
+     */
+    BetRecord withState(BetState newState) {
+        return new BetRecord(id, ownerId, amount, contestantHorseId, placeTime, newState);
+    }
+
+    /**
+     * Writes this record.
+     *
+     * @param out output to write to
+     * @throws IOException if record can't be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeInt(ownerId);
+        out.writeInt(amount);
+        out.writeInt(contestantHorseId);
+        out.writeLong(placeTime);
+        out.writeUTF(state.name());
+    }
+
+    /**
+     * Reads record written by {@link #write(DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read record
+     * @throws IOException if record can't be read
+     */
+    static BetRecord read(DataInput in) throws IOException {
+        return new BetRecord(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                in.readLong(), BetState.valueOf(in.readUTF()));
+    }
+}
@@ -0,0 +1,88 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Immutable state of contestant horse in in-memory store.
+ *
+ * @see ua.epam.horseraceapp.util.dao.entity.ContestantHorse
+ * @author Koroid Daniil
+ */
+final class ContestantHorseRecord {
+
+    /**
+     * Contestant horse identificator.
+     */
+    final int id;
+    /**
+     * Identificator of race horse participates in.
+     */
+    final int raceId;
+    /**
+     * Horse identificator.
+     */
+    final int horseId;
+    /**
+     * Contestant horse coefficient.
+     */
+    final double coefficient;
+    /**
+     * Contestant horse position in race or 0 if race has no result.
+     */
+    final int position;
+
+    /**
+     * Creates contestant horse record.
+     *
+     * @param id contestant horse identificator
+     * @param raceId identificator of race horse participates in
+     * @param horseId horse identificator
+     * @param coefficient contestant horse coefficient
+     * @param position contestant horse position or 0 if race has no result
+     */
+    ContestantHorseRecord(int id, int raceId, int horseId, double coefficient, int position) {
+        this.id = id;
+        this.raceId = raceId;
+        this.horseId = horseId;
+        this.coefficient = coefficient;
+        this.position = position;
+    }
+
+    /**
+     * Creates copy of this record with given position.
+     *
+     * @param newPosition position of copy
+     * @return copy of this record
+     */
+    ContestantHorseRecord withPosition(int newPosition) {
+        return new ContestantHorseRecord(id, raceId, horseId, coefficient, newPosition);
+    }
+
+    /**
+     * Writes this record.
+     *
+     * @param out output to write to
+     * @throws IOException if record can't be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeInt(raceId);
+        out.writeInt(horseId);
+        out.writeDouble(coefficient);
+        out.writeInt(position);
+    }
+
+    /**
+     * Reads record written by {@link #write(DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read record
+     * @throws IOException if record can't be read
+     */
+    static ContestantHorseRecord read(DataInput in) throws IOException {
+        return new ContestantHorseRecord(in.readInt(), in.readInt(), in.readInt(),
+                in.readDouble(), in.readInt());
+    }
+}
@@ -0,0 +1,55 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Immutable state of horse in in-memory store.
+ *
+ * @author Koroid Daniil
+ */
+final class HorseRecord {
+
+    /**
+     * Horse identificator.
+     */
+    final int id;
+    /**
+     * Horse name.
+     */
+    final String name;
+
+    /**
+     * Creates horse record.
+     *
+     * @param id horse identificator
+     * @param name horse name
+     */
+    HorseRecord(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Writes this record.
+     *
+     * @param out output to write to
+     * @throws IOException if record can't be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeUTF(name);
+    }
+
+    /**
+     * Reads record written by {@link #write(DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read record
+     * @throws IOException if record can't be read
+     */
+    static HorseRecord read(DataInput in) throws IOException {
+        return new HorseRecord(in.readInt(), in.readUTF());
+    }
+}
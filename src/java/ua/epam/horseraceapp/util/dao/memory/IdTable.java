@@ -0,0 +1,100 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table of values indexed by positive integer identificator.
+ * <p>
+ * Identificators are expected to be dense, as database identificators are, so
+ * values are kept in array at index equal to identificator, without boxing of
+ * keys.
+ * </p>
+ * <p>
+ * Reading is lock-free and can be done from any thread. Writing must be done
+ * by one thread at a time.
+ * </p>
+ *
+ * @param <V> type of values
+ * @author Koroid Daniil
+ */
+final class IdTable<V> {
+
+    /**
+     * Initial capacity of table.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Values indexed by identificator.
+     */
+    private volatile Object[] values = new Object[INITIAL_CAPACITY];
+    /**
+     * Maximum identificator in table.
+     */
+    private volatile int maxId;
+
+    /**
+     * Get value with given identificator.
+     *
+     * @param id identificator of value
+     * @return value or <code>null</code> if there is no such value
+     */
+    @SuppressWarnings("unchecked")
+    V get(int id) {
+        Object[] current = values;
+        if ((id <= 0) || (id >= current.length)) {
+            return null;
+        }
+        return (V) current[id];
+    }
+
+    /**
+     * Puts value with given identificator.
+     * <p>
+     * Must not be called by several threads at once.
+     * </p>
+     *
+     * @param id identificator of value, must be positive
+     * @param value value to put
+     */
+    void put(int id, V value) {
+        Object[] current = values;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, id + 1));
+        }
+        current[id] = value;
+        values = current;
+        if (id > maxId) {
+            maxId = id;
+        }
+    }
+
+    /**
+     * Get maximum identificator in table.
+     *
+     * @return maximum identificator or 0 if table is empty
+     */
+    int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * Get all values in identificator order.
+     *
+     * @return all values
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        int max = maxId;
+        Object[] current = values;
+        List<V> result = new ArrayList<>();
+        for (int id = 1; (id <= max) && (id < current.length); id++) {
+            if (current[id] != null) {
+                result.add((V) current[id]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,239 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.BetRequest;
+import ua.epam.horseraceapp.util.dao.BetRow;
+import ua.epam.horseraceapp.util.dao.BetRowHandler;
+import ua.epam.horseraceapp.util.dao.entity.Bet;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+import ua.epam.horseraceapp.util.dao.entity.User;
+
+/**
+ * Implementation of {@link BetDao} that works with {@link InMemoryStore}.
+ *
+ * @author Koroid Daniil
+ */
+public class InMemoryBetDao implements BetDao {
+
+    /**
+     * Order of user bets: by race start time, then by bet identificator.
+     */
+    private static final Comparator<Bet> USER_BETS_ORDER = Comparator
+            .comparing(Bet::getRaceStartTime).thenComparing(Bet::getId);
+
+    /**
+     * Store with application data.
+     */
+    private final InMemoryStore store;
+
+    /**
+     * Creates in-memory Bet DAO.
+     *
+     * @param store store with application data
+     */
+    InMemoryBetDao(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Bet> findUserBets(Integer userId) {
+        List<Bet> userBets = findUserBets(userId, null, Integer.MAX_VALUE);
+        Collections.sort(userBets, USER_BETS_ORDER);
+        return userBets;
+    }
+
+    @Override
+    public List<Bet> findUserBets(Integer userId, Integer afterBetId, int pageSize) {
+        List<Bet> userBets = new ArrayList<>();
+        UserRecord owner = store.getUser(userId);
+        if (owner == null) {
+            return userBets;
+        }
+        User betOwner = owner.toUser();
+
+        for (int betId : store.getUserBetIds(userId)) {
+            if ((afterBetId == null) || (betId > afterBetId)) {
+                userBets.add(toBet(store.getBet(betId), betOwner));
+            }
+        }
+        Collections.sort(userBets, Comparator.comparing(Bet::getId));
+        return userBets.size() > pageSize ? new ArrayList<>(userBets.subList(0, pageSize)) : userBets;
+    }
+
+    @Override
+    public List<Bet> findUnviewedBets() {
+        return findUnviewedBets(null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Bet> findUnviewedBets(Integer afterBetId, int pageSize) {
+        List<Bet> unviewedBets = new ArrayList<>();
+        Map<Integer, User> betOwners = new HashMap<>();
+        Collection<Integer> betIds = afterBetId == null ? store.getUnviewedBetIds()
+                : store.getUnviewedBetIds().tailSet(afterBetId, false);
+
+        for (Integer betId : betIds) {
+            if (unviewedBets.size() >= pageSize) {
+                break;
+            }
+            BetRecord bet = store.getBet(betId);
+            User betOwner = betOwners.get(bet.ownerId);
+            if (betOwner == null) {
+                betOwner = store.getUser(bet.ownerId).toUser();
+                betOwners.put(bet.ownerId, betOwner);
+            }
+            unviewedBets.add(toBet(bet, betOwner));
+        }
+        return unviewedBets;
+    }
+
+    @Override
+    public boolean streamBets(BetState state, BetRowHandler handler) {
+        BetRow row = new BetRow();
+        int maxBetId = store.getMaxBetId();
+
+        for (int betId = 1; betId <= maxBetId; betId++) {
+            BetRecord bet = store.getBet(betId);
+            if ((bet == null) || ((state != null) && (bet.state != state))) {
+                continue;
+            }
+            ContestantHorseRecord contestantHorse = store.getContestantHorse(bet.contestantHorseId);
+            RaceRecord race = store.getRace(contestantHorse.raceId);
+            row.set(bet.id, bet.state, bet.ownerId, bet.amount, contestantHorse.coefficient,
+                    contestantHorse.id, race.id, race.startTime, bet.placeTime, contestantHorse.position);
+            if (!handler.handleRow(row)) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean makeBet(Integer userId, Integer amount, Integer contestantHorseId) {
+        return placeBet(userId, amount, contestantHorseId) == BetPlacementResult.SUCCESS;
+    }
+
+    @Override
+    public BetPlacementResult placeBet(Integer userId, Integer amount, Integer contestantHorseId) {
+        return store.placeBet(userId, amount, contestantHorseId, true);
+    }
+
+    @Override
+    public List<BetPlacementResult> placeBets(List<BetRequest> requests) {
+        List<BetPlacementResult> results = new ArrayList<>(requests.size());
+        for (BetRequest request : requests) {
+            results.add(store.placeBet(request.getUserId(), request.getAmount(),
+                    request.getContestantHorseId(), true));
+        }
+        return results;
+    }
+
+    @Override
+    public List<BetPlacementResult> placePrepaidBets(List<BetRequest> requests) {
+        List<BetPlacementResult> results = new ArrayList<>(requests.size());
+        for (BetRequest request : requests) {
+            results.add(store.placeBet(request.getUserId(), request.getAmount(),
+                    request.getContestantHorseId(), false));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean acceptBet(Integer betId) {
+        return acceptBets(Collections.singleton(betId)).get(betId);
+    }
+
+    @Override
+    public boolean declineBet(Integer betId) {
+        return declineBets(Collections.singleton(betId)).get(betId);
+    }
+
+    @Override
+    public boolean loseBet(Integer betId) {
+        return store.changeBetStates(Collections.singleton(betId), BetState.ACCEPTED,
+                BetState.LOSE, true, InMemoryStore.Payment.NONE).get(betId);
+    }
+
+    @Override
+    public boolean waitForPayBet(Integer betId) {
+        return store.changeBetStates(Collections.singleton(betId), BetState.ACCEPTED,
+                BetState.WON_WAITING_FOR_PAY, true, InMemoryStore.Payment.NONE).get(betId);
+    }
+
+    @Override
+    public boolean payBet(Integer betId) {
+        return payBets(Collections.singleton(betId)).get(betId);
+    }
+
+    @Override
+    public Map<Integer, Boolean> acceptBets(Collection<Integer> betIds) {
+        return store.changeBetStates(betIds, BetState.WAITING_FOR_ACCEPT,
+                BetState.ACCEPTED, false, InMemoryStore.Payment.NONE);
+    }
+
+    @Override
+    public Map<Integer, Boolean> declineBets(Collection<Integer> betIds) {
+        return store.changeBetStates(betIds, BetState.WAITING_FOR_ACCEPT,
+                BetState.DECLINED, false, InMemoryStore.Payment.AMOUNT);
+    }
+
+    @Override
+    public Map<Integer, Boolean> settleBets(Collection<Integer> betIds) {
+        return store.settleBets(betIds);
+    }
+
+    @Override
+    public Map<Integer, Boolean> payBets(Collection<Integer> betIds) {
+        return store.changeBetStates(betIds, BetState.WON_WAITING_FOR_PAY,
+                BetState.WON_PAYED, false, InMemoryStore.Payment.WIN_AMOUNT);
+    }
+
+    @Override
+    public Integer getBetOnWinAmount(Integer betId) {
+        BetRecord bet = store.getBet(betId);
+        if (bet == null) {
+            return null;
+        }
+        ContestantHorseRecord contestantHorse = store.getContestantHorse(bet.contestantHorseId);
+        return (int) Math.floor(bet.amount * contestantHorse.coefficient);
+    }
+
+    @Override
+    public Integer getBetAmount(Integer betId) {
+        BetRecord bet = store.getBet(betId);
+        return bet == null ? null : bet.amount;
+    }
+
+    @Override
+    public Integer getBetOwnerId(Integer betId) {
+        BetRecord bet = store.getBet(betId);
+        return bet == null ? null : bet.ownerId;
+    }
+
+    /**
+     * Creates bet entity from bet record.
+     *
+     * @param bet bet record
+     * @param betOwner bet owner
+     * @return bet entity
+     */
+    private Bet toBet(BetRecord bet, User betOwner) {
+        ContestantHorseRecord contestantHorse = store.getContestantHorse(bet.contestantHorseId);
+        HorseRecord horse = store.getHorse(contestantHorse.horseId);
+        RaceRecord race = store.getRace(contestantHorse.raceId);
+        Integer horsePosition = contestantHorse.position == 0 ? null : contestantHorse.position;
+
+        return new Bet(bet.id, betOwner, bet.state, horse.name, contestantHorse.coefficient,
+                bet.amount, race.place, new Timestamp(race.startTime),
+                new Timestamp(bet.placeTime), horsePosition);
+    }
+}
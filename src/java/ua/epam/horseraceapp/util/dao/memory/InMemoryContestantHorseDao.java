@@ -0,0 +1,76 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
+
+/**
+ * Implementation of {@link ContestantHorseDao} that works with
+ * {@link InMemoryStore}.
+ *
+ * @author Koroid Daniil
+ */
+public class InMemoryContestantHorseDao implements ContestantHorseDao {
+
+    /**
+     * Store with application data.
+     */
+    private final InMemoryStore store;
+
+    /**
+     * Creates in-memory ContestantHorse DAO.
+     *
+     * @param store store with application data
+     */
+    InMemoryContestantHorseDao(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<ContestantHorse> findAllHorsesByRaceId(Integer raceId) {
+        return findHorses(raceId, false);
+    }
+
+    @Override
+    public List<ContestantHorse> findAllHorsesWithoutResultByRaceId(Integer raceId) {
+        return findHorses(raceId, true);
+    }
+
+    @Override
+    public boolean setResults(List<ContestantHorse> horsesInPositionOrder) {
+        List<Integer> contestantHorseIds = new ArrayList<>();
+        for (ContestantHorse horse : horsesInPositionOrder) {
+            contestantHorseIds.add(horse.getId());
+        }
+        return store.setResults(contestantHorseIds);
+    }
+
+    /**
+     * Finds contestant horses in race with given identificator.
+     *
+     * @param raceId race identificator
+     * @param withoutResultOnly whether only horses without result must be
+     * found
+     * @return found contestant horses
+     */
+    private List<ContestantHorse> findHorses(Integer raceId, boolean withoutResultOnly) {
+        List<ContestantHorse> horses = new ArrayList<>();
+        RaceRecord race = store.getRace(raceId);
+        if (race == null) {
+            return horses;
+        }
+        for (int contestantHorseId : store.getContestantHorseIds(raceId)) {
+            ContestantHorseRecord contestantHorse = store.getContestantHorse(contestantHorseId);
+            if (withoutResultOnly && (contestantHorse.position != 0)) {
+                continue;
+            }
+            HorseRecord horse = store.getHorse(contestantHorse.horseId);
+            horses.add(new ContestantHorse(contestantHorse.id, horse.name,
+                    new Timestamp(race.startTime), race.place, race.distance,
+                    contestantHorse.position, contestantHorse.coefficient));
+        }
+        return horses;
+    }
+}
@@ -0,0 +1,126 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.DaoFactory;
+import ua.epam.horseraceapp.util.dao.RaceDao;
+import ua.epam.horseraceapp.util.dao.UserDao;
+
+/**
+ * DAO Factory implementation that keeps all data in memory.
+ * <p>
+ * All DAO work with one {@link InMemoryStore}. Store keeps its snapshot and
+ * journal in directory that is set by system property
+ * {@value #DIRECTORY_PROPERTY}, or in <code>horserace-data</code> directory
+ * in user home directory if property is not set.
+ * </p>
+ *
+ * @see DaoFactory
+ * @author Koroid Daniil
+ */
+public class InMemoryDaoFactory extends DaoFactory {
+
+    /**
+     * System property that sets directory of store.
+     */
+    public static final String DIRECTORY_PROPERTY = "horserace.inmemory.dir";
+    /**
+     * Name of default directory of store in user home directory.
+     */
+    private static final String DEFAULT_DIRECTORY = "horserace-data";
+    /**
+     * Period of snapshots.
+     */
+    private static final long SNAPSHOT_PERIOD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Store with application data.
+     */
+    private final InMemoryStore store;
+    /**
+     * ContestantHorse DAO instance.
+     */
+    private final ContestantHorseDao contestantHorseDao;
+    /**
+     * Race DAO instance.
+     */
+    private final RaceDao raceDao;
+    /**
+     * Bet DAO instance.
+     */
+    private final BetDao betDao;
+    /**
+     * User DAO instance.
+     */
+    private final UserDao userDao;
+
+    /**
+     * Creates factory of DAO that work with store in default directory.
+     * <p>
+     * Data is not loaded until factory is initialized or DAO are used.
+     * </p>
+     */
+    public InMemoryDaoFactory() {
+        this(new InMemoryStore(new File(System.getProperty(DIRECTORY_PROPERTY,
+                new File(System.getProperty("user.home"), DEFAULT_DIRECTORY).getPath())),
+                SNAPSHOT_PERIOD_MILLIS));
+    }
+
+    /**
+     * Creates factory of DAO that work with given store.
+     *
+     * @param store store with application data
+     */
+    public InMemoryDaoFactory(InMemoryStore store) {
+        this.store = store;
+        contestantHorseDao = new InMemoryContestantHorseDao(store);
+        raceDao = new InMemoryRaceDao(store);
+        betDao = new InMemoryBetDao(store);
+        userDao = new InMemoryUserDao(store);
+    }
+
+    /**
+     * Loads data from snapshot and journal.
+     *
+     * @throws IllegalStateException if data can't be loaded
+     */
+    @Override
+    public void initialize() {
+        store.open();
+    }
+
+    /**
+     * Get store that DAO of this factory work with.
+     * <p>
+     * Can be used to add races and horses, which have no DAO methods to be
+     * added with.
+     * </p>
+     *
+     * @return store with application data
+     */
+    public InMemoryStore getStore() {
+        return store;
+    }
+
+    @Override
+    public ContestantHorseDao createContestantHorseDao() {
+        return contestantHorseDao;
+    }
+
+    @Override
+    public RaceDao createRaceDao() {
+        return raceDao;
+    }
+
+    @Override
+    public BetDao createBetDao() {
+        return betDao;
+    }
+
+    @Override
+    public UserDao createUserDao() {
+        return userDao;
+    }
+}
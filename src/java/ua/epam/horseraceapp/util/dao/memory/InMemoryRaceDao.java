@@ -0,0 +1,63 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import ua.epam.horseraceapp.util.dao.RaceDao;
+import ua.epam.horseraceapp.util.dao.entity.Race;
+
+/**
+ * Implementation of {@link RaceDao} that works with {@link InMemoryStore}.
+ *
+ * @author Koroid Daniil
+ */
+public class InMemoryRaceDao implements RaceDao {
+
+    /**
+     * Store with application data.
+     */
+    private final InMemoryStore store;
+
+    /**
+     * Creates in-memory Race DAO.
+     *
+     * @param store store with application data
+     */
+    InMemoryRaceDao(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Race> findAll() {
+        List<Race> allRaces = new ArrayList<>();
+        for (RaceRecord race : store.getRaces()) {
+            allRaces.add(race.toRace());
+        }
+        return allRaces;
+    }
+
+    @Override
+    public List<Race> findUnresultedRaces() {
+        List<Race> unresultedRaces = new ArrayList<>();
+        for (RaceRecord race : store.getRaces()) {
+            for (int contestantHorseId : store.getContestantHorseIds(race.id)) {
+                if (store.getContestantHorse(contestantHorseId).position == 0) {
+                    unresultedRaces.add(race.toRace());
+                    break;
+                }
+            }
+        }
+        return unresultedRaces;
+    }
+
+    @Override
+    public Race findRaceById(Integer raceId) {
+        RaceRecord race = store.getRace(raceId);
+        return race == null ? null : race.toRace();
+    }
+
+    @Override
+    public Integer getRaceIdByContestantHorseId(Integer contestantHorseId) {
+        ContestantHorseRecord contestantHorse = store.getContestantHorse(contestantHorseId);
+        return contestantHorse == null ? null : contestantHorse.raceId;
+    }
+}
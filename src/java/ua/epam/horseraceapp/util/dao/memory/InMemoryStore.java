@@ -0,0 +1,1106 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+import ua.epam.horseraceapp.util.dao.entity.User;
+
+/**
+ * Store that keeps all application data in memory.
+ * <p>
+ * Data is kept in tables indexed by identificators and is read without locks.
+ * All changes are done one at a time: each change is appended to journal on
+ * local disk and only after that becomes visible. Periodically all data is
+ * written to snapshot and journal that is already in snapshot is deleted. On
+ * startup data is rebuilt from snapshot and journal.
+ * </p>
+ * <p>
+ * Journal is flushed to operating system after each change, but is not forced
+ * to disk, so change can be lost if the whole machine fails. Change that was
+ * written only partially is ignored on startup.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class InMemoryStore {
+
+    /**
+     * Name of snapshot file.
+     */
+    private static final String SNAPSHOT_FILE = "snapshot";
+    /**
+     * Name of file snapshot is written to before it replaces previous one.
+     */
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+    /**
+     * Prefix of journal file names, followed by journal generation.
+     */
+    private static final String JOURNAL_FILE_PREFIX = "journal.";
+    /**
+     * Number that every snapshot file starts with.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x48524d53;
+
+    /**
+     * Marks of records in snapshot and journal.
+     */
+    private static final byte USER_RECORD = 1;
+    private static final byte HORSE_RECORD = 2;
+    private static final byte RACE_RECORD = 3;
+    private static final byte CONTESTANT_HORSE_RECORD = 4;
+    private static final byte BET_RECORD = 5;
+    private static final byte COMMIT_MARK = 6;
+    private static final byte END_MARK = 7;
+
+    /**
+     * Position of race winner.
+     */
+    private static final int WINNER_POSITION = 1;
+
+    /**
+     * Money that is payed to bet owner on bet state change.
+     */
+    enum Payment {
+
+        /**
+         * Nothing is payed.
+         */
+        NONE,
+        /**
+         * Bet amount is returned.
+         */
+        AMOUNT,
+        /**
+         * Amount on bet win is payed.
+         */
+        WIN_AMOUNT;
+    }
+
+    /**
+     * Directory with snapshot and journal.
+     */
+    private final File directory;
+    /**
+     * Period of snapshots in milliseconds. If not positive - snapshots are
+     * done only on {@link #snapshot()} calls.
+     */
+    private final long snapshotPeriodMillis;
+
+    /**
+     * Tables of data.
+     */
+    private final IdTable<UserRecord> users = new IdTable<>();
+    private final IdTable<HorseRecord> horses = new IdTable<>();
+    private final IdTable<RaceRecord> races = new IdTable<>();
+    private final IdTable<ContestantHorseRecord> contestantHorses = new IdTable<>();
+    private final IdTable<BetRecord> bets = new IdTable<>();
+
+    /**
+     * Indexes of data.
+     */
+    private final ConcurrentMap<String, Integer> userIdsByEmail = new ConcurrentHashMap<>();
+    private final IdTable<IntList> betIdsByOwner = new IdTable<>();
+    private final IdTable<IntList> betIdsByContestantHorse = new IdTable<>();
+    private final IdTable<IntList> contestantHorseIdsByRace = new IdTable<>();
+    private final NavigableSet<Integer> unviewedBetIds = new ConcurrentSkipListSet<>();
+
+    /**
+     * Lock that allows only one snapshot to be written at a time.
+     */
+    private final Object snapshotLock = new Object();
+    /**
+     * Current journal.
+     */
+    private DataOutputStream journal;
+    /**
+     * Generation of current journal.
+     */
+    private long journalGeneration;
+    /**
+     * Number of records that were changed since last snapshot.
+     */
+    private long changesSinceSnapshot;
+    /**
+     * Executor of periodic snapshots.
+     */
+    private ScheduledExecutorService snapshotExecutor;
+    /**
+     * Whether data is loaded and store can be used.
+     */
+    private volatile boolean opened;
+
+    /**
+     * Creates store that keeps snapshot and journal in given directory.
+     * <p>
+     * Data is not loaded until store is opened.
+     * </p>
+     *
+     * @param directory directory with snapshot and journal
+     * @param snapshotPeriodMillis period of snapshots in milliseconds. If not
+     * positive - periodic snapshots are not done
+     */
+    public InMemoryStore(File directory, long snapshotPeriodMillis) {
+        this.directory = directory;
+        this.snapshotPeriodMillis = snapshotPeriodMillis;
+    }
+
+    /**
+     * Loads data from snapshot and journal and starts periodic snapshots.
+     * <p>
+     * Does nothing if store is already opened. Is called automatically on
+     * first use of store.
+     * </p>
+     *
+     * @throws IllegalStateException if data can't be loaded
+     */
+    public synchronized void open() {
+        if (opened) {
+            return;
+        }
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Can't create directory " + directory);
+            }
+            long lastGeneration = readSnapshot();
+            for (long generation : findJournalGenerations()) {
+                if (generation > lastGeneration) {
+                    replayJournal(journalFile(generation));
+                    lastGeneration = generation;
+                }
+            }
+            journalGeneration = lastGeneration + 1;
+            journal = openJournal(journalGeneration);
+        } catch (IOException ex) {
+            Logger log = Logger.getLogger(InMemoryStore.class);
+            log.error("Can't load in-memory store from " + directory, ex);
+            throw new IllegalStateException("Can't load in-memory store from " + directory, ex);
+        }
+        if (snapshotPeriodMillis > 0) {
+            snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "in-memory-store-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotExecutor.scheduleWithFixedDelay(this::snapshot,
+                    snapshotPeriodMillis, snapshotPeriodMillis, TimeUnit.MILLISECONDS);
+        }
+        opened = true;
+    }
+
+    /**
+     * Stops periodic snapshots, writes final snapshot and closes journal.
+     * <p>
+     * Store is opened again on next use.
+     * </p>
+     */
+    public void close() {
+        if (!opened) {
+            return;
+        }
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdownNow();
+            snapshotExecutor = null;
+        }
+        snapshot();
+        synchronized (this) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+            }
+            journal = null;
+            opened = false;
+        }
+    }
+
+    /**
+     * Writes all data to snapshot and deletes journal that is in snapshot.
+     * <p>
+     * Changes are not blocked while snapshot is written. If nothing was
+     * changed since last snapshot - nothing performs.
+     * </p>
+     *
+     * @return <code>true</code> if snapshot is up to date. Otherwise
+     * <code>false</code>
+     */
+    public boolean snapshot() {
+        ensureOpen();
+        synchronized (snapshotLock) {
+            long generation;
+            List<UserRecord> userRecords;
+            List<HorseRecord> horseRecords;
+            List<RaceRecord> raceRecords;
+            List<ContestantHorseRecord> contestantHorseRecords;
+            List<BetRecord> betRecords;
+
+            synchronized (this) {
+                if (changesSinceSnapshot == 0) {
+                    return true;
+                }
+                generation = journalGeneration;
+                try {
+                    rotateJournal();
+                } catch (IOException ex) {
+                    Logger log = Logger.getLogger(InMemoryStore.class);
+                    log.error("Can't start new journal", ex);
+                    return false;
+                }
+                userRecords = users.values();
+                horseRecords = horses.values();
+                raceRecords = races.values();
+                contestantHorseRecords = contestantHorses.values();
+                betRecords = bets.values();
+                changesSinceSnapshot = 0;
+            }
+
+            File tempFile = new File(directory, SNAPSHOT_TEMP_FILE);
+            try {
+                try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+                        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                    out.writeInt(SNAPSHOT_MAGIC);
+                    out.writeLong(generation);
+                    writeRecords(out, userRecords);
+                    writeRecords(out, horseRecords);
+                    writeRecords(out, raceRecords);
+                    writeRecords(out, contestantHorseRecords);
+                    writeRecords(out, betRecords);
+                    out.writeByte(END_MARK);
+                    out.flush();
+                    fileOut.getFD().sync();
+                }
+                Files.move(tempFile.toPath(), new File(directory, SNAPSHOT_FILE).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                for (long journalToDelete : findJournalGenerations()) {
+                    if (journalToDelete <= generation) {
+                        Files.deleteIfExists(journalFile(journalToDelete).toPath());
+                    }
+                }
+                return true;
+            } catch (IOException ex) {
+                Logger log = Logger.getLogger(InMemoryStore.class);
+                log.error("Can't write snapshot", ex);
+                synchronized (this) {
+                    changesSinceSnapshot++;
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Adds horse.
+     *
+     * @param name horse name
+     * @return identificator of added horse or <code>null</code> if horse
+     * can't be added
+     */
+    public synchronized Integer addHorse(String name) {
+        ensureOpen();
+        Transaction transaction = new Transaction();
+        HorseRecord horse = new HorseRecord(transaction.nextHorseId(), name);
+        transaction.put(horse);
+        return transaction.commit() ? horse.id : null;
+    }
+
+    /**
+     * Adds race.
+     *
+     * @param startTime race start time
+     * @param place race place
+     * @param distance race distance
+     * @return identificator of added race or <code>null</code> if race can't
+     * be added
+     */
+    public synchronized Integer addRace(Timestamp startTime, String place, int distance) {
+        ensureOpen();
+        Transaction transaction = new Transaction();
+        RaceRecord race = new RaceRecord(transaction.nextRaceId(), startTime.getTime(), place, distance);
+        transaction.put(race);
+        return transaction.commit() ? race.id : null;
+    }
+
+    /**
+     * Adds horse with given identificator to race with given identificator.
+     *
+     * @param raceId race identificator
+     * @param horseId horse identificator
+     * @param coefficient contestant horse coefficient
+     * @return identificator of added contestant horse or <code>null</code> if
+     * there is no such race or horse or contestant horse can't be added
+     */
+    public synchronized Integer addContestantHorse(int raceId, int horseId, double coefficient) {
+        ensureOpen();
+        if ((races.get(raceId) == null) || (horses.get(horseId) == null)) {
+            return null;
+        }
+        Transaction transaction = new Transaction();
+        ContestantHorseRecord contestantHorse = new ContestantHorseRecord(
+                transaction.nextContestantHorseId(), raceId, horseId, coefficient, 0);
+        transaction.put(contestantHorse);
+        return transaction.commit() ? contestantHorse.id : null;
+    }
+
+    /**
+     * Registers user.
+     *
+     * @param user user to register
+     * @return <code>true</code> if user was registered. Otherwise
+     * <code>false</code>
+     */
+    synchronized boolean registerUser(User user) {
+        ensureOpen();
+        if (userIdsByEmail.containsKey(user.getEmail())) {
+            return false;
+        }
+        Transaction transaction = new Transaction();
+        transaction.put(new UserRecord(transaction.nextUserId(), user.getFirstName(),
+                user.getLastName(), user.getEmail(), user.getPassword(),
+                user.getBalance(), user.getType()));
+        return transaction.commit();
+    }
+
+    /**
+     * Increases balance of user with given identificator.
+     *
+     * @param userId user identificator
+     * @param amount amount to add to balance
+     * @return <code>true</code> if balance was increased. Otherwise
+     * <code>false</code>
+     */
+    synchronized boolean rechargeBalance(int userId, int amount) {
+        ensureOpen();
+        Transaction transaction = new Transaction();
+        UserRecord user = transaction.user(userId);
+        if (user == null) {
+            return false;
+        }
+        transaction.put(user.withBalance(user.balance + amount));
+        return transaction.commit();
+    }
+
+    /**
+     * Creates bet and charges its amount off owner's balance.
+     *
+     * @param userId bet owner identificator
+     * @param amount bet amount
+     * @param contestantHorseId beted contestant horse identificator
+     * @param charge whether bet amount must be charged; if not, it was already
+     * charged elsewhere
+     * @return {@link BetPlacementResult#SUCCESS} if bet was made, otherwise
+     * reason why it was not made
+     */
+    synchronized BetPlacementResult placeBet(int userId, int amount, int contestantHorseId, boolean charge) {
+        ensureOpen();
+        Transaction transaction = new Transaction();
+        UserRecord user = transaction.user(userId);
+        ContestantHorseRecord contestantHorse = transaction.contestantHorse(contestantHorseId);
+        if ((user == null) || (contestantHorse == null)) {
+            return BetPlacementResult.FAILED;
+        }
+        if (contestantHorse.position != 0) {
+            return BetPlacementResult.MARKET_CLOSED;
+        }
+        if (charge) {
+            if (user.balance < amount) {
+                return BetPlacementResult.INSUFFICIENT_FUNDS;
+            }
+            transaction.put(user.withBalance(user.balance - amount));
+        }
+        transaction.put(new BetRecord(transaction.nextBetId(), userId, amount,
+                contestantHorseId, System.currentTimeMillis(), BetState.WAITING_FOR_ACCEPT));
+        return transaction.commit() ? BetPlacementResult.SUCCESS : BetPlacementResult.FAILED;
+    }
+
+    /**
+     * Changes state of all bets with given identificators in one change.
+     *
+     * @param betIds identificators of bets to change state
+     * @param currentState state that bets must have to be changed
+     * @param newState state to set
+     * @param resultRequired whether race result must be known to change state
+     * @param payment money to pay to bet owner
+     * @return outcome of state change for each bet identificator
+     */
+    synchronized Map<Integer, Boolean> changeBetStates(Collection<Integer> betIds, BetState currentState,
+            BetState newState, boolean resultRequired, Payment payment) {
+        ensureOpen();
+        Map<Integer, Boolean> outcomes = createOutcomes(betIds);
+        Transaction transaction = new Transaction();
+        for (Map.Entry<Integer, Boolean> outcome : outcomes.entrySet()) {
+            outcome.setValue(changeBetState(transaction, outcome.getKey(),
+                    currentState, newState, resultRequired, payment));
+        }
+        return transaction.commit() ? outcomes : createOutcomes(betIds);
+    }
+
+    /**
+     * Determines results of all bets with given identificators in one change.
+     *
+     * @param betIds identificators of bets to determine result
+     * @return outcome of result determination for each bet identificator
+     */
+    synchronized Map<Integer, Boolean> settleBets(Collection<Integer> betIds) {
+        ensureOpen();
+        Map<Integer, Boolean> outcomes = createOutcomes(betIds);
+        Transaction transaction = new Transaction();
+        for (Map.Entry<Integer, Boolean> outcome : outcomes.entrySet()) {
+            BetRecord bet = transaction.bet(outcome.getKey());
+            ContestantHorseRecord contestantHorse = bet == null ? null
+                    : transaction.contestantHorse(bet.contestantHorseId);
+            if (contestantHorse != null) {
+                BetState result = contestantHorse.position == WINNER_POSITION
+                        ? BetState.WON_WAITING_FOR_PAY : BetState.LOSE;
+                outcome.setValue(changeBetState(transaction, bet.id,
+                        BetState.ACCEPTED, result, true, Payment.NONE));
+            }
+        }
+        return transaction.commit() ? outcomes : createOutcomes(betIds);
+    }
+
+    /**
+     * Sets positions of given contestant horses and settles all accepted bets
+     * on their race.
+     *
+     * @param contestantHorseIds identificators of contestant horses in
+     * position order
+     * @return <code>true</code> if results were set. Otherwise
+     * <code>false</code>
+     */
+    synchronized boolean setResults(List<Integer> contestantHorseIds) {
+        ensureOpen();
+        Transaction transaction = new Transaction();
+        int position = WINNER_POSITION;
+        for (Integer contestantHorseId : contestantHorseIds) {
+            ContestantHorseRecord contestantHorse = transaction.contestantHorse(contestantHorseId);
+            if (contestantHorse == null) {
+                return false;
+            }
+            transaction.put(contestantHorse.withPosition(position++));
+        }
+        if (!contestantHorseIds.isEmpty()) {
+            ContestantHorseRecord winner = transaction.contestantHorse(contestantHorseIds.get(0));
+            for (int contestantHorseId : getContestantHorseIds(winner.raceId)) {
+                BetState result = contestantHorseId == winner.id
+                        ? BetState.WON_WAITING_FOR_PAY : BetState.LOSE;
+                for (int betId : getIds(betIdsByContestantHorse, contestantHorseId)) {
+                    BetRecord bet = transaction.bet(betId);
+                    if (bet.state == BetState.ACCEPTED) {
+                        transaction.put(bet.withState(result));
+                    }
+                }
+            }
+        }
+        return transaction.commit();
+    }
+
+    /**
+     * Get user with given identificator.
+     *
+     * @param userId user identificator
+     * @return user or <code>null</code> if there is no such user
+     */
+    UserRecord getUser(int userId) {
+        ensureOpen();
+        return users.get(userId);
+    }
+
+    /**
+     * Get user with given email.
+     *
+     * @param email user email
+     * @return user or <code>null</code> if there is no such user
+     */
+    UserRecord getUserByEmail(String email) {
+        ensureOpen();
+        Integer userId = userIdsByEmail.get(email);
+        return userId == null ? null : users.get(userId);
+    }
+
+    /**
+     * Get horse with given identificator.
+     *
+     * @param horseId horse identificator
+     * @return horse or <code>null</code> if there is no such horse
+     */
+    HorseRecord getHorse(int horseId) {
+        ensureOpen();
+        return horses.get(horseId);
+    }
+
+    /**
+     * Get race with given identificator.
+     *
+     * @param raceId race identificator
+     * @return race or <code>null</code> if there is no such race
+     */
+    RaceRecord getRace(int raceId) {
+        ensureOpen();
+        return races.get(raceId);
+    }
+
+    /**
+     * Get all races in identificator order.
+     *
+     * @return all races
+     */
+    List<RaceRecord> getRaces() {
+        ensureOpen();
+        return races.values();
+    }
+
+    /**
+     * Get contestant horse with given identificator.
+     *
+     * @param contestantHorseId contestant horse identificator
+     * @return contestant horse or <code>null</code> if there is no such
+     * contestant horse
+     */
+    ContestantHorseRecord getContestantHorse(int contestantHorseId) {
+        ensureOpen();
+        return contestantHorses.get(contestantHorseId);
+    }
+
+    /**
+     * Get identificators of all contestant horses in race with given
+     * identificator.
+     *
+     * @param raceId race identificator
+     * @return contestant horse identificators in order they were added
+     */
+    int[] getContestantHorseIds(int raceId) {
+        ensureOpen();
+        return getIds(contestantHorseIdsByRace, raceId);
+    }
+
+    /**
+     * Get bet with given identificator.
+     *
+     * @param betId bet identificator
+     * @return bet or <code>null</code> if there is no such bet
+     */
+    BetRecord getBet(int betId) {
+        ensureOpen();
+        return bets.get(betId);
+    }
+
+    /**
+     * Get maximum bet identificator.
+     *
+     * @return maximum bet identificator or 0 if there are no bets
+     */
+    int getMaxBetId() {
+        ensureOpen();
+        return bets.getMaxId();
+    }
+
+    /**
+     * Get identificators of all bets of user with given identificator.
+     *
+     * @param userId user identificator
+     * @return bet identificators in order bets were made
+     */
+    int[] getUserBetIds(int userId) {
+        ensureOpen();
+        return getIds(betIdsByOwner, userId);
+    }
+
+    /**
+     * Get identificators of all unviewed bets.
+     * <p>
+     * Unviewed bets are bets that wait for accept, accepted bets with known
+     * race result and won bets that wait for pay.
+     * </p>
+     *
+     * @return ascending view of unviewed bet identificators
+     */
+    NavigableSet<Integer> getUnviewedBetIds() {
+        ensureOpen();
+        return Collections.unmodifiableNavigableSet(unviewedBetIds);
+    }
+
+    /**
+     * Opens store if it is not opened yet.
+     */
+    private void ensureOpen() {
+        if (!opened) {
+            open();
+        }
+    }
+
+    /**
+     * Changes state of bet within given change.
+     *
+     * @param transaction change to make state change in
+     * @param betId identificator of bet to change state
+     * @param currentState state that bet must have to be changed
+     * @param newState state to set
+     * @param resultRequired whether race result must be known to change state
+     * @param payment money to pay to bet owner
+     * @return <code>true</code> if bet state was changed. Otherwise
+     * <code>false</code>
+     */
+    private boolean changeBetState(Transaction transaction, int betId, BetState currentState,
+            BetState newState, boolean resultRequired, Payment payment) {
+        BetRecord bet = transaction.bet(betId);
+        if ((bet == null) || (bet.state != currentState)) {
+            return false;
+        }
+        ContestantHorseRecord contestantHorse = transaction.contestantHorse(bet.contestantHorseId);
+        if (resultRequired && (contestantHorse.position == 0)) {
+            return false;
+        }
+        if (payment != Payment.NONE) {
+            UserRecord owner = transaction.user(bet.ownerId);
+            int sum = payment == Payment.AMOUNT ? bet.amount
+                    : (int) Math.floor(bet.amount * contestantHorse.coefficient);
+            transaction.put(owner.withBalance(owner.balance + sum));
+        }
+        transaction.put(bet.withState(newState));
+        return true;
+    }
+
+    /**
+     * Creates outcomes with <code>false</code> value for each distinct given
+     * bet identificator.
+     *
+     * @param betIds bet identificators
+     * @return outcomes of bets in order identificators were given
+     */
+    private static Map<Integer, Boolean> createOutcomes(Collection<Integer> betIds) {
+        Map<Integer, Boolean> outcomes = new LinkedHashMap<>();
+        if (betIds != null) {
+            for (Integer betId : betIds) {
+                if (betId != null) {
+                    outcomes.put(betId, false);
+                }
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Get identificators from index.
+     *
+     * @param index index to get identificators from
+     * @param key key of identificators
+     * @return identificators or empty array if there are no such
+     */
+    private static int[] getIds(IdTable<IntList> index, int key) {
+        IntList ids = index.get(key);
+        return ids == null ? new int[0] : ids.toArray();
+    }
+
+    /**
+     * Adds identificator to index.
+     *
+     * @param index index to add identificator to
+     * @param key key of identificator
+     * @param id identificator to add
+     */
+    private static void addToIndex(IdTable<IntList> index, int key, int id) {
+        IntList ids = index.get(key);
+        if (ids == null) {
+            ids = new IntList();
+            index.put(key, ids);
+        }
+        ids.add(id);
+    }
+
+    /**
+     * Makes given record visible and updates indexes.
+     *
+     * @param record record to apply
+     */
+    private void apply(Object record) {
+        if (record instanceof UserRecord) {
+            UserRecord user = (UserRecord) record;
+            users.put(user.id, user);
+            userIdsByEmail.put(user.email, user.id);
+        } else if (record instanceof HorseRecord) {
+            HorseRecord horse = (HorseRecord) record;
+            horses.put(horse.id, horse);
+        } else if (record instanceof RaceRecord) {
+            RaceRecord race = (RaceRecord) record;
+            races.put(race.id, race);
+        } else if (record instanceof ContestantHorseRecord) {
+            ContestantHorseRecord contestantHorse = (ContestantHorseRecord) record;
+            ContestantHorseRecord previous = contestantHorses.get(contestantHorse.id);
+            contestantHorses.put(contestantHorse.id, contestantHorse);
+            if (previous == null) {
+                addToIndex(contestantHorseIdsByRace, contestantHorse.raceId, contestantHorse.id);
+            } else if (previous.position != contestantHorse.position) {
+                for (int betId : getIds(betIdsByContestantHorse, contestantHorse.id)) {
+                    updateUnviewed(bets.get(betId));
+                }
+            }
+        } else if (record instanceof BetRecord) {
+            BetRecord bet = (BetRecord) record;
+            BetRecord previous = bets.get(bet.id);
+            bets.put(bet.id, bet);
+            if (previous == null) {
+                addToIndex(betIdsByOwner, bet.ownerId, bet.id);
+                addToIndex(betIdsByContestantHorse, bet.contestantHorseId, bet.id);
+            }
+            updateUnviewed(bet);
+        }
+    }
+
+    /**
+     * Adds bet to unviewed bets or removes it from them according to its
+     * state.
+     *
+     * @param bet bet to update
+     */
+    private void updateUnviewed(BetRecord bet) {
+        boolean unviewed;
+        switch (bet.state) {
+            case WAITING_FOR_ACCEPT:
+            case WON_WAITING_FOR_PAY:
+                unviewed = true;
+                break;
+            case ACCEPTED:
+                ContestantHorseRecord contestantHorse = contestantHorses.get(bet.contestantHorseId);
+                unviewed = (contestantHorse != null) && (contestantHorse.position != 0);
+                break;
+            default:
+                unviewed = false;
+        }
+        if (unviewed) {
+            unviewedBetIds.add(bet.id);
+        } else {
+            unviewedBetIds.remove(bet.id);
+        }
+    }
+
+    /**
+     * Writes given records to snapshot.
+     *
+     * @param out output to write to
+     * @param records records to write
+     * @throws IOException if records can't be written
+     */
+    private void writeRecords(DataOutputStream out, List<?> records) throws IOException {
+        for (Object record : records) {
+            writeRecord(out, record);
+        }
+    }
+
+    /**
+     * Writes given record together with its mark.
+     *
+     * @param out output to write to
+     * @param record record to write
+     * @throws IOException if record can't be written
+     */
+    private void writeRecord(DataOutputStream out, Object record) throws IOException {
+        if (record instanceof UserRecord) {
+            out.writeByte(USER_RECORD);
+            ((UserRecord) record).write(out);
+        } else if (record instanceof HorseRecord) {
+            out.writeByte(HORSE_RECORD);
+            ((HorseRecord) record).write(out);
+        } else if (record instanceof RaceRecord) {
+            out.writeByte(RACE_RECORD);
+            ((RaceRecord) record).write(out);
+        } else if (record instanceof ContestantHorseRecord) {
+            out.writeByte(CONTESTANT_HORSE_RECORD);
+            ((ContestantHorseRecord) record).write(out);
+        } else {
+            out.writeByte(BET_RECORD);
+            ((BetRecord) record).write(out);
+        }
+    }
+
+    /**
+     * Reads record with given mark.
+     *
+     * @param in input to read from
+     * @param mark mark of record
+     * @return read record
+     * @throws IOException if record can't be read or mark is unknown
+     */
+    private Object readRecord(DataInputStream in, int mark) throws IOException {
+        switch (mark) {
+            case USER_RECORD:
+                return UserRecord.read(in);
+            case HORSE_RECORD:
+                return HorseRecord.read(in);
+            case RACE_RECORD:
+                return RaceRecord.read(in);
+            case CONTESTANT_HORSE_RECORD:
+                return ContestantHorseRecord.read(in);
+            case BET_RECORD:
+                return BetRecord.read(in);
+            default:
+                throw new IOException("Unknown record mark: " + mark);
+        }
+    }
+
+    /**
+     * Loads data from snapshot.
+     *
+     * @return generation of last journal that is in snapshot or 0 if there is
+     * no snapshot
+     * @throws IOException if snapshot can't be read
+     */
+    private long readSnapshot() throws IOException {
+        File snapshotFile = new File(directory, SNAPSHOT_FILE);
+        if (!snapshotFile.isFile()) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Unknown snapshot format: " + snapshotFile);
+            }
+            long generation = in.readLong();
+            int mark;
+            while ((mark = in.readByte()) != END_MARK) {
+                apply(readRecord(in, mark));
+            }
+            return generation;
+        }
+    }
+
+    /**
+     * Applies all complete changes from given journal.
+     * <p>
+     * Change that was written only partially is ignored.
+     * </p>
+     *
+     * @param journalFile journal to replay
+     * @throws IOException if journal can't be read
+     */
+    private void replayJournal(File journalFile) throws IOException {
+        List<Object> changeRecords = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            int mark;
+            while ((mark = in.read()) != -1) {
+                if (mark == COMMIT_MARK) {
+                    for (Object record : changeRecords) {
+                        apply(record);
+                    }
+                    changesSinceSnapshot += changeRecords.size();
+                    changeRecords.clear();
+                } else {
+                    changeRecords.add(readRecord(in, mark));
+                }
+            }
+        } catch (EOFException ex) {
+            Logger log = Logger.getLogger(InMemoryStore.class);
+            log.warn("Partially written change is ignored in " + journalFile);
+        }
+    }
+
+    /**
+     * Finds generations of all journals in store directory.
+     *
+     * @return journal generations in ascending order
+     */
+    private List<Long> findJournalGenerations() {
+        List<Long> generations = new ArrayList<>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(JOURNAL_FILE_PREFIX)) {
+                    try {
+                        generations.add(Long.valueOf(name.substring(JOURNAL_FILE_PREFIX.length())));
+                    } catch (NumberFormatException ex) {
+                    }
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Get journal file of given generation.
+     *
+     * @param generation journal generation
+     * @return journal file
+     */
+    private File journalFile(long generation) {
+        return new File(directory, JOURNAL_FILE_PREFIX + generation);
+    }
+
+    /**
+     * Opens journal of given generation for appending.
+     *
+     * @param generation journal generation
+     * @return journal output
+     * @throws IOException if journal can't be opened
+     */
+    private DataOutputStream openJournal(long generation) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(journalFile(generation), true)));
+    }
+
+    /**
+     * Closes current journal and starts journal of next generation.
+     *
+     * @throws IOException if next journal can't be started
+     */
+    private void rotateJournal() throws IOException {
+        DataOutputStream nextJournal = openJournal(journalGeneration + 1);
+        try {
+            journal.close();
+        } catch (IOException ex) {
+        }
+        journal = nextJournal;
+        journalGeneration++;
+    }
+
+    /**
+     * One change of store data.
+     * <p>
+     * Collects changed records. Records are looked up in this change first, so
+     * change can modify the same record several times. On commit all records
+     * are appended to journal and then become visible at once.
+     * </p>
+     */
+    private final class Transaction {
+
+        /**
+         * Records changed in this change.
+         */
+        private final Map<Integer, UserRecord> changedUsers = new HashMap<>();
+        private final Map<Integer, ContestantHorseRecord> changedContestantHorses = new HashMap<>();
+        private final Map<Integer, BetRecord> changedBets = new HashMap<>();
+        /**
+         * All records of this change in order they were put.
+         */
+        private final List<Object> records = new ArrayList<>();
+
+        /**
+         * Last identificators given out in this change.
+         */
+        private int lastUserId = users.getMaxId();
+        private int lastHorseId = horses.getMaxId();
+        private int lastRaceId = races.getMaxId();
+        private int lastContestantHorseId = contestantHorses.getMaxId();
+        private int lastBetId = bets.getMaxId();
+
+        UserRecord user(int id) {
+            UserRecord user = changedUsers.get(id);
+            return user != null ? user : users.get(id);
+        }
+
+        ContestantHorseRecord contestantHorse(int id) {
+            ContestantHorseRecord contestantHorse = changedContestantHorses.get(id);
+            return contestantHorse != null ? contestantHorse : contestantHorses.get(id);
+        }
+
+        BetRecord bet(int id) {
+            BetRecord bet = changedBets.get(id);
+            return bet != null ? bet : bets.get(id);
+        }
+
+        int nextUserId() {
+            return ++lastUserId;
+        }
+
+        int nextHorseId() {
+            return ++lastHorseId;
+        }
+
+        int nextRaceId() {
+            return ++lastRaceId;
+        }
+
+        int nextContestantHorseId() {
+            return ++lastContestantHorseId;
+        }
+
+        int nextBetId() {
+            return ++lastBetId;
+        }
+
+        void put(UserRecord user) {
+            changedUsers.put(user.id, user);
+            records.add(user);
+        }
+
+        void put(HorseRecord horse) {
+            records.add(horse);
+        }
+
+        void put(RaceRecord race) {
+            records.add(race);
+        }
+
+        void put(ContestantHorseRecord contestantHorse) {
+            changedContestantHorses.put(contestantHorse.id, contestantHorse);
+            records.add(contestantHorse);
+        }
+
+        void put(BetRecord bet) {
+            changedBets.put(bet.id, bet);
+            records.add(bet);
+        }
+
+        /**
+         * Appends all records of this change to journal and makes them
+         * visible.
+         * <p>
+         * If journal can't be written - nothing changes and next changes are
+         * written to new journal.
+         * </p>
+         *
+         * @return <code>true</code> if change was commited. Otherwise
+         * <code>false</code>
+         */
+        boolean commit() {
+            if (records.isEmpty()) {
+                return true;
+            }
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                writeRecords(out, records);
+                out.writeByte(COMMIT_MARK);
+                bytes.writeTo(journal);
+                journal.flush();
+            } catch (IOException ex) {
+                Logger log = Logger.getLogger(InMemoryStore.class);
+                log.error("Can't write change to journal", ex);
+                try {
+                    rotateJournal();
+                } catch (IOException rotateEx) {
+                    log.error("Can't start new journal", rotateEx);
+                }
+                return false;
+            }
+            for (Object record : records) {
+                apply(record);
+            }
+            changesSinceSnapshot += records.size();
+            return true;
+        }
+    }
+}
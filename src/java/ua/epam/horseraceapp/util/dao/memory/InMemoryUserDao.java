@@ -0,0 +1,54 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import ua.epam.horseraceapp.util.dao.UserDao;
+import ua.epam.horseraceapp.util.dao.entity.User;
+
+/**
+ * Implementation of {@link UserDao} that works with {@link InMemoryStore}.
+ *
+ * @author Koroid Daniil
+ */
+public class InMemoryUserDao implements UserDao {
+
+    /**
+     * Store with application data.
+     */
+    private final InMemoryStore store;
+
+    /**
+     * Creates in-memory User DAO.
+     *
+     * @param store store with application data
+     */
+    InMemoryUserDao(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean registerUser(User user) {
+        return store.registerUser(user);
+    }
+
+    @Override
+    public User getUserByEmail(String email) {
+        UserRecord user = store.getUserByEmail(email);
+        return user == null ? null : user.toUser();
+    }
+
+    @Override
+    public User getUserById(Integer userId) {
+        UserRecord user = store.getUser(userId);
+        return user == null ? null : user.toUser();
+    }
+
+    @Override
+    public Integer getUserBalance(Integer userId) {
+        UserRecord user = store.getUser(userId);
+        return user == null ? null : user.balance;
+    }
+
+    @Override
+    public boolean rechargeBalance(Integer userId, Integer rechargeAmount) {
+        return store.rechargeBalance(userId, rechargeAmount);
+    }
+}
@@ -0,0 +1,61 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.util.Arrays;
+
+/**
+ * Growing list of primitive integers.
+ * <p>
+ * Reading is lock-free and can be done from any thread. Adding must be done
+ * by one thread at a time.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+final class IntList {
+
+    /**
+     * Initial capacity of list.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * List elements.
+     * <p>
+     * Always published before {@link #size}, so array that is read after size
+     * contains at least size elements.
+     * </p>
+     */
+    private volatile int[] values = new int[INITIAL_CAPACITY];
+    /**
+     * Number of elements in list.
+     */
+    private volatile int size;
+
+    /**
+     * Adds value to the end of list.
+     * <p>
+     * Must not be called by several threads at once.
+     * </p>
+     *
+     * @param value value to add
+     */
+    void add(int value) {
+        int[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[size] = value;
+        values = current;
+        size = size + 1;
+    }
+
+    /**
+     * Get copy of all list elements.
+     *
+     * @return list elements
+     */
+    int[] toArray() {
+        int currentSize = size;
+        return Arrays.copyOf(values, currentSize);
+    }
+}
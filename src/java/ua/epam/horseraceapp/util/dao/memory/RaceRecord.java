@@ -0,0 +1,81 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.Timestamp;
+import ua.epam.horseraceapp.util.dao.entity.Race;
+
+/**
+ * Immutable state of race in in-memory store.
+ *
+ * @see Race
+ * @author Koroid Daniil
+ */
+final class RaceRecord {
+
+    /**
+     * Race identificator.
+     */
+    final int id;
+    /**
+     * Race start time in milliseconds.
+     */
+    final long startTime;
+    /**
+     * Race place.
+     */
+    final String place;
+    /**
+     * Race distance.
+     */
+    final int distance;
+
+    /**
+     * Creates race record.
+     *
+     * @param id race identificator
+     * @param startTime race start time in milliseconds
+     * @param place race place
+     * @param distance race distance
+     */
+    RaceRecord(int id, long startTime, String place, int distance) {
+        this.id = id;
+        this.startTime = startTime;
+        this.place = place;
+        this.distance = distance;
+    }
+
+    /**
+     * Creates race entity from this record.
+     *
+     * @return race entity
+     */
+    Race toRace() {
+        return new Race(id, new Timestamp(startTime), place, distance);
+    }
+
+    /**
+     * Writes this record.
+     *
+     * @param out output to write to
+     * @throws IOException if record can't be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeLong(startTime);
+        out.writeUTF(place);
+        out.writeInt(distance);
+    }
+
+    /**
+     * Reads record written by {@link #write(DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read record
+     * @throws IOException if record can't be read
+     */
+    static RaceRecord read(DataInput in) throws IOException {
+        return new RaceRecord(in.readInt(), in.readLong(), in.readUTF(), in.readInt());
+    }
+}
@@ -0,0 +1,114 @@
+package ua.epam.horseraceapp.util.dao.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import ua.epam.horseraceapp.util.dao.entity.User;
+import ua.epam.horseraceapp.util.dao.entity.UserType;
+
+/**
+ * Immutable state of user in in-memory store.
+ *
+ * @see User
+ * @author Koroid Daniil
+ */
+final class UserRecord {
+
+    /**
+     * User identificator.
+     */
+    final int id;
+    /**
+     * User first name.
+     */
+    final String firstName;
+    /**
+     * User last name.
+     */
+    final String lastName;
+    /**
+     * User email.
+     */
+    final String email;
+    /**
+     * User password.
+     */
+    final String password;
+    /**
+     * User balance.
+     */
+    final int balance;
+    /**
+     * User type.
+     */
+    final UserType type;
+
+    /**
+     * Creates user record.
+     *
+     * @param id user identificator
+     * @param firstName user first name
+     * @param lastName user last name
+     * @param email user email
+     * @param password user password
+     * @param balance user balance
+     * @param type user type
+     */
+    UserRecord(int id, String firstName, String lastName, String email,
+            String password, int balance, UserType type) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.password = password;
+        this.balance = balance;
+        this.type = type;
+    }
+
+    /**
+     * Creates copy of this record with given balance.
+     *
+     * @param newBalance balance of copy
+     * @return copy of this record
+     */
+    UserRecord withBalance(int newBalance) {
+        return new UserRecord(id, firstName, lastName, email, password, newBalance, type);
+    }
+
+    /**
+     * Creates user entity from this record.
+     *
+     * @return user entity
+     */
+    User toUser() {
+        return new User(id, firstName, lastName, email, password, balance, type);
+    }
+
+    /**
+     * Writes this record.
+     *
+     * @param out output to write to
+     * @throws IOException if record can't be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeUTF(firstName);
+        out.writeUTF(lastName);
+        out.writeUTF(email);
+        out.writeUTF(password);
+        out.writeInt(balance);
+        out.writeUTF(type.name());
+    }
+
+    /**
+     * Reads record written by {@link #write(DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read record
+     * @throws IOException if record can't be read
+     */
+    static UserRecord read(DataInput in) throws IOException {
+        return new UserRecord(in.readInt(), in.readUTF(), in.readUTF(), in.readUTF(),
+                in.readUTF(), in.readInt(), UserType.valueOf(in.readUTF()));
+    }
+}
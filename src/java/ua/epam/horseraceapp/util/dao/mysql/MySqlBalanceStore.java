@@ -0,0 +1,130 @@
+package ua.epam.horseraceapp.util.dao.mysql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import ua.epam.horseraceapp.util.connection.ConnectionManager;
+import ua.epam.horseraceapp.util.connection.UnitOfWork;
+import ua.epam.horseraceapp.util.dao.entity.User;
+import ua.epam.horseraceapp.util.dao.wallet.BalanceStore;
+
+/**
+ * Implementation of {@link BalanceStore} for MySQL database.
+ * <p>
+ * Sequence number of last applied journal record is kept in
+ * <code>wallet_checkpoint</code> table, which is created when it is needed
+ * for the first time.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class MySqlBalanceStore implements BalanceStore {
+
+    /**
+     * Query that is used to create table with sequence number of last applied
+     * journal record.
+     */
+    private final String CREATE_CHECKPOINT_TABLE_QUERY = "CREATE TABLE IF NOT EXISTS "
+            + "wallet_checkpoint (id INT PRIMARY KEY, applied_sequence BIGINT NOT NULL)";
+
+    /**
+     * Query that is used to create the only row of checkpoint table.
+     */
+    private final String CREATE_CHECKPOINT_QUERY = "INSERT IGNORE INTO "
+            + "wallet_checkpoint (id, applied_sequence) VALUES (1, 0)";
+
+    /**
+     * Query that is used to select sequence number of last applied journal
+     * record.
+     */
+    private final String SELECT_APPLIED_SEQUENCE_QUERY = "SELECT applied_sequence "
+            + "FROM wallet_checkpoint WHERE id = 1";
+
+    /**
+     * Query that is used to set sequence number of last applied journal
+     * record.
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Sequence number {@link Long}</li>
+     * </ul>
+     * </p>
+     */
+    private final String SET_APPLIED_SEQUENCE_QUERY = "UPDATE wallet_checkpoint "
+            + "SET applied_sequence = ? WHERE id = 1";
+
+    /**
+     * Query that is used to change user balance with given value.
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Balance change value (may be negative) {@link Long}</li>
+     * <li>2. User identificator {@link User#id}</li>
+     * </ul>
+     * </p>
+     */
+    private final String CHANGE_USER_BALANCE_QUERY = "UPDATE user SET "
+            + "balance = balance + ? WHERE id = ?";
+
+    /**
+     * Connection manager to get connections from.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * Creates MySQL balance store.
+     *
+     * @param connectionManager connection manager to get connections from
+     */
+    MySqlBalanceStore(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public Long getAppliedSequence() {
+        try (Connection connection = connectionManager.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_CHECKPOINT_TABLE_QUERY);
+                statement.execute(CREATE_CHECKPOINT_QUERY);
+
+                ResultSet rs = statement.executeQuery(SELECT_APPLIED_SEQUENCE_QUERY);
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        } catch (SQLException ex) {
+        }
+        return null;
+    }
+
+    @Override
+    public boolean applyChanges(Map<Integer, Long> changes, long appliedSequence) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(connectionManager)) {
+            Connection connection = connectionManager.getConnection();
+            try (PreparedStatement changeBalanceStatement = connection.prepareStatement(CHANGE_USER_BALANCE_QUERY);
+                    PreparedStatement sequenceStatement = connection.prepareStatement(SET_APPLIED_SEQUENCE_QUERY)) {
+
+                for (Map.Entry<Integer, Long> change : changes.entrySet()) {
+                    changeBalanceStatement.setLong(1, change.getValue());
+                    changeBalanceStatement.setInt(2, change.getKey());
+                    changeBalanceStatement.addBatch();
+                }
+                if (!changes.isEmpty()) {
+                    changeBalanceStatement.executeBatch();
+                }
+                sequenceStatement.setLong(1, appliedSequence);
+
+                if ((sequenceStatement.executeUpdate() > 0) && unitOfWork.commit()) {
+                    return true;
+                }
+            } catch (SQLException ex) {
+            }
+            unitOfWork.rollback();
+        } catch (SQLException ex) {
+        }
+        return false;
+    }
+}
@@ -7,15 +7,24 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import ua.epam.horseraceapp.util.connection.ConnectionManager;
-import ua.epam.horseraceapp.util.connection.MySqlConnectionManager;
+import ua.epam.horseraceapp.util.connection.ReadYourWrites;
+import ua.epam.horseraceapp.util.connection.UnitOfWork;
 import ua.epam.horseraceapp.util.dao.BetDao;
-import ua.epam.horseraceapp.util.dao.DaoFactory;
-import ua.epam.horseraceapp.util.dao.UserDao;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.BetRequest;
+import ua.epam.horseraceapp.util.dao.BetRow;
+import ua.epam.horseraceapp.util.dao.BetRowHandler;
 import ua.epam.horseraceapp.util.dao.entity.Bet;
 import ua.epam.horseraceapp.util.dao.entity.BetState;
 import ua.epam.horseraceapp.util.dao.entity.User;
+import ua.epam.horseraceapp.util.dao.entity.UserType;
 
 /**
  * Implementation of {@link BetDao} for MySQL database.
@@ -28,7 +37,8 @@ public class MySqlBetDao implements BetDao {
      * Query that is used to select all user bets.
      * <p>
      * Selects all bets that user with specified identificator owns, ordered by
-     * race start time. Must be used as a prepared statement.
+     * race start time, together with information about their owner. Must be
+     * used as a prepared statement.
      * </p>
      * <p>
      * As a prepared statement has next elements to be seted to work properly:
@@ -46,23 +56,91 @@ public class MySqlBetDao implements BetDao {
      * <li>7. Beted race start time {@link Bet#raceStartTime}</li>
      * <li>8. Bet place time {@link Bet#betPlaceTime}</li>
      * <li>9. Beted horse position in race {@link Bet#horsePosition}</li>
+     * <li>10. Bet owner first name {@link User#firstName}</li>
+     * <li>11. Bet owner last name {@link User#lastName}</li>
+     * <li>12. Bet owner email {@link User#email}</li>
+     * <li>13. Bet owner password {@link User#password}</li>
+     * <li>14. Bet owner balance {@link User#balance}</li>
+     * <li>15. Bet owner type {@link User#type}</li>
      * </ul>
      * </p>
      */
     private final String SELECT_ALL_BETS_BY_USER_ID_QUERY = "SELECT bet.id, bet_state.state, "
             + "ch.coefficient, bet.amount, horse.name, race.place, "
-            + "race.start_time, bet.place_time, ch.position FROM bet JOIN bet_state ON bet.state_id "
+            + "race.start_time, bet.place_time, ch.position, u.first_name, "
+            + "u.last_name, u.email, u.password, u.balance, "
+            + "user_type.user_type FROM bet JOIN bet_state ON bet.state_id "
             + "= bet_state.id JOIN contestant_horse AS ch ON bet.contestant_horse_id "
             + "= ch.id JOIN horse ON ch.horse_id = "
             + "horse.id JOIN race ON ch.race_id = race.id JOIN "
-            + "user ON bet.owner_id = user.id WHERE user.id = ? "
+            + "user AS u ON bet.owner_id = u.id JOIN user_type ON u.type_id = "
+            + "user_type.id WHERE u.id = ? "
             + "ORDER BY race.start_time";
 
+    /**
+     * Query that is used to select first page of user bets.
+     * <p>
+     * Selects first bets that user with specified identificator owns, ordered
+     * by bet identificator. Bets are selected by index of owner, so only bets
+     * of page are joined. Must be used as a prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. User identificator {@link User#id}</li>
+     * <li>2. Page size</li>
+     * </ul>
+     * Returns the same fields as {@link #SELECT_ALL_BETS_BY_USER_ID_QUERY}.
+     * </p>
+     */
+    private final String SELECT_FIRST_USER_BETS_PAGE_QUERY = "SELECT bet.id, bet_state.state, "
+            + "ch.coefficient, bet.amount, horse.name, race.place, "
+            + "race.start_time, bet.place_time, ch.position, u.first_name, "
+            + "u.last_name, u.email, u.password, u.balance, "
+            + "user_type.user_type FROM bet JOIN bet_state ON bet.state_id "
+            + "= bet_state.id JOIN contestant_horse AS ch ON bet.contestant_horse_id "
+            + "= ch.id JOIN horse ON ch.horse_id = "
+            + "horse.id JOIN race ON ch.race_id = race.id JOIN "
+            + "user AS u ON bet.owner_id = u.id JOIN user_type ON u.type_id = "
+            + "user_type.id WHERE bet.owner_id = ? "
+            + "ORDER BY bet.id LIMIT ?";
+
+    /**
+     * Query that is used to select next page of user bets.
+     * <p>
+     * Selects bets that user with specified identificator owns and that go
+     * after given bet in order by bet identificator. Bets are selected by
+     * index of owner, so only bets of page are joined. Must be used as a
+     * prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. User identificator {@link User#id}</li>
+     * <li>2. Identificator of last bet on previous page {@link Bet#id}</li>
+     * <li>3. Page size</li>
+     * </ul>
+     * Returns the same fields as {@link #SELECT_ALL_BETS_BY_USER_ID_QUERY}.
+     * </p>
+     */
+    private final String SELECT_NEXT_USER_BETS_PAGE_QUERY = "SELECT bet.id, bet_state.state, "
+            + "ch.coefficient, bet.amount, horse.name, race.place, "
+            + "race.start_time, bet.place_time, ch.position, u.first_name, "
+            + "u.last_name, u.email, u.password, u.balance, "
+            + "user_type.user_type FROM bet JOIN bet_state ON bet.state_id "
+            + "= bet_state.id JOIN contestant_horse AS ch ON bet.contestant_horse_id "
+            + "= ch.id JOIN horse ON ch.horse_id = "
+            + "horse.id JOIN race ON ch.race_id = race.id JOIN "
+            + "user AS u ON bet.owner_id = u.id JOIN user_type ON u.type_id = "
+            + "user_type.id WHERE bet.owner_id = ? AND bet.id > ? "
+            + "ORDER BY bet.id LIMIT ?";
+
     /**
      * Query that is used to select all unviewed bets.
      * <p>
-     * Selects all unviewed bets. Unviewed bets are such bets that need to be
-     * viewed by bookmaker. Must be used as a statement.
+     * Selects all unviewed bets together with information about their owners.
+     * Unviewed bets are such bets that need to be viewed by bookmaker. Must be
+     * used as a statement.
      * </p>
      * <p>
      * Returns such fields:
@@ -77,19 +155,106 @@ public class MySqlBetDao implements BetDao {
      * <li>8. Beted race start time {@link Bet#raceStartTime}</li>
      * <li>9. Beted horse name {@link Bet#horseName}</li>
      * <li>10. Beted horse position in race {@link Bet#horsePosition}</li>
+     * <li>11. Bet owner first name {@link User#firstName}</li>
+     * <li>12. Bet owner last name {@link User#lastName}</li>
+     * <li>13. Bet owner email {@link User#email}</li>
+     * <li>14. Bet owner password {@link User#password}</li>
+     * <li>15. Bet owner balance {@link User#balance}</li>
+     * <li>16. Bet owner type {@link User#type}</li>
      * </ul>
      * </p>
      */
     private final String GET_UNVIEWED_BETS_QUERY = "SELECT bet.id, bs.state, "
             + "bet.owner_id, bet.amount, bet.place_time, ch.coefficient, "
-            + "race.place, race.start_time, horse.name, ch.position FROM bet JOIN "
+            + "race.place, race.start_time, horse.name, ch.position, "
+            + "u.first_name, u.last_name, u.email, u.password, "
+            + "u.balance, user_type.user_type FROM bet JOIN "
             + "bet_state AS bs ON bet.state_id = bs.id JOIN "
             + "contestant_horse AS ch ON bet.contestant_horse_id = ch.id "
             + "JOIN horse ON ch.horse_id = horse.id JOIN race ON ch.race_id = "
-            + "race.id WHERE bs.state IN ('WAITING_FOR_ACCEPT', "
+            + "race.id JOIN user AS u ON bet.owner_id = u.id JOIN user_type ON "
+            + "u.type_id = user_type.id WHERE bs.state IN ('WAITING_FOR_ACCEPT', "
             + "'WON_WAITING_FOR_PAY') OR ((bs.state IN ('ACCEPTED')) AND "
             + "ch.position IS NOT NULL)";
 
+    /**
+     * Query that is used to select page of unviewed bets.
+     * <p>
+     * Selects unviewed bets with identificators greater than given one,
+     * ordered by bet identificator. Must be used as a prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Identificator of last bet on previous page {@link Bet#id}
+     * (<code>0</code> for first page)</li>
+     * <li>2. Page size</li>
+     * </ul>
+     * Returns the same fields as {@link #GET_UNVIEWED_BETS_QUERY}.
+     * </p>
+     */
+    private final String GET_UNVIEWED_BETS_PAGE_QUERY = "SELECT bet.id, bs.state, "
+            + "bet.owner_id, bet.amount, bet.place_time, ch.coefficient, "
+            + "race.place, race.start_time, horse.name, ch.position, "
+            + "u.first_name, u.last_name, u.email, u.password, "
+            + "u.balance, user_type.user_type FROM bet JOIN "
+            + "bet_state AS bs ON bet.state_id = bs.id JOIN "
+            + "contestant_horse AS ch ON bet.contestant_horse_id = ch.id "
+            + "JOIN horse ON ch.horse_id = horse.id JOIN race ON ch.race_id = "
+            + "race.id JOIN user AS u ON bet.owner_id = u.id JOIN user_type ON "
+            + "u.type_id = user_type.id WHERE bet.id > ? AND (bs.state IN "
+            + "('WAITING_FOR_ACCEPT', 'WON_WAITING_FOR_PAY') OR ((bs.state IN "
+            + "('ACCEPTED')) AND ch.position IS NOT NULL)) ORDER BY bet.id LIMIT ?";
+
+    /**
+     * Query that is used to stream all bets.
+     * <p>
+     * Selects all bets with data needed by {@link BetRow}. Must be used as a
+     * statement.
+     * </p>
+     * <p>
+     * Returns such fields:
+     * <ul>
+     * <li>1. Bet identificator {@link Bet#id}</li>
+     * <li>2. Bet state identificator {@link Bet#state}</li>
+     * <li>3. Bet owner identificator {@link User#id}</li>
+     * <li>4. Bet amount {@link Bet#amount}</li>
+     * <li>5. Bet coefficient {@link Bet#coefficient}</li>
+     * <li>6. Beted contestant horse identificator
+     * {@link ContestantHorse#id}</li>
+     * <li>7. Race identificator {@link Race#id}</li>
+     * <li>8. Beted race start time {@link Bet#raceStartTime}</li>
+     * <li>9. Bet place time {@link Bet#betPlaceTime}</li>
+     * <li>10. Beted horse position in race {@link Bet#horsePosition}</li>
+     * </ul>
+     * </p>
+     */
+    private final String STREAM_ALL_BETS_QUERY = "SELECT bet.id, bet.state_id, "
+            + "bet.owner_id, bet.amount, ch.coefficient, bet.contestant_horse_id, "
+            + "ch.race_id, race.start_time, bet.place_time, ch.position FROM bet "
+            + "JOIN contestant_horse AS ch ON bet.contestant_horse_id = ch.id "
+            + "JOIN race ON ch.race_id = race.id";
+
+    /**
+     * Query that is used to stream bets with given state.
+     * <p>
+     * Selects all bets with given state with data needed by {@link BetRow}.
+     * Must be used as a prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Bet state identificator {@link Bet#state}</li>
+     * </ul>
+     * Returns the same fields as {@link #STREAM_ALL_BETS_QUERY}.
+     * </p>
+     */
+    private final String STREAM_BETS_BY_STATE_QUERY = "SELECT bet.id, bet.state_id, "
+            + "bet.owner_id, bet.amount, ch.coefficient, bet.contestant_horse_id, "
+            + "ch.race_id, race.start_time, bet.place_time, ch.position FROM bet "
+            + "JOIN contestant_horse AS ch ON bet.contestant_horse_id = ch.id "
+            + "JOIN race ON ch.race_id = race.id WHERE bet.state_id = ?";
+
     /**
      * Query that is used to create bet.
      * <p>
@@ -98,7 +263,7 @@ public class MySqlBetDao implements BetDao {
      * <p>
      * As a prepared statement has next elements to be seted to work properly:
      * <ul>
-     * <li>1. Bet state {@link Bet#state}</li>
+     * <li>1. Bet state identificator {@link Bet#state}</li>
      * <li>2. Bet owner identificator {@link User#id}</li>
      * <li>3. Bet amount {@link Bet#amount}</li>
      * <li>4. Beted contestant horse identificator
@@ -107,8 +272,7 @@ public class MySqlBetDao implements BetDao {
      * </p>
      */
     private final String CREATE_BET_QUERY = "INSERT INTO bet (state_id, "
-            + "owner_id, amount, contestant_horse_id) VALUES ( (SELECT bet_state.id "
-            + "FROM bet_state WHERE bet_state.state = ?), ?, ?, ?)";
+            + "owner_id, amount, contestant_horse_id) VALUES (?, ?, ?, ?)";
 
     /**
      * Query that is used to set bet state from
@@ -124,15 +288,14 @@ public class MySqlBetDao implements BetDao {
      * <p>
      * As a prepared statement has next elements to be seted to work properly:
      * <ul>
-     * <li>1. Bet identificator {@link Bet#id}</li>
+     * <li>1. Identificator of state {@link BetState#ACCEPTED}</li>
+     * <li>2. Bet identificator {@link Bet#id}</li>
+     * <li>3. Identificator of state {@link BetState#WAITING_FOR_ACCEPT}</li>
      * </ul>
      * </p>
      */
     private final String ACCEPT_BET_BY_ID_QUERY = "UPDATE bet SET "
-            + "bet.state_id = (SELECT bs.id FROM bet_state AS bs WHERE "
-            + "state = 'ACCEPTED') WHERE bet.id = ? AND bet.state_id = "
-            + "(SELECT bs.id FROM bet_state AS bs WHERE state = "
-            + "'WAITING_FOR_ACCEPT')";
+            + "bet.state_id = ? WHERE bet.id = ? AND bet.state_id = ?";
 
     /**
      * Query that is used to set bet state from
@@ -148,15 +311,14 @@ public class MySqlBetDao implements BetDao {
      * <p>
      * As a prepared statement has next elements to be seted to work properly:
      * <ul>
-     * <li>1. Bet identificator {@link Bet#id}</li>
+     * <li>1. Identificator of state {@link BetState#DECLINED}</li>
+     * <li>2. Bet identificator {@link Bet#id}</li>
+     * <li>3. Identificator of state {@link BetState#WAITING_FOR_ACCEPT}</li>
      * </ul>
      * </p>
      */
     private final String DECLINE_BET_BY_ID_QUERY = "UPDATE bet SET "
-            + "bet.state_id = (SELECT bs.id FROM bet_state AS bs WHERE "
-            + "state = 'DECLINED') WHERE bet.id = ? AND bet.state_id = "
-            + "(SELECT bs.id FROM bet_state AS bs WHERE state = "
-            + "'WAITING_FOR_ACCEPT')";
+            + "bet.state_id = ? WHERE bet.id = ? AND bet.state_id = ?";
 
     /**
      * Query that is used to set bet state from {@link BetState#ACCEPTED} to
@@ -172,15 +334,15 @@ public class MySqlBetDao implements BetDao {
      * <p>
      * As a prepared statement has next elements to be seted to work properly:
      * <ul>
-     * <li>1. Bet identificator {@link Bet#id}</li>
+     * <li>1. Identificator of state {@link BetState#LOSE}</li>
+     * <li>2. Bet identificator {@link Bet#id}</li>
+     * <li>3. Identificator of state {@link BetState#ACCEPTED}</li>
      * </ul>
      * </p>
      */
     private final String LOSE_BET_BY_ID_QUERY = "UPDATE bet SET "
-            + "bet.state_id = (SELECT bs.id FROM bet_state AS bs WHERE "
-            + "state = 'LOSE') WHERE bet.id = ? AND bet.state_id = "
-            + "(SELECT bs.id FROM bet_state AS bs WHERE state = "
-            + "'ACCEPTED') AND (SELECT ch.position FROM contestant_horse AS ch "
+            + "bet.state_id = ? WHERE bet.id = ? AND bet.state_id = ? "
+            + "AND (SELECT ch.position FROM contestant_horse AS ch "
             + "WHERE ch.id = bet.contestant_horse_id) IS NOT NULL";
 
     /**
@@ -198,15 +360,15 @@ public class MySqlBetDao implements BetDao {
      * <p>
      * As a prepared statement has next elements to be seted to work properly:
      * <ul>
-     * <li>1. Bet identificator {@link Bet#id}</li>
+     * <li>1. Identificator of state {@link BetState#WON_WAITING_FOR_PAY}</li>
+     * <li>2. Bet identificator {@link Bet#id}</li>
+     * <li>3. Identificator of state {@link BetState#ACCEPTED}</li>
      * </ul>
      * </p>
      */
     private final String UPDATE_TO_WON_WAITING_FOR_PAY_BET_BY_ID_QUERY = "UPDATE bet SET "
-            + "bet.state_id = (SELECT bs.id FROM bet_state AS bs WHERE "
-            + "state = 'WON_WAITING_FOR_PAY') WHERE bet.id = ? AND bet.state_id = "
-            + "(SELECT bs.id FROM bet_state AS bs WHERE state = "
-            + "'ACCEPTED') AND (SELECT ch.position FROM contestant_horse AS ch "
+            + "bet.state_id = ? WHERE bet.id = ? AND bet.state_id = ? "
+            + "AND (SELECT ch.position FROM contestant_horse AS ch "
             + "WHERE ch.id = bet.contestant_horse_id) IS NOT NULL";
 
     /**
@@ -223,15 +385,14 @@ public class MySqlBetDao implements BetDao {
      * <p>
      * As a prepared statement has next elements to be seted to work properly:
      * <ul>
-     * <li>1. Bet identificator {@link Bet#id}</li>
+     * <li>1. Identificator of state {@link BetState#WON_PAYED}</li>
+     * <li>2. Bet identificator {@link Bet#id}</li>
+     * <li>3. Identificator of state {@link BetState#WON_WAITING_FOR_PAY}</li>
      * </ul>
      * </p>
      */
     private final String WON_PAYED_BET_BY_ID_QUERY = "UPDATE bet SET "
-            + "bet.state_id = (SELECT bs.id FROM bet_state AS bs WHERE "
-            + "state = 'WON_PAYED') WHERE bet.id = ? AND bet.state_id = "
-            + "(SELECT bs.id FROM bet_state AS bs WHERE state = "
-            + "'WON_WAITING_FOR_PAY')";
+            + "bet.state_id = ? WHERE bet.id = ? AND bet.state_id = ?";
 
     /**
      * Query that is used to get amount on bet win.
@@ -305,135 +466,320 @@ public class MySqlBetDao implements BetDao {
             + "balance = balance + ? WHERE id = ?";
 
     /**
-     * Query that is used to decrease user balance with given value, user is
-     * selected by user identificator.
+     * Query that is used to charge bet amount off bet owner's balance.
      * <p>
-     * Decreases user balance with given value. User is selected by user
-     * identificator. Must be used as prepared statement.
+     * Decreases balance of user that is selected by user identificator only
+     * if it is not less than bet amount and race of beted contestant horse
+     * has no result yet. Updates no rows otherwise. Must be used as prepared
+     * statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Bet amount (must be positive) {@link Integer}</li>
+     * <li>2. User identificator {@link User#id}</li>
+     * <li>3. Bet amount (the same as 1st) {@link Integer}</li>
+     * <li>4. Contestant horse identificator
+     * {@link ua.epam.horseraceapp.util.dao.entity.ContestantHorse#id}</li>
+     * </ul>
+     * </p>
+     */
+    private final String CHARGE_BET_AMOUNT_QUERY = "UPDATE user SET "
+            + "balance = balance - ? WHERE id = ? AND balance >= ? AND EXISTS "
+            + "(SELECT 1 FROM contestant_horse WHERE contestant_horse.id = ? "
+            + "AND contestant_horse.position IS NULL)";
+
+    /**
+     * Query that is used to create bet whose amount is already charged.
+     * <p>
+     * Creates bet with {@link BetState#WAITING_FOR_ACCEPT} state only if race
+     * of beted contestant horse has no result yet. Creates no rows otherwise.
+     * Must be used as prepared statement.
      * </p>
      * <p>
      * As a prepared statement has next elements to be seted to work properly:
      * <ul>
-     * <li>1. Balance decrease value (must be positive) {@link Integer}</li>
+     * <li>1. Bet state identificator of
+     * {@link BetState#WAITING_FOR_ACCEPT}</li>
      * <li>2. User identificator {@link User#id}</li>
+     * <li>3. Bet amount (must be positive) {@link Integer}</li>
+     * <li>4. Contestant horse identificator
+     * {@link ua.epam.horseraceapp.util.dao.entity.ContestantHorse#id}</li>
      * </ul>
      * </p>
      */
-    private final String DECREASE_USER_BALANCE_QUERY = "UPDATE user SET "
-            + "balance = balance - ? WHERE id = ?";
+    private final String CREATE_PREPAID_BET_QUERY = "INSERT INTO bet (state_id, "
+            + "owner_id, amount, contestant_horse_id) SELECT ?, ?, ?, id "
+            + "FROM contestant_horse WHERE id = ? AND position IS NULL";
+
+    /**
+     * Query that is used to find out why bet amount was not charged.
+     * <p>
+     * Selects balance of user and position of contestant horse. Selects no
+     * rows if user or contestant horse doesn't exist. Must be used as
+     * prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. User identificator {@link User#id}</li>
+     * <li>2. Contestant horse identificator
+     * {@link ua.epam.horseraceapp.util.dao.entity.ContestantHorse#id}</li>
+     * </ul>
+     * </p>
+     */
+    private final String SELECT_BALANCE_AND_POSITION_QUERY = "SELECT u.balance, "
+            + "contestant_horse.position FROM user AS u, contestant_horse "
+            + "WHERE u.id = ? AND contestant_horse.id = ?";
+
+    /**
+     * Query that is used to set result of bet that is selected by it's
+     * identificator.
+     * <p>
+     * Changes bet state from {@link BetState#ACCEPTED} to
+     * {@link BetState#WON_WAITING_FOR_PAY} if beted horse is race winner or to
+     * {@link BetState#LOSE} otherwise. If bet with given identificator has
+     * state that differs from {@link BetState#ACCEPTED} or race results are
+     * not known - nothing performs. Must be used as prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Identificator of state {@link BetState#WON_WAITING_FOR_PAY}</li>
+     * <li>2. Identificator of state {@link BetState#LOSE}</li>
+     * <li>3. Bet identificator {@link Bet#id}</li>
+     * <li>4. Identificator of state {@link BetState#ACCEPTED}</li>
+     * </ul>
+     * </p>
+     */
+    private final String SETTLE_BET_BY_ID_QUERY = "UPDATE bet SET "
+            + "bet.state_id = CASE WHEN (SELECT ch.position FROM "
+            + "contestant_horse AS ch WHERE ch.id = bet.contestant_horse_id) = 1 "
+            + "THEN ? ELSE ? END WHERE bet.id = ? AND bet.state_id = ? "
+            + "AND (SELECT ch.position FROM contestant_horse AS ch "
+            + "WHERE ch.id = bet.contestant_horse_id) IS NOT NULL";
+
+    /**
+     * Query that is used to return bet amount to bet owner.
+     * <p>
+     * Increases balance of bet owner with bet amount. Bet is selected by it's
+     * identificator. Must be used as prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Bet identificator {@link Bet#id}</li>
+     * <li>2. Bet identificator {@link Bet#id}</li>
+     * </ul>
+     * </p>
+     */
+    private final String RETURN_BET_AMOUNT_BY_BET_ID_QUERY = "UPDATE user SET "
+            + "balance = balance + (SELECT bet.amount FROM bet WHERE bet.id = ?) "
+            + "WHERE id = (SELECT bet.owner_id FROM bet WHERE bet.id = ?)";
+
+    /**
+     * Query that is used to pay amount on bet win to bet owner.
+     * <p>
+     * Increases balance of bet owner with amount on bet win, calculated the
+     * same way as in {@link #GET_BET_ON_WIN_AMOUNT_BY_BET_ID_QUERY}. Bet is
+     * selected by it's identificator. Must be used as prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Bet identificator {@link Bet#id}</li>
+     * <li>2. Bet identificator {@link Bet#id}</li>
+     * </ul>
+     * </p>
+     */
+    private final String PAY_BET_ON_WIN_AMOUNT_BY_BET_ID_QUERY = "UPDATE user SET "
+            + "balance = balance + (SELECT floor(bet.amount * ch.coefficient) "
+            + "FROM bet JOIN contestant_horse AS ch ON bet.contestant_horse_id = ch.id "
+            + "WHERE bet.id = ?) "
+            + "WHERE id = (SELECT bet.owner_id FROM bet WHERE bet.id = ?)";
+
+    /**
+     * Connection manager to get connections from.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * Database identificators of bet states.
+     */
+    private final MySqlLookupIds lookupIds;
+
+    /**
+     * Fetch size that makes driver stream result rows instead of reading whole
+     * result into memory.
+     */
+    private final int streamingFetchSize;
+
+    /**
+     * Creates MySQL Bet DAO.
+     *
+     * @param connectionManager connection manager to get connections from
+     * @param lookupIds database identificators of bet states
+     * @param streamingFetchSize fetch size that makes driver stream result rows
+     */
+    MySqlBetDao(ConnectionManager connectionManager, MySqlLookupIds lookupIds, int streamingFetchSize) {
+        this.connectionManager = connectionManager;
+        this.lookupIds = lookupIds;
+        this.streamingFetchSize = streamingFetchSize;
+    }
 
     @Override
     public List<Bet> findUserBets(Integer userId) {
-        List<Bet> userBets = new ArrayList<>();
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
-        try (Connection connection = connectionManager.getConnection()) {
+        try (Connection connection = connectionManager.getReadOnlyConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL_BETS_BY_USER_ID_QUERY)) {
                 statement.setInt(1, userId);
 
                 ResultSet rs = statement.executeQuery();
 
-                while (rs.next()) {
-                    Integer betId = rs.getInt(1);
-                    User betOwner = getUserByUserId(userId);
-                    BetState betState = BetState.valueOf(rs.getString(2));
-                    Double coefficient = rs.getDouble(3);
-                    Integer amount = rs.getInt(4);
-                    String horseName = rs.getString(5);
-                    String racePlace = rs.getString(6);
-                    Timestamp raceTime = rs.getTimestamp(7);
-                    Timestamp betPlaceTime = rs.getTimestamp(8);
-                    Integer horsePosition = rs.getInt(9);
-                    horsePosition = horsePosition == 0 ? null : horsePosition;
-
-                    Bet bet = new Bet(betId, betOwner, betState, horseName, coefficient, amount, racePlace, raceTime, betPlaceTime, horsePosition);
-
-                    userBets.add(bet);
+                return readUserBets(rs, userId);
+            }
+        } catch (SQLException ex) {
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<Bet> findUserBets(Integer userId, Integer afterBetId, int pageSize) {
+        boolean firstPage = afterBetId == null;
+        String query = firstPage ? SELECT_FIRST_USER_BETS_PAGE_QUERY : SELECT_NEXT_USER_BETS_PAGE_QUERY;
+
+        try (Connection connection = connectionManager.getReadOnlyConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setInt(1, userId);
+                if (firstPage) {
+                    statement.setInt(2, pageSize);
+                } else {
+                    statement.setInt(2, afterBetId);
+                    statement.setInt(3, pageSize);
                 }
+
+                ResultSet rs = statement.executeQuery();
+
+                return readUserBets(rs, userId);
             }
         } catch (SQLException ex) {
         }
-        return userBets;
+        return new ArrayList<>();
     }
 
     @Override
     public List<Bet> findUnviewedBets() {
-        List<Bet> unviewedBets = new ArrayList<>();
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-        try (Connection connection = connectionManager.getConnection()) {
+        try (Connection connection = connectionManager.getReadOnlyConnection()) {
             try (Statement statement = connection.createStatement()) {
                 ResultSet rs = statement.executeQuery(GET_UNVIEWED_BETS_QUERY);
 
-                while (rs.next()) {
-                    Integer id = rs.getInt(1);
-                    BetState state = BetState.valueOf(rs.getString(2));
-                    User betOwner = getUserByUserId(rs.getInt(3));
-                    Integer amount = rs.getInt(4);
-                    Timestamp betPlaceTime = rs.getTimestamp(5);
-                    Double coefficient = rs.getDouble(6);
-                    String racePlace = rs.getString(7);
-                    Timestamp raceTime = rs.getTimestamp(8);
-                    String horseName = rs.getString(9);
-                    Integer position = rs.getInt(10);
-                    position = position == 0 ? null : position;
-
-                    Bet bet = new Bet(id, betOwner, state, horseName,
-                            coefficient, amount, racePlace, raceTime, betPlaceTime, position);
-
-                    unviewedBets.add(bet);
-                }
+                return readUnviewedBets(rs);
             }
         } catch (SQLException ex) {
         }
-        return unviewedBets;
+        return new ArrayList<>();
     }
 
     @Override
-    public boolean makeBet(Integer userId, Integer amount, Integer contestantHorseId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
+    public List<Bet> findUnviewedBets(Integer afterBetId, int pageSize) {
+        try (Connection connection = connectionManager.getReadOnlyConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(GET_UNVIEWED_BETS_PAGE_QUERY)) {
+                statement.setInt(1, afterBetId == null ? 0 : afterBetId);
+                statement.setInt(2, pageSize);
 
-        if (!checkUserBalance(userId, amount)) {
-            return false;
-        }
+                ResultSet rs = statement.executeQuery();
 
-        try (Connection connection = connectionManager.getConnection()) {
-            connection.setAutoCommit(false);
-            try (PreparedStatement createBetStatement = connection.prepareStatement(CREATE_BET_QUERY);
-                    PreparedStatement changeUserBalanceStatement = connection.prepareStatement(DECREASE_USER_BALANCE_QUERY)) {
+                return readUnviewedBets(rs);
+            }
+        } catch (SQLException ex) {
+        }
+        return new ArrayList<>();
+    }
 
-                changeUserBalanceStatement.setInt(1, amount);
-                changeUserBalanceStatement.setInt(2, userId);
+    @Override
+    public boolean streamBets(BetState state, BetRowHandler handler) {
+        String query = state == null ? STREAM_ALL_BETS_QUERY : STREAM_BETS_BY_STATE_QUERY;
 
-                createBetStatement.setString(1, BetState.WAITING_FOR_ACCEPT.name());
-                createBetStatement.setInt(2, userId);
-                createBetStatement.setInt(3, amount);
-                createBetStatement.setInt(4, contestantHorseId);
+        try (Connection connection = connectionManager.getReadOnlyConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(query,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(streamingFetchSize);
+                if (state != null) {
+                    statement.setInt(1, lookupIds.getBetStateId(state));
+                }
 
-                int userBalanceChangeResult = changeUserBalanceStatement.executeUpdate();
-                int createBetResult = createBetStatement.executeUpdate();
+                ResultSet rs = statement.executeQuery();
+                BetRow row = new BetRow();
 
-                if ((createBetResult > 0) && (userBalanceChangeResult > 0)) {
-                    connection.commit();
-                    return true;
+                while (rs.next()) {
+                    Timestamp raceTime = rs.getTimestamp(8);
+                    Timestamp betPlaceTime = rs.getTimestamp(9);
+                    row.set(rs.getInt(1), lookupIds.getBetState(rs.getInt(2)), rs.getInt(3),
+                            rs.getInt(4), rs.getDouble(5), rs.getInt(6), rs.getInt(7),
+                            raceTime == null ? 0 : raceTime.getTime(),
+                            betPlaceTime == null ? 0 : betPlaceTime.getTime(), rs.getInt(10));
+                    if (!handler.handleRow(row)) {
+                        break;
+                    }
                 }
-            } catch (SQLException ex) {
+                return true;
             }
-            connection.rollback();
         } catch (SQLException ex) {
         }
         return false;
     }
 
     @Override
-    public boolean acceptBet(Integer betId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
+    public boolean makeBet(Integer userId, Integer amount, Integer contestantHorseId) {
+        return placeBet(userId, amount, contestantHorseId) == BetPlacementResult.SUCCESS;
+    }
+
+    @Override
+    public BetPlacementResult placeBet(Integer userId, Integer amount, Integer contestantHorseId) {
+        List<BetPlacementResult> results = placeBatch(Collections.singletonList(
+                new BetRequest(userId, amount, contestantHorseId)));
+        return results == null ? BetPlacementResult.FAILED : results.get(0);
+    }
+
+    @Override
+    public List<BetPlacementResult> placeBets(List<BetRequest> requests) {
+        List<BetPlacementResult> results = placeBatch(requests);
+        if (results != null) {
+            return results;
+        }
+
+        results = new ArrayList<>(requests.size());
+        for (BetRequest request : requests) {
+            results.add(requests.size() == 1 ? BetPlacementResult.FAILED
+                    : placeBet(request.getUserId(), request.getAmount(), request.getContestantHorseId()));
+        }
+        return results;
+    }
+
+    @Override
+    public List<BetPlacementResult> placePrepaidBets(List<BetRequest> requests) {
+        List<BetPlacementResult> results = placePrepaidBatch(requests);
+        if (results != null) {
+            return results;
+        }
+
+        results = new ArrayList<>(requests.size());
+        for (BetRequest request : requests) {
+            List<BetPlacementResult> result = requests.size() == 1 ? null
+                    : placePrepaidBatch(Collections.singletonList(request));
+            results.add(result == null ? BetPlacementResult.FAILED : result.get(0));
+        }
+        return results;
+    }
 
+    @Override
+    public boolean acceptBet(Integer betId) {
         try (Connection connection = connectionManager.getConnection()) {
             connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(ACCEPT_BET_BY_ID_QUERY)) {
-                statement.setInt(1, betId);
+                setStateChange(statement, betId, BetState.WAITING_FOR_ACCEPT, BetState.ACCEPTED);
                 statement.executeUpdate();
                 connection.commit();
+                ReadYourWrites.recordBoundUserWrite();
                 return true;
             } catch (SQLException ex) {
                 connection.rollback();
@@ -445,28 +791,29 @@ public class MySqlBetDao implements BetDao {
 
     @Override
     public boolean declineBet(Integer betId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
-        try (Connection connection = connectionManager.getConnection()) {
-            connection.setAutoCommit(false);
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(connectionManager)) {
+            Connection connection = connectionManager.getConnection();
             try (PreparedStatement declineBetStatement = connection.prepareStatement(DECLINE_BET_BY_ID_QUERY);
                     PreparedStatement increaseUserBalanceStatement = connection.prepareStatement(INCREASE_USER_BALANCE_QUERY)) {
 
-                declineBetStatement.setInt(1, betId);
+                setStateChange(declineBetStatement, betId, BetState.WAITING_FOR_ACCEPT, BetState.DECLINED);
+                int betStateChangeResult = declineBetStatement.executeUpdate();
 
                 Integer betAmount = getBetAmount(betId);
                 Integer betOwnerId = getBetOwnerId(betId);
-                increaseUserBalanceStatement.setInt(1, betAmount);
-                increaseUserBalanceStatement.setInt(2, betOwnerId);
 
-                declineBetStatement.executeUpdate();
-                increaseUserBalanceStatement.executeUpdate();
+                if ((betStateChangeResult > 0) && (betAmount != null) && (betOwnerId != null)) {
+                    increaseUserBalanceStatement.setInt(1, betAmount);
+                    increaseUserBalanceStatement.setInt(2, betOwnerId);
 
-                connection.commit();
-                return true;
+                    if ((increaseUserBalanceStatement.executeUpdate() > 0) && unitOfWork.commit()) {
+                        ReadYourWrites.recordBoundUserWrite();
+                        return true;
+                    }
+                }
             } catch (SQLException ex) {
-                connection.rollback();
             }
+            unitOfWork.rollback();
         } catch (SQLException ex) {
         }
         return false;
@@ -474,15 +821,14 @@ public class MySqlBetDao implements BetDao {
 
     @Override
     public boolean loseBet(Integer betId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(LOSE_BET_BY_ID_QUERY)) {
-                statement.setInt(1, betId);
+                setStateChange(statement, betId, BetState.ACCEPTED, BetState.LOSE);
                 int updateResult = statement.executeUpdate();
                 if (updateResult != 0) {
                     connection.commit();
+                    ReadYourWrites.recordBoundUserWrite();
                     return true;
                 }
             } catch (SQLException ex) {
@@ -495,15 +841,14 @@ public class MySqlBetDao implements BetDao {
 
     @Override
     public boolean waitForPayBet(Integer betId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(UPDATE_TO_WON_WAITING_FOR_PAY_BET_BY_ID_QUERY)) {
-                statement.setInt(1, betId);
+                setStateChange(statement, betId, BetState.ACCEPTED, BetState.WON_WAITING_FOR_PAY);
                 int updateResult = statement.executeUpdate();
                 if (updateResult != 0) {
                     connection.commit();
+                    ReadYourWrites.recordBoundUserWrite();
                     return true;
                 }
             } catch (SQLException ex) {
@@ -516,39 +861,85 @@ public class MySqlBetDao implements BetDao {
 
     @Override
     public boolean payBet(Integer betId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
-        try (Connection connection = connectionManager.getConnection()) {
-            connection.setAutoCommit(false);
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(connectionManager)) {
+            Connection connection = connectionManager.getConnection();
             try (PreparedStatement changeBetStateStatement = connection.prepareStatement(WON_PAYED_BET_BY_ID_QUERY);
                     PreparedStatement changeUserBalanceStatement = connection.prepareStatement(INCREASE_USER_BALANCE_QUERY)) {
 
-                changeBetStateStatement.setInt(1, betId);
+                setStateChange(changeBetStateStatement, betId, BetState.WON_WAITING_FOR_PAY, BetState.WON_PAYED);
+                int betStateChangeResult = changeBetStateStatement.executeUpdate();
 
                 Integer betOnWinAmount = getBetOnWinAmount(betId);
                 Integer betOwnerId = getBetOwnerId(betId);
-                changeUserBalanceStatement.setInt(1, betOnWinAmount);
-                changeUserBalanceStatement.setInt(2, betOwnerId);
 
-                int betStateChangeResult = changeBetStateStatement.executeUpdate();
-                int userBalanceChangeResult = changeUserBalanceStatement.executeUpdate();
+                if ((betStateChangeResult > 0) && (betOnWinAmount != null) && (betOwnerId != null)) {
+                    changeUserBalanceStatement.setInt(1, betOnWinAmount);
+                    changeUserBalanceStatement.setInt(2, betOwnerId);
 
-                if ((betStateChangeResult > 0) && (userBalanceChangeResult > 0)) {
-                    connection.commit();
-                    return true;
+                    if ((changeUserBalanceStatement.executeUpdate() > 0) && unitOfWork.commit()) {
+                        ReadYourWrites.recordBoundUserWrite();
+                        return true;
+                    }
                 }
             } catch (SQLException ex) {
             }
-            connection.rollback();
+            unitOfWork.rollback();
         } catch (SQLException ex) {
         }
         return false;
     }
 
     @Override
-    public Integer getBetOnWinAmount(Integer betId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
+    public Map<Integer, Boolean> acceptBets(Collection<Integer> betIds) {
+        return changeBetStates(betIds, ACCEPT_BET_BY_ID_QUERY,
+                BetState.WAITING_FOR_ACCEPT, BetState.ACCEPTED, null);
+    }
 
+    @Override
+    public Map<Integer, Boolean> declineBets(Collection<Integer> betIds) {
+        return changeBetStates(betIds, DECLINE_BET_BY_ID_QUERY,
+                BetState.WAITING_FOR_ACCEPT, BetState.DECLINED, RETURN_BET_AMOUNT_BY_BET_ID_QUERY);
+    }
+
+    @Override
+    public Map<Integer, Boolean> settleBets(Collection<Integer> betIds) {
+        Map<Integer, Boolean> outcomes = createOutcomes(betIds);
+        if (outcomes.isEmpty()) {
+            return outcomes;
+        }
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(connectionManager)) {
+            Connection connection = connectionManager.getConnection();
+            try (PreparedStatement statement = connection.prepareStatement(SETTLE_BET_BY_ID_QUERY)) {
+                for (Integer betId : outcomes.keySet()) {
+                    statement.setInt(1, lookupIds.getBetStateId(BetState.WON_WAITING_FOR_PAY));
+                    statement.setInt(2, lookupIds.getBetStateId(BetState.LOSE));
+                    statement.setInt(3, betId);
+                    statement.setInt(4, lookupIds.getBetStateId(BetState.ACCEPTED));
+                    statement.addBatch();
+                }
+                readBatchResults(outcomes, statement.executeBatch());
+
+                if (unitOfWork.commit()) {
+                    ReadYourWrites.recordBoundUserWrite();
+                    return outcomes;
+                }
+            } catch (SQLException ex) {
+            }
+            unitOfWork.rollback();
+        } catch (SQLException ex) {
+        }
+        return createOutcomes(betIds);
+    }
+
+    @Override
+    public Map<Integer, Boolean> payBets(Collection<Integer> betIds) {
+        return changeBetStates(betIds, WON_PAYED_BET_BY_ID_QUERY,
+                BetState.WON_WAITING_FOR_PAY, BetState.WON_PAYED, PAY_BET_ON_WIN_AMOUNT_BY_BET_ID_QUERY);
+    }
+
+    @Override
+    public Integer getBetOnWinAmount(Integer betId) {
         try (Connection connection = connectionManager.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(GET_BET_ON_WIN_AMOUNT_BY_BET_ID_QUERY)) {
                 statement.setInt(1, betId);
@@ -566,8 +957,6 @@ public class MySqlBetDao implements BetDao {
 
     @Override
     public Integer getBetAmount(Integer betId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(GET_BET_AMOUNT_BY_BET_ID)) {
                 statement.setInt(1, betId);
@@ -585,8 +974,6 @@ public class MySqlBetDao implements BetDao {
 
     @Override
     public Integer getBetOwnerId(Integer betId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(GET_BET_OWNER_ID_BY_BET_ID_QUERY)) {
                 statement.setInt(1, betId);
@@ -602,37 +989,392 @@ public class MySqlBetDao implements BetDao {
     }
 
     /**
-     * Returns User by his identificator.
+     * Changes state of all bets with given identificators in one transaction.
      * <p>
-     * Uses {@link UserDao} to retrieve User.
+     * State changes are sent to database as one batch. If balance query is
+     * given - it is executed as second batch for each bet which state was
+     * changed. If any of balance changes fails - nothing performs.
      * </p>
      *
-     * @param userId user to get
-     * @return user by his identificator
+     * @param betIds identificators of bets to change state
+     * @param stateQuery query that changes state of one bet, with parameters
+     * as in {@link #setStateChange(PreparedStatement, Integer, BetState, BetState)}
+     * @param currentState state that bets must have to be changed
+     * @param newState state to set
+     * @param balanceQuery query that increases balance of bet owner, with bet
+     * identificator as both parameters, or <code>null</code>
+     * @return outcome of state change for each bet identificator
      */
-    private User getUserByUserId(Integer userId) {
-        DaoFactory factory = DaoFactory.getInstance(DaoFactory.DaoType.MySQL);
-        UserDao userDao = factory.createUserDao();
-        User user = userDao.getUserById(userId);
-        return user;
+    private Map<Integer, Boolean> changeBetStates(Collection<Integer> betIds, String stateQuery,
+            BetState currentState, BetState newState, String balanceQuery) {
+        Map<Integer, Boolean> outcomes = createOutcomes(betIds);
+        if (outcomes.isEmpty()) {
+            return outcomes;
+        }
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(connectionManager)) {
+            Connection connection = connectionManager.getConnection();
+            try (PreparedStatement statement = connection.prepareStatement(stateQuery)) {
+                for (Integer betId : outcomes.keySet()) {
+                    setStateChange(statement, betId, currentState, newState);
+                    statement.addBatch();
+                }
+                int changedBets = readBatchResults(outcomes, statement.executeBatch());
+
+                if ((balanceQuery == null) || (changedBets == 0)
+                        || changeBalances(connection, balanceQuery, outcomes)) {
+                    if (unitOfWork.commit()) {
+                        ReadYourWrites.recordBoundUserWrite();
+                        return outcomes;
+                    }
+                }
+            } catch (SQLException ex) {
+            }
+            unitOfWork.rollback();
+        } catch (SQLException ex) {
+        }
+        return createOutcomes(betIds);
     }
 
     /**
-     * Find user balance by given user identificator and check if it is greater
-     * or equals to given sum.
+     * Increases balances of owners of bets which state was changed.
      *
-     * @param userId identificator of user whose balance to be checked
-     * @param sum sum to assure on user's balance
-     * @return <code>true</code> if found such or greater sum on user's balance.
+     * @param connection connection to execute query with
+     * @param balanceQuery query that increases balance of bet owner, with bet
+     * identificator as both parameters
+     * @param outcomes outcomes of bet state changes
+     * @return <code>true</code> if balance of each owner was changed.
      * Otherwise <code>false</code>
+     * @throws SQLException if something went wrong with query execution
+     */
+    private boolean changeBalances(Connection connection, String balanceQuery,
+            Map<Integer, Boolean> outcomes) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(balanceQuery)) {
+            for (Map.Entry<Integer, Boolean> outcome : outcomes.entrySet()) {
+                if (outcome.getValue()) {
+                    statement.setInt(1, outcome.getKey());
+                    statement.setInt(2, outcome.getKey());
+                    statement.addBatch();
+                }
+            }
+            for (int updateCount : statement.executeBatch()) {
+                if (updateCount <= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Creates outcomes with <code>false</code> value for each distinct given
+     * bet identificator.
+     * <p>
+     * Outcomes are ordered as identificators were given. <code>null</code>
+     * identificators are skipped.
+     * </p>
+     *
+     * @param betIds bet identificators
+     * @return outcomes of bets
+     */
+    private Map<Integer, Boolean> createOutcomes(Collection<Integer> betIds) {
+        Map<Integer, Boolean> outcomes = new LinkedHashMap<>();
+        if (betIds != null) {
+            for (Integer betId : betIds) {
+                if (betId != null) {
+                    outcomes.put(betId, false);
+                }
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Places requested bets in one transaction.
+     * <p>
+     * Bet amounts are charged by one batch, then bets whose amounts were
+     * charged are created by another one. For each bet whose amount was not
+     * charged reason is found out.
+     * </p>
+     *
+     * @param requests requests to place bets
+     * @return result of placing each bet or <code>null</code> if whole batch
+     * failed and nothing was performed
+     */
+    private List<BetPlacementResult> placeBatch(List<BetRequest> requests) {
+        List<BetPlacementResult> results = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return results;
+        }
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(connectionManager)) {
+            Connection connection = connectionManager.getConnection();
+            try (PreparedStatement chargeStatement = connection.prepareStatement(CHARGE_BET_AMOUNT_QUERY);
+                    PreparedStatement createBetStatement = connection.prepareStatement(CREATE_BET_QUERY)) {
+
+                for (BetRequest request : requests) {
+                    chargeStatement.setInt(1, request.getAmount());
+                    chargeStatement.setInt(2, request.getUserId());
+                    chargeStatement.setInt(3, request.getAmount());
+                    chargeStatement.setInt(4, request.getContestantHorseId());
+                    chargeStatement.addBatch();
+                }
+                int[] chargeResults = chargeStatement.executeBatch();
+
+                for (int i = 0; i < requests.size(); i++) {
+                    BetRequest request = requests.get(i);
+                    if ((i < chargeResults.length) && (chargeResults[i] > 0)) {
+                        createBetStatement.setInt(1, lookupIds.getBetStateId(BetState.WAITING_FOR_ACCEPT));
+                        createBetStatement.setInt(2, request.getUserId());
+                        createBetStatement.setInt(3, request.getAmount());
+                        createBetStatement.setInt(4, request.getContestantHorseId());
+                        createBetStatement.addBatch();
+                        results.add(BetPlacementResult.SUCCESS);
+                    } else {
+                        results.add(findPlacementFailure(connection, request));
+                    }
+                }
+                if (results.contains(BetPlacementResult.SUCCESS)) {
+                    createBetStatement.executeBatch();
+                }
+
+                if (unitOfWork.commit()) {
+                    for (int i = 0; i < requests.size(); i++) {
+                        if (results.get(i) == BetPlacementResult.SUCCESS) {
+                            ReadYourWrites.recordWrite(requests.get(i).getUserId());
+                        }
+                    }
+                    return results;
+                }
+            } catch (SQLException ex) {
+            }
+            unitOfWork.rollback();
+        } catch (SQLException ex) {
+        }
+        return null;
+    }
+
+    /**
+     * Creates requested bets whose amounts are already charged in one
+     * transaction.
+     *
+     * @param requests requests to create bets
+     * @return result of creating each bet or <code>null</code> if whole batch
+     * failed and nothing was performed
+     */
+    private List<BetPlacementResult> placePrepaidBatch(List<BetRequest> requests) {
+        List<BetPlacementResult> results = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return results;
+        }
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(connectionManager)) {
+            Connection connection = connectionManager.getConnection();
+            try (PreparedStatement createBetStatement = connection.prepareStatement(CREATE_PREPAID_BET_QUERY)) {
+                for (BetRequest request : requests) {
+                    createBetStatement.setInt(1, lookupIds.getBetStateId(BetState.WAITING_FOR_ACCEPT));
+                    createBetStatement.setInt(2, request.getUserId());
+                    createBetStatement.setInt(3, request.getAmount());
+                    createBetStatement.setInt(4, request.getContestantHorseId());
+                    createBetStatement.addBatch();
+                }
+                int[] createBetResults = createBetStatement.executeBatch();
+
+                for (int i = 0; i < requests.size(); i++) {
+                    if ((i < createBetResults.length) && (createBetResults[i] > 0)) {
+                        results.add(BetPlacementResult.SUCCESS);
+                    } else {
+                        BetPlacementResult failure = findPlacementFailure(connection, requests.get(i));
+                        results.add(failure == BetPlacementResult.MARKET_CLOSED ? failure : BetPlacementResult.FAILED);
+                    }
+                }
+
+                if (unitOfWork.commit()) {
+                    for (int i = 0; i < requests.size(); i++) {
+                        if (results.get(i) == BetPlacementResult.SUCCESS) {
+                            ReadYourWrites.recordWrite(requests.get(i).getUserId());
+                        }
+                    }
+                    return results;
+                }
+            } catch (SQLException ex) {
+            }
+            unitOfWork.rollback();
+        } catch (SQLException ex) {
+        }
+        return null;
+    }
+
+    /**
+     * Finds out why bet amount was not charged.
+     *
+     * @param connection connection of current transaction
+     * @param request request to place bet
+     * @return reason why bet was not placed
+     * @throws SQLException if query failed
      */
-    private boolean checkUserBalance(Integer userId, Integer sum) {
-        DaoFactory factory = DaoFactory.getInstance(DaoFactory.DaoType.MySQL);
-        UserDao userDao = factory.createUserDao();
-        Integer userBalance = userDao.getUserBalance(userId);
-        if (userBalance == null) {
-            return false;
+    private BetPlacementResult findPlacementFailure(Connection connection, BetRequest request) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BALANCE_AND_POSITION_QUERY)) {
+            statement.setInt(1, request.getUserId());
+            statement.setInt(2, request.getContestantHorseId());
+
+            ResultSet rs = statement.executeQuery();
+            if (!rs.next()) {
+                return BetPlacementResult.FAILED;
+            }
+            if (rs.getObject(2) != null) {
+                return BetPlacementResult.MARKET_CLOSED;
+            }
+            if (rs.getInt(1) < request.getAmount()) {
+                return BetPlacementResult.INSUFFICIENT_FUNDS;
+            }
+            return BetPlacementResult.FAILED;
         }
-        return userBalance >= sum;
+    }
+
+    /**
+     * Sets outcomes of bets by update counts of executed batch.
+     * <p>
+     * Update counts must be in the same order as outcomes.
+     * </p>
+     *
+     * @param outcomes outcomes of bets
+     * @param updateCounts update counts of executed batch
+     * @return number of bets that were changed
+     */
+    private int readBatchResults(Map<Integer, Boolean> outcomes, int[] updateCounts) {
+        int changedBets = 0;
+        int i = 0;
+        for (Map.Entry<Integer, Boolean> outcome : outcomes.entrySet()) {
+            boolean changed = (i < updateCounts.length) && (updateCounts[i] > 0);
+            outcome.setValue(changed);
+            if (changed) {
+                changedBets++;
+            }
+            i++;
+        }
+        return changedBets;
+    }
+
+    /**
+     * Sets parameters of statement that changes state of bet.
+     * <p>
+     * Statement must have such parameters: identificator of new state, bet
+     * identificator, identificator of current state.
+     * </p>
+     *
+     * @param statement statement to set parameters
+     * @param betId identificator of bet to change state
+     * @param currentState state that bet must have to be changed
+     * @param newState state to set
+     * @throws SQLException if parameters can't be set
+     */
+    private void setStateChange(PreparedStatement statement, Integer betId,
+            BetState currentState, BetState newState) throws SQLException {
+        statement.setInt(1, lookupIds.getBetStateId(newState));
+        statement.setInt(2, betId);
+        statement.setInt(3, lookupIds.getBetStateId(currentState));
+    }
+
+    /**
+     * Reads bets of one user from given result set.
+     * <p>
+     * Result set must have such fields as
+     * {@link #SELECT_ALL_BETS_BY_USER_ID_QUERY} has.
+     * </p>
+     *
+     * @param rs result set to read
+     * @param userId identificator of user that owns bets
+     * @return bets of user
+     * @throws SQLException if bets can't be read
+     */
+    private List<Bet> readUserBets(ResultSet rs, Integer userId) throws SQLException {
+        List<Bet> userBets = new ArrayList<>();
+        User betOwner = null;
+
+        while (rs.next()) {
+            Integer betId = rs.getInt(1);
+            if (betOwner == null) {
+                betOwner = readUser(rs, userId, 10);
+            }
+            BetState betState = BetState.valueOf(rs.getString(2));
+            Double coefficient = rs.getDouble(3);
+            Integer amount = rs.getInt(4);
+            String horseName = rs.getString(5);
+            String racePlace = rs.getString(6);
+            Timestamp raceTime = rs.getTimestamp(7);
+            Timestamp betPlaceTime = rs.getTimestamp(8);
+            Integer horsePosition = rs.getInt(9);
+            horsePosition = horsePosition == 0 ? null : horsePosition;
+
+            Bet bet = new Bet(betId, betOwner, betState, horseName, coefficient, amount, racePlace, raceTime, betPlaceTime, horsePosition);
+
+            userBets.add(bet);
+        }
+        return userBets;
+    }
+
+    /**
+     * Reads unviewed bets from given result set.
+     * <p>
+     * Result set must have such fields as {@link #GET_UNVIEWED_BETS_QUERY}
+     * has.
+     * </p>
+     *
+     * @param rs result set to read
+     * @return unviewed bets
+     * @throws SQLException if bets can't be read
+     */
+    private List<Bet> readUnviewedBets(ResultSet rs) throws SQLException {
+        List<Bet> unviewedBets = new ArrayList<>();
+        Map<Integer, User> betOwners = new HashMap<>();
+
+        while (rs.next()) {
+            Integer id = rs.getInt(1);
+            BetState state = BetState.valueOf(rs.getString(2));
+            Integer betOwnerId = rs.getInt(3);
+            User betOwner = betOwners.get(betOwnerId);
+            if (betOwner == null) {
+                betOwner = readUser(rs, betOwnerId, 11);
+                betOwners.put(betOwnerId, betOwner);
+            }
+            Integer amount = rs.getInt(4);
+            Timestamp betPlaceTime = rs.getTimestamp(5);
+            Double coefficient = rs.getDouble(6);
+            String racePlace = rs.getString(7);
+            Timestamp raceTime = rs.getTimestamp(8);
+            String horseName = rs.getString(9);
+            Integer position = rs.getInt(10);
+            position = position == 0 ? null : position;
+
+            Bet bet = new Bet(id, betOwner, state, horseName,
+                    coefficient, amount, racePlace, raceTime, betPlaceTime, position);
+
+            unviewedBets.add(bet);
+        }
+        return unviewedBets;
+    }
+
+    /**
+     * Reads bet owner from current row of given result set.
+     * <p>
+     * Owner columns must go one after another in such order: first name, last
+     * name, email, password, balance, user type.
+     * </p>
+     *
+     * @param rs result set positioned on row to read
+     * @param userId bet owner identificator
+     * @param firstColumn index of column with owner first name
+     * @return bet owner
+     * @throws SQLException if columns can't be read
+     */
+    private User readUser(ResultSet rs, Integer userId, int firstColumn) throws SQLException {
+        String firstName = rs.getString(firstColumn);
+        String lastName = rs.getString(firstColumn + 1);
+        String email = rs.getString(firstColumn + 2);
+        String password = rs.getString(firstColumn + 3);
+        Integer balance = rs.getInt(firstColumn + 4);
+        UserType userType = UserType.valueOf(rs.getString(firstColumn + 5));
+        return new User(userId, firstName, lastName, email, password, balance, userType);
     }
 }
@@ -9,8 +9,9 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import ua.epam.horseraceapp.util.connection.ConnectionManager;
-import ua.epam.horseraceapp.util.connection.MySqlConnectionManager;
+import ua.epam.horseraceapp.util.connection.ReadYourWrites;
 import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
 import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
 import ua.epam.horseraceapp.util.dao.entity.Race;
 
@@ -114,12 +115,54 @@ public class MySqlContestantHorseDao implements ContestantHorseDao {
     private final String SET_RESULT_QUERY = "UPDATE contestant_horse SET "
             + "position = ? WHERE id = ?";
 
+    /**
+     * Query that is used to settle all accepted bets on contestant horse.
+     * <p>
+     * Changes state of all bets on contestant horse with given identificator
+     * from {@link BetState#ACCEPTED} to given state:
+     * {@link BetState#WON_WAITING_FOR_PAY} for winner and
+     * {@link BetState#LOSE} for other horses of race. Bets are found by index
+     * of contestant horse, so each horse is settled by one statement of
+     * batch. Must be used as a prepared statement.
+     * </p>
+     * <p>
+     * As a prepared statement has next elements to be seted to work properly:
+     * <ul>
+     * <li>1. Identificator of new state of bets</li>
+     * <li>2. Contestant horse identificator {@link ContestantHorse#id}</li>
+     * <li>3. Identificator of state {@link BetState#ACCEPTED}</li>
+     * </ul>
+     * </p>
+     */
+    private final String SETTLE_BETS_QUERY = "UPDATE bet SET "
+            + "state_id = ? WHERE contestant_horse_id = ? AND state_id = ?";
+
+    /**
+     * Connection manager to get connections from.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * Database identificators of bet states.
+     */
+    private final MySqlLookupIds lookupIds;
+
+    /**
+     * Creates MySQL ContestantHorse DAO.
+     *
+     * @param connectionManager connection manager to get connections from
+     * @param lookupIds database identificators of bet states
+     */
+    MySqlContestantHorseDao(ConnectionManager connectionManager, MySqlLookupIds lookupIds) {
+        this.connectionManager = connectionManager;
+        this.lookupIds = lookupIds;
+    }
+
     @Override
     public List<ContestantHorse> findAllHorsesByRaceId(Integer raceId) {
         List<ContestantHorse> horses = new ArrayList<>();
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
 
-        try (Connection connection = connectionManager.getConnection()) {
+        try (Connection connection = connectionManager.getReadOnlyConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL_HORSES_BY_RACE_ID_QUERY)) {
                 statement.setInt(1, raceId);
 
@@ -147,7 +190,6 @@ public class MySqlContestantHorseDao implements ContestantHorseDao {
     @Override
     public List<ContestantHorse> findAllHorsesWithoutResultByRaceId(Integer raceId) {
         List<ContestantHorse> horses = new ArrayList<>();
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
 
         try (Connection connection = connectionManager.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL_HORSES_WITHOUT_RESULT_BY_RACE_ID_QUERY)) {
@@ -176,11 +218,10 @@ public class MySqlContestantHorseDao implements ContestantHorseDao {
 
     @Override
     public boolean setResults(List<ContestantHorse> horsesInPositionOrder) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             connection.setAutoCommit(false);
-            try (PreparedStatement statement = connection.prepareStatement(SET_RESULT_QUERY)) {
+            try (PreparedStatement statement = connection.prepareStatement(SET_RESULT_QUERY);
+                    PreparedStatement betsStatement = connection.prepareStatement(SETTLE_BETS_QUERY)) {
                 Iterator<ContestantHorse> iterator = horsesInPositionOrder.iterator();
                 int currentPosition = 1;
                 while (iterator.hasNext()) {
@@ -190,9 +231,17 @@ public class MySqlContestantHorseDao implements ContestantHorseDao {
                     statement.setInt(1, position);
                     statement.setInt(2, contestantHorseId);
                     statement.addBatch();
+
+                    BetState betState = (position == 1) ? BetState.WON_WAITING_FOR_PAY : BetState.LOSE;
+                    betsStatement.setInt(1, lookupIds.getBetStateId(betState));
+                    betsStatement.setInt(2, contestantHorseId);
+                    betsStatement.setInt(3, lookupIds.getBetStateId(BetState.ACCEPTED));
+                    betsStatement.addBatch();
                 }
                 statement.executeBatch();
+                betsStatement.executeBatch();
                 connection.commit();
+                ReadYourWrites.recordBoundUserWrite();
                 return true;
             } catch (SQLException ex) {
                 connection.rollback();
@@ -1,36 +1,240 @@
 package ua.epam.horseraceapp.util.dao.mysql;
 
+import java.util.ArrayList;
+import java.util.List;
+import ua.epam.horseraceapp.util.connection.ConnectionManager;
+import ua.epam.horseraceapp.util.connection.InstrumentedConnectionManager;
+import ua.epam.horseraceapp.util.connection.MySqlConnectionManager;
+import ua.epam.horseraceapp.util.connection.PooledConnectionManager;
+import ua.epam.horseraceapp.util.connection.QueryNames;
+import ua.epam.horseraceapp.util.connection.ReplicatedConnectionManager;
+import ua.epam.horseraceapp.util.connection.SemaphoreConnectionManager;
+import ua.epam.horseraceapp.util.connection.StatementTimingConnectionManager;
 import ua.epam.horseraceapp.util.dao.BetDao;
 import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
 import ua.epam.horseraceapp.util.dao.DaoFactory;
 import ua.epam.horseraceapp.util.dao.RaceDao;
 import ua.epam.horseraceapp.util.dao.UserDao;
+import ua.epam.horseraceapp.util.metrics.MetricsRegistry;
 
 /**
  * DAO Factory implementation for MySQL database.
+ * <p>
+ * MySQL DAO have no state, so factory hands out the same DAO instances to all
+ * callers.
+ * </p>
+ * <p>
+ * By default connections are taken from container connection pool. If system
+ * property {@value #POOL_PROPERTY} is set to {@value #BUILTIN_POOL},
+ * {@link PooledConnectionManager} configured by system properties is used
+ * instead. Work of connection pool is measured by
+ * {@link InstrumentedConnectionManager}, which is registered in
+ * {@link MetricsRegistry}. Queries of all DAO are registered in
+ * {@link QueryNames}, so measurements are labeled by DAO constants.
+ * </p>
+ * <p>
+ * If system property {@value #REPLICAS_PROPERTY} is set, reads that allow it
+ * are routed to replicas of database by {@link ReplicatedConnectionManager}.
+ * Property lists replicas separated by commas: names of container connection
+ * pools, or database URLs if built-in pool is used.
+ * </p>
+ * <p>
+ * If system property {@value SemaphoreConnectionManager#PERMITS_PROPERTY} is
+ * set, number of connections held at once from each pool is limited by
+ * {@link SemaphoreConnectionManager}.
+ * </p>
+ * <p>
+ * If system property {@value StatementTimingConnectionManager#ENABLED_PROPERTY}
+ * is <code>true</code>, queries of all DAO are measured by
+ * {@link StatementTimingConnectionManager}, which names them after DAO
+ * constants and is registered in {@link MetricsRegistry}.
+ * </p>
  *
  * @see DaoFactory
  * @author Koroid Daniil
  */
 public class MySqlDaoFactory extends DaoFactory {
 
+    /**
+     * System property that selects connection pool.
+     */
+    public static final String POOL_PROPERTY = "horserace.mysql.pool";
+    /**
+     * Value of pool property that selects application's own connection pool.
+     */
+    public static final String BUILTIN_POOL = "builtin";
+    /**
+     * System property that lists replicas of database.
+     */
+    public static final String REPLICAS_PROPERTY = "horserace.mysql.replicas";
+    /**
+     * Fetch size that makes MySQL driver stream result rows one by one instead
+     * of reading whole result into memory.
+     */
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    /**
+     * Connection manager of all DAO.
+     */
+    private final ConnectionManager connectionManager;
+    /**
+     * Database identificators of bet states and user types.
+     */
+    private final MySqlLookupIds lookupIds;
+    /**
+     * ContestantHorse DAO instance.
+     */
+    private final ContestantHorseDao contestantHorseDao;
+    /**
+     * Race DAO instance.
+     */
+    private final RaceDao raceDao;
+    /**
+     * Bet DAO instance.
+     */
+    private final BetDao betDao;
+    /**
+     * User DAO instance.
+     */
+    private final UserDao userDao;
+    /**
+     * Balance store instance.
+     */
+    private final MySqlBalanceStore balanceStore;
+
+    /**
+     * Creates factory of DAO that work with MySQL connection pool of this
+     * application.
+     */
+    public MySqlDaoFactory() {
+        this(createConnectionManager(), MYSQL_STREAMING_FETCH_SIZE);
+    }
+
+    /**
+     * Creates factory of DAO that work with connections of given connection
+     * manager.
+     * <p>
+     * Used for databases that understand MySQL dialect.
+     * </p>
+     *
+     * @param connectionManager connection manager to get connections from
+     * @param streamingFetchSize fetch size that makes driver stream result rows
+     */
+    protected MySqlDaoFactory(ConnectionManager connectionManager, int streamingFetchSize) {
+        StatementTimingConnectionManager timed = null;
+        if (Boolean.getBoolean(StatementTimingConnectionManager.ENABLED_PROPERTY)) {
+            timed = new StatementTimingConnectionManager(connectionManager);
+            connectionManager = timed;
+        }
+        this.connectionManager = connectionManager;
+        lookupIds = new MySqlLookupIds(connectionManager);
+        contestantHorseDao = new MySqlContestantHorseDao(connectionManager, lookupIds);
+        raceDao = new MySqlRaceDao(connectionManager);
+        userDao = new MySqlUserDao(connectionManager, lookupIds);
+        betDao = new MySqlBetDao(connectionManager, lookupIds, streamingFetchSize);
+        balanceStore = new MySqlBalanceStore(connectionManager);
+
+        for (Object dao : new Object[]{lookupIds, contestantHorseDao, raceDao, userDao, betDao, balanceStore}) {
+            QueryNames.register(dao);
+        }
+        if (timed != null) {
+            MetricsRegistry.register(timed);
+        }
+    }
+
+    /**
+     * Creates instrumented connection manager of connection pool that is
+     * selected by system property {@value #POOL_PROPERTY}, together with
+     * replicas listed by system property {@value #REPLICAS_PROPERTY}.
+     *
+     * @return connection manager whose pools are registered in metrics
+     * registry
+     */
+    private static ConnectionManager createConnectionManager() {
+        boolean builtinPool = BUILTIN_POOL.equals(System.getProperty(POOL_PROPERTY));
+        ConnectionManager primary = instrument("mysql", builtinPool
+                ? PooledConnectionManager.fromSystemProperties()
+                : MySqlConnectionManager.getInstance());
+
+        String replicasProperty = System.getProperty(REPLICAS_PROPERTY, "").trim();
+        if (replicasProperty.isEmpty()) {
+            return primary;
+        }
+        List<ConnectionManager> replicas = new ArrayList<>();
+        for (String replica : replicasProperty.split("\\s*,\\s*")) {
+            replicas.add(instrument("mysql-replica-" + (replicas.size() + 1), builtinPool
+                    ? PooledConnectionManager.fromSystemProperties(replica)
+                    : new MySqlConnectionManager(replica)));
+        }
+        return new ReplicatedConnectionManager(primary, replicas);
+    }
+
+    /**
+     * Limits connection manager if limit is configured, wraps it into
+     * instrumented one and registers them in metrics registry.
+     *
+     * @param poolName name of pool, used as metric label
+     * @param connectionManager measured connection manager
+     * @return instrumented connection manager
+     */
+    private static ConnectionManager instrument(String poolName, ConnectionManager connectionManager) {
+        ConnectionManager limited = SemaphoreConnectionManager.limitIfConfigured(poolName, connectionManager);
+        if (limited instanceof SemaphoreConnectionManager) {
+            MetricsRegistry.register((SemaphoreConnectionManager) limited);
+        }
+        InstrumentedConnectionManager instrumented
+                = new InstrumentedConnectionManager(poolName, limited);
+        MetricsRegistry.register(instrumented);
+        return instrumented;
+    }
+
+    /**
+     * Loads database identificators of bet states and user types.
+     *
+     * @throws IllegalStateException if identificators can't be loaded or
+     * don't match {@link ua.epam.horseraceapp.util.dao.entity.BetState} and
+     * {@link ua.epam.horseraceapp.util.dao.entity.UserType}
+     */
+    @Override
+    public void initialize() {
+        lookupIds.load();
+    }
+
+    /**
+     * Closes connection pools and stops their background threads.
+     */
+    @Override
+    public void close() {
+        connectionManager.close();
+    }
+
     @Override
     public ContestantHorseDao createContestantHorseDao() {
-        return new MySqlContestantHorseDao();
+        return contestantHorseDao;
     }
 
     @Override
     public RaceDao createRaceDao() {
-        return new MySqlRaceDao();
+        return raceDao;
     }
 
     @Override
     public BetDao createBetDao() {
-        return new MySqlBetDao();
+        return betDao;
     }
 
     @Override
     public UserDao createUserDao() {
-        return new MySqlUserDao();
+        return userDao;
+    }
+
+    /**
+     * Get store that wallet ledger flushes balance changes to.
+     *
+     * @return balance store instance
+     * @see ua.epam.horseraceapp.util.dao.wallet.WalletDaoFactory
+     */
+    public MySqlBalanceStore createBalanceStore() {
+        return balanceStore;
     }
 }
@@ -0,0 +1,190 @@
+package ua.epam.horseraceapp.util.dao.mysql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.connection.ConnectionManager;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+import ua.epam.horseraceapp.util.dao.entity.UserType;
+
+/**
+ * Database identificators of bet states and user types.
+ * <p>
+ * Identificators are loaded from <code>bet_state</code> and
+ * <code>user_type</code> tables once and are never changed after that, so
+ * statements can bind them directly instead of looking them up by name.
+ * </p>
+ * <p>
+ * Loading fails if enumerations {@link BetState} and {@link UserType} and
+ * tables don't match each other.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class MySqlLookupIds {
+
+    /**
+     * Query that is used to select all bet states.
+     * <p>
+     * Returns such fields:
+     * <ul>
+     * <li>1. Bet state identificator</li>
+     * <li>2. Bet state name {@link BetState#name()}</li>
+     * </ul>
+     * </p>
+     */
+    private final String SELECT_ALL_BET_STATES_QUERY = "SELECT id, state FROM bet_state";
+
+    /**
+     * Query that is used to select all user types.
+     * <p>
+     * Returns such fields:
+     * <ul>
+     * <li>1. User type identificator</li>
+     * <li>2. User type name {@link UserType#name()}</li>
+     * </ul>
+     * </p>
+     */
+    private final String SELECT_ALL_USER_TYPES_QUERY = "SELECT id, user_type FROM user_type";
+
+    /**
+     * Connection manager to load identificators with.
+     */
+    private final ConnectionManager connectionManager;
+    /**
+     * Identificators of bet states.
+     */
+    private volatile Map<BetState, Integer> betStateIds;
+    /**
+     * Identificators of user types.
+     */
+    private volatile Map<UserType, Integer> userTypeIds;
+    /**
+     * Bet states by their identificators.
+     */
+    private volatile Map<Integer, BetState> betStatesById;
+
+    /**
+     * Creates lookup identificators that will be loaded with given connection
+     * manager.
+     *
+     * @param connectionManager connection manager to load identificators with
+     */
+    public MySqlLookupIds(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * Loads identificators if they are not loaded yet.
+     *
+     * @throws IllegalStateException if identificators can't be loaded or
+     * tables don't match enumerations
+     */
+    public void load() {
+        if (betStateIds != null) {
+            return;
+        }
+        synchronized (this) {
+            if (betStateIds != null) {
+                return;
+            }
+            try (Connection connection = connectionManager.getConnection()) {
+                if (connection == null) {
+                    throw new IllegalStateException("Can't get connection to load lookup identificators");
+                }
+                Map<UserType, Integer> loadedUserTypeIds = loadIds(connection, SELECT_ALL_USER_TYPES_QUERY, UserType.class);
+                Map<BetState, Integer> loadedBetStateIds = loadIds(connection, SELECT_ALL_BET_STATES_QUERY, BetState.class);
+                Map<Integer, BetState> loadedBetStatesById = new HashMap<>();
+                for (Map.Entry<BetState, Integer> entry : loadedBetStateIds.entrySet()) {
+                    loadedBetStatesById.put(entry.getValue(), entry.getKey());
+                }
+                userTypeIds = loadedUserTypeIds;
+                betStatesById = Collections.unmodifiableMap(loadedBetStatesById);
+                betStateIds = loadedBetStateIds;
+            } catch (SQLException ex) {
+                Logger log = Logger.getLogger(MySqlLookupIds.class);
+                log.error("Can't load lookup identificators", ex);
+                throw new IllegalStateException("Can't load lookup identificators", ex);
+            }
+        }
+    }
+
+    /**
+     * Get database identificator of given bet state.
+     *
+     * @param state bet state
+     * @return identificator of bet state
+     * @throws IllegalStateException if identificators can't be loaded
+     */
+    public int getBetStateId(BetState state) {
+        load();
+        return betStateIds.get(state);
+    }
+
+    /**
+     * Get bet state by its database identificator.
+     *
+     * @param stateId identificator of bet state
+     * @return bet state or <code>null</code> if there is no such state
+     * @throws IllegalStateException if identificators can't be loaded
+     */
+    public BetState getBetState(int stateId) {
+        load();
+        return betStatesById.get(stateId);
+    }
+
+    /**
+     * Get database identificator of given user type.
+     *
+     * @param type user type
+     * @return identificator of user type
+     * @throws IllegalStateException if identificators can't be loaded
+     */
+    public int getUserTypeId(UserType type) {
+        load();
+        return userTypeIds.get(type);
+    }
+
+    /**
+     * Loads identificators of all constants of given enumeration.
+     *
+     * @param <E> type of enumeration
+     * @param connection connection to load with
+     * @param query query that returns identificator and name of constant
+     * @param enumClass class of enumeration
+     * @return identificators of all constants of enumeration
+     * @throws SQLException if identificators can't be read
+     * @throws IllegalStateException if table and enumeration don't match
+     */
+    private <E extends Enum<E>> Map<E, Integer> loadIds(Connection connection, String query,
+            Class<E> enumClass) throws SQLException {
+        Map<E, Integer> ids = new EnumMap<>(enumClass);
+        try (Statement statement = connection.createStatement()) {
+            ResultSet rs = statement.executeQuery(query);
+
+            while (rs.next()) {
+                Integer id = rs.getInt(1);
+                String name = rs.getString(2);
+                try {
+                    ids.put(Enum.valueOf(enumClass, name), id);
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalStateException("Unknown " + enumClass.getSimpleName()
+                            + " in database: " + name, ex);
+                }
+            }
+        }
+        for (E constant : enumClass.getEnumConstants()) {
+            if (!ids.containsKey(constant)) {
+                throw new IllegalStateException(enumClass.getSimpleName() + "."
+                        + constant.name() + " is missing in database");
+            }
+        }
+        return Collections.unmodifiableMap(ids);
+    }
+}
@@ -9,7 +9,6 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import ua.epam.horseraceapp.util.connection.ConnectionManager;
-import ua.epam.horseraceapp.util.connection.MySqlConnectionManager;
 import ua.epam.horseraceapp.util.dao.RaceDao;
 import ua.epam.horseraceapp.util.dao.entity.ContestantHorse;
 import ua.epam.horseraceapp.util.dao.entity.Race;
@@ -105,12 +104,25 @@ public class MySqlRaceDao implements RaceDao {
     private final String SELECT_RACE_ID_BY_CONTESTANT_HORSE_ID_QUERY = "SELECT "
             + "race_id FROM contestant_horse WHERE id = ?";
 
+    /**
+     * Connection manager to get connections from.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * Creates MySQL Race DAO.
+     *
+     * @param connectionManager connection manager to get connections from
+     */
+    MySqlRaceDao(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
     @Override
     public List<Race> findAll() {
         List<Race> allRaces = new ArrayList<>();
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
 
-        try (Connection connection = connectionManager.getConnection()) {
+        try (Connection connection = connectionManager.getReadOnlyConnection()) {
             try (Statement query = connection.createStatement()) {
                 ResultSet rs = query.executeQuery(SELECT_ALL_QUERY);
 
@@ -126,7 +138,6 @@ public class MySqlRaceDao implements RaceDao {
     @Override
     public List<Race> findUnresultedRaces() {
         List<Race> unresultedRaces = new ArrayList<>();
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
         try (Connection connection = connectionManager.getConnection()) {
             try (Statement statement = connection.createStatement()) {
                 ResultSet rs = statement.executeQuery(SELECT_ALL_UNRESULTED_RACES_QUERY);
@@ -149,8 +160,7 @@ public class MySqlRaceDao implements RaceDao {
 
     @Override
     public Race findRaceById(Integer raceId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-        try (Connection connection = connectionManager.getConnection()) {
+        try (Connection connection = connectionManager.getReadOnlyConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(SELECT_RACE_BY_ID_QUERY)) {
                 statement.setInt(1, raceId);
 
@@ -173,7 +183,6 @@ public class MySqlRaceDao implements RaceDao {
 
     @Override
     public Integer getRaceIdByContestantHorseId(Integer contestantHorseId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
         try (Connection connection = connectionManager.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(SELECT_RACE_ID_BY_CONTESTANT_HORSE_ID_QUERY)) {
                 statement.setInt(1, contestantHorseId);
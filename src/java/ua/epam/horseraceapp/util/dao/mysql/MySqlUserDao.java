@@ -5,7 +5,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import ua.epam.horseraceapp.util.connection.ConnectionManager;
-import ua.epam.horseraceapp.util.connection.MySqlConnectionManager;
+import ua.epam.horseraceapp.util.connection.ReadYourWrites;
 import ua.epam.horseraceapp.util.dao.UserDao;
 import ua.epam.horseraceapp.util.dao.entity.User;
 import ua.epam.horseraceapp.util.dao.entity.UserType;
@@ -30,14 +30,12 @@ public class MySqlUserDao implements UserDao {
      * <li>3. User email {@link User#email}</li>
      * <li>4. User password {@link User#password}</li>
      * <li>5. User balance {@link User#balance}</li>
-     * <li>6. Name of user's type {@link UserType#name()}</li>
+     * <li>6. User type identificator {@link User#type}</li>
      * </ul>
      */
     private final String REGISTER_USER_QUERY = "INSERT INTO user (first_name, "
             + "last_name, email, password, balance, type_id) VALUES "
-            + "(?, ?, ?, ?, ?, "
-            + "(SELECT user_type.id FROM user_type WHERE user_type.user_type = ?)"
-            + ")";
+            + "(?, ?, ?, ?, ?, ?)";
 
     /**
      * Query that is used to get all info about user by his email.
@@ -60,10 +58,10 @@ public class MySqlUserDao implements UserDao {
      * <li>6. User type {@link User#type}</li>
      * </ul>
      */
-    private final String GET_USER_BY_EMAIL_QUERY = "SELECT user.id, user.first_name, "
-            + "user.last_name, user.password, user.balance, user_type.user_type "
-            + "FROM user JOIN user_type ON user.type_id = user_type.id "
-            + "WHERE user.email = ?";
+    private final String GET_USER_BY_EMAIL_QUERY = "SELECT u.id, u.first_name, "
+            + "u.last_name, u.password, u.balance, user_type.user_type "
+            + "FROM user AS u JOIN user_type ON u.type_id = user_type.id "
+            + "WHERE u.email = ?";
 
     /**
      * Query that is used to get all info about user by his identificator.
@@ -86,10 +84,10 @@ public class MySqlUserDao implements UserDao {
      * <li>6. User type {@link User#type}</li>
      * </ul>
      */
-    private final String GET_USER_BY_ID_QUERY = "SELECT user.first_name, "
-            + "user.last_name, user.email, user.password, user.balance, "
-            + "user_type.user_type FROM user JOIN user_type ON "
-            + "user.type_id = user_type.id WHERE user.id = ?";
+    private final String GET_USER_BY_ID_QUERY = "SELECT u.first_name, "
+            + "u.last_name, u.email, u.password, u.balance, "
+            + "user_type.user_type FROM user AS u JOIN user_type ON "
+            + "u.type_id = user_type.id WHERE u.id = ?";
 
     /**
      * Query that is used to get user balance by user identificator.
@@ -108,7 +106,7 @@ public class MySqlUserDao implements UserDao {
      * </ul>
      */
     private final String GET_USER_BALANCE_BY_USER_ID_QUERY = "SELECT "
-            + "user.balance FROM user WHERE user.id = ?";
+            + "u.balance FROM user AS u WHERE u.id = ?";
 
     /**
      * Query that is used to increase user balance with given value, user is
@@ -128,10 +126,29 @@ public class MySqlUserDao implements UserDao {
     private final String INCREASE_USER_BALANCE_QUERY = "UPDATE user SET balance "
             + "= balance + ? WHERE id = ?";
 
+    /**
+     * Connection manager to get connections from.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * Database identificators of user types.
+     */
+    private final MySqlLookupIds lookupIds;
+
+    /**
+     * Creates MySQL User DAO.
+     *
+     * @param connectionManager connection manager to get connections from
+     * @param lookupIds database identificators of user types
+     */
+    MySqlUserDao(ConnectionManager connectionManager, MySqlLookupIds lookupIds) {
+        this.connectionManager = connectionManager;
+        this.lookupIds = lookupIds;
+    }
+
     @Override
     public boolean registerUser(User user) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(REGISTER_USER_QUERY)) {
@@ -140,7 +157,7 @@ public class MySqlUserDao implements UserDao {
                 statement.setString(3, user.getEmail());
                 statement.setString(4, user.getPassword());
                 statement.setInt(5, user.getBalance());
-                statement.setString(6, user.getType().name());
+                statement.setInt(6, lookupIds.getUserTypeId(user.getType()));
 
                 int result = statement.executeUpdate();
 
@@ -158,8 +175,6 @@ public class MySqlUserDao implements UserDao {
 
     @Override
     public User getUserByEmail(String email) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(GET_USER_BY_EMAIL_QUERY)) {
                 statement.setString(1, email);
@@ -187,8 +202,6 @@ public class MySqlUserDao implements UserDao {
 
     @Override
     public User getUserById(Integer userId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(GET_USER_BY_ID_QUERY)) {
                 statement.setInt(1, userId);
@@ -216,8 +229,6 @@ public class MySqlUserDao implements UserDao {
 
     @Override
     public Integer getUserBalance(Integer userId) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(GET_USER_BALANCE_BY_USER_ID_QUERY)) {
                 statement.setInt(1, userId);
@@ -236,8 +247,6 @@ public class MySqlUserDao implements UserDao {
 
     @Override
     public boolean rechargeBalance(Integer userId, Integer rechargeAmount) {
-        ConnectionManager connectionManager = MySqlConnectionManager.getInstance();
-
         try (Connection connection = connectionManager.getConnection()) {
             connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(INCREASE_USER_BALANCE_QUERY)) {
@@ -248,6 +257,7 @@ public class MySqlUserDao implements UserDao {
 
                 if (updateResult != 0) {
                     connection.commit();
+                    ReadYourWrites.recordWrite(userId);
                     return true;
                 }
             } catch (SQLException ex) {
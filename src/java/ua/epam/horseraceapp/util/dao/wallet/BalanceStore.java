@@ -0,0 +1,37 @@
+package ua.epam.horseraceapp.util.dao.wallet;
+
+import java.util.Map;
+
+/**
+ * Database storage that wallet ledger flushes balance changes to.
+ * <p>
+ * Together with balance changes storage keeps sequence number of last
+ * journal record that was applied, so changes that were already applied
+ * are not applied again after restart.
+ * </p>
+ *
+ * @see WalletLedger
+ * @author Koroid Daniil
+ */
+public interface BalanceStore {
+
+    /**
+     * Get sequence number of last applied journal record.
+     *
+     * @return sequence number, <code>0</code> if nothing was applied yet, or
+     * <code>null</code> if it can't be read
+     */
+    Long getAppliedSequence();
+
+    /**
+     * Adds changes to user balances and sets sequence number of last applied
+     * journal record in one transaction.
+     *
+     * @param changes change of balance for each user identificator
+     * @param appliedSequence sequence number of last journal record whose
+     * change is included in given changes
+     * @return <code>true</code> if changes were applied. Otherwise
+     * <code>false</code> and nothing was changed
+     */
+    boolean applyChanges(Map<Integer, Long> changes, long appliedSequence);
+}
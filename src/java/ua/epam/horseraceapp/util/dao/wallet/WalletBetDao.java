@@ -0,0 +1,270 @@
+package ua.epam.horseraceapp.util.dao.wallet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.BetRequest;
+import ua.epam.horseraceapp.util.dao.BetRowHandler;
+import ua.epam.horseraceapp.util.dao.entity.Bet;
+import ua.epam.horseraceapp.util.dao.entity.BetState;
+import ua.epam.horseraceapp.util.dao.entity.User;
+
+/**
+ * Decorator of {@link BetDao} that keeps user balances in
+ * {@link WalletLedger}.
+ * <p>
+ * Bet amounts are charged by ledger, and decorated DAO only creates prepaid
+ * bets. Amount of bet that was not created is returned through ledger.
+ * </p>
+ * <p>
+ * Declined and paid bets are still credited by decorated DAO in database, and
+ * ledger is told about these credits. Owners of found bets get balance of
+ * ledger if it is already loaded there. Other methods are delegated to
+ * decorated DAO.
+ * </p>
+ *
+ * @see WalletDaoFactory
+ * @author Koroid Daniil
+ */
+public class WalletBetDao implements BetDao {
+
+    /**
+     * Decorated DAO.
+     */
+    private final BetDao betDao;
+    /**
+     * Ledger of balances.
+     */
+    private final WalletLedger ledger;
+
+    /**
+     * Creates wallet Bet DAO.
+     *
+     * @param betDao decorated DAO
+     * @param ledger ledger of balances
+     */
+    WalletBetDao(BetDao betDao, WalletLedger ledger) {
+        this.betDao = betDao;
+        this.ledger = ledger;
+    }
+
+    @Override
+    public List<Bet> findUserBets(Integer userId) {
+        return withLedgerBalances(betDao.findUserBets(userId));
+    }
+
+    @Override
+    public List<Bet> findUserBets(Integer userId, Integer afterBetId, int pageSize) {
+        return withLedgerBalances(betDao.findUserBets(userId, afterBetId, pageSize));
+    }
+
+    @Override
+    public List<Bet> findUnviewedBets() {
+        return withLedgerBalances(betDao.findUnviewedBets());
+    }
+
+    @Override
+    public List<Bet> findUnviewedBets(Integer afterBetId, int pageSize) {
+        return withLedgerBalances(betDao.findUnviewedBets(afterBetId, pageSize));
+    }
+
+    @Override
+    public boolean streamBets(BetState state, BetRowHandler handler) {
+        return betDao.streamBets(state, handler);
+    }
+
+    @Override
+    public boolean makeBet(Integer userId, Integer amount, Integer contestantHorseId) {
+        return placeBet(userId, amount, contestantHorseId) == BetPlacementResult.SUCCESS;
+    }
+
+    @Override
+    public BetPlacementResult placeBet(Integer userId, Integer amount, Integer contestantHorseId) {
+        return placeBets(Collections.singletonList(new BetRequest(userId, amount, contestantHorseId))).get(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Amounts are charged by ledger in the order requests were given, and
+     * journal of ledger is forced once for all of them. Then all charged
+     * bets are created by decorated DAO, so no bet is created with charge
+     * that can be lost.
+     * </p>
+     */
+    @Override
+    public List<BetPlacementResult> placeBets(List<BetRequest> requests) {
+        List<BetPlacementResult> results = new ArrayList<>(requests.size());
+        List<BetRequest> charged = new ArrayList<>(requests.size());
+        for (BetRequest request : requests) {
+            BetPlacementResult result = ledger.debitWithoutSync(request.getUserId(), request.getAmount());
+            results.add(result);
+            if (result == BetPlacementResult.SUCCESS) {
+                charged.add(request);
+            }
+        }
+        if (charged.isEmpty()) {
+            return results;
+        }
+        if (!ledger.sync()) {
+            for (BetRequest request : charged) {
+                ledger.creditWithoutSync(request.getUserId(), request.getAmount());
+            }
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == BetPlacementResult.SUCCESS) {
+                    results.set(i, BetPlacementResult.FAILED);
+                }
+            }
+            return results;
+        }
+
+        List<BetPlacementResult> creations = betDao.placePrepaidBets(charged);
+        int created = 0;
+        boolean refunded = false;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == BetPlacementResult.SUCCESS) {
+                BetRequest request = charged.get(created);
+                BetPlacementResult creation = creations.get(created++);
+                if (creation != BetPlacementResult.SUCCESS) {
+                    refunded |= ledger.creditWithoutSync(request.getUserId(), request.getAmount());
+                    results.set(i, creation);
+                }
+            }
+        }
+        if (refunded) {
+            ledger.sync();
+        }
+        return results;
+    }
+
+    @Override
+    public List<BetPlacementResult> placePrepaidBets(List<BetRequest> requests) {
+        return betDao.placePrepaidBets(requests);
+    }
+
+    @Override
+    public boolean acceptBet(Integer betId) {
+        return betDao.acceptBet(betId);
+    }
+
+    @Override
+    public boolean declineBet(Integer betId) {
+        return Boolean.TRUE.equals(declineBets(Collections.singletonList(betId)).get(betId));
+    }
+
+    @Override
+    public boolean loseBet(Integer betId) {
+        return betDao.loseBet(betId);
+    }
+
+    @Override
+    public boolean waitForPayBet(Integer betId) {
+        return betDao.waitForPayBet(betId);
+    }
+
+    @Override
+    public boolean payBet(Integer betId) {
+        return Boolean.TRUE.equals(payBets(Collections.singletonList(betId)).get(betId));
+    }
+
+    @Override
+    public Map<Integer, Boolean> acceptBets(Collection<Integer> betIds) {
+        return betDao.acceptBets(betIds);
+    }
+
+    @Override
+    public Map<Integer, Boolean> declineBets(Collection<Integer> betIds) {
+        return creditOwners(betIds, betDao::getBetAmount, betDao::declineBets);
+    }
+
+    @Override
+    public Map<Integer, Boolean> settleBets(Collection<Integer> betIds) {
+        return betDao.settleBets(betIds);
+    }
+
+    @Override
+    public Map<Integer, Boolean> payBets(Collection<Integer> betIds) {
+        return creditOwners(betIds, betDao::getBetOnWinAmount, betDao::payBets);
+    }
+
+    @Override
+    public Integer getBetOnWinAmount(Integer betId) {
+        return betDao.getBetOnWinAmount(betId);
+    }
+
+    @Override
+    public Integer getBetAmount(Integer betId) {
+        return betDao.getBetAmount(betId);
+    }
+
+    @Override
+    public Integer getBetOwnerId(Integer betId) {
+        return betDao.getBetOwnerId(betId);
+    }
+
+    /**
+     * Changes states of bets by decorated DAO, which credits their owners in
+     * database, and tells ledger about credits that were made.
+     *
+     * @param betIds identificators of bets
+     * @param creditAmount function that gets amount credited for bet
+     * @param change function that changes states of bets and credits owners
+     * @return outcome of change for each bet identificator
+     */
+    private Map<Integer, Boolean> creditOwners(Collection<Integer> betIds,
+            Function<Integer, Integer> creditAmount, Function<Collection<Integer>, Map<Integer, Boolean>> change) {
+        Map<Integer, Integer> owners = new HashMap<>();
+        Map<Integer, Integer> amounts = new HashMap<>();
+        for (Integer betId : betIds) {
+            Integer ownerId = betDao.getBetOwnerId(betId);
+            Integer amount = creditAmount.apply(betId);
+            if ((ownerId != null) && (amount != null)) {
+                owners.put(betId, ownerId);
+                amounts.put(betId, amount);
+            }
+        }
+
+        Set<Integer> ownerIds = new HashSet<>(owners.values());
+        Map<Integer, Long> credits = new HashMap<>();
+        ledger.beginExternalChanges(ownerIds);
+        try {
+            Map<Integer, Boolean> outcomes = change.apply(betIds);
+            for (Map.Entry<Integer, Integer> owner : owners.entrySet()) {
+                if (Boolean.TRUE.equals(outcomes.get(owner.getKey()))) {
+                    credits.merge(owner.getValue(), (long) amounts.get(owner.getKey()), Long::sum);
+                }
+            }
+            return outcomes;
+        } finally {
+            ledger.endExternalChanges(ownerIds, credits);
+        }
+    }
+
+    /**
+     * Replaces balances of bet owners with balances of ledger if they are
+     * loaded there.
+     *
+     * @param bets found bets
+     * @return the same bets
+     */
+    private List<Bet> withLedgerBalances(List<Bet> bets) {
+        for (Bet bet : bets) {
+            User owner = bet.getOwner();
+            if (owner != null) {
+                Integer balance = ledger.peekBalance(owner.getId());
+                if (balance != null) {
+                    owner.setBalance(balance);
+                }
+            }
+        }
+        return bets;
+    }
+}
@@ -0,0 +1,150 @@
+package ua.epam.horseraceapp.util.dao.wallet;
+
+import java.io.File;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.ContestantHorseDao;
+import ua.epam.horseraceapp.util.dao.DaoFactory;
+import ua.epam.horseraceapp.util.dao.RaceDao;
+import ua.epam.horseraceapp.util.dao.UserDao;
+import ua.epam.horseraceapp.util.dao.mysql.MySqlDaoFactory;
+
+/**
+ * DAO factory that decorates other DAO factory with wallet ledger.
+ * <p>
+ * User DAO and Bet DAO created by this factory keep user balances in one
+ * {@link WalletLedger}, which is owned by factory. Other DAO are created by
+ * decorated factory as is.
+ * </p>
+ * <p>
+ * Wallet is turned on by system property {@value #ENABLED_PROPERTY}. Journal
+ * files are kept in directory set by system property
+ * {@value #DIRECTORY_PROPERTY}, period of flushing balances to database is
+ * set by system property {@value #FLUSH_PERIOD_PROPERTY}.
+ * </p>
+ *
+ * @see WalletUserDao
+ * @see WalletBetDao
+ * @author Koroid Daniil
+ */
+public class WalletDaoFactory extends DaoFactory {
+
+    /**
+     * System property that turns wallet on.
+     */
+    public static final String ENABLED_PROPERTY = "horserace.wallet.enabled";
+    /**
+     * System property that sets directory of journal files.
+     */
+    public static final String DIRECTORY_PROPERTY = "horserace.wallet.dir";
+    /**
+     * System property that sets period of flushing balances in milliseconds.
+     */
+    public static final String FLUSH_PERIOD_PROPERTY = "horserace.wallet.flushPeriodMillis";
+    /**
+     * Default period of flushing balances in milliseconds.
+     */
+    public static final long DEFAULT_FLUSH_PERIOD_MILLIS = 1000;
+    /**
+     * Name of default directory of journal files in user home directory.
+     */
+    private static final String DEFAULT_DIRECTORY = "horserace-wallet";
+
+    /**
+     * Decorated factory.
+     */
+    private final DaoFactory factory;
+    /**
+     * Ledger of balances.
+     */
+    private final WalletLedger ledger;
+    /**
+     * User DAO instance.
+     */
+    private final UserDao userDao;
+    /**
+     * Bet DAO instance.
+     */
+    private final BetDao betDao;
+
+    /**
+     * Creates wallet factory.
+     *
+     * @param factory factory to decorate
+     * @param balanceStore database storage of balances
+     * @param directory directory of journal files
+     * @param flushPeriodMillis period of flushing balances in milliseconds
+     */
+    public WalletDaoFactory(DaoFactory factory, BalanceStore balanceStore, File directory, long flushPeriodMillis) {
+        this.factory = factory;
+        UserDao decoratedUserDao = factory.createUserDao();
+        ledger = new WalletLedger(decoratedUserDao, balanceStore, directory, flushPeriodMillis);
+        userDao = new WalletUserDao(decoratedUserDao, ledger);
+        betDao = new WalletBetDao(factory.createBetDao(), ledger);
+    }
+
+    /**
+     * Decorates factory with wallet if wallet is turned on by system property
+     * {@value #ENABLED_PROPERTY}.
+     * <p>
+     * Only MySQL factory can be decorated; other factories are returned as
+     * is.
+     * </p>
+     *
+     * @param factory factory to decorate
+     * @return wallet factory or given factory
+     */
+    public static DaoFactory decorateIfEnabled(DaoFactory factory) {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY) || !(factory instanceof MySqlDaoFactory)) {
+            return factory;
+        }
+        File directory = new File(System.getProperty(DIRECTORY_PROPERTY,
+                new File(System.getProperty("user.home"), DEFAULT_DIRECTORY).getPath()));
+        return new WalletDaoFactory(factory, ((MySqlDaoFactory) factory).createBalanceStore(), directory,
+                Long.getLong(FLUSH_PERIOD_PROPERTY, DEFAULT_FLUSH_PERIOD_MILLIS));
+    }
+
+    /**
+     * Get ledger of balances.
+     *
+     * @return ledger
+     */
+    public WalletLedger getLedger() {
+        return ledger;
+    }
+
+    @Override
+    public void initialize() {
+        factory.initialize();
+        ledger.open();
+    }
+
+    /**
+     * Flushes all balances to database and closes journal, then closes
+     * decorated factory.
+     */
+    @Override
+    public void close() {
+        ledger.close();
+        factory.close();
+    }
+
+    @Override
+    public ContestantHorseDao createContestantHorseDao() {
+        return factory.createContestantHorseDao();
+    }
+
+    @Override
+    public RaceDao createRaceDao() {
+        return factory.createRaceDao();
+    }
+
+    @Override
+    public BetDao createBetDao() {
+        return betDao;
+    }
+
+    @Override
+    public UserDao createUserDao() {
+        return userDao;
+    }
+}
@@ -0,0 +1,388 @@
+package ua.epam.horseraceapp.util.dao.wallet;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only journal of balance changes.
+ * <p>
+ * Every change is one record: sequence number, user identificator and change
+ * value. Records are written to file <code>wallet.&lt;generation&gt;</code>;
+ * ledger switches to next generation when it flushes changes, and deletes
+ * older generations when their changes are applied to database.
+ * </p>
+ * <p>
+ * Every record is written to file at once, so it survives crash of
+ * application. Records are forced to disk by {@link #sync()}, so records
+ * written after last sync may be lost if operating system crashes. One force
+ * covers records of all threads written before it, so threads that sync at
+ * the same time share it. Forcing doesn't hold lock of journal, so records
+ * are written while it is in progress.
+ * </p>
+ * <p>
+ * Journal is guarded by locks instead of monitors, so virtual thread that
+ * writes record is not pinned to its carrier thread while it waits for file.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+class WalletJournal {
+
+    /**
+     * Prefix of journal file names.
+     */
+    private static final String FILE_PREFIX = "wallet.";
+    /**
+     * Size of one record in bytes.
+     */
+    private static final int RECORD_SIZE = 8 + 4 + 8;
+
+    /**
+     * Lock of journal file and sequence numbers.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Lock of forcing files to disk, taken before lock of journal file.
+     */
+    private final ReentrantLock syncLock = new ReentrantLock();
+    /**
+     * Directory of journal files.
+     */
+    private final File directory;
+    /**
+     * Buffer to compose record in.
+     */
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    /**
+     * Stream of current journal file.
+     */
+    private FileOutputStream output;
+    /**
+     * Generation of current journal file.
+     */
+    private long generation;
+    /**
+     * Sequence number of last written record.
+     */
+    private long lastSequence;
+    /**
+     * Sequence number of last record forced to disk.
+     */
+    private volatile long syncedSequence;
+    /**
+     * Sequence number of last record of last closed file.
+     */
+    private long rotatedSequence;
+
+    /**
+     * Creates journal in given directory.
+     *
+     * @param directory directory of journal files
+     */
+    WalletJournal(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads records of all journal files with sequence numbers greater than
+     * given one.
+     * <p>
+     * Incomplete record at the end of file, left by crash, is ignored.
+     * </p>
+     *
+     * @param afterSequence sequence number of last record that must be
+     * skipped
+     * @return records in order of sequence numbers
+     * @throws IOException if journal files can't be read
+     */
+    List<Record> read(long afterSequence) throws IOException {
+        lock.lock();
+        try {
+            List<Record> records = new ArrayList<>();
+            for (long fileGeneration : listGenerations()) {
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                        new FileInputStream(getFile(fileGeneration))))) {
+                    while (true) {
+                        long sequence;
+                        int userId;
+                        long change;
+                        try {
+                            sequence = input.readLong();
+                            userId = input.readInt();
+                            change = input.readLong();
+                        } catch (EOFException ex) {
+                            break;
+                        }
+                        if (sequence > afterSequence) {
+                            records.add(new Record(sequence, userId, change));
+                        }
+                    }
+                }
+                generation = Math.max(generation, fileGeneration);
+            }
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes all journal files and starts new one.
+     *
+     * @param lastSequence sequence number that records of new file follow
+     * @throws IOException if journal file can't be created
+     */
+    void start(long lastSequence) throws IOException {
+        lock.lock();
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Can't create directory " + directory);
+            }
+            deleteUpTo(generation);
+            this.lastSequence = lastSequence;
+            syncedSequence = lastSequence;
+            rotatedSequence = lastSequence;
+            generation++;
+            output = new FileOutputStream(getFile(generation));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes record of balance change.
+     *
+     * @param userId user identificator
+     * @param change change of balance
+     * @return generation of file record was written to
+     * @throws IOException if record can't be written
+     */
+    long append(int userId, long change) throws IOException {
+        lock.lock();
+        try {
+            record.clear();
+            record.putLong(lastSequence + 1).putInt(userId).putLong(change);
+            output.write(record.array());
+            lastSequence++;
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces all records written before this call to disk.
+     * <p>
+     * Returns at once if they were already forced by other thread.
+     * </p>
+     *
+     * @throws IOException if records can't be forced
+     */
+    void sync() throws IOException {
+        long targetSequence = getLastSequence();
+        if (syncedSequence >= targetSequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (syncedSequence >= targetSequence) {
+                return;
+            }
+            FileOutputStream current;
+            long forcedSequence;
+            lock.lock();
+            try {
+                current = output;
+                forcedSequence = lastSequence;
+            } finally {
+                lock.unlock();
+            }
+            current.getFD().sync();
+            syncedSequence = forcedSequence;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Starts file of next generation and closes current journal file.
+     * <p>
+     * Records are written to new file as soon as it is started; closed file
+     * is forced to disk after that.
+     * </p>
+     *
+     * @return generation of closed file
+     * @throws IOException if file can't be closed or new file can't be
+     * created
+     */
+    long rotate() throws IOException {
+        syncLock.lock();
+        try {
+            FileOutputStream previous;
+            long closedGeneration;
+            long closedSequence;
+            lock.lock();
+            try {
+                FileOutputStream next = new FileOutputStream(getFile(generation + 1));
+                previous = output;
+                output = next;
+                closedGeneration = generation++;
+                closedSequence = lastSequence;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                previous.getFD().sync();
+            } finally {
+                previous.close();
+            }
+            syncedSequence = Math.max(syncedSequence, closedSequence);
+            rotatedSequence = closedSequence;
+            return closedGeneration;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Get sequence number of last record of file closed by last
+     * {@link #rotate()}.
+     *
+     * @return sequence number
+     */
+    long getRotatedSequence() {
+        syncLock.lock();
+        try {
+            return rotatedSequence;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Get sequence number of last written record.
+     *
+     * @return sequence number
+     */
+    long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes journal files up to given generation.
+     *
+     * @param lastGeneration generation of last file to delete
+     */
+    void deleteUpTo(long lastGeneration) {
+        lock.lock();
+        try {
+            for (long fileGeneration : listGenerations()) {
+                if (fileGeneration <= lastGeneration) {
+                    getFile(fileGeneration).delete();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes current journal file.
+     */
+    void close() {
+        syncLock.lock();
+        lock.lock();
+        try {
+            if (output != null) {
+                try {
+                    output.getFD().sync();
+                    output.close();
+                } catch (IOException ex) {
+                }
+                output = null;
+            }
+        } finally {
+            lock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Get journal file of given generation.
+     *
+     * @param fileGeneration generation of journal file
+     * @return journal file
+     */
+    private File getFile(long fileGeneration) {
+        return new File(directory, FILE_PREFIX + fileGeneration);
+    }
+
+    /**
+     * Lists generations of existing journal files in ascending order.
+     *
+     * @return generations of journal files
+     */
+    private List<Long> listGenerations() {
+        List<Long> generations = new ArrayList<>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(FILE_PREFIX)) {
+                    try {
+                        generations.add(Long.parseLong(name.substring(FILE_PREFIX.length())));
+                    } catch (NumberFormatException ex) {
+                    }
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Journal record of balance change.
+     */
+    static class Record {
+
+        /**
+         * Sequence number.
+         */
+        final long sequence;
+        /**
+         * User identificator.
+         */
+        final int userId;
+        /**
+         * Change of balance.
+         */
+        final long change;
+
+        /**
+         * Creates journal record.
+         *
+         * @param sequence sequence number
+         * @param userId user identificator
+         * @param change change of balance
+         */
+        Record(long sequence, int userId, long change) {
+            this.sequence = sequence;
+            this.userId = userId;
+            this.change = change;
+        }
+    }
+}
@@ -0,0 +1,644 @@
+package ua.epam.horseraceapp.util.dao.wallet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.log4j.Logger;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.UserDao;
+
+/**
+ * Ledger that keeps authoritative user balances in memory.
+ * <p>
+ * Balance of user is loaded from database when it is needed for the first
+ * time. After that balance checks, debits and credits don't touch database:
+ * every change is written to {@link WalletJournal} and applied to balance in
+ * memory. Users are guarded by striped locks, so changes of different users
+ * rarely wait for each other. Balance is loaded without lock of user, so slow
+ * database doesn't hold users that share the lock.
+ * </p>
+ * <p>
+ * Debit or credit is reported as done only after journal is forced to disk,
+ * outside of lock of user. DAO that changes balances of several users at once
+ * writes all changes first and forces journal once by {@link #sync()}.
+ * </p>
+ * <p>
+ * Changes are flushed to database periodically: journal is switched to next
+ * file, all changes of one user written to previous files are summed up and
+ * applied by one batch together with sequence number of last flushed journal
+ * record. Changes are taken user by user, so flush holds only one lock at a
+ * time. When ledger is opened, journal records that were
+ * not applied before crash are applied to database.
+ * </p>
+ * <p>
+ * Balances can also be changed in database directly, as bet DAO does when
+ * bets are declined or paid. Such change must be enclosed in
+ * {@link #beginExternalChanges(Collection)} and
+ * {@link #endExternalChanges(Collection, Map)} calls, so that loaded balances
+ * follow it and balances are not loaded while it is in progress.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class WalletLedger {
+
+    /**
+     * Number of lock stripes.
+     */
+    private static final int STRIPE_COUNT = 64;
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Logger.getLogger(WalletLedger.class);
+
+    /**
+     * DAO to load balances with.
+     */
+    private final UserDao userDao;
+    /**
+     * Database storage of balances.
+     */
+    private final BalanceStore balanceStore;
+    /**
+     * Journal of balance changes.
+     */
+    private final WalletJournal journal;
+    /**
+     * Period of flushes in milliseconds.
+     */
+    private final long flushPeriodMillis;
+    /**
+     * Lock stripes.
+     */
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPE_COUNT];
+    /**
+     * Conditions of lock stripes that are signalled when external changes
+     * end.
+     */
+    private final Condition[] externalChangesEnded = new Condition[STRIPE_COUNT];
+    /**
+     * Number of external changes begun by stripe index, used to detect
+     * change that begun while balance was loaded; guarded by stripes.
+     */
+    private final long[] externalChangesBegun = new long[STRIPE_COUNT];
+    /**
+     * Lock of flushes.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    /**
+     * Loaded accounts by user identificator.
+     */
+    private final Map<Integer, Account> accounts = new ConcurrentHashMap<>();
+    /**
+     * Number of external changes in progress by user identificator; guarded
+     * by user's stripe.
+     */
+    private final Map<Integer, Integer> externalChanges = new ConcurrentHashMap<>();
+    /**
+     * Executor of periodic flushes.
+     */
+    private ScheduledExecutorService flusher;
+    /**
+     * Whether ledger is opened.
+     */
+    private volatile boolean opened;
+
+    /**
+     * Creates ledger.
+     *
+     * @param userDao DAO to load balances with
+     * @param balanceStore database storage of balances
+     * @param directory directory of journal files
+     * @param flushPeriodMillis period of flushes in milliseconds
+     */
+    public WalletLedger(UserDao userDao, BalanceStore balanceStore, File directory, long flushPeriodMillis) {
+        this.userDao = userDao;
+        this.balanceStore = balanceStore;
+        this.journal = new WalletJournal(directory);
+        this.flushPeriodMillis = flushPeriodMillis;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ReentrantLock();
+            externalChangesEnded[i] = stripes[i].newCondition();
+        }
+    }
+
+    /**
+     * Applies journal records left from previous run to database and starts
+     * periodic flushes.
+     * <p>
+     * Does nothing if ledger is already opened.
+     * </p>
+     *
+     * @throws IllegalStateException if journal can't be read or applied
+     */
+    public synchronized void open() {
+        if (opened) {
+            return;
+        }
+        Long appliedSequence = balanceStore.getAppliedSequence();
+        if (appliedSequence == null) {
+            throw new IllegalStateException("Can't read applied sequence of wallet journal");
+        }
+        try {
+            List<WalletJournal.Record> records = journal.read(appliedSequence);
+            long lastSequence = appliedSequence;
+            if (!records.isEmpty()) {
+                Map<Integer, Long> changes = new HashMap<>();
+                for (WalletJournal.Record record : records) {
+                    changes.merge(record.userId, record.change, Long::sum);
+                    lastSequence = Math.max(lastSequence, record.sequence);
+                }
+                if (!balanceStore.applyChanges(changes, lastSequence)) {
+                    throw new IllegalStateException("Can't apply wallet journal");
+                }
+                LOG.info("Applied " + records.size() + " wallet journal records");
+            }
+            journal.start(lastSequence);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Can't read wallet journal", ex);
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "horserace-wallet-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushPeriodMillis, flushPeriodMillis, TimeUnit.MILLISECONDS);
+        opened = true;
+    }
+
+    /**
+     * Stops periodic flushes, flushes all changes and closes journal.
+     */
+    public synchronized void close() {
+        if (!opened) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushPeriodMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        journal.close();
+        opened = false;
+    }
+
+    /**
+     * Get balance of user.
+     *
+     * @param userId user identificator
+     * @return user balance or <code>null</code> if user is not found
+     */
+    public Integer getBalance(Integer userId) {
+        ensureOpened();
+        Account account = loadAccount(userId);
+        if (account == null) {
+            return null;
+        }
+        ReentrantLock stripe = lock(userId);
+        try {
+            return (int) account.balance;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Get balance of user if it is already loaded.
+     * <p>
+     * Never touches database.
+     * </p>
+     *
+     * @param userId user identificator
+     * @return user balance or <code>null</code> if it is not loaded
+     */
+    public Integer peekBalance(Integer userId) {
+        ReentrantLock stripe = lock(userId);
+        try {
+            Account account = accounts.get(userId);
+            return account == null ? null : (int) account.balance;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Charges amount off user balance if balance is not less than amount.
+     *
+     * @param userId user identificator
+     * @param amount amount to charge
+     * @return {@link BetPlacementResult#SUCCESS} if amount was charged,
+     * {@link BetPlacementResult#INSUFFICIENT_FUNDS} if balance is less than
+     * amount, {@link BetPlacementResult#FAILED} if user is not found or
+     * change can't be written to journal
+     */
+    public BetPlacementResult debit(Integer userId, int amount) {
+        BetPlacementResult result = debitWithoutSync(userId, amount);
+        if ((result == BetPlacementResult.SUCCESS) && !sync()) {
+            creditWithoutSync(userId, amount);
+            return BetPlacementResult.FAILED;
+        }
+        return result;
+    }
+
+    /**
+     * Adds amount to user balance.
+     *
+     * @param userId user identificator
+     * @param amount amount to add
+     * @return <code>true</code> if amount was added. Otherwise
+     * <code>false</code>
+     */
+    public boolean credit(Integer userId, int amount) {
+        if (!creditWithoutSync(userId, amount)) {
+            return false;
+        }
+        if (!sync()) {
+            debitWithoutSync(userId, amount);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Charges amount off user balance like {@link #debit(Integer, int)}, but
+     * doesn't force journal to disk.
+     * <p>
+     * Change must be forced by {@link #sync()} before it is reported as done.
+     * </p>
+     *
+     * @param userId user identificator
+     * @param amount amount to charge
+     * @return the same as {@link #debit(Integer, int)}
+     */
+    BetPlacementResult debitWithoutSync(Integer userId, int amount) {
+        ensureOpened();
+        Account account = loadAccount(userId);
+        if (account == null) {
+            return BetPlacementResult.FAILED;
+        }
+        ReentrantLock stripe = lock(userId);
+        try {
+            if (account.balance < amount) {
+                return BetPlacementResult.INSUFFICIENT_FUNDS;
+            }
+            return change(userId, account, -amount) ? BetPlacementResult.SUCCESS : BetPlacementResult.FAILED;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Adds amount to user balance like {@link #credit(Integer, int)}, but
+     * doesn't force journal to disk.
+     * <p>
+     * Change must be forced by {@link #sync()} before it is reported as done.
+     * </p>
+     *
+     * @param userId user identificator
+     * @param amount amount to add
+     * @return <code>true</code> if amount was added. Otherwise
+     * <code>false</code>
+     */
+    boolean creditWithoutSync(Integer userId, int amount) {
+        ensureOpened();
+        Account account = loadAccount(userId);
+        if (account == null) {
+            return false;
+        }
+        ReentrantLock stripe = lock(userId);
+        try {
+            return change(userId, account, amount);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Forces all changes written to journal to disk.
+     *
+     * @return <code>true</code> if changes were forced. Otherwise
+     * <code>false</code>
+     */
+    boolean sync() {
+        try {
+            journal.sync();
+            return true;
+        } catch (IOException ex) {
+            LOG.error("Can't force wallet journal", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Marks that balances of given users are going to be changed in database
+     * directly.
+     * <p>
+     * Until {@link #endExternalChanges(Collection, Map)} is called, balances
+     * of these users that are not loaded yet will not be loaded.
+     * </p>
+     *
+     * @param userIds identificators of users whose balances are going to be
+     * changed
+     */
+    public void beginExternalChanges(Collection<Integer> userIds) {
+        for (Integer userId : userIds) {
+            ReentrantLock stripe = lock(userId);
+            try {
+                externalChanges.merge(userId, 1, Integer::sum);
+                externalChangesBegun[stripeIndex(userId)]++;
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies changes that were made in database directly to loaded balances.
+     *
+     * @param userIds identificators of users that were given to
+     * {@link #beginExternalChanges(Collection)}
+     * @param changes changes of balances that were made, by user
+     * identificator
+     */
+    public void endExternalChanges(Collection<Integer> userIds, Map<Integer, Long> changes) {
+        for (Integer userId : userIds) {
+            ReentrantLock stripe = lock(userId);
+            try {
+                Account account = accounts.get(userId);
+                Long change = changes.get(userId);
+                if ((account != null) && (change != null)) {
+                    account.balance += change;
+                    changes.remove(userId);
+                }
+                if (externalChanges.merge(userId, -1, Integer::sum) == 0) {
+                    externalChanges.remove(userId);
+                    externalChangesEnded[stripeIndex(userId)].signalAll();
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes changes that were made since last flush to database.
+     * <p>
+     * Changes that can't be flushed stay in memory and are flushed next time.
+     * </p>
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (!opened) {
+                return;
+            }
+            long flushedGeneration;
+            try {
+                flushedGeneration = journal.rotate();
+            } catch (IOException ex) {
+                LOG.error("Can't rotate wallet journal", ex);
+                return;
+            }
+            long flushedSequence = journal.getRotatedSequence();
+
+            Map<Integer, Long> changes = new HashMap<>();
+            for (Map.Entry<Integer, Account> entry : accounts.entrySet()) {
+                ReentrantLock stripe = lock(entry.getKey());
+                try {
+                    long change = entry.getValue().takeChanges(flushedGeneration);
+                    if (change != 0) {
+                        changes.put(entry.getKey(), change);
+                    }
+                } finally {
+                    stripe.unlock();
+                }
+            }
+
+            if (balanceStore.applyChanges(changes, flushedSequence)) {
+                journal.deleteUpTo(flushedGeneration);
+                return;
+            }
+            LOG.error("Can't flush " + changes.size() + " wallet balance changes");
+            for (Map.Entry<Integer, Long> change : changes.entrySet()) {
+                ReentrantLock stripe = lock(change.getKey());
+                try {
+                    accounts.get(change.getKey()).unflushed += change.getValue();
+                } finally {
+                    stripe.unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Opens ledger if it is not opened yet.
+     */
+    private void ensureOpened() {
+        if (!opened) {
+            open();
+        }
+    }
+
+    /**
+     * Locks stripe of user.
+     *
+     * @param userId user identificator
+     * @return locked stripe
+     */
+    private ReentrantLock lock(Integer userId) {
+        ReentrantLock stripe = stripes[stripeIndex(userId)];
+        stripe.lock();
+        return stripe;
+    }
+
+    /**
+     * Get index of stripe of user.
+     *
+     * @param userId user identificator
+     * @return index of stripe
+     */
+    private int stripeIndex(Integer userId) {
+        return Math.floorMod(userId, STRIPE_COUNT);
+    }
+
+    /**
+     * Get account of user, loading it from database if it is not loaded yet.
+     * <p>
+     * Must be called without user's stripe locked, as balance is read from
+     * database without lock. Waits while balance of user is being changed in
+     * database directly, and reads it again if such change began while it was
+     * read. If several threads load the same account, the first loaded one is
+     * kept.
+     * </p>
+     *
+     * @param userId user identificator
+     * @return account or <code>null</code> if user is not found
+     */
+    private Account loadAccount(Integer userId) {
+        Account account = accounts.get(userId);
+        if (account != null) {
+            return account;
+        }
+        int stripeIndex = stripeIndex(userId);
+        while (true) {
+            long begunBefore;
+            ReentrantLock stripe = lock(userId);
+            try {
+                awaitExternalChanges(userId);
+                begunBefore = externalChangesBegun[stripeIndex];
+            } finally {
+                stripe.unlock();
+            }
+
+            Integer balance = userDao.getUserBalance(userId);
+            if (balance == null) {
+                return null;
+            }
+
+            stripe = lock(userId);
+            try {
+                account = accounts.get(userId);
+                if (account != null) {
+                    return account;
+                }
+                if (externalChangesBegun[stripeIndex] == begunBefore) {
+                    account = new Account(balance);
+                    accounts.put(userId, account);
+                    return account;
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits while balance of user is being changed in database directly.
+     * <p>
+     * Must be called with user's stripe locked.
+     * </p>
+     *
+     * @param userId user identificator
+     */
+    private void awaitExternalChanges(Integer userId) {
+        boolean interrupted = false;
+        while (externalChanges.containsKey(userId)) {
+            try {
+                externalChangesEnded[stripeIndex(userId)].await();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes balance change to journal and applies it to account.
+     * <p>
+     * Must be called with user's stripe locked.
+     * </p>
+     *
+     * @param userId user identificator
+     * @param account account of user
+     * @param change change of balance
+     * @return <code>true</code> if change was applied, <code>false</code> if
+     * it can't be written to journal
+     */
+    private boolean change(Integer userId, Account account, long change) {
+        long generation;
+        try {
+            generation = journal.append(userId, change);
+        } catch (IOException ex) {
+            LOG.error("Can't write wallet journal", ex);
+            return false;
+        }
+        account.balance += change;
+        account.addPending(generation, change);
+        return true;
+    }
+
+    /**
+     * Balance of one user; guarded by user's stripe.
+     */
+    private static class Account {
+
+        /**
+         * Current balance.
+         */
+        private long balance;
+        /**
+         * Sum of changes written to journal file of generation
+         * {@link #pendingGeneration} that are not flushed to database yet.
+         */
+        private long pending;
+        /**
+         * Generation of journal file that changes of {@link #pending} were
+         * written to.
+         */
+        private long pendingGeneration;
+        /**
+         * Sum of changes written to journal files of older generations that
+         * are not flushed to database yet.
+         */
+        private long unflushed;
+
+        /**
+         * Creates account with balance loaded from database.
+         *
+         * @param balance balance loaded from database
+         */
+        private Account(long balance) {
+            this.balance = balance;
+        }
+
+        /**
+         * Adds change that was written to journal.
+         *
+         * @param generation generation of journal file change was written to
+         * @param change change of balance
+         */
+        private void addPending(long generation, long change) {
+            if (generation != pendingGeneration) {
+                unflushed += pending;
+                pending = 0;
+                pendingGeneration = generation;
+            }
+            pending += change;
+        }
+
+        /**
+         * Takes sum of changes written to journal files up to given
+         * generation; they are not pending after that.
+         *
+         * @param lastGeneration generation of last journal file to take
+         * changes of
+         * @return sum of taken changes
+         */
+        private long takeChanges(long lastGeneration) {
+            long change = unflushed;
+            unflushed = 0;
+            if (pendingGeneration <= lastGeneration) {
+                change += pending;
+                pending = 0;
+            }
+            return change;
+        }
+    }
+}
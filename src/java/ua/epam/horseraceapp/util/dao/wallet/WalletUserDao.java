@@ -0,0 +1,85 @@
+package ua.epam.horseraceapp.util.dao.wallet;
+
+import ua.epam.horseraceapp.util.connection.ReadYourWrites;
+import ua.epam.horseraceapp.util.dao.UserDao;
+import ua.epam.horseraceapp.util.dao.entity.User;
+
+/**
+ * Decorator of {@link UserDao} that keeps user balances in
+ * {@link WalletLedger}.
+ * <p>
+ * Balances are read from and recharged through ledger. Found users get
+ * balance of ledger if it is already loaded there. Other methods are
+ * delegated to decorated DAO.
+ * </p>
+ *
+ * @see WalletDaoFactory
+ * @author Koroid Daniil
+ */
+public class WalletUserDao implements UserDao {
+
+    /**
+     * Decorated DAO.
+     */
+    private final UserDao userDao;
+    /**
+     * Ledger of balances.
+     */
+    private final WalletLedger ledger;
+
+    /**
+     * Creates wallet User DAO.
+     *
+     * @param userDao decorated DAO
+     * @param ledger ledger of balances
+     */
+    WalletUserDao(UserDao userDao, WalletLedger ledger) {
+        this.userDao = userDao;
+        this.ledger = ledger;
+    }
+
+    @Override
+    public boolean registerUser(User user) {
+        return userDao.registerUser(user);
+    }
+
+    @Override
+    public User getUserByEmail(String email) {
+        return withLedgerBalance(userDao.getUserByEmail(email));
+    }
+
+    @Override
+    public User getUserById(Integer userId) {
+        return withLedgerBalance(userDao.getUserById(userId));
+    }
+
+    @Override
+    public Integer getUserBalance(Integer userId) {
+        return ledger.getBalance(userId);
+    }
+
+    @Override
+    public boolean rechargeBalance(Integer userId, Integer rechargeAmount) {
+        if (ledger.credit(userId, rechargeAmount)) {
+            ReadYourWrites.recordWrite(userId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replaces balance of user with balance of ledger if it is loaded there.
+     *
+     * @param user found user, may be <code>null</code>
+     * @return the same user
+     */
+    private User withLedgerBalance(User user) {
+        if (user != null) {
+            Integer balance = ledger.peekBalance(user.getId());
+            if (balance != null) {
+                user.setBalance(balance);
+            }
+        }
+        return user;
+    }
+}
@@ -0,0 +1,155 @@
+package ua.epam.horseraceapp.util.metrics;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with fixed buckets.
+ * <p>
+ * Recording takes no locks, so histogram can be updated on every request.
+ * Buckets are the same for all histograms: from half a millisecond to ten
+ * seconds.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class LatencyHistogram {
+
+    /**
+     * Upper bounds of buckets in seconds.
+     */
+    private static final double[] BUCKET_BOUNDS = {0.0005, 0.001, 0.0025, 0.005,
+        0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    /**
+     * Upper bounds of buckets in nanoseconds.
+     */
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = (long) (BUCKET_BOUNDS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Number of durations in each bucket; last one is for durations longer
+     * than all bounds.
+     */
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    /**
+     * Sum of all durations in nanoseconds.
+     */
+    private final LongAdder sumNanos = new LongAdder();
+    /**
+     * Longest duration in nanoseconds.
+     */
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records duration.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+        while ((bucket < BUCKET_BOUNDS_NANOS.length) && (nanos > BUCKET_BOUNDS_NANOS[bucket])) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Get number of recorded durations.
+     *
+     * @return number of recorded durations
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Get longest recorded duration.
+     *
+     * @return duration in seconds, 0 if nothing was recorded
+     */
+    public double getMax() {
+        return maxNanos.get() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Estimates quantile of recorded durations.
+     * <p>
+     * Quantile is interpolated inside the bucket it falls into, so it is as
+     * precise as buckets are. Quantile that falls beyond the last bound is
+     * the longest recorded duration.
+     * </p>
+     *
+     * @param quantile quantile from 0 to 1
+     * @return duration in seconds, 0 if nothing was recorded
+     */
+    public double getQuantile(double quantile) {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        double rank = quantile * count;
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if ((counts[i] > 0) && (cumulative + counts[i] >= rank)) {
+                double lower = (i == 0) ? 0 : BUCKET_BOUNDS[i - 1];
+                double estimate = lower + (BUCKET_BOUNDS[i] - lower) * (rank - cumulative) / counts[i];
+                return Math.min(estimate, getMax());
+            }
+            cumulative += counts[i];
+        }
+        return getMax();
+    }
+
+    /**
+     * Writes histogram in Prometheus text format.
+     * <p>
+     * Durations are written in seconds. Type line is not written, so the
+     * same metric can be written for several label sets.
+     * </p>
+     *
+     * @param writer writer to write histogram to
+     * @param name metric name
+     * @param labels labels in Prometheus format without braces, for example
+     * <code>site="UserDao.findUser"</code>; may be empty
+     */
+    public void writeTo(PrintWriter writer, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            writer.println(name + "_bucket{" + prefix + "le=\"" + BUCKET_BOUNDS[i] + "\"} " + cumulative);
+        }
+        cumulative += buckets[BUCKET_BOUNDS.length].sum();
+        writer.println(name + "_bucket{" + prefix + "le=\"+Inf\"} " + cumulative);
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        writer.println(name + "_sum" + suffix + " " + sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1));
+        writer.println(name + "_count" + suffix + " " + cumulative);
+    }
+}
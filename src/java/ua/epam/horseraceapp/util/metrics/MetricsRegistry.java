@@ -0,0 +1,82 @@
+package ua.epam.horseraceapp.util.metrics;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of all metrics sources of application.
+ * <p>
+ * Several sources may write the same metric family, for example one
+ * connection manager per pool. Prometheus accepts only one
+ * <code># TYPE</code> line per family and needs all its samples together,
+ * so output of sources is grouped by family.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public final class MetricsRegistry {
+
+    /**
+     * Registered metrics sources.
+     */
+    private static final List<MetricsSource> SOURCES = new CopyOnWriteArrayList<>();
+    /**
+     * Beginning of line that declares type of metric family.
+     */
+    private static final String TYPE_PREFIX = "# TYPE ";
+
+    /**
+     * Registry has only static methods.
+     */
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Registers metrics source.
+     *
+     * @param source metrics source
+     */
+    public static void register(MetricsSource source) {
+        SOURCES.add(source);
+    }
+
+    /**
+     * Writes metrics of all registered sources in Prometheus text format.
+     * <p>
+     * Samples of each family are written together after the first type line
+     * of that family; type lines that sources repeat are dropped.
+     * </p>
+     *
+     * @param writer writer to write metrics to
+     */
+    public static void writeAll(PrintWriter writer) {
+        Map<String, StringBuilder> families = new LinkedHashMap<>();
+        for (MetricsSource source : SOURCES) {
+            StringWriter output = new StringWriter();
+            source.writeMetrics(new PrintWriter(output));
+
+            String family = "";
+            for (String line : output.toString().split("\r?\n")) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.startsWith(TYPE_PREFIX)) {
+                    int end = line.indexOf(' ', TYPE_PREFIX.length());
+                    family = line.substring(TYPE_PREFIX.length(), (end < 0) ? line.length() : end);
+                    if (!families.containsKey(family)) {
+                        families.put(family, new StringBuilder(line).append('\n'));
+                    }
+                    continue;
+                }
+                families.computeIfAbsent(family, name -> new StringBuilder()).append(line).append('\n');
+            }
+        }
+        for (StringBuilder family : families.values()) {
+            writer.print(family);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ua.epam.horseraceapp.util.metrics;
+
+import java.io.PrintWriter;
+
+/**
+ * Source of metrics that are exposed by monitoring endpoint.
+ *
+ * @see MetricsRegistry
+ * @author Koroid Daniil
+ */
+public interface MetricsSource {
+
+    /**
+     * Writes current values of metrics in Prometheus text format.
+     *
+     * @param writer writer to write metrics to
+     */
+    void writeMetrics(PrintWriter writer);
+}
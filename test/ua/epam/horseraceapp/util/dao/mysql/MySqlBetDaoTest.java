@@ -0,0 +1,288 @@
+package ua.epam.horseraceapp.util.dao.mysql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ua.epam.horseraceapp.util.connection.H2ConnectionManager;
+import ua.epam.horseraceapp.util.dao.BetDao;
+import ua.epam.horseraceapp.util.dao.BetPlacementResult;
+import ua.epam.horseraceapp.util.dao.entity.Bet;
+import ua.epam.horseraceapp.util.dao.entity.User;
+import ua.epam.horseraceapp.util.dao.entity.UserType;
+import ua.epam.horseraceapp.util.dao.h2.H2DaoFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that bet listings of {@link MySqlBetDao} read bet owners by the same
+ * query as bets, joined with <code>user</code> and <code>user_type</code>,
+ * instead of one more query per bet.
+ * <p>
+ * Runs against in-memory H2 database, so H2 driver must be on test
+ * classpath. Statements are counted on every connection that DAO gets.
+ * </p>
+ *
+ * @author Koroid Daniil
+ */
+public class MySqlBetDaoTest {
+
+    /**
+     * Number of bettors.
+     */
+    private static final int USERS = 3;
+    /**
+     * Number of bets of every bettor.
+     */
+    private static final int BETS_PER_USER = 4;
+    /**
+     * Balance of every bettor.
+     */
+    private static final int BALANCE = 1000;
+
+    /**
+     * Query that is used to insert horse.
+     */
+    private final String INSERT_HORSE_QUERY = "INSERT INTO horse (name) VALUES ('Horse')";
+
+    /**
+     * Query that is used to insert race that starts in a day.
+     */
+    private final String INSERT_RACE_QUERY = "INSERT INTO race (start_time, place, distance) "
+            + "VALUES (?, 'Kyiv', 2000)";
+
+    /**
+     * Query that is used to insert horse of last race.
+     */
+    private final String INSERT_CONTESTANT_HORSE_QUERY = "INSERT INTO contestant_horse "
+            + "(race_id, horse_id, coefficient) SELECT MAX(race.id), MAX(horse.id), 2.5 "
+            + "FROM race, horse";
+
+    /**
+     * Query that is used to insert bettor.
+     */
+    private final String INSERT_USER_QUERY = "INSERT INTO user (first_name, last_name, "
+            + "email, password, balance, type_id) SELECT ?, ?, ?, 'password', ?, id "
+            + "FROM user_type WHERE user_type = ?";
+
+    /**
+     * Counts statements created on connections of H2 database.
+     */
+    private static class CountingConnectionManager extends H2ConnectionManager {
+
+        /**
+         * Number of created statements.
+         */
+        private final AtomicInteger statements = new AtomicInteger();
+
+        /**
+         * Creates connection manager of H2 database with given URL.
+         *
+         * @param url URL of database
+         */
+        CountingConnectionManager(String url) {
+            super(url);
+        }
+
+        @Override
+        protected Connection openConnection() {
+            final Connection connection = super.openConnection();
+            if (connection == null) {
+                return null;
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new InvocationHandler() {
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if (name.equals("createStatement") || name.equals("prepareStatement")
+                            || name.equals("prepareCall")) {
+                        statements.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Get number of statements created since last call and starts
+         * counting again.
+         *
+         * @return number of created statements
+         */
+        int takeStatementCount() {
+            return statements.getAndSet(0);
+        }
+    }
+
+    /**
+     * Connection manager of test database.
+     */
+    private CountingConnectionManager connectionManager;
+    /**
+     * Factory of DAO of test database.
+     */
+    private H2DaoFactory factory;
+    /**
+     * Tested DAO.
+     */
+    private BetDao betDao;
+    /**
+     * Identificator of first bettor.
+     */
+    private Integer userId;
+
+    /**
+     * Creates database with race and bets of several bettors.
+     *
+     * @throws SQLException if database can't be filled
+     */
+    @Before
+    public void setUp() throws SQLException {
+        connectionManager = new CountingConnectionManager("jdbc:h2:mem:bet-dao-test;MODE=MySQL;"
+                + "DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER");
+        factory = new H2DaoFactory(connectionManager);
+        factory.initialize();
+        betDao = factory.createBetDao();
+
+        Integer contestantHorseId;
+        try (Connection connection = connectionManager.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(INSERT_HORSE_QUERY);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_RACE_QUERY)) {
+                statement.setTimestamp(1, new Timestamp(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+                statement.executeUpdate();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(INSERT_CONTESTANT_HORSE_QUERY, Statement.RETURN_GENERATED_KEYS);
+                contestantHorseId = readGeneratedId(statement);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_USER_QUERY,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 1; i <= USERS; i++) {
+                    statement.setString(1, "First" + i);
+                    statement.setString(2, "Last" + i);
+                    statement.setString(3, "user" + i + "@test.ua");
+                    statement.setInt(4, BALANCE);
+                    statement.setString(5, UserType.USER.name());
+                    statement.executeUpdate();
+                    if (userId == null) {
+                        userId = readGeneratedId(statement);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < USERS; i++) {
+            for (int j = 0; j < BETS_PER_USER; j++) {
+                assertEquals(BetPlacementResult.SUCCESS, betDao.placeBet(userId + i, 10, contestantHorseId));
+            }
+        }
+        connectionManager.takeStatementCount();
+    }
+
+    /**
+     * Closes and drops test database.
+     *
+     * @throws SQLException if database can't be dropped
+     */
+    @After
+    public void tearDown() throws SQLException {
+        try (Connection connection = connectionManager.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        factory.close();
+    }
+
+    /**
+     * Reads identificator of row inserted by given statement.
+     *
+     * @param statement executed statement
+     * @return identificator of inserted row
+     * @throws SQLException if identificator can't be read
+     */
+    private Integer readGeneratedId(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.getGeneratedKeys()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    public void findUnviewedBetsUsesOneQuery() {
+        List<Bet> bets = betDao.findUnviewedBets();
+
+        assertEquals(1, connectionManager.takeStatementCount());
+        assertEquals(USERS * BETS_PER_USER, bets.size());
+        assertOwnersRead(bets);
+    }
+
+    @Test
+    public void findUnviewedBetsPageUsesOneQuery() {
+        List<Bet> bets = betDao.findUnviewedBets(0, USERS * BETS_PER_USER);
+
+        assertEquals(1, connectionManager.takeStatementCount());
+        assertEquals(USERS * BETS_PER_USER, bets.size());
+        assertOwnersRead(bets);
+    }
+
+    @Test
+    public void findUserBetsUsesOneQuery() {
+        List<Bet> bets = betDao.findUserBets(userId);
+
+        assertEquals(1, connectionManager.takeStatementCount());
+        assertEquals(BETS_PER_USER, bets.size());
+        assertOwnersRead(bets);
+    }
+
+    @Test
+    public void findUserBetsPageUsesOneQuery() {
+        List<Bet> bets = betDao.findUserBets(userId, null, BETS_PER_USER);
+
+        assertEquals(1, connectionManager.takeStatementCount());
+        assertEquals(BETS_PER_USER, bets.size());
+        assertOwnersRead(bets);
+    }
+
+    /**
+     * Checks that every bet has its owner read from database and that bets
+     * of one owner share one user.
+     *
+     * @param bets bets to check
+     */
+    private void assertOwnersRead(List<Bet> bets) {
+        for (Bet bet : bets) {
+            User owner = bet.getOwner();
+            int number = owner.getId() - userId + 1;
+            assertEquals("First" + number, owner.getFirstName());
+            assertEquals("Last" + number, owner.getLastName());
+            assertEquals("user" + number + "@test.ua", owner.getEmail());
+            assertEquals(UserType.USER, owner.getType());
+            for (Bet other : bets) {
+                if (other.getOwner().getId().equals(owner.getId())) {
+                    assertSame(owner, other.getOwner());
+                }
+            }
+        }
+    }
+}
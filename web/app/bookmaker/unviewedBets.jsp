@@ -24,11 +24,30 @@
         <c:if test="${not empty message}">
             <h3 style="text-align: center; color:red;"><fmt:message key="${message}"/></h3>
 	</c:if>
+
+        <c:if test="${not empty bet_outcomes}">
+            <table align="center">
+                <c:forEach items="${bet_outcomes}" var="outcome">
+                    <tr>
+                        <td>${outcome.key}</td>
+                        <c:choose>
+                            <c:when test="${outcome.value}">
+                                <td><fmt:message key="message.bet.processed"/></td>
+                            </c:when>
+                            <c:otherwise>
+                                <td style="color:red;"><fmt:message key="error.bet.not.processed"/></td>
+                            </c:otherwise>
+                        </c:choose>
+                    </tr>
+                </c:forEach>
+            </table>
+        </c:if>
             
         <c:choose>
             <c:when test="${not empty unviewed_bets}">
                 <table width="100%">
                     <tr>
+                        <td></td>
                         <td><fmt:message key="table.header.bet.state" /></td>
                         <td><fmt:message key="table.header.bet.owner.first.name" /></td>
                         <td><fmt:message key="table.header.bet.owner.last.name" /></td>
@@ -44,6 +63,7 @@
                     </tr>
                     <c:forEach items="${unviewed_bets}" var="bet">
                         <tr>
+                            <td><input type="checkbox" name="bet_id" value="${bet.id}" form="batchForm"></td>
                             <td><fmt:message key="bet.state.${bet.state.toBundleString()}" /></td>
                             <td>${bet.owner.firstName}</td>
                             <td>${bet.owner.lastName}</td>
@@ -97,11 +117,32 @@
                         </tr>
                     </c:forEach>
                 </table>
+                <form id="batchForm" action="${pageContext.request.contextPath}/HorseraceAppController" method="post" align="center">
+                    <button type="submit" name="command" value="accept_bets"><fmt:message key="message.accept.selected.bets"/></button>
+                    <button type="submit" name="command" value="decline_bets"><fmt:message key="message.decline.selected.bets"/></button>
+                    <button type="submit" name="command" value="settle_bets"><fmt:message key="message.result.selected.bets"/></button>
+                    <button type="submit" name="command" value="pay_bets"><fmt:message key="message.pay.selected.bets"/></button>
+                </form>
             </c:when>
             <c:otherwise>
                 <fmt:message key="message.no.unviewed.bets"/>
             </c:otherwise>
         </c:choose>
+        <div align="center">
+            <c:if test="${not empty param.after_id}">
+                <form action="${pageContext.request.contextPath}/HorseraceAppController" method="post" style="display: inline">
+                    <input type="hidden" name="command" value="unviewed_bets">
+                    <button type="submit"><fmt:message key="message.first.page"/></button>
+                </form>
+            </c:if>
+            <c:if test="${not empty next_after_id}">
+                <form action="${pageContext.request.contextPath}/HorseraceAppController" method="post" style="display: inline">
+                    <input type="hidden" name="command" value="unviewed_bets">
+                    <input type="hidden" name="after_id" value="${next_after_id}">
+                    <button type="submit"><fmt:message key="message.next.page"/></button>
+                </form>
+            </c:if>
+        </div>
 
         <br>
         <%@include file="//footer.jsp" %>
@@ -48,6 +48,21 @@
                 <h3 style="align: center"><fmt:message key="message.you.have.no.bets" /></h3>
             </c:otherwise>
         </c:choose>
+        <div align="center">
+            <c:if test="${not empty param.after_id}">
+                <form action="${pageContext.request.contextPath}/HorseraceAppController" method="post" style="display: inline">
+                    <input type="hidden" name="command" value="get_user_bets">
+                    <button type="submit"><fmt:message key="message.first.page"/></button>
+                </form>
+            </c:if>
+            <c:if test="${not empty next_after_id}">
+                <form action="${pageContext.request.contextPath}/HorseraceAppController" method="post" style="display: inline">
+                    <input type="hidden" name="command" value="get_user_bets">
+                    <input type="hidden" name="after_id" value="${next_after_id}">
+                    <button type="submit"><fmt:message key="message.next.page"/></button>
+                </form>
+            </c:if>
+        </div>
         <%@include file="/footer.jsp" %>
     </body>
 </html>